@@ -0,0 +1,240 @@
+package org.springframework.roo.addon.backup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.roo.addon.backup.ZipArchiveWriter.DeflatedEntry;
+import org.springframework.roo.support.util.FileUtils;
+
+/**
+ * Archives the files of a project into a zip file, compressing them on all
+ * available processors and streaming the archive straight to disk.
+ * <p>
+ * The build output ("target"), existing backups, hidden files and anything
+ * matched by the project's <code>.gitignore</code> are left out. An
+ * incremental archive only contains the files modified since a given time,
+ * plus a {@link #FILE_LIST} entry naming every file of the project at the
+ * time of the backup; a file deleted since the previous backup is the one
+ * missing from that list, and should be deleted when restoring.
+ *
+ * @since 2.0.1
+ */
+class BackupArchiver {
+
+  /**
+   * A file or empty directory to archive
+   */
+  private static class Item {
+
+    private final File file;
+    private final String name;
+
+    Item(final File file, final String name) {
+      this.file = file;
+      this.name = name;
+    }
+  }
+
+  /**
+   * The name of the entry listing the files of the project, one per line, in
+   * an incremental archive; hidden, so that it can't clash with an archived
+   * file
+   */
+  static final String FILE_LIST = ".roo-backup-files";
+
+  /**
+   * Files at least this large are deflated while being written, rather than
+   * being held in memory once deflated
+   */
+  private static final long LARGE_FILE = 8 * 1024 * 1024;
+
+  private final File base;
+  private final List<String> ignorePatterns = new ArrayList<String>();
+  private final long modifiedSince;
+
+  /**
+   * Constructor
+   *
+   * @param base the project directory to archive (required)
+   * @param modifiedSince only archive files modified after this time; 0 for
+   *            all files
+   * @throws IOException if the project's <code>.gitignore</code> can't be
+   *             read
+   */
+  BackupArchiver(final File base, final long modifiedSince) throws IOException {
+    this.base = base;
+    this.modifiedSince = modifiedSince;
+    final File gitIgnore = new File(base, ".gitignore");
+    if (gitIgnore.isFile()) {
+      for (String line : org.apache.commons.io.FileUtils.readLines(gitIgnore, "UTF-8")) {
+        line = StringUtils.stripEnd(line, null);
+        // Negated patterns aren't supported; excluding more is harmless
+        if (StringUtils.isNotBlank(line) && !line.startsWith("#") && !line.startsWith("!")) {
+          ignorePatterns.add(line);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the archive
+   *
+   * @param archive the zip file to create (required)
+   * @return the number of files archived
+   * @throws IOException if the archive can't be written
+   */
+  int archive(final File archive) throws IOException {
+    final List<Item> items = new ArrayList<Item>();
+    final StringBuilder fileList = new StringBuilder();
+    collect(base, items, fileList);
+
+    final int threads = Runtime.getRuntime().availableProcessors();
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final ZipArchiveWriter writer = new ZipArchiveWriter(archive);
+    int files = 0;
+    boolean written = false;
+    try {
+      // Entries are deflated ahead of being written, at most a few per
+      // thread at a time so that memory use stays bounded
+      final LinkedList<Future<DeflatedEntry>> pending = new LinkedList<Future<DeflatedEntry>>();
+      final LinkedList<Item> pendingItems = new LinkedList<Item>();
+      int next = 0;
+      while (next < items.size() || !pendingItems.isEmpty()) {
+        while (next < items.size() && pendingItems.size() < threads * 4) {
+          final Item item = items.get(next++);
+          pendingItems.add(item);
+          pending.add(isDeflatedAhead(item) ? executor.submit(deflate(item)) : null);
+        }
+        final Item item = pendingItems.removeFirst();
+        final Future<DeflatedEntry> deflated = pending.removeFirst();
+        if (item.file.isDirectory()) {
+          writer.writeDirectory(item.name, item.file.lastModified());
+        } else if (deflated == null) {
+          writer.write(item.file, item.name);
+          files++;
+        } else {
+          writer.write(get(deflated));
+          files++;
+        }
+      }
+      if (modifiedSince > 0) {
+        writer.write(ZipArchiveWriter.deflate(fileList.toString().getBytes("UTF-8"), FILE_LIST,
+            System.currentTimeMillis()));
+      }
+      written = true;
+    } finally {
+      executor.shutdownNow();
+      if (written) {
+        writer.close();
+      } else {
+        // Don't hide the reason the archive couldn't be written
+        IOUtils.closeQuietly(writer);
+      }
+    }
+    return files;
+  }
+
+  private void collect(final File directory, final List<Item> items, final StringBuilder fileList) {
+    final File[] children = directory.listFiles();
+    if (children == null) {
+      return;
+    }
+    // Archive in a stable order
+    Arrays.sort(children);
+    for (final File child : children) {
+      final String name = child.getPath().substring(base.getPath().length() + 1)
+          .replace(File.separatorChar, '/');
+      if (isExcluded(child, name)) {
+        continue;
+      }
+      if (child.isDirectory()) {
+        final String[] grandChildren = child.list();
+        if (grandChildren != null && grandChildren.length == 0 && modifiedSince == 0) {
+          items.add(new Item(child, name + "/"));
+        }
+        collect(child, items, fileList);
+      } else {
+        fileList.append(name).append('\n');
+        if (child.lastModified() > modifiedSince) {
+          items.add(new Item(child, name));
+        }
+      }
+    }
+  }
+
+  private Callable<DeflatedEntry> deflate(final Item item) {
+    return new Callable<DeflatedEntry>() {
+      public DeflatedEntry call() throws IOException {
+        return ZipArchiveWriter.deflate(item.file, item.name);
+      }
+    };
+  }
+
+  private DeflatedEntry get(final Future<DeflatedEntry> deflated) throws IOException {
+    try {
+      return deflated.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Backup interrupted", e);
+    } catch (final ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private boolean isDeflatedAhead(final Item item) {
+    return item.file.isFile() && item.file.length() < LARGE_FILE;
+  }
+
+  private boolean isExcluded(final File file, final String name) {
+    final boolean topLevel = name.indexOf('/') < 0;
+    // Skip hidden files, the build output and existing backup files
+    if (file.getName().startsWith(".") || topLevel && name.equals("target") || topLevel
+        && name.endsWith(".zip")) {
+      return true;
+    }
+    for (final String pattern : ignorePatterns) {
+      if (isIgnored(pattern, file, name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Indicates whether the given .gitignore pattern matches the given file
+   *
+   * @param pattern the pattern (required)
+   * @param file the file
+   * @param name the path of the file relative to the project, separated by
+   *            "/"
+   * @return see above
+   */
+  private boolean isIgnored(String pattern, final File file, final String name) {
+    if (pattern.endsWith("/")) {
+      if (!file.isDirectory()) {
+        return false;
+      }
+      pattern = StringUtils.stripEnd(pattern, "/");
+    }
+    if (pattern.contains("/")) {
+      // Relative to the project directory
+      return FileUtils.matchesAntPath("/" + StringUtils.removeStart(pattern, "/"), "/" + name);
+    }
+    // Matches at any depth
+    return FileUtils.matchesAntPath(pattern, file.getName());
+  }
+}
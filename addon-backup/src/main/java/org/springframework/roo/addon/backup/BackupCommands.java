@@ -5,6 +5,7 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
 import org.springframework.roo.shell.CliAvailabilityIndicator;
 import org.springframework.roo.shell.CliCommand;
+import org.springframework.roo.shell.CliOption;
 import org.springframework.roo.shell.CommandMarker;
 
 /**
@@ -22,8 +23,13 @@ public class BackupCommands implements CommandMarker {
 
   @CliCommand(value = "backup",
       help = "Backups your project to a zip file located in root directory.")
-  public String backup() {
-    return backupOperations.backup();
+  public String backup(
+      @CliOption(key = "incremental", mandatory = false, unspecifiedDefaultValue = "false",
+          specifiedDefaultValue = "true",
+          help = "Whether to only archive the files changed since the most recent backup, "
+              + "along with the list of the project's files so that deletions can be restored. "
+              + "Default if option present: `true`; default if option not present: `false`.") final boolean incremental) {
+    return backupOperations.backup(incremental);
   }
 
   @CliAvailabilityIndicator("backup")
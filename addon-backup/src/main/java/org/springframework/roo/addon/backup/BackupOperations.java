@@ -10,5 +10,15 @@ public interface BackupOperations {
 
   String backup();
 
+  /**
+   * Backs up the focused project
+   * 
+   * @param incremental whether to only archive the files modified since the
+   *            most recent backup
+   * @return a message describing the outcome
+   * @since 2.0.1
+   */
+  String backup(boolean incremental);
+
   boolean isBackupPossible();
 }
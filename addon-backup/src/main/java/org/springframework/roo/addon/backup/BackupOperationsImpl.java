@@ -1,25 +1,17 @@
 package org.springframework.roo.addon.backup;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.logging.Logger;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.Validate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
-import org.springframework.roo.process.manager.FileManager;
-import org.springframework.roo.process.manager.MutableFile;
 import org.springframework.roo.project.Path;
 import org.springframework.roo.project.ProjectOperations;
 import org.springframework.roo.support.logging.HandlerUtils;
@@ -50,11 +42,15 @@ public class BackupOperationsImpl implements BackupOperations {
   }
 
   private static final Logger LOGGER = HandlerUtils.getLogger(BackupOperationsImpl.class);
+  private static final String INCREMENTAL_SUFFIX = "_incremental";
 
-  private FileManager fileManager;
   private ProjectOperations projectOperations;
 
   public String backup() {
+    return backup(false);
+  }
+
+  public String backup(final boolean incremental) {
     Validate.isTrue(isBackupPossible(), "Project metadata unavailable");
 
     // For Windows, make a date format that can legally form part of a
@@ -64,95 +60,75 @@ public class BackupOperationsImpl implements BackupOperations {
     final DateFormat df = new SimpleDateFormat(pattern);
     final long start = System.nanoTime();
 
-    ZipOutputStream zos = null;
+    final File projectDirectory =
+        new File(FileUtils.getCanonicalPath(new File(getProjectOperations().getPathResolver()
+            .getFocusedIdentifier(Path.ROOT, "."))));
+    final String projectName = getProjectOperations().getFocusedProjectName();
+    long modifiedSince = 0;
+    if (incremental) {
+      final File previousBackup = getLatestBackup(projectDirectory, projectName);
+      Validate.validState(previousBackup != null,
+          "No previous backup found; an incremental backup needs one to compare against");
+      modifiedSince = previousBackup.lastModified();
+    }
+
+    final File archive =
+        new File(projectDirectory, projectName + "_" + df.format(new Date())
+            + (incremental ? INCREMENTAL_SUFFIX : "") + ".zip");
+    // The archive is streamed to disk under a hidden name, so that a failed
+    // backup doesn't leave a truncated archive behind
+    final File partialArchive = new File(projectDirectory, "." + archive.getName() + ".part");
+    final long startTime = System.currentTimeMillis();
+    int files = 0;
     try {
-      final File projectDirectory =
-          new File(getProjectOperations().getPathResolver().getFocusedIdentifier(Path.ROOT, "."));
-      final MutableFile file =
-          getFileManager().createFile(
-              FileUtils.getCanonicalPath(new File(projectDirectory, getProjectOperations()
-                  .getFocusedProjectName() + "_" + df.format(new Date()) + ".zip")));
-      zos = new ZipOutputStream(file.getOutputStream());
-      zip(projectDirectory, projectDirectory, zos);
-    } catch (final FileNotFoundException e) {
-      LOGGER.fine("Could not determine project directory");
+      files = new BackupArchiver(projectDirectory, modifiedSince).archive(partialArchive);
+      if (!partialArchive.renameTo(archive)) {
+        throw new IOException("Could not rename " + partialArchive + " to " + archive);
+      }
+      // Files changed while this backup was being written will be in the
+      // next incremental backup
+      archive.setLastModified(startTime);
     } catch (final IOException e) {
       LOGGER.fine("Could not create backup archive");
+      return "Backup failed: " + e.getMessage();
     } finally {
-      IOUtils.closeQuietly(zos);
+      partialArchive.delete();
     }
 
     final long milliseconds = (System.nanoTime() - start) / 1000000;
+    if (incremental) {
+      return "Incremental backup of " + files + " changed files completed in " + milliseconds
+          + " ms";
+    }
     return "Backup completed in " + milliseconds + " ms";
   }
 
-  public boolean isBackupPossible() {
-    return getProjectOperations().isFocusedProjectAvailable();
-  }
-
-  private void zip(final File directory, final File base, final ZipOutputStream zos)
-      throws IOException {
-    final File[] files = directory.listFiles(new FilenameFilter() {
+  /**
+   * Returns the most recent backup of the given project
+   * 
+   * @param projectDirectory the project's root directory
+   * @param projectName the project's name
+   * @return <code>null</code> if there are none
+   */
+  private File getLatestBackup(final File projectDirectory, final String projectName) {
+    final File[] backups = projectDirectory.listFiles(new FilenameFilter() {
       public boolean accept(final File dir, final String name) {
-        // Don't use this directory if it's "target" under base
-        if (dir.equals(base) && name.equals("target")) {
-          return false;
-        }
-
-        // Skip existing backup files
-        if (dir.equals(base) && name.endsWith(".zip")) {
-          return false;
-        }
-
-        // Skip files that start with "."
-        return !name.startsWith(".");
+        return name.startsWith(projectName + "_") && name.endsWith(".zip");
       }
     });
-
-    for (final File file : files) {
-      if (file.isDirectory()) {
-        if (file.listFiles().length == 0) {
-          final ZipEntry dirEntry =
-              new ZipEntry(file.getPath().substring(base.getPath().length() + 1)
-                  + File.separatorChar);
-          zos.putNextEntry(dirEntry);
-        }
-        zip(file, base, zos);
-      } else {
-        InputStream inputStream = null;
-        try {
-          final ZipEntry entry =
-              new ZipEntry(file.getPath().substring(base.getPath().length() + 1));
-          zos.putNextEntry(entry);
-
-          inputStream = new FileInputStream(file);
-          IOUtils.write(IOUtils.toByteArray(inputStream), zos);
-        } finally {
-          IOUtils.closeQuietly(inputStream);
+    File latestBackup = null;
+    if (backups != null) {
+      for (final File backup : backups) {
+        if (latestBackup == null || backup.lastModified() > latestBackup.lastModified()) {
+          latestBackup = backup;
         }
       }
     }
+    return latestBackup;
   }
 
-  public FileManager getFileManager() {
-    if (fileManager == null) {
-      // Get all Services implement FileManager interface
-      try {
-        ServiceReference<?>[] references =
-            context.getAllServiceReferences(FileManager.class.getName(), null);
-
-        for (ServiceReference<?> ref : references) {
-          fileManager = (FileManager) context.getService(ref);
-          return fileManager;
-        }
-        return null;
-      } catch (InvalidSyntaxException e) {
-        LOGGER.warning("Cannot load FileManager on BackupOperationsImpl.");
-        return null;
-      }
-    } else {
-      return fileManager;
-    }
+  public boolean isBackupPossible() {
+    return getProjectOperations().isFocusedProjectAvailable();
   }
 
   public ProjectOperations getProjectOperations() {
@@ -0,0 +1,325 @@
+package org.springframework.roo.addon.backup;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Writes a zip archive straight to disk, accepting entries whose contents
+ * have already been deflated (so that they can be compressed in parallel and
+ * appended in order) as well as entries streamed from a file.
+ * <p>
+ * {@link java.util.zip.ZipOutputStream} can't be used for this as it always
+ * compresses the entries itself. Archives are limited to the classic zip
+ * format (no Zip64), which is ample for a project backup.
+ *
+ * @since 2.0.1
+ */
+class ZipArchiveWriter implements Closeable {
+
+  /**
+   * The contents of an entry, deflated ahead of being written
+   */
+  static class DeflatedEntry {
+
+    private final long crc;
+    private final byte[] deflated;
+    private final String name;
+    private final long size;
+    private final long time;
+
+    DeflatedEntry(final String name, final long time, final long size, final long crc,
+        final byte[] deflated) {
+      this.name = name;
+      this.time = time;
+      this.size = size;
+      this.crc = crc;
+      this.deflated = deflated;
+    }
+  }
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+  private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int FLAG_DATA_DESCRIPTOR = 0x0008;
+  private static final int FLAG_UTF8 = 0x0800;
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final long MAX_ENTRIES = 0xFFFF;
+  private static final long MAX_SIZE = 0xFFFFFFFFL;
+  private static final int METHOD_DEFLATED = 8;
+  private static final int METHOD_STORED = 0;
+  private static final int VERSION = 20;
+
+  /**
+   * Deflates the given file in memory, for writing later with
+   * {@link #write(DeflatedEntry)}
+   *
+   * @param file the file to deflate (required)
+   * @param name the name of its entry in the archive (required)
+   * @return a non-<code>null</code> entry
+   * @throws IOException if the file can't be read
+   */
+  static DeflatedEntry deflate(final File file, final String name) throws IOException {
+    InputStream inputStream = null;
+    try {
+      inputStream = new FileInputStream(file);
+      return deflate(inputStream, name, file.lastModified(), file.length());
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+  }
+
+  /**
+   * Deflates the given contents, for writing later with
+   * {@link #write(DeflatedEntry)}
+   *
+   * @param contents the contents of the entry (required)
+   * @param name the name of the entry in the archive (required)
+   * @param time the modification time of the entry
+   * @return a non-<code>null</code> entry
+   */
+  static DeflatedEntry deflate(final byte[] contents, final String name, final long time)
+      throws IOException {
+    return deflate(new ByteArrayInputStream(contents), name, time, contents.length);
+  }
+
+  private static DeflatedEntry deflate(final InputStream inputStream, final String name,
+      final long time, final long expectedSize) throws IOException {
+    final CRC32 crc = new CRC32();
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    final ByteArrayOutputStream deflated =
+        new ByteArrayOutputStream((int) Math.min(expectedSize / 2 + 64, Integer.MAX_VALUE));
+    final byte[] buffer = new byte[8192];
+    final byte[] output = new byte[8192];
+    long size = 0;
+    try {
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        crc.update(buffer, 0, read);
+        size += read;
+        deflater.setInput(buffer, 0, read);
+        while (!deflater.needsInput()) {
+          deflated.write(output, 0, deflater.deflate(output));
+        }
+      }
+      deflater.finish();
+      while (!deflater.finished()) {
+        deflated.write(output, 0, deflater.deflate(output));
+      }
+    } finally {
+      deflater.end();
+    }
+    return new DeflatedEntry(name, time, size, crc.getValue(), deflated.toByteArray());
+  }
+
+  private static long toDosTime(final long time) {
+    final Calendar calendar = Calendar.getInstance();
+    calendar.setTimeInMillis(time);
+    final int year = calendar.get(Calendar.YEAR);
+    if (year < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return (year - 1980) << 25 | (calendar.get(Calendar.MONTH) + 1) << 21
+        | calendar.get(Calendar.DAY_OF_MONTH) << 16 | calendar.get(Calendar.HOUR_OF_DAY) << 11
+        | calendar.get(Calendar.MINUTE) << 5 | calendar.get(Calendar.SECOND) >> 1;
+  }
+
+  private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+  private int entries;
+  private long offset;
+  private final OutputStream outputStream;
+
+  /**
+   * Constructor
+   *
+   * @param file the archive to create (required)
+   * @throws IOException if it can't be created
+   */
+  ZipArchiveWriter(final File file) throws IOException {
+    outputStream = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+  }
+
+  private void addToCentralDirectory(final String name, final int flags, final int method,
+      final long time, final long crc, final long compressedSize, final long size,
+      final long localHeaderOffset, final boolean directory) throws IOException {
+    checkLimit(localHeaderOffset);
+    final byte[] nameBytes = name.getBytes(UTF_8);
+    final long dosTime = toDosTime(time);
+    writeInt(centralDirectory, CENTRAL_DIRECTORY_SIGNATURE);
+    writeShort(centralDirectory, VERSION);
+    writeShort(centralDirectory, VERSION);
+    writeShort(centralDirectory, flags);
+    writeShort(centralDirectory, method);
+    writeInt(centralDirectory, dosTime);
+    writeInt(centralDirectory, crc);
+    writeInt(centralDirectory, compressedSize);
+    writeInt(centralDirectory, size);
+    writeShort(centralDirectory, nameBytes.length);
+    writeShort(centralDirectory, 0); // extra field length
+    writeShort(centralDirectory, 0); // comment length
+    writeShort(centralDirectory, 0); // disk number
+    writeShort(centralDirectory, 0); // internal attributes
+    writeInt(centralDirectory, directory ? 0x10 : 0); // external attributes
+    writeInt(centralDirectory, localHeaderOffset);
+    centralDirectory.write(nameBytes);
+    entries++;
+    if (entries > MAX_ENTRIES) {
+      throw new IOException("Too many files for a zip archive");
+    }
+  }
+
+  private void checkLimit(final long value) throws IOException {
+    if (value > MAX_SIZE) {
+      throw new IOException("Project too large for a zip archive");
+    }
+  }
+
+  /**
+   * Writes the central directory and closes the archive
+   */
+  public void close() throws IOException {
+    try {
+      final long centralDirectoryOffset = offset;
+      checkLimit(centralDirectoryOffset);
+      centralDirectory.writeTo(outputStream);
+      writeInt(outputStream, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+      writeShort(outputStream, 0); // this disk
+      writeShort(outputStream, 0); // disk with the central directory
+      writeShort(outputStream, entries);
+      writeShort(outputStream, entries);
+      writeInt(outputStream, centralDirectory.size());
+      writeInt(outputStream, centralDirectoryOffset);
+      writeShort(outputStream, 0); // comment length
+    } finally {
+      outputStream.close();
+    }
+  }
+
+  /**
+   * Writes an entry for an empty directory
+   *
+   * @param name the name of the directory, ending with "/" (required)
+   * @param time the directory's modification time
+   */
+  void writeDirectory(final String name, final long time) throws IOException {
+    final long localHeaderOffset = offset;
+    writeLocalHeader(name, FLAG_UTF8, METHOD_STORED, time, 0, 0, 0);
+    addToCentralDirectory(name, FLAG_UTF8, METHOD_STORED, time, 0, 0, 0, localHeaderOffset, true);
+  }
+
+  /**
+   * Writes the given entry, deflated by {@link #deflate(File, String)}
+   *
+   * @param entry the entry to write (required)
+   */
+  void write(final DeflatedEntry entry) throws IOException {
+    checkLimit(entry.size);
+    final long localHeaderOffset = offset;
+    writeLocalHeader(entry.name, FLAG_UTF8, METHOD_DEFLATED, entry.time, entry.crc,
+        entry.deflated.length, entry.size);
+    outputStream.write(entry.deflated);
+    offset += entry.deflated.length;
+    addToCentralDirectory(entry.name, FLAG_UTF8, METHOD_DEFLATED, entry.time, entry.crc,
+        entry.deflated.length, entry.size, localHeaderOffset, false);
+  }
+
+  /**
+   * Writes the given file, deflating it as it is read rather than in memory;
+   * for files too large to be deflated ahead of time
+   *
+   * @param file the file to write (required)
+   * @param name the name of its entry in the archive (required)
+   */
+  void write(final File file, final String name) throws IOException {
+    final int flags = FLAG_UTF8 | FLAG_DATA_DESCRIPTOR;
+    final long time = file.lastModified();
+    final long localHeaderOffset = offset;
+    writeLocalHeader(name, flags, METHOD_DEFLATED, time, 0, 0, 0);
+
+    final CRC32 crc = new CRC32();
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    final byte[] buffer = new byte[64 * 1024];
+    final byte[] output = new byte[64 * 1024];
+    long size = 0;
+    long compressedSize = 0;
+    InputStream inputStream = null;
+    try {
+      inputStream = new FileInputStream(file);
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        crc.update(buffer, 0, read);
+        size += read;
+        deflater.setInput(buffer, 0, read);
+        while (!deflater.needsInput()) {
+          final int deflated = deflater.deflate(output);
+          outputStream.write(output, 0, deflated);
+          compressedSize += deflated;
+        }
+      }
+      deflater.finish();
+      while (!deflater.finished()) {
+        final int deflated = deflater.deflate(output);
+        outputStream.write(output, 0, deflated);
+        compressedSize += deflated;
+      }
+    } finally {
+      deflater.end();
+      IOUtils.closeQuietly(inputStream);
+    }
+    checkLimit(size);
+    checkLimit(compressedSize);
+    offset += compressedSize;
+
+    writeInt(outputStream, DATA_DESCRIPTOR_SIGNATURE);
+    writeInt(outputStream, crc.getValue());
+    writeInt(outputStream, compressedSize);
+    writeInt(outputStream, size);
+    offset += 16;
+    addToCentralDirectory(name, flags, METHOD_DEFLATED, time, crc.getValue(), compressedSize,
+        size, localHeaderOffset, false);
+  }
+
+  private void writeInt(final OutputStream out, final long value) throws IOException {
+    out.write((int) (value & 0xFF));
+    out.write((int) (value >>> 8 & 0xFF));
+    out.write((int) (value >>> 16 & 0xFF));
+    out.write((int) (value >>> 24 & 0xFF));
+  }
+
+  private void writeLocalHeader(final String name, final int flags, final int method,
+      final long time, final long crc, final long compressedSize, final long size)
+      throws IOException {
+    final byte[] nameBytes = name.getBytes(UTF_8);
+    writeInt(outputStream, LOCAL_HEADER_SIGNATURE);
+    writeShort(outputStream, VERSION);
+    writeShort(outputStream, flags);
+    writeShort(outputStream, method);
+    writeInt(outputStream, toDosTime(time));
+    writeInt(outputStream, crc);
+    writeInt(outputStream, compressedSize);
+    writeInt(outputStream, size);
+    writeShort(outputStream, nameBytes.length);
+    writeShort(outputStream, 0); // extra field length
+    outputStream.write(nameBytes);
+    offset += 30 + nameBytes.length;
+  }
+
+  private void writeShort(final OutputStream out, final int value) throws IOException {
+    out.write(value & 0xFF);
+    out.write(value >>> 8 & 0xFF);
+  }
+}
@@ -0,0 +1,171 @@
+package org.springframework.roo.addon.backup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test of {@link BackupArchiver}
+ *
+ * @since 2.0.1
+ */
+public class BackupArchiverTest {
+
+  private static final long PREVIOUS_BACKUP = System.currentTimeMillis() - 60000;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File archive;
+  private File project;
+
+  private static List<String> getNames(final File archive) throws Exception {
+    final List<String> names = new ArrayList<String>();
+    final ZipFile zipFile = new ZipFile(archive);
+    try {
+      final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements()) {
+        names.add(entries.nextElement().getName());
+      }
+    } finally {
+      zipFile.close();
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  private File write(final String name, final long lastModified) throws Exception {
+    final File file = new File(project, name);
+    FileUtils.writeStringToFile(file, name, "UTF-8");
+    file.setLastModified(lastModified);
+    return file;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    project = folder.newFolder("project");
+    archive = new File(folder.getRoot(), "backup.zip");
+    write("pom.xml", PREVIOUS_BACKUP - 1000);
+    write("src/main/java/Foo.java", PREVIOUS_BACKUP - 1000);
+  }
+
+  @Test
+  public void testFullArchiveContainsEveryFile() throws Exception {
+    // Set up
+    new File(project, "src/test").mkdirs();
+
+    // Invoke
+    final int files = new BackupArchiver(project, 0).archive(archive);
+
+    // Check
+    assertEquals(2, files);
+    assertEquals(Arrays.asList("pom.xml", "src/main/java/Foo.java", "src/test/"),
+        getNames(archive));
+    final ZipFile zipFile = new ZipFile(archive);
+    try {
+      assertEquals("src/main/java/Foo.java",
+          ZipArchiveWriterTest.read(zipFile, "src/main/java/Foo.java"));
+    } finally {
+      zipFile.close();
+    }
+  }
+
+  @Test
+  public void testBuildOutputHiddenFilesAndBackupsAreExcluded() throws Exception {
+    // Set up
+    write("target/classes/Foo.class", PREVIOUS_BACKUP);
+    write(".project", PREVIOUS_BACKUP);
+    write("src/.hidden", PREVIOUS_BACKUP);
+    write("project_2016-01-01.zip", PREVIOUS_BACKUP);
+    write("src/main/resources/data.zip", PREVIOUS_BACKUP);
+
+    // Invoke
+    new BackupArchiver(project, 0).archive(archive);
+
+    // Check
+    assertEquals(Arrays.asList("pom.xml", "src/main/java/Foo.java",
+        "src/main/resources/data.zip"), getNames(archive));
+  }
+
+  @Test
+  public void testGitIgnorePatternsAreExcluded() throws Exception {
+    // Set up
+    FileUtils.writeStringToFile(new File(project, ".gitignore"),
+        "# comment\n*.log\nbuild/\n/docs/secret.txt\n!keep.log\n", "UTF-8");
+    write("server.log", PREVIOUS_BACKUP);
+    write("src/main/debug.log", PREVIOUS_BACKUP);
+    write("build/output.txt", PREVIOUS_BACKUP);
+    write("docs/secret.txt", PREVIOUS_BACKUP);
+    write("docs/readme.txt", PREVIOUS_BACKUP);
+    write("src/docs/secret.txt", PREVIOUS_BACKUP);
+
+    // Invoke
+    new BackupArchiver(project, 0).archive(archive);
+
+    // Check
+    assertEquals(Arrays.asList("docs/readme.txt", "pom.xml", "src/docs/secret.txt",
+        "src/main/java/Foo.java"), getNames(archive));
+  }
+
+  @Test
+  public void testIncrementalArchiveOnlyContainsModifiedFiles() throws Exception {
+    // Set up
+    write("src/main/java/Bar.java", PREVIOUS_BACKUP + 1000);
+    new File(project, "src/test").mkdirs();
+
+    // Invoke
+    final int files = new BackupArchiver(project, PREVIOUS_BACKUP).archive(archive);
+
+    // Check
+    assertEquals(1, files);
+    assertEquals(Arrays.asList(BackupArchiver.FILE_LIST, "src/main/java/Bar.java"),
+        getNames(archive));
+  }
+
+  @Test
+  public void testIncrementalArchiveListsTheRemainingFiles() throws Exception {
+    // Set up
+    new File(project, "src/main/java/Foo.java").delete();
+    write("src/main/java/Bar.java", PREVIOUS_BACKUP + 1000);
+
+    // Invoke
+    new BackupArchiver(project, PREVIOUS_BACKUP).archive(archive);
+
+    // Check
+    final ZipFile zipFile = new ZipFile(archive);
+    try {
+      assertEquals("pom.xml\nsrc/main/java/Bar.java\n",
+          ZipArchiveWriterTest.read(zipFile, BackupArchiver.FILE_LIST));
+    } finally {
+      zipFile.close();
+    }
+  }
+
+  @Test
+  public void testFullArchiveHasNoFileList() throws Exception {
+    // Invoke
+    new BackupArchiver(project, 0).archive(archive);
+
+    // Check
+    final ZipFile zipFile = new ZipFile(archive);
+    try {
+      assertNull(zipFile.getEntry(BackupArchiver.FILE_LIST));
+    } finally {
+      zipFile.close();
+    }
+  }
+}
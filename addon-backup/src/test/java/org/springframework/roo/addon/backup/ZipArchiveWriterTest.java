@@ -0,0 +1,105 @@
+package org.springframework.roo.addon.backup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test of {@link ZipArchiveWriter}
+ *
+ * @since 2.0.1
+ */
+public class ZipArchiveWriterTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File archive;
+  private File file;
+
+  static String read(final ZipFile zipFile, final String name) throws Exception {
+    final ZipEntry entry = zipFile.getEntry(name);
+    assertTrue("No entry " + name, entry != null);
+    final InputStream inputStream = zipFile.getInputStream(entry);
+    try {
+      return IOUtils.toString(inputStream, "UTF-8");
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    archive = new File(folder.getRoot(), "archive.zip");
+    file = folder.newFile("pom.xml");
+    FileUtils.writeStringToFile(file, "<project>\n  <modelVersion>4.0.0</modelVersion>\n</project>",
+        "UTF-8");
+  }
+
+  @Test
+  public void testDeflatedAheadEntryCanBeRead() throws Exception {
+    // Invoke
+    final ZipArchiveWriter writer = new ZipArchiveWriter(archive);
+    writer.write(ZipArchiveWriter.deflate(file, "pom.xml"));
+    writer.close();
+
+    // Check
+    final ZipFile zipFile = new ZipFile(archive);
+    try {
+      assertEquals(1, zipFile.size());
+      assertEquals(FileUtils.readFileToString(file, "UTF-8"), read(zipFile, "pom.xml"));
+      assertEquals(file.length(), zipFile.getEntry("pom.xml").getSize());
+    } finally {
+      zipFile.close();
+    }
+  }
+
+  @Test
+  public void testStreamedEntryCanBeRead() throws Exception {
+    // Invoke
+    final ZipArchiveWriter writer = new ZipArchiveWriter(archive);
+    writer.write(file, "src/pom.xml");
+    writer.close();
+
+    // Check
+    final ZipFile zipFile = new ZipFile(archive);
+    try {
+      assertEquals(FileUtils.readFileToString(file, "UTF-8"), read(zipFile, "src/pom.xml"));
+    } finally {
+      zipFile.close();
+    }
+  }
+
+  @Test
+  public void testEntriesOfEveryKindCanBeMixed() throws Exception {
+    // Invoke
+    final ZipArchiveWriter writer = new ZipArchiveWriter(archive);
+    writer.writeDirectory("empty/", file.lastModified());
+    writer.write(file, "streamed.xml");
+    writer.write(ZipArchiveWriter.deflate("résumé".getBytes("UTF-8"),
+        "résumé.txt", System.currentTimeMillis()));
+    writer.close();
+
+    // Check
+    final ZipFile zipFile = new ZipFile(archive);
+    try {
+      assertEquals(3, zipFile.size());
+      assertTrue(zipFile.getEntry("empty/").isDirectory());
+      assertEquals(FileUtils.readFileToString(file, "UTF-8"), read(zipFile, "streamed.xml"));
+      assertEquals("résumé", read(zipFile, "résumé.txt"));
+    } finally {
+      zipFile.close();
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.springframework.roo.addon.cache;
 
+import static org.springframework.roo.shell.OptionContexts.PROJECT;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
@@ -9,6 +11,7 @@ import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
 import org.springframework.roo.addon.cache.providers.CacheProvider;
+import org.springframework.roo.model.JavaType;
 import org.springframework.roo.shell.CliAvailabilityIndicator;
 import org.springframework.roo.shell.CliCommand;
 import org.springframework.roo.shell.CliOption;
@@ -69,7 +72,7 @@ public class CacheCommands implements CommandMarker {
    * @return a List<String> with the possible and allowed values.
    */
   @CliOptionAutocompleteIndicator(command = "cache setup", param = "provider",
-      help = "'--provider' value should be a supported provider (GUAVA).")
+      help = "'--provider' value should be a supported provider (GUAVA, CAFFEINE).")
   public List<String> getProviderPossibleValues(ShellContext shellContext) {
     List<String> possibleValues = new ArrayList<String>();
     for (CacheProvider provider : getCacheProviders()) {
@@ -96,7 +99,7 @@ public class CacheCommands implements CommandMarker {
       help = "Installs support for using intermediate memory in generated project by using Spring Cache abstraction. Users can specify different providers to use for managing it.")
   public void cacheSetup(@CliOption(key = "provider", mandatory = false,
       help = "Parameter that indicates the provider to use for managing intermediate memory. "
-          + "Possible values are: `GUAVA`.") String provider, ShellContext shellContext) {
+          + "Possible values are: `GUAVA` and `CAFFEINE`.") String provider, ShellContext shellContext) {
 
     // Check for provider value
     CacheProvider selectedCacheProvider = null;
@@ -111,6 +114,54 @@ public class CacheCommands implements CommandMarker {
     cacheOperations.setupCache(selectedCacheProvider, shellContext.getProfile());
   }
 
+  /**
+   * Method that checks if cache entity operation is available or not.
+   * 
+   * "cache entity" command will be available only if some project was generated 
+   * and persistence installed.
+   * 
+   * @return true if some project was created on focused directory and it has 
+   * persistence installed.
+   */
+  @CliAvailabilityIndicator("cache entity")
+  public boolean isCacheEntityCommandAvailable() {
+    return cacheOperations.isCacheEntityAvailable();
+  }
+
+  /**
+   * Method that register "cache entity" command on Spring Roo Shell.
+   * 
+   * Keeps an entity in the Hibernate second-level cache. The finders by reference 
+   * of its repository use the query cache and its service caches the counts by 
+   * reference.
+   * 
+   * @param entity
+   *            the JavaType of the entity to cache.
+   * @param shellContext
+   *            ShellContext used to know the profile the cache properties 
+   *            should be added to
+   */
+  @CliCommand(
+      value = "cache entity",
+      help = "Keeps an entity in the Hibernate second-level cache. Its repository finders by reference "
+          + "use the query cache, and its service caches the counts by reference, evicting them when "
+          + "the entity or its relationships change.")
+  public void cacheEntity(
+      @CliOption(
+          key = "class",
+          optionContext = PROJECT,
+          mandatory = true,
+          help = "The entity to cache. When working on a single module project, simply specify the "
+              + "name of the entity. If you consider it necessary, you can also specify the package. "
+              + "Ex.: `--class ~.domain.MyEntity` (where `~` is the base package). When working with "
+              + "multiple modules, you should specify the name of the entity and the module where it "
+              + "is. Ex.: `--class model:~.domain.MyEntity`. If the module is not specified, it is "
+              + "assumed that the entity is in the module which has the focus. "
+              + "Possible values are: any of the entities in the project.") JavaType entity,
+      ShellContext shellContext) {
+    cacheOperations.cacheEntity(entity, shellContext.getProfile());
+  }
+
   /**
    * Gets the right implementation of FieldCreatorProvider for a JavaType
    * 
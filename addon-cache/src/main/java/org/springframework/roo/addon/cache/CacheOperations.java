@@ -1,6 +1,7 @@
 package org.springframework.roo.addon.cache;
 
 import org.springframework.roo.addon.cache.providers.CacheProvider;
+import org.springframework.roo.model.JavaType;
 
 /**
  * Interface to {@link CacheOperationsImpl}.
@@ -31,4 +32,27 @@ public interface CacheOperations {
    */
   void setupCache(CacheProvider provider, String profile);
 
+  /**
+   * Method that checks if cache entity operation is available or not.
+   * 
+   * "cache entity" command will be available only if some project was generated 
+   * and persistence was installed.
+   * 
+   * @return true if some project was created on focused directory and persistence 
+   * was installed.
+   */
+  boolean isCacheEntityAvailable();
+
+  /**
+   * Method that makes the necessary operations to keep the provided entity in the 
+   * Hibernate second-level cache: configures the second-level and query caches, 
+   * and annotates the entity to be cached. Once cached, the repository finders by 
+   * reference use the query cache and the service caches the counts by reference.
+   * 
+   * @param entity the JavaType of the JPA entity to cache.
+   * @param the String with the profile for which the cache properties should 
+   *            be added, if any.
+   */
+  void cacheEntity(JavaType entity, String profile);
+
 }
@@ -1,5 +1,6 @@
 package org.springframework.roo.addon.cache;
 
+import org.apache.commons.lang3.Validate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Service;
 import org.osgi.framework.BundleContext;
@@ -7,12 +8,19 @@ import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
 import org.springframework.roo.addon.cache.providers.CacheProvider;
+import org.springframework.roo.application.config.ApplicationConfigService;
 import org.springframework.roo.classpath.ModuleFeatureName;
 import org.springframework.roo.classpath.TypeLocationService;
 import org.springframework.roo.classpath.TypeManagementService;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetailsBuilder;
+import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
+import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.model.HibernateJavaType;
+import org.springframework.roo.model.JavaType;
+import org.springframework.roo.model.JpaJavaType;
+import org.springframework.roo.model.RooJavaType;
 import org.springframework.roo.model.SpringJavaType;
 import org.springframework.roo.project.Dependency;
 import org.springframework.roo.project.FeatureNames;
@@ -37,9 +45,22 @@ import java.util.logging.Logger;
 @Service
 public class CacheOperationsImpl implements CacheOperations {
 
+  private static final String SECOND_LEVEL_CACHE_PROPERTY =
+      "spring.jpa.properties.hibernate.cache.use_second_level_cache";
+  private static final String QUERY_CACHE_PROPERTY =
+      "spring.jpa.properties.hibernate.cache.use_query_cache";
+  private static final String REGION_FACTORY_PROPERTY =
+      "spring.jpa.properties.hibernate.cache.region.factory_class";
+  private static final String REGION_FACTORY_VALUE =
+      "org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory";
+  private static final String SHARED_CACHE_MODE_PROPERTY =
+      "spring.jpa.properties.javax.persistence.sharedCache.mode";
+  private static final String SHARED_CACHE_MODE_VALUE = "ENABLE_SELECTIVE";
+
   // ------------ OSGi component attributes ----------------
   private BundleContext context;
 
+  private ApplicationConfigService applicationConfigService;
   private ProjectOperations projectOperations;
   private TypeLocationService typeLocationService;
   private TypeManagementService typeManagementService;
@@ -93,24 +114,112 @@ public class CacheOperationsImpl implements CacheOperations {
     }
   }
 
+  @Override
+  public boolean isCacheEntityAvailable() {
+    return isCacheSetupAvailable();
+  }
+
+  @Override
+  public void cacheEntity(JavaType entity, String profile) {
+    ClassOrInterfaceTypeDetails entityDetails = getTypeLocationService().getTypeDetails(entity);
+    Validate.notNull(entityDetails, "ERROR: The type %s doesn't exist", entity);
+    AnnotationMetadata entityAnnotation = entityDetails.getAnnotation(RooJavaType.ROO_JPA_ENTITY);
+    Validate.notNull(entityAnnotation, "ERROR: The type %s is not a JPA entity", entity);
+
+    // The services cache the counts of the cached entities with Spring Cache
+    setupCache(null, profile);
+
+    // Configure the second-level and query caches in each application module
+    List<Pom> modules =
+        (List<Pom>) getTypeLocationService().getModules(ModuleFeatureName.APPLICATION);
+    for (Pom module : modules) {
+      addDependencies(module, "second-level-cache");
+      getApplicationConfigService().addProperty(module.getModuleName(),
+          SECOND_LEVEL_CACHE_PROPERTY, "true", profile, false);
+      getApplicationConfigService().addProperty(module.getModuleName(), QUERY_CACHE_PROPERTY,
+          "true", profile, false);
+      getApplicationConfigService().addProperty(module.getModuleName(), REGION_FACTORY_PROPERTY,
+          REGION_FACTORY_VALUE, profile, false);
+      getApplicationConfigService().addProperty(module.getModuleName(),
+          SHARED_CACHE_MODE_PROPERTY, SHARED_CACHE_MODE_VALUE, profile, false);
+    }
+
+    // Annotate the entity to keep it in the second-level cache. The entities
+    // which can't be modified don't need to be locked.
+    if (entityDetails.getAnnotation(JpaJavaType.CACHEABLE) == null) {
+      AnnotationAttributeValue<Boolean> readOnlyAttr = entityAnnotation.getAttribute("readOnly");
+      boolean readOnly = readOnlyAttr != null && readOnlyAttr.getValue();
+
+      ClassOrInterfaceTypeDetailsBuilder builder =
+          new ClassOrInterfaceTypeDetailsBuilder(entityDetails);
+      builder.addAnnotation(new AnnotationMetadataBuilder(JpaJavaType.CACHEABLE));
+      if (entityDetails.getAnnotation(HibernateJavaType.CACHE) == null) {
+        AnnotationMetadataBuilder cacheAnnotation =
+            new AnnotationMetadataBuilder(HibernateJavaType.CACHE);
+        cacheAnnotation.addEnumAttribute("usage", HibernateJavaType.CACHE_CONCURRENCY_STRATEGY,
+            readOnly ? "READ_ONLY" : "READ_WRITE");
+        builder.addAnnotation(cacheAnnotation);
+      }
+      getTypeManagementService().createOrUpdateTypeOnDisk(builder.build());
+    }
+  }
+
   /**
    * Add Spring Cache starter to provided module.
    * 
    * @param module the Pom where the starter should be installed.
    */
   private void addSpringCacheDependency(Pom module) {
+    addDependencies(module, "cache");
+  }
+
+  /**
+   * Add the dependencies of a section of the configuration.xml file to 
+   * provided module.
+   * 
+   * @param module the Pom where the dependencies should be installed.
+   * @param section the name of the configuration.xml section.
+   */
+  private void addDependencies(Pom module, String section) {
 
     // Parse the configuration.xml file
     final Element configuration = XmlUtils.getConfiguration(getClass());
     final List<Dependency> dependencies = new ArrayList<Dependency>();
     final List<Element> auditDependencies =
-        XmlUtils.findElements("/configuration/cache/dependencies/dependency", configuration);
+        XmlUtils.findElements(String.format("/configuration/%s/dependencies/dependency", section),
+            configuration);
     for (final Element dependencyElement : auditDependencies) {
       dependencies.add(new Dependency(dependencyElement));
     }
     getProjectOperations().addDependencies(module.getModuleName(), dependencies);
   }
 
+  /**
+   * Method to obtain applicationConfigService service implementation
+   * 
+   * @return
+   */
+  public ApplicationConfigService getApplicationConfigService() {
+    if (applicationConfigService == null) {
+      // Get all Services implement ApplicationConfigService interface
+      try {
+        ServiceReference<?>[] references =
+            context.getAllServiceReferences(ApplicationConfigService.class.getName(), null);
+
+        for (ServiceReference<?> ref : references) {
+          applicationConfigService = (ApplicationConfigService) context.getService(ref);
+          return applicationConfigService;
+        }
+        return null;
+      } catch (InvalidSyntaxException e) {
+        LOGGER.warning("Cannot load ApplicationConfigService on CacheOperationsImpl.");
+        return null;
+      }
+    } else {
+      return applicationConfigService;
+    }
+  }
+
   /**
    * Method to obtain projectOperation service implementation
    * 
@@ -0,0 +1,154 @@
+package org.springframework.roo.addon.cache.providers.caffeine;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.felix.scr.annotations.Component;
+import org.apache.felix.scr.annotations.Reference;
+import org.apache.felix.scr.annotations.Service;
+import org.springframework.roo.addon.cache.providers.CacheProvider;
+import org.springframework.roo.application.config.ApplicationConfigService;
+import org.springframework.roo.classpath.ModuleFeatureName;
+import org.springframework.roo.classpath.TypeLocationService;
+import org.springframework.roo.model.JavaPackage;
+import org.springframework.roo.model.JavaType;
+import org.springframework.roo.process.manager.FileManager;
+import org.springframework.roo.project.Dependency;
+import org.springframework.roo.project.Path;
+import org.springframework.roo.project.PathResolver;
+import org.springframework.roo.project.ProjectOperations;
+import org.springframework.roo.project.maven.Pom;
+import org.springframework.roo.support.util.FileUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Provides implementation of {@link CacheProvider} interface by installing Caffeine
+ * as intermediate memory manager.
+ *
+ * Each application module gets a configuration class building every cache with
+ * its own specification (maximum size, expiration after write or access) from the
+ * application properties, and recording the statistics of every cache, which are
+ * published as Actuator metrics.
+ *
+ * @since 2.0.1
+ */
+@Component
+@Service
+public class CaffeineCacheProvider implements CacheProvider {
+
+  private static final String CAFFEINE_PROVIDER_NAME = "CAFFEINE";
+  private static final Dependency CAFFEINE_DEPENDENCY = new Dependency(
+      "com.github.ben-manes.caffeine", "caffeine", null);
+  private static final Dependency ACTUATOR_DEPENDENCY = new Dependency(
+      "org.springframework.boot", "spring-boot-starter-actuator", null);
+  private static final String CAFFEINE_CACHE_SPEC_PROPERTY_KEY = "cache.caffeine.spec";
+  private static final String CAFFEINE_CACHE_SPEC_PROPERTY_VALUE =
+      "maximumSize=1000,expireAfterAccess=10m";
+  private static final String CACHE_TYPE_PROPERTY_VALUE = "caffeine";
+  private static final String ENDPOINTS_ENABLED_PROPERTY_KEY = "endpoints.enabled";
+  private static final String METRICS_ENDPOINT_ENABLED_PROPERTY_KEY = "endpoints.metrics.enabled";
+
+  @Reference
+  private ProjectOperations projectOperations;
+  @Reference
+  private TypeLocationService typeLocationService;
+  @Reference
+  private ApplicationConfigService applicationConfigService;
+  @Reference
+  private FileManager fileManager;
+  @Reference
+  private PathResolver pathResolver;
+
+  List<Pom> applicationModules = null;
+
+  @Override
+  public String getName() {
+    return CAFFEINE_PROVIDER_NAME;
+  }
+
+  @Override
+  public boolean isInstalled() {
+    if (this.applicationModules == null) {
+      this.applicationModules =
+          (List<Pom>) typeLocationService.getModules(ModuleFeatureName.APPLICATION);
+    }
+
+    // Look if the Caffeine dependency has been installed
+    for (Pom module : applicationModules) {
+      if (module.hasDependencyExcludingVersion(CAFFEINE_DEPENDENCY)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  @Override
+  public void setup(String profile) {
+    if (this.applicationModules == null) {
+      this.applicationModules =
+          (List<Pom>) typeLocationService.getModules(ModuleFeatureName.APPLICATION);
+    }
+
+    // Add Caffeine dependency to each application module
+    for (Pom module : applicationModules) {
+      projectOperations.addDependency(module.getModuleName(), CAFFEINE_DEPENDENCY);
+
+      // Add Actuator to publish the cache statistics, only enabling its
+      // metrics endpoint
+      if (!module.hasDependencyExcludingVersion(ACTUATOR_DEPENDENCY)) {
+        projectOperations.addDependency(module.getModuleName(), ACTUATOR_DEPENDENCY);
+        applicationConfigService.addProperty(module.getModuleName(),
+            ENDPOINTS_ENABLED_PROPERTY_KEY, "false", profile, false);
+        applicationConfigService.addProperty(module.getModuleName(),
+            METRICS_ENDPOINT_ENABLED_PROPERTY_KEY, "true", profile, false);
+      }
+
+      // Add Caffeine specific application properties
+      applicationConfigService.addProperty(module.getModuleName(), CACHE_TYPE_PROPERTY_KEY,
+          CACHE_TYPE_PROPERTY_VALUE, profile, false);
+      applicationConfigService.addProperty(module.getModuleName(),
+          CAFFEINE_CACHE_SPEC_PROPERTY_KEY, CAFFEINE_CACHE_SPEC_PROPERTY_VALUE, profile, false);
+
+      generateCaffeineCacheConfiguration(new JavaPackage(String.format("%s.config",
+          typeLocationService.getTopLevelPackageForModule(module)), module.getModuleName()));
+    }
+
+  }
+
+  /**
+   * Method that generates the CaffeineCacheConfiguration class, which builds
+   * the caches with the specifications of the application properties, on the
+   * provided package if it doesn't exist yet.
+   *
+   * @param configPackage
+   */
+  private void generateCaffeineCacheConfiguration(JavaPackage configPackage) {
+    final JavaType javaType =
+        new JavaType(String.format("%s.CaffeineCacheConfiguration", configPackage),
+            configPackage.getModule());
+    final String physicalPath =
+        pathResolver.getCanonicalPath(javaType.getModule(), Path.SRC_MAIN_JAVA, javaType);
+    if (fileManager.exists(physicalPath)) {
+      return;
+    }
+
+    InputStream inputStream = null;
+    try {
+      // Use defined template
+      inputStream = FileUtils.getInputStream(getClass(), "CaffeineCacheConfiguration-template._java");
+      String input = IOUtils.toString(inputStream);
+      // Replacing package
+      input = input.replace("__PACKAGE__", configPackage.getFullyQualifiedPackageName());
+
+      // Creating CaffeineCacheConfiguration class
+      fileManager.createOrUpdateTextFileIfRequired(physicalPath, input, true);
+    } catch (final IOException e) {
+      throw new IllegalStateException(String.format("Unable to create '%s'", physicalPath), e);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+  }
+
+}
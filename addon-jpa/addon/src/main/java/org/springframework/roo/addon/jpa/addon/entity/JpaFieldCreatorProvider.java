@@ -58,6 +58,7 @@ import org.springframework.roo.classpath.scanner.MemberDetailsScanner;
 import org.springframework.roo.metadata.MetadataService;
 import org.springframework.roo.model.DataType;
 import org.springframework.roo.model.EnumDetails;
+import org.springframework.roo.model.HibernateJavaType;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
 import org.springframework.roo.model.JdkJavaType;
@@ -1985,6 +1986,13 @@ public class JpaFieldCreatorProvider implements FieldCreatorProvider {
       fieldDetails.getInitedAnnotations().add(basicAnnotation);
     }
 
+    // Include text fields of entities indexed by Hibernate Search in their
+    // full-text index
+    if (!transientModifier && cid.getAnnotation(HibernateJavaType.SEARCH_INDEXED) != null) {
+      fieldDetails.getInitedAnnotations().add(
+          new AnnotationMetadataBuilder(HibernateJavaType.SEARCH_FIELD));
+    }
+
     if (extraAnnotations != null && !extraAnnotations.isEmpty()) {
       fieldDetails.addAnnotations(extraAnnotations);
     }
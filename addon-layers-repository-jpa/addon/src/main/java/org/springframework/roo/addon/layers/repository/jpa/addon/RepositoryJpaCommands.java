@@ -351,7 +351,27 @@ public class RepositoryJpaCommands implements CommandMarker {
               + "the Roo Shell focused module will be used. "
               + "This option is not available if `--all` option has not been specified. "
               + "Default value if not present: `~.repository` package, or 'repository:~.' if multi-module "
-              + "project.") JavaPackage repositoriesPackage) {
+              + "project.") JavaPackage repositoriesPackage,
+      @CliOption(
+          key = "keysetPagination",
+          mandatory = false,
+          specifiedDefaultValue = "true",
+          unspecifiedDefaultValue = "false",
+          help = "Indicates if a `findAllAfter` finder should also be generated, which returns the "
+              + "results following a cursor instead of the results of a page number. Its cost doesn't "
+              + "grow with the position of the results and it doesn't count them, so it suits large "
+              + "tables. "
+              + "Default if option present: `true`; default if option not present: `false`.") boolean keysetPagination,
+      @CliOption(
+          key = "fullTextSearch",
+          mandatory = false,
+          specifiedDefaultValue = "true",
+          unspecifiedDefaultValue = "false",
+          help = "Indicates if the global search of the finders should query a full-text index of the "
+              + "entity text fields, maintained by Hibernate Search in the application, instead of "
+              + "comparing every field using `LIKE`. The entity and its text fields are annotated to be "
+              + "indexed and the index is rebuilt when the application starts. "
+              + "Default if option present: `true`; default if option not present: `false`.") boolean fullTextSearch) {
 
     if (all) {
 
@@ -382,9 +402,11 @@ public class RepositoryJpaCommands implements CommandMarker {
                   projectOperations.getFocusedModuleName());
         }
       }
-      repositoryJpaOperations.generateAllRepositories(repositoriesPackage);
+      repositoryJpaOperations.generateAllRepositories(repositoriesPackage, keysetPagination,
+          fullTextSearch);
     } else {
-      repositoryJpaOperations.addRepository(interfaceType, domainType, defaultReturnType, true);
+      repositoryJpaOperations.addRepository(interfaceType, domainType, defaultReturnType, true,
+          keysetPagination, fullTextSearch);
     }
   }
 
@@ -19,6 +19,18 @@ public class RepositoryJpaCustomAnnotationValues extends AbstractAnnotationValue
   @AutoPopulate
   private JavaType entity;
 
+  @AutoPopulate
+  private boolean keysetPagination;
+
+  @AutoPopulate
+  private boolean sliceFinders;
+
+  @AutoPopulate
+  private int countCacheSeconds;
+
+  @AutoPopulate
+  private boolean fullTextSearch;
+
   /**
    * Constructor
    *
@@ -37,4 +49,40 @@ public class RepositoryJpaCustomAnnotationValues extends AbstractAnnotationValue
   public JavaType getEntity() {
     return entity;
   }
+
+  /**
+   * Indicates whether the keyset pagination finder is generated
+   *
+   * @return see above
+   */
+  public boolean isKeysetPagination() {
+    return keysetPagination;
+  }
+
+  /**
+   * Indicates whether the finders returning slices are generated
+   *
+   * @return see above
+   */
+  public boolean isSliceFinders() {
+    return sliceFinders;
+  }
+
+  /**
+   * Returns for how many seconds the counts of the finders are cached
+   *
+   * @return 0 if they aren't cached
+   */
+  public int getCountCacheSeconds() {
+    return countCacheSeconds;
+  }
+
+  /**
+   * Indicates whether the global search queries the full-text index
+   *
+   * @return see above
+   */
+  public boolean isFullTextSearch() {
+    return fullTextSearch;
+  }
 }
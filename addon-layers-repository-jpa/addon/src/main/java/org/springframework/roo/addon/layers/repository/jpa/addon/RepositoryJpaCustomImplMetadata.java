@@ -2,6 +2,7 @@ package org.springframework.roo.addon.layers.repository.jpa.addon;
 
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -34,9 +35,12 @@ import org.springframework.roo.classpath.itd.AbstractItdTypeDetailsProvidingMeta
 import org.springframework.roo.classpath.itd.InvocableMemberBodyBuilder;
 import org.springframework.roo.classpath.operations.Cardinality;
 import org.springframework.roo.metadata.MetadataIdentificationUtils;
+import org.springframework.roo.model.DataType;
+import org.springframework.roo.model.HibernateJavaType;
 import org.springframework.roo.model.ImportRegistrationResolver;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
+import org.springframework.roo.model.JdkJavaType;
 import org.springframework.roo.model.JpaJavaType;
 import org.springframework.roo.model.SpringJavaType;
 import org.springframework.roo.model.SpringletsJavaType;
@@ -63,6 +67,55 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
   private static final JavaType QUERYDSL_PROJECTIONS = new JavaType(
       "com.querydsl.core.types.Projections");
   private static final JavaType QUERYDSL_JPQLQUERY = new JavaType("com.querydsl.jpa.JPQLQuery");
+  private static final JavaType QUERYDSL_EXPRESSION = new JavaType(
+      "com.querydsl.core.types.Expression");
+  private static final JavaType CONCURRENT_REFERENCE_HASH_MAP = new JavaType(
+      "org.springframework.util.ConcurrentReferenceHashMap");
+  private static final JavaSymbolName LOAD_SLICE_METHOD_NAME = new JavaSymbolName("loadSlice");
+  private static final JavaSymbolName LOAD_PAGE_WITH_CACHED_COUNT_METHOD_NAME =
+      new JavaSymbolName("loadPageWithCachedCount");
+  private static final JavaType LUCENE_QUERY = new JavaType("org.apache.lucene.search.Query");
+  private static final JavaType SEARCH_EMPTY_QUERY_EXCEPTION = new JavaType(
+      "org.hibernate.search.exception.EmptyQueryException");
+  private static final JavaSymbolName FIND_IDS_BY_FULL_TEXT_METHOD_NAME = new JavaSymbolName(
+      "findIdsByFullText");
+  private static final JavaSymbolName FULL_TEXT_MAX_RESULTS_FIELD_NAME = new JavaSymbolName(
+      "fullTextMaxResults");
+  private static final JavaType LOGGER = new JavaType("org.slf4j.Logger");
+  private static final JavaType LOGGER_FACTORY = new JavaType("org.slf4j.LoggerFactory");
+  private static final JavaSymbolName LOGGER_FIELD_NAME = new JavaSymbolName("LOG");
+  private static final JavaSymbolName COUNT_CACHE_FIELD_NAME = new JavaSymbolName("COUNT_CACHE");
+  private static final JavaSymbolName COUNT_CACHE_MILLIS_FIELD_NAME = new JavaSymbolName(
+      "COUNT_CACHE_MILLIS");
+  private static final JavaType QUERYDSL_ABSTRACT_JPA_QUERY = new JavaType(
+      "com.querydsl.jpa.impl.AbstractJPAQuery");
+  private static final JavaType QUERYDSL_CLOSEABLE_ITERATOR = new JavaType(
+      "com.mysema.commons.lang.CloseableIterator");
+  private static final JavaSymbolName STREAM_METHOD_NAME = new JavaSymbolName("stream");
+  private static final JavaSymbolName STREAM_FETCH_SIZE_FIELD_NAME = new JavaSymbolName(
+      "STREAM_FETCH_SIZE");
+  private static final int STREAM_FETCH_SIZE = 100;
+  private static final JavaSymbolName BATCH_SIZE_FIELD_NAME = new JavaSymbolName("BATCH_SIZE");
+
+  /**
+   * The number of entities saved or deleted by a single JDBC batch or bulk
+   * statement, which is also the "hibernate.jdbc.batch_size" the
+   * applications are configured with
+   */
+  static final int BATCH_SIZE = 50;
+
+  /**
+   * The application property with the number of best matches of the
+   * full-text index the global search is restricted to
+   */
+  static final String FULL_TEXT_MAX_RESULTS_PROPERTY = "application.search.full-text.max-results";
+
+  /**
+   * The default number of best matches of the full-text index the global
+   * search is restricted to, which keeps the "in" clause they are passed to
+   * within what every database accepts
+   */
+  static final int FULL_TEXT_MAX_RESULTS = 1000;
 
 
   final private ImportRegistrationResolver importResolver;
@@ -73,6 +126,11 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
   final private Map<JavaType, Boolean> typesAreProjections;
   final private JavaType entityQtype;
   final private JpaEntityMetadata entityMetadata;
+  final private boolean cachedCount;
+  final private boolean queryCache;
+  final private FieldMetadata idField;
+  final private List<FieldMetadata> fullTextFields;
+  final private List<FieldMetadata> fetchJoinFields;
 
   private Map<String, FieldMetadata> constantsForFields;
 
@@ -122,6 +180,15 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
    * @param idFields entity id fields
    * @param validFields entity fields to search for (excluded id, reference and collection fields)
    * @param findAllGlobalSearchMethod the findAll metadata
+   * @param findAllAfterMethod the findAllAfter metadata, or null if keyset
+   *            pagination is not enabled
+   * @param findAllSliceMethod the findAllSlice metadata, or null if slice
+   *            finders are not enabled
+   * @param streamAllMethod the streamAll metadata
+   * @param saveInBatchMethod the saveInBatch metadata, or null if the entity
+   *            can't be saved in batches
+   * @param deleteAllByIdInBatchMethod the deleteAllByIdInBatch metadata, or
+   *            null if the entity can't be deleted in batches
    * @param defaultReturnType to use in finders
    * @param allFindReferencedFieldsMethods the metadata for all findByReference methods.
    * @param referencedFieldsIdentifierNames
@@ -130,6 +197,15 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
    *            for building finders which return a projection.
    * @param customFinderMethods list of custom methods
    * @param customCountMethods list of count methods for custom finder methods
+   * @param allFindReferencedFieldsSliceMethods the metadata for all findByReference
+   *            methods returning a Slice.
+   * @param customFinderSliceMethods list of custom methods returning a Slice
+   * @param countCacheSeconds for how long the counts of the finders returning a Page
+   *            are cached. 0 to not cache them.
+   * @param fullTextSearch whether the global search queries the full-text
+   *            index, on the valid fields annotated with @Field
+   * @param queryCache whether the results of the findByReference methods are
+   *            kept in the Hibernate query cache, as the entity is cached
    * @param typesFieldsMetadata the Map<JavaType, Map<String, FieldMetadata>> with
    *            the fields of each domain type.
    * @param typesAreProjections the Map<JavaType, Boolean> which tells if each type is
@@ -140,12 +216,18 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
       final RepositoryJpaCustomImplAnnotationValues annotationValues, final JavaType domainType,
       JpaEntityMetadata entityMetadata, final FieldMetadata idField,
       final List<FieldMetadata> validFields, final MethodMetadata findAllGlobalSearchMethod,
-      final MethodMetadata findAllByIdsInGlobalSearchMethod, final JavaType defaultReturnType,
+      final MethodMetadata findAllByIdsInGlobalSearchMethod,
+      final MethodMetadata findAllAfterMethod, final MethodMetadata findAllSliceMethod,
+      final MethodMetadata streamAllMethod, final MethodMetadata saveInBatchMethod,
+      final MethodMetadata deleteAllByIdInBatchMethod, final JavaType defaultReturnType,
       final Map<FieldMetadata, MethodMetadata> allFindReferencedFieldsMethods,
       final Map<FieldMetadata, String> referencedFieldsIdentifierNames,
       final Map<JavaType, List<Pair<String, String>>> typesFieldMaps,
       final List<Pair<MethodMetadata, PartTree>> customFinderMethods,
       final List<Pair<MethodMetadata, PartTree>> customCountMethods,
+      final Map<FieldMetadata, MethodMetadata> allFindReferencedFieldsSliceMethods,
+      final List<Pair<MethodMetadata, PartTree>> customFinderSliceMethods,
+      final int countCacheSeconds, final boolean fullTextSearch, final boolean queryCache,
       final Map<JavaType, Map<String, FieldMetadata>> typesFieldsMetadata,
       final Map<JavaType, Boolean> typesAreProjections) {
     super(identifier, aspectName, governorPhysicalTypeMetadata);
@@ -158,6 +240,30 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
     this.typesFieldsMetadata = typesFieldsMetadata;
     this.typesAreProjections = typesAreProjections;
     this.entityQtype = getQJavaTypeFor(domainType);
+    this.cachedCount = countCacheSeconds > 0;
+    this.queryCache = queryCache;
+    this.idField = idField;
+
+    // Only the fields in the full-text index can be searched on it
+    this.fullTextFields = new ArrayList<FieldMetadata>();
+    if (fullTextSearch) {
+      for (FieldMetadata field : validFields) {
+        if (field.getAnnotation(HibernateJavaType.SEARCH_FIELD) != null) {
+          this.fullTextFields.add(field);
+        }
+      }
+    }
+
+    // The single-valued associations are fetched with the entities, so the
+    // views showing them don't load them row by row
+    this.fetchJoinFields = new ArrayList<FieldMetadata>();
+    for (FieldMetadata field : validFields) {
+      if (field.getAnnotation(JpaJavaType.MANY_TO_ONE) != null
+          || field.getAnnotation(JpaJavaType.ONE_TO_ONE) != null) {
+        this.fetchJoinFields.add(field);
+      }
+    }
+    Collections.sort(this.fetchJoinFields, FieldMetadata.COMPARATOR_BY_NAME);
 
     // Get inner parameter of default return type (enclosed inside Page);
     this.defaultReturnType = defaultReturnType;
@@ -213,6 +319,40 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
           findAllByIdsInGlobalSearchMethod, idField, validFields)));
     }
 
+    // Generate findAllSlice implementation method
+    if (findAllSliceMethod != null) {
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getFindAllImpl(findAllSliceMethod,
+          idField, validFields)));
+    }
+
+    // Generate streamAll implementation method and the method iterating
+    // over its results
+    if (streamAllMethod != null) {
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getFindAllImpl(streamAllMethod, idField,
+          validFields)));
+      ensureGovernorHasField(getStreamFetchSizeField());
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getStreamMethod()));
+    }
+
+    // Generate batch implementation methods
+    if (saveInBatchMethod != null || deleteAllByIdInBatchMethod != null) {
+      ensureGovernorHasField(getBatchSizeField());
+    }
+    if (saveInBatchMethod != null) {
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getSaveInBatchImpl(saveInBatchMethod,
+          idField)));
+    }
+    if (deleteAllByIdInBatchMethod != null) {
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getDeleteAllByIdInBatchImpl(
+          deleteAllByIdInBatchMethod, idField)));
+    }
+
+    // Generate findAllAfter implementation method
+    if (findAllAfterMethod != null) {
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getFindAllAfterImpl(findAllAfterMethod,
+          idField)));
+    }
+
     // ROO-3765: Prevent ITD regeneration applying the same sort to provided map. If this sort is not applied, maybe some
     // method is not in the same order and ITD will be regenerated.
     Map<FieldMetadata, MethodMetadata> allFindByReferencedFieldsMethodsOrderedByFieldName =
@@ -229,6 +369,20 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
           method.getKey(), method.getValue(), referencedPathFieldName, validFields)));
     }
 
+    // Generate findAll referenced fields implementation methods returning a Slice
+    Map<FieldMetadata, MethodMetadata> allFindByReferencedFieldsSliceMethodsOrderedByFieldName =
+        new TreeMap<FieldMetadata, MethodMetadata>(FieldMetadata.COMPARATOR_BY_NAME);
+    allFindByReferencedFieldsSliceMethodsOrderedByFieldName
+        .putAll(allFindReferencedFieldsSliceMethods);
+    for (Entry<FieldMetadata, MethodMetadata> method : allFindByReferencedFieldsSliceMethodsOrderedByFieldName
+        .entrySet()) {
+
+      String referencedPathFieldName = referencedFieldsIdentifierNames.get(method.getKey());
+
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getFindByReferencedFieldsImpl(
+          method.getKey(), method.getValue(), referencedPathFieldName, validFields)));
+    }
+
     // Generate projection finder methods implementations
     if (customFinderMethods != null) {
       for (Pair<MethodMetadata, PartTree> methodInfo : customFinderMethods) {
@@ -237,11 +391,37 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
       }
     }
 
+    // Generate projection finder methods implementations returning a Slice
+    for (Pair<MethodMetadata, PartTree> methodInfo : customFinderSliceMethods) {
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getCustomFindersImpl(methodInfo,
+          validFields)));
+    }
+
     // generate custom count methods
     for (Pair<MethodMetadata, PartTree> methodInfo : customCountMethods) {
       ensureGovernorHasMethod(new MethodMetadataBuilder(getCustomCountImpl(methodInfo)));
     }
 
+    // Generate the method loading the results of the finders returning a Slice
+    if (findAllSliceMethod != null || !allFindReferencedFieldsSliceMethods.isEmpty()
+        || !customFinderSliceMethods.isEmpty()) {
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getLoadSliceMethod()));
+    }
+
+    // Generate the method looking up the full-text index
+    if (!this.fullTextFields.isEmpty()) {
+      ensureGovernorHasField(getFullTextMaxResultsField());
+      ensureGovernorHasField(getLoggerField());
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getFindIdsByFullTextMethod()));
+    }
+
+    // Generate the count cache and the method loading pages using it
+    if (this.cachedCount) {
+      ensureGovernorHasField(getCountCacheMillisField(countCacheSeconds));
+      ensureGovernorHasField(getCountCacheField());
+      ensureGovernorHasMethod(new MethodMetadataBuilder(getLoadPageWithCachedCountMethod()));
+    }
+
     // Build the ITD
     itdTypeDetails = builder.build();
   }
@@ -301,7 +481,7 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
 
     // Construct query
     buildQuery(bodyBuilder, entityVariable, globalSearch, null, null, null, null, null,
-        this.defaultReturnType, null, null);
+        this.defaultReturnType, null, null, true);
     bodyBuilder.newLine();
 
     // AttributeMappingBuilder mapping = buildMapper()
@@ -345,7 +525,8 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
     bodyBuilder.newLine();
 
 
-    buildQueryResult(bodyBuilder, pageable, entityVariable, projection, this.defaultReturnType);
+    buildQueryResult(bodyBuilder, pageable, entityVariable, projection, this.defaultReturnType,
+        getLoadMethodName(methodBuilder.getReturnType()));
 
     // Sets body to generated method
     methodBuilder.setBodyBuilder(bodyBuilder);
@@ -410,7 +591,7 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
 
     // Construct query
     buildQuery(bodyBuilder, entityVariable, globalSearch, null, null, null, null, null,
-        this.defaultReturnType, null, null);
+        this.defaultReturnType, null, null, true);
     bodyBuilder.newLine();
     bodyBuilder.appendFormalLine("// Also, filter by the provided ids");
     bodyBuilder.appendFormalLine("query.where(%s.%s.in(ids));", entityVariable,
@@ -458,7 +639,8 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
     bodyBuilder.newLine();
 
 
-    buildQueryResult(bodyBuilder, pageable, entityVariable, projection, this.defaultReturnType);
+    buildQueryResult(bodyBuilder, pageable, entityVariable, projection, this.defaultReturnType,
+        getLoadMethodName(methodBuilder.getReturnType()));
 
     // Sets body to generated method
     methodBuilder.setBodyBuilder(bodyBuilder);
@@ -467,6 +649,143 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
     // instance
   }
 
+  /**
+   * Method that generates the findAllAfter implementation method, which uses
+   * keyset pagination: instead of skipping the results of the previous pages
+   * with an offset, it only queries the identifiers greater than the one in
+   * the cursor, and it doesn't count the results.
+   *
+   * @param findAllAfterMethod
+   * @param idField the entity id field
+   *
+   * @return
+   */
+  private MethodMetadata getFindAllAfterImpl(MethodMetadata findAllAfterMethod,
+      FieldMetadata idField) {
+
+    // Define method name
+    JavaSymbolName methodName = findAllAfterMethod.getMethodName();
+
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = findAllAfterMethod.getParameterTypes();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = findAllAfterMethod.getParameterNames();
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(methodName,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    // Use provided findAllAfter method to generate its implementation
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, methodName,
+            findAllAfterMethod.getReturnType(), parameterTypes, parameterNames, null);
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // Getting variable name to use in the code
+    JavaSymbolName globalSearch = parameterNames.get(0);
+    JavaSymbolName cursor = parameterNames.get(1);
+    JavaSymbolName size = parameterNames.get(2);
+    String entity = this.entity.getSimpleTypeName();
+    String entityVariable = StringUtils.uncapitalize(entity);
+    String idPath = entityVariable.concat(".").concat(idField.getFieldName().getSymbolName());
+
+    // Types to use. Identifier is always used as object
+    JavaType keysetSlice = findAllAfterMethod.getReturnType().getBaseType();
+    JavaType idType = new JavaType(idField.getFieldType().getFullyQualifiedTypeName());
+    String returnType = getNameOfJavaType(this.defaultReturnType);
+
+    bodyBuilder.newLine();
+
+    // Assert.isTrue(size > 0, "size must be greater than zero");
+    bodyBuilder.appendFormalLine("%s.isTrue(%s > 0, \"%s must be greater than zero\");",
+        getNameOfJavaType(SpringJavaType.ASSERT), size, size);
+    bodyBuilder.newLine();
+
+    // QEntity qEntity = QEntity.entity;
+    bodyBuilder.appendFormalLine(String.format("%1$s %2$s = %1$s.%2$s;",
+        getNameOfJavaType(entityQtype), entityVariable));
+    bodyBuilder.newLine();
+
+    // Construct query. It only selects the identifiers, so it doesn't fetch
+    // the associations
+    buildQuery(bodyBuilder, entityVariable, globalSearch, null, null, null, null, null,
+        this.defaultReturnType, null, null, false);
+    bodyBuilder.newLine();
+
+    // Long after = KeysetSlice.decodeCursor(cursor, Long.class);
+    bodyBuilder.appendFormalLine("// Seek the results after the cursor, fetching one more to know");
+    bodyBuilder.appendFormalLine("// whether there are any others after them");
+    bodyBuilder.appendFormalLine("%1$s after = %2$s.decodeCursor(%3$s, %1$s.class);",
+        getNameOfJavaType(idType), getNameOfJavaType(keysetSlice), cursor);
+    bodyBuilder.appendFormalLine("if (after != null) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("query.where(%s.gt(after));", idPath);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // List<Long> ids = query.select(entity.id).orderBy(entity.id.asc()).limit(size + 1).fetch();
+    bodyBuilder.appendFormalLine(
+        "%s ids = query.select(%s).orderBy(%s.asc()).limit(%s + 1).fetch();",
+        getNameOfJavaType(JavaType.wrapperOf(JavaType.LIST, idType)), idPath, idPath, size);
+    bodyBuilder.newLine();
+
+    // String nextCursor = null;
+    bodyBuilder.appendFormalLine("String nextCursor = null;");
+    bodyBuilder.appendFormalLine("if (ids.size() > %s) {", size);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("ids = ids.subList(0, %s);", size);
+    bodyBuilder.appendFormalLine("nextCursor = %s.encodeCursor(ids.get(%s - 1));",
+        getNameOfJavaType(keysetSlice), size);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("if (ids.isEmpty()) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("return new %s<%s>(%s.<%s> emptyList(), %s, null);",
+        getNameOfJavaType(keysetSlice), returnType, getNameOfJavaType(JavaType.COLLECTIONS),
+        returnType, size);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+
+    // Load the results of the identifiers found
+    bodyBuilder.appendFormalLine("// Load the results of the identifiers found");
+    if (!this.typesAreProjections.get(this.defaultReturnType)) {
+
+      // List<Entity> content = from(entity).leftJoin(entity.field).fetchJoin()
+      //   .where(entity.id.in(ids)).orderBy(entity.id.asc()).fetch();
+      bodyBuilder.appendFormalLine(
+          "%s content = from(%s)%s\n\t\t\t.where(%s.in(ids)).orderBy(%s.asc()).fetch();",
+          getNameOfJavaType(JavaType.wrapperOf(JavaType.LIST, this.defaultReturnType)),
+          entityVariable, getFetchJoins(entityVariable), idPath, idPath);
+    } else {
+      List<Pair<String, String>> projectionFields = this.typesFieldMaps.get(this.defaultReturnType);
+
+      // List<Projection> content = from(entity).where(entity.id.in(ids)).orderBy(entity.id.asc())
+      //   .select(Projections.constructor(Projection.class, entity.field1, entity.field2)).fetch();
+      bodyBuilder.appendFormalLine(String.format(
+          "%s content = from(%s).where(%s.in(ids)).orderBy(%s.asc())"
+              + "\n\t\t\t.select(%s.constructor(%s.class, %s)).fetch();",
+          getNameOfJavaType(JavaType.wrapperOf(JavaType.LIST, this.defaultReturnType)),
+          entityVariable, idPath, idPath, getNameOfJavaType(QUERYDSL_PROJECTIONS), returnType,
+          StringUtils.join(getListRightValueOfPair(projectionFields), ", ")));
+    }
+
+    // return new KeysetSlice<Entity>(content, size, nextCursor);
+    bodyBuilder.appendFormalLine("return new %s<%s>(content, %s, nextCursor);",
+        getNameOfJavaType(keysetSlice), returnType, size);
+
+    // Sets body to generated method
+    methodBuilder.setBodyBuilder(bodyBuilder);
+
+    return methodBuilder.build(); // Build and return a MethodMetadata
+    // instance
+  }
 
   /**
    * This method returns the associated constant to the provided
@@ -523,14 +842,15 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
      * @param pageable the Page implementation variable name
      * @param entityVariable the name of the variable owning the query
      * @param projection the projection expression for returning the query
+     * @param loadMethod the name of the method which loads the results
      */
   private void buildQueryResult(InvocableMemberBodyBuilder bodyBuilder, JavaSymbolName pageable,
-      String entityVariable, JavaType projection, JavaType returnType) {
+      String entityVariable, JavaType projection, JavaType returnType, String loadMethod) {
 
     if (!this.typesAreProjections.get(returnType)) {
 
       // return loadPage(query, pageable, myEntity);
-      bodyBuilder.appendFormalLine(String.format("return loadPage(query, pageable, %s);",
+      bodyBuilder.appendFormalLine(String.format("return %s(query, pageable, %s);", loadMethod,
           entityVariable));
     } else {
       List<Pair<String, String>> projectionFields = this.typesFieldMaps.get(returnType);
@@ -538,12 +858,727 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
       // return loadPage(query, pageable, Projection.constructor(MyProjection.class,
       //                    myEntity.field1, myEntity.field2);
       bodyBuilder.appendFormalLine(String.format(
-          "return loadPage(query, %s, %s.constructor(%s.class, %s ));", pageable,
+          "return %s(query, %s, %s.constructor(%s.class, %s ));", loadMethod, pageable,
           getNameOfJavaType(projection), getNameOfJavaType(returnType),
           StringUtils.join(getListRightValueOfPair(projectionFields), ", ")));
     }
   }
 
+  /**
+   * Returns the name of the method which loads the results of a finder
+   * returning the provided type: finders returning a Slice don't count the
+   * results, the ones returning a Page may use the count cache and the ones
+   * returning a CloseableIterator read the results as they are iterated.
+   *
+   * @param finderReturnType
+   * @return
+   */
+  private String getLoadMethodName(JavaType finderReturnType) {
+    if (finderReturnType.getFullyQualifiedTypeName().equals(
+        SpringJavaType.CLOSEABLE_ITERATOR.getFullyQualifiedTypeName())) {
+      return STREAM_METHOD_NAME.getSymbolName();
+    }
+    if (finderReturnType.getFullyQualifiedTypeName().equals(
+        SpringJavaType.SLICE.getFullyQualifiedTypeName())) {
+      return LOAD_SLICE_METHOD_NAME.getSymbolName();
+    }
+    if (this.cachedCount) {
+      return LOAD_PAGE_WITH_CACHED_COUNT_METHOD_NAME.getSymbolName();
+    }
+    return "loadPage";
+  }
+
+  /**
+   * Method that generates the loadSlice method, which loads the results of
+   * the finders returning a Slice. It fetches one more result than the
+   * page size to know whether there are more results, instead of counting
+   * them.
+   *
+   * @return
+   */
+  private MethodMetadata getLoadSliceMethod() {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType
+        .wrapperWilcard(QUERYDSL_JPQLQUERY)));
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(SpringJavaType.PAGEABLE));
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType
+        .wrapperGenericType(QUERYDSL_EXPRESSION)));
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(LOAD_SLICE_METHOD_NAME,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("query"));
+    parameterNames.add(new JavaSymbolName("pageable"));
+    parameterNames.add(new JavaSymbolName("expression"));
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+    final String sliceImpl = getNameOfJavaType(SpringJavaType.SLICE_IMPL);
+
+    // if (pageable == null) {
+    //   return new SliceImpl<T>(query.select(expression).fetch());
+    // }
+    bodyBuilder.appendFormalLine("if (pageable == null) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("return new %s<T>(query.select(expression).fetch());", sliceImpl);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+
+    // Fetch one more result to know whether there are more
+    bodyBuilder.appendFormalLine("// Fetch one more result to know whether there are more");
+    bodyBuilder.appendFormalLine("query.limit(pageable.getPageSize() + 1);");
+    bodyBuilder.appendFormalLine("%s<T> content = query.select(expression).fetch();",
+        getNameOfJavaType(JavaType.LIST));
+    bodyBuilder.appendFormalLine("boolean hasNext = content.size() > pageable.getPageSize();");
+    bodyBuilder.appendFormalLine("if (hasNext) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("content = content.subList(0, pageable.getPageSize());");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("return new %s<T>(content, pageable, hasNext);", sliceImpl);
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, LOAD_SLICE_METHOD_NAME,
+            JavaType.wrapperGenericType(SpringJavaType.SLICE), parameterTypes, parameterNames,
+            bodyBuilder);
+    methodBuilder.setGenericDefinition("T");
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Method that generates the stream method, which iterates over the results
+   * of a query as they are read from a forward-only cursor, instead of
+   * loading them all in memory. The persistence context is cleared every
+   * time a batch of results has been read, so the entities already returned
+   * can be garbage collected.
+   *
+   * @return
+   */
+  private MethodMetadata getStreamMethod() {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType
+        .wrapperWilcard(QUERYDSL_JPQLQUERY)));
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(SpringJavaType.PAGEABLE));
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType
+        .wrapperGenericType(QUERYDSL_EXPRESSION)));
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(STREAM_METHOD_NAME,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("query"));
+    parameterNames.add(new JavaSymbolName("pageable"));
+    parameterNames.add(new JavaSymbolName("expression"));
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+    final String closeableIterator = getNameOfJavaType(SpringJavaType.CLOSEABLE_ITERATOR);
+
+    // The pagination has already been applied to the query
+    // if (query instanceof AbstractJPAQuery) {
+    //   ((AbstractJPAQuery<?, ?>) query).setHint("org.hibernate.fetchSize", STREAM_FETCH_SIZE);
+    // }
+    bodyBuilder.appendFormalLine("// The pagination has already been applied to the query");
+    bodyBuilder.appendFormalLine("if (query instanceof %s) {",
+        getNameOfJavaType(QUERYDSL_ABSTRACT_JPA_QUERY));
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("((%s<?, ?>) query).setHint(\"org.hibernate.fetchSize\", %s);",
+        getNameOfJavaType(QUERYDSL_ABSTRACT_JPA_QUERY), STREAM_FETCH_SIZE_FIELD_NAME);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+
+    // Hibernate scrolls over the results with a forward-only cursor
+    // final com.mysema.commons.lang.CloseableIterator<T> results = query.select(expression).iterate();
+    // final EntityManager entityManager = getEntityManager();
+    bodyBuilder.appendFormalLine("// Hibernate scrolls over the results with a forward-only cursor");
+    bodyBuilder.appendFormalLine("final %s<T> results = query.select(expression).iterate();",
+        getNameOfJavaType(QUERYDSL_CLOSEABLE_ITERATOR));
+    bodyBuilder.appendFormalLine("final %s entityManager = getEntityManager();",
+        getNameOfJavaType(JpaJavaType.ENTITY_MANAGER));
+    bodyBuilder.appendFormalLine("return new %s<T>() {", closeableIterator);
+    bodyBuilder.indent();
+    bodyBuilder.newLine();
+    bodyBuilder.appendFormalLine("private int read;");
+    bodyBuilder.newLine();
+    bodyBuilder.appendFormalLine("public boolean hasNext() {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("return results.hasNext();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+    bodyBuilder.appendFormalLine("public T next() {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("// Detach the entities already returned");
+    bodyBuilder.appendFormalLine("if (read > 0 && read %% %s == 0) {",
+        STREAM_FETCH_SIZE_FIELD_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("entityManager.clear();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("read++;");
+    bodyBuilder.appendFormalLine("return results.next();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+    bodyBuilder.appendFormalLine("public void remove() {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("throw new UnsupportedOperationException();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+    bodyBuilder.appendFormalLine("public void close() {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("results.close();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("};");
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, STREAM_METHOD_NAME,
+            JavaType.wrapperGenericType(SpringJavaType.CLOSEABLE_ITERATOR), parameterTypes,
+            parameterNames, bodyBuilder);
+    methodBuilder.setGenericDefinition("T");
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Method that generates the saveInBatch implementation method, which
+   * persists the new entities and merges the existing ones, flushing them and
+   * detaching them every BATCH_SIZE entities, so the statements are sent in
+   * JDBC batches and the persistence context doesn't grow with the number of
+   * entities. Only the saved entities are detached, so the other entities of
+   * the persistence context stay managed; the returned entities are
+   * detached.
+   *
+   * @param saveInBatchMethod
+   * @param idField the entity id field
+   * @return
+   */
+  private MethodMetadata getSaveInBatchImpl(MethodMetadata saveInBatchMethod,
+      FieldMetadata idField) {
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(saveInBatchMethod.getMethodName(),
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(saveInBatchMethod.getParameterTypes()));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    final JavaSymbolName entities = saveInBatchMethod.getParameterNames().get(0);
+    final String entityName = getNameOfJavaType(this.entity);
+    final String entityVariable = StringUtils.uncapitalize(this.entity.getSimpleTypeName());
+    final String newCondition =
+        String.format("%s.%s() %s", entityVariable, BeanInfoUtils.getAccessorMethodName(idField)
+            .getSymbolName(), idField.getFieldType().isPrimitive() ? "== 0" : "== null");
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // EntityManager entityManager = getEntityManager();
+    // List<Entity> saved = new ArrayList<Entity>();
+    // List<Entity> batch = new ArrayList<Entity>(BATCH_SIZE);
+    // Iterator<Entity> iterator = entities.iterator();
+    bodyBuilder.appendFormalLine("%s entityManager = getEntityManager();",
+        getNameOfJavaType(JpaJavaType.ENTITY_MANAGER));
+    bodyBuilder.appendFormalLine("%s<%s> saved = new %s<%s>();", getNameOfJavaType(JavaType.LIST),
+        entityName, getNameOfJavaType(JdkJavaType.ARRAY_LIST), entityName);
+    bodyBuilder.appendFormalLine("%s<%s> batch = new %s<%s>(%s);",
+        getNameOfJavaType(JavaType.LIST), entityName, getNameOfJavaType(JdkJavaType.ARRAY_LIST),
+        entityName, BATCH_SIZE_FIELD_NAME);
+    bodyBuilder.appendFormalLine("%s<%s> iterator = %s.iterator();",
+        getNameOfJavaType(JdkJavaType.ITERATOR), entityName, entities);
+
+    // while (iterator.hasNext()) {
+    //   Entity entity = iterator.next();
+    bodyBuilder.appendFormalLine("while (iterator.hasNext()) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("%s %s = iterator.next();", entityName, entityVariable);
+
+    // if (entity.getId() == null) {
+    //   entityManager.persist(entity);
+    //   batch.add(entity);
+    // } else {
+    //   batch.add(entityManager.merge(entity));
+    // }
+    bodyBuilder.appendFormalLine("if (%s) {", newCondition);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("entityManager.persist(%s);", entityVariable);
+    bodyBuilder.appendFormalLine("batch.add(%s);", entityVariable);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("} else {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("batch.add(entityManager.merge(%s));", entityVariable);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // // Send the pending statements as a JDBC batch and detach the saved
+    // // entities, leaving the rest of the persistence context as it was
+    // if (batch.size() == BATCH_SIZE || !iterator.hasNext()) {
+    //   entityManager.flush();
+    //   for (Entity item : batch) {
+    //     entityManager.detach(item);
+    //   }
+    //   saved.addAll(batch);
+    //   batch.clear();
+    // }
+    bodyBuilder.appendFormalLine(
+        "// Send the pending statements as a JDBC batch and detach the saved");
+    bodyBuilder.appendFormalLine(
+        "// entities, leaving the rest of the persistence context as it was");
+    bodyBuilder.appendFormalLine("if (batch.size() == %s || !iterator.hasNext()) {",
+        BATCH_SIZE_FIELD_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("entityManager.flush();");
+    bodyBuilder.appendFormalLine("for (%s item : batch) {", entityName);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("entityManager.detach(item);");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("saved.addAll(batch);");
+    bodyBuilder.appendFormalLine("batch.clear();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // return saved;
+    bodyBuilder.appendFormalLine("return saved;");
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, saveInBatchMethod.getMethodName(),
+            saveInBatchMethod.getReturnType(), saveInBatchMethod.getParameterTypes(),
+            saveInBatchMethod.getParameterNames(), bodyBuilder);
+    methodBuilder.addAnnotation(new AnnotationMetadataBuilder(SpringJavaType.TRANSACTIONAL));
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Method that generates the deleteAllByIdInBatch implementation method,
+   * which deletes the entities with bulk delete statements of BATCH_SIZE
+   * identifiers each, without loading them. As bulk statements, they don't
+   * cascade nor invoke the entity callbacks, so the services only use it for
+   * entities without associations nor element collections. The pending
+   * changes are flushed before deleting, and the instances of the deleted
+   * entities are detached afterwards, so the other entities of the
+   * persistence context stay managed.
+   *
+   * @param deleteAllByIdInBatchMethod
+   * @param idField the entity id field
+   * @return
+   */
+  private MethodMetadata getDeleteAllByIdInBatchImpl(MethodMetadata deleteAllByIdInBatchMethod,
+      FieldMetadata idField) {
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(deleteAllByIdInBatchMethod.getMethodName(),
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(deleteAllByIdInBatchMethod
+                .getParameterTypes()));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    final JavaSymbolName ids = deleteAllByIdInBatchMethod.getParameterNames().get(0);
+    final String idTypeName =
+        getNameOfJavaType(new JavaType(idField.getFieldType().getFullyQualifiedTypeName()));
+    final String entityVariable = StringUtils.uncapitalize(this.entity.getSimpleTypeName());
+    final String deleteLine =
+        String.format("deleted += delete(%s).where(%s.%s.in(batch)).execute();", entityVariable,
+            entityVariable, idField.getFieldName());
+    final String detachLine =
+        String.format("entityManager.detach(entityManager.getReference(%s.class, deletedId));",
+            getNameOfJavaType(this.entity));
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // QEntity qEntity = QEntity.entity;
+    bodyBuilder.appendFormalLine(String.format("%1$s %2$s = %1$s.%2$s;",
+        entityQtype.getNameIncludingTypeParameters(false, importResolver), entityVariable));
+    bodyBuilder.newLine();
+
+    // // Bulk statements bypass the persistence context, so the pending
+    // // changes are sent first
+    // EntityManager entityManager = getEntityManager();
+    // entityManager.flush();
+    bodyBuilder.appendFormalLine(
+        "// Bulk statements bypass the persistence context, so the pending");
+    bodyBuilder.appendFormalLine("// changes are sent first");
+    bodyBuilder.appendFormalLine("%s entityManager = getEntityManager();",
+        getNameOfJavaType(JpaJavaType.ENTITY_MANAGER));
+    bodyBuilder.appendFormalLine("entityManager.flush();");
+    bodyBuilder.newLine();
+
+    // // The instances of the deleted entities are detached, as they may
+    // // still be in the persistence context
+    // long deleted = 0;
+    // List<IdType> batch = new ArrayList<IdType>(BATCH_SIZE);
+    // for (IdType id : ids) {
+    //   batch.add(id);
+    //   if (batch.size() == BATCH_SIZE) {
+    //     deleted += delete(entity).where(entity.id.in(batch)).execute();
+    //     for (IdType deletedId : batch) {
+    //       entityManager.detach(entityManager.getReference(Entity.class, deletedId));
+    //     }
+    //     batch.clear();
+    //   }
+    // }
+    bodyBuilder.appendFormalLine(
+        "// The instances of the deleted entities are detached, as they may");
+    bodyBuilder.appendFormalLine("// still be in the persistence context");
+    bodyBuilder.appendFormalLine("long deleted = 0;");
+    bodyBuilder.appendFormalLine("%s<%s> batch = new %s<%s>(%s);",
+        getNameOfJavaType(JavaType.LIST), idTypeName, getNameOfJavaType(JdkJavaType.ARRAY_LIST),
+        idTypeName, BATCH_SIZE_FIELD_NAME);
+    bodyBuilder.appendFormalLine("for (%s id : %s) {", idTypeName, ids);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("batch.add(id);");
+    bodyBuilder.appendFormalLine("if (batch.size() == %s) {", BATCH_SIZE_FIELD_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(deleteLine);
+    appendDetachBatch(bodyBuilder, idTypeName, detachLine);
+    bodyBuilder.appendFormalLine("batch.clear();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // if (!batch.isEmpty()) {
+    //   deleted += delete(entity).where(entity.id.in(batch)).execute();
+    //   for (IdType deletedId : batch) {
+    //     entityManager.detach(entityManager.getReference(Entity.class, deletedId));
+    //   }
+    // }
+    // return deleted;
+    bodyBuilder.appendFormalLine("if (!batch.isEmpty()) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(deleteLine);
+    appendDetachBatch(bodyBuilder, idTypeName, detachLine);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("return deleted;");
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC,
+            deleteAllByIdInBatchMethod.getMethodName(), deleteAllByIdInBatchMethod.getReturnType(),
+            deleteAllByIdInBatchMethod.getParameterTypes(),
+            deleteAllByIdInBatchMethod.getParameterNames(), bodyBuilder);
+    methodBuilder.addAnnotation(new AnnotationMetadataBuilder(SpringJavaType.TRANSACTIONAL));
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Appends the loop which detaches the instances of the entities of a batch
+   * just deleted. The references of the entities in the persistence context
+   * are their managed instances, and the other ones are uninitialized
+   * proxies, so the database isn't queried.
+   *
+   * @param bodyBuilder
+   * @param idTypeName the name of the identifier type
+   * @param detachLine the statement detaching the instance of deletedId
+   */
+  private void appendDetachBatch(InvocableMemberBodyBuilder bodyBuilder, String idTypeName,
+      String detachLine) {
+    bodyBuilder.appendFormalLine("for (%s deletedId : batch) {", idTypeName);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(detachLine);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+  }
+
+  /**
+   * Returns the constant with the number of entities saved or deleted at once
+   * by the batch methods
+   *
+   * @return
+   */
+  private FieldMetadataBuilder getBatchSizeField() {
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+        BATCH_SIZE_FIELD_NAME, JavaType.INT_PRIMITIVE, String.valueOf(BATCH_SIZE));
+  }
+
+  /**
+   * Returns the field with the number of best matches of the full-text index
+   * the global search is restricted to, set from the
+   * FULL_TEXT_MAX_RESULTS_PROPERTY application property
+   *
+   * @return
+   */
+  private FieldMetadataBuilder getFullTextMaxResultsField() {
+    // @Value("${application.search.full-text.max-results:1000}")
+    AnnotationMetadataBuilder valueAnnotation = new AnnotationMetadataBuilder(SpringJavaType.VALUE);
+    valueAnnotation.addStringAttribute("value",
+        String.format("${%s:%s}", FULL_TEXT_MAX_RESULTS_PROPERTY, FULL_TEXT_MAX_RESULTS));
+    List<AnnotationMetadataBuilder> annotations = new ArrayList<AnnotationMetadataBuilder>();
+    annotations.add(valueAnnotation);
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE, annotations,
+        FULL_TEXT_MAX_RESULTS_FIELD_NAME, JavaType.INT_PRIMITIVE);
+  }
+
+  /**
+   * Returns the logger of the repository, which reports the global searches
+   * with more matches in the full-text index than the ones searched
+   *
+   * @return
+   */
+  private FieldMetadataBuilder getLoggerField() {
+    // private static final Logger LOG = LoggerFactory.getLogger(EntityRepositoryImpl.class);
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+        LOGGER_FIELD_NAME, LOGGER, String.format("%s.getLogger(%s.class)",
+            getNameOfJavaType(LOGGER_FACTORY), getNameOfJavaType(this.destination)));
+  }
+
+  /**
+   * Returns the constant with the number of results read from the database
+   * at once by the stream method, and after which the persistence context is
+   * cleared.
+   *
+   * @return
+   */
+  private FieldMetadataBuilder getStreamFetchSizeField() {
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+        STREAM_FETCH_SIZE_FIELD_NAME, JavaType.INT_PRIMITIVE, String.valueOf(STREAM_FETCH_SIZE));
+  }
+
+  /**
+   * Method that generates the loadPageWithCachedCount method, which loads
+   * the results of the finders returning a Page like loadPage, but reuses
+   * the count of the results of the same search while it is cached.
+   *
+   * @return
+   */
+  private MethodMetadata getLoadPageWithCachedCountMethod() {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType
+        .wrapperWilcard(QUERYDSL_JPQLQUERY)));
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(SpringJavaType.PAGEABLE));
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType
+        .wrapperGenericType(QUERYDSL_EXPRESSION)));
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(LOAD_PAGE_WITH_CACHED_COUNT_METHOD_NAME,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("query"));
+    parameterNames.add(new JavaSymbolName("pageable"));
+    parameterNames.add(new JavaSymbolName("expression"));
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // Counts are cached by the joins and the predicate of the query
+    bodyBuilder.appendFormalLine("// Counts are cached by the joins and the predicate of the query");
+    bodyBuilder.appendFormalLine(
+        "String key = query.getMetadata().getJoins() + \" WHERE \" + query.getMetadata().getWhere();");
+    bodyBuilder.appendFormalLine("long now = System.currentTimeMillis();");
+    bodyBuilder.appendFormalLine("long[] count = %s.get(key);", COUNT_CACHE_FIELD_NAME);
+    bodyBuilder.appendFormalLine("if (count == null || count[1] < now) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("count = new long[] {query.fetchCount(), now + %s};",
+        COUNT_CACHE_MILLIS_FIELD_NAME);
+    bodyBuilder.appendFormalLine("%s.put(key, count);", COUNT_CACHE_FIELD_NAME);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("%s<T> content = query.select(expression).fetch();",
+        getNameOfJavaType(JavaType.LIST));
+    bodyBuilder.appendFormalLine("return new %s<T>(content, pageable, count[0]);",
+        getNameOfJavaType(SpringJavaType.PAGE_IMPL));
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE,
+            LOAD_PAGE_WITH_CACHED_COUNT_METHOD_NAME,
+            JavaType.wrapperGenericType(SpringJavaType.PAGE), parameterTypes, parameterNames,
+            bodyBuilder);
+    methodBuilder.setGenericDefinition("T");
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Method that generates the findIdsByFullText method, which looks up the
+   * identifiers of the entities best matching a text in the full-text index,
+   * at most fullTextMaxResults of them. The finders restrict their query
+   * to these identifiers instead of comparing every field with the text.
+   * When the index has more matches, a warning reports how many of them
+   * are left out.
+   *
+   * @return
+   */
+  private MethodMetadata getFindIdsByFullTextMethod() {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.STRING));
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(FIND_IDS_BY_FULL_TEXT_METHOD_NAME,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("text"));
+
+    // Identifiers are returned boxed, as the list elements
+    final JavaType idType = new JavaType(idField.getFieldType().getFullyQualifiedTypeName());
+    final String idTypeName = getNameOfJavaType(idType);
+    final String entityName = getNameOfJavaType(this.entity);
+    final String fullTextEntityManager =
+        getNameOfJavaType(HibernateJavaType.SEARCH_FULL_TEXT_ENTITY_MANAGER);
+    final String fullTextQuery = getNameOfJavaType(HibernateJavaType.SEARCH_FULL_TEXT_QUERY);
+    List<String> fieldNames = new ArrayList<String>();
+    for (FieldMetadata field : this.fullTextFields) {
+      fieldNames.add("\"" + field.getFieldName().getSymbolName() + "\"");
+    }
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // FullTextEntityManager fullTextEntityManager = Search.getFullTextEntityManager(getEntityManager());
+    bodyBuilder.appendFormalLine("%s fullTextEntityManager = %s.getFullTextEntityManager(getEntityManager());",
+        fullTextEntityManager, getNameOfJavaType(HibernateJavaType.SEARCH));
+
+    // QueryBuilder queryBuilder = fullTextEntityManager.getSearchFactory().buildQueryBuilder()
+    //     .forEntity(Entity.class).get();
+    bodyBuilder.appendFormalLine(
+        "%s queryBuilder = fullTextEntityManager.getSearchFactory().buildQueryBuilder().forEntity(%s.class).get();",
+        getNameOfJavaType(HibernateJavaType.SEARCH_QUERY_BUILDER), entityName);
+    bodyBuilder.newLine();
+
+    // Query luceneQuery;
+    // try {
+    //   luceneQuery = queryBuilder.keyword().onFields("field1", "field2").matching(text).createQuery();
+    // } catch (EmptyQueryException e) {
+    //   return new ArrayList<IdType>();
+    // }
+    bodyBuilder.appendFormalLine("%s luceneQuery;", getNameOfJavaType(LUCENE_QUERY));
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(
+        "luceneQuery = queryBuilder.keyword().onFields(%s).matching(text).createQuery();",
+        StringUtils.join(fieldNames, ", "));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("} catch (%s e) {",
+        getNameOfJavaType(SEARCH_EMPTY_QUERY_EXCEPTION));
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("// The text only contains words which aren't indexed");
+    bodyBuilder.appendFormalLine("return new %s<%s>();", getNameOfJavaType(JdkJavaType.ARRAY_LIST),
+        idTypeName);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+
+    // FullTextQuery fullTextQuery = fullTextEntityManager.createFullTextQuery(luceneQuery, Entity.class);
+    // fullTextQuery.setProjection(ProjectionConstants.ID);
+    // // Only the best matches, as they are sorted by relevance
+    // fullTextQuery.setMaxResults(fullTextMaxResults);
+    bodyBuilder.appendFormalLine(
+        "%s fullTextQuery = fullTextEntityManager.createFullTextQuery(luceneQuery, %s.class);",
+        fullTextQuery, entityName);
+    bodyBuilder.appendFormalLine("fullTextQuery.setProjection(%s.ID);",
+        getNameOfJavaType(HibernateJavaType.SEARCH_PROJECTION_CONSTANTS));
+    bodyBuilder.appendFormalLine("// Only the best matches, as they are sorted by relevance");
+    bodyBuilder.appendFormalLine("fullTextQuery.setMaxResults(%s);",
+        FULL_TEXT_MAX_RESULTS_FIELD_NAME);
+    bodyBuilder.newLine();
+
+    // List<IdType> ids = new ArrayList<IdType>();
+    // for (Object result : fullTextQuery.getResultList()) {
+    //   ids.add((IdType) ((Object[]) result)[0]);
+    // }
+    // return ids;
+    bodyBuilder.appendFormalLine("%s<%s> ids = new %s<%s>();", getNameOfJavaType(JavaType.LIST),
+        idTypeName, getNameOfJavaType(JdkJavaType.ARRAY_LIST), idTypeName);
+    bodyBuilder.appendFormalLine("for (Object result : fullTextQuery.getResultList()) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("ids.add((%s) ((Object[]) result)[0]);", idTypeName);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // if (ids.size() == fullTextMaxResults && fullTextQuery.getResultSize() > fullTextMaxResults) {
+    //   LOG.warn("The global search of \"{}\" only searches the best {} of the {} "
+    //       + "matches of the full-text index. Set application.search.full-text.max-results "
+    //       + "to search more of them.", text, fullTextMaxResults, fullTextQuery.getResultSize());
+    // }
+    // return ids;
+    bodyBuilder.appendFormalLine(
+        "if (ids.size() == %1$s && fullTextQuery.getResultSize() > %1$s) {",
+        FULL_TEXT_MAX_RESULTS_FIELD_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(
+        "%s.warn(\"The global search of \\\"{}\\\" only searches the best {} of the {} \"",
+        LOGGER_FIELD_NAME);
+    bodyBuilder.appendFormalLine(
+        "    + \"matches of the full-text index. Set %s \"", FULL_TEXT_MAX_RESULTS_PROPERTY);
+    bodyBuilder.appendFormalLine(
+        "    + \"to search more of them.\", text, %s, fullTextQuery.getResultSize());",
+        FULL_TEXT_MAX_RESULTS_FIELD_NAME);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("return ids;");
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PRIVATE, FIND_IDS_BY_FULL_TEXT_METHOD_NAME,
+            JavaType.wrapperOf(JavaType.LIST, idType), parameterTypes, parameterNames,
+            bodyBuilder);
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Returns the constant with the time the counts are cached for
+   *
+   * @param countCacheSeconds
+   * @return
+   */
+  private FieldMetadataBuilder getCountCacheMillisField(int countCacheSeconds) {
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+        COUNT_CACHE_MILLIS_FIELD_NAME, JavaType.LONG_PRIMITIVE, String.format("%dL",
+            countCacheSeconds * 1000L));
+  }
+
+  /**
+   * Returns the field caching the counts, with their expiration time, by the
+   * search predicate. It only holds soft references, so it doesn't grow
+   * unbounded.
+   *
+   * @return
+   */
+  private FieldMetadataBuilder getCountCacheField() {
+    final JavaType countType = new JavaType(Long.class.getName(), 1, DataType.PRIMITIVE, null, null);
+    final JavaType cacheType = JavaType.wrapperOf(CONCURRENT_REFERENCE_HASH_MAP, JavaType.STRING,
+        countType);
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE + Modifier.STATIC + Modifier.FINAL,
+        COUNT_CACHE_FIELD_NAME, JavaType.wrapperOf(JdkJavaType.MAP, JavaType.STRING, countType),
+        String.format("new %s()", getNameOfJavaType(cacheType)));
+  }
+
   private List<String> getListRightValueOfPair(List<Pair<String, String>> projectionFields) {
     List<String> result = new ArrayList<String>(projectionFields.size());
     for (Pair<String, String> item : projectionFields) {
@@ -618,7 +1653,8 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
 
     // Construct query
     buildQuery(bodyBuilder, entityVariable, globalSearch, referencedFieldParamName,
-        referencedField, referencedPathFieldName, null, null, this.defaultReturnType, null, null);
+        referencedField, referencedPathFieldName, null, null, this.defaultReturnType, null, null,
+        true);
     bodyBuilder.newLine();
 
     // AttributeMappingBuilder mapping = buildMapper()
@@ -661,7 +1697,28 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
     bodyBuilder.appendFormalLine("applyOrderById(query);");
     bodyBuilder.newLine();
 
-    buildQueryResult(bodyBuilder, pageable, entityVariable, projection, this.defaultReturnType);
+    if (this.queryCache) {
+
+      // // The entities are in the second-level cache, so only their ids are
+      // // kept in the query cache
+      // if (query instanceof AbstractJPAQuery) {
+      //   ((AbstractJPAQuery<?, ?>) query).setHint("org.hibernate.cacheable", true);
+      // }
+      bodyBuilder.appendFormalLine(
+          "// The entities are in the second-level cache, so only their ids are");
+      bodyBuilder.appendFormalLine("// kept in the query cache");
+      bodyBuilder.appendFormalLine("if (query instanceof %s) {",
+          getNameOfJavaType(QUERYDSL_ABSTRACT_JPA_QUERY));
+      bodyBuilder.indent();
+      bodyBuilder.appendFormalLine("((%s<?, ?>) query).setHint(\"org.hibernate.cacheable\", true);",
+          getNameOfJavaType(QUERYDSL_ABSTRACT_JPA_QUERY));
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+      bodyBuilder.newLine();
+    }
+
+    buildQueryResult(bodyBuilder, pageable, entityVariable, projection, this.defaultReturnType,
+        getLoadMethodName(methodBuilder.getReturnType()));
 
     // Sets body to generated method
     methodBuilder.setBodyBuilder(bodyBuilder);
@@ -720,7 +1777,7 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
 
     // Construct query
     buildQuery(bodyBuilder, entityVariable, globalSearch, null, null, null, finderParamType,
-        finderParamName, returnType, method.getMethodName(), methodInfo.getRight());
+        finderParamName, returnType, method.getMethodName(), methodInfo.getRight(), true);
     bodyBuilder.newLine();
 
     // AttributeMappingBuilder mapping = buildMapper()
@@ -764,7 +1821,8 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
     bodyBuilder.appendFormalLine("applyOrderById(query);");
     bodyBuilder.newLine();
 
-    buildQueryResult(bodyBuilder, pageable, entityVariable, QUERYDSL_PROJECTIONS, returnType);
+    buildQueryResult(bodyBuilder, pageable, entityVariable, QUERYDSL_PROJECTIONS, returnType,
+        getLoadMethodName(method.getReturnType()));
 
     // Use provided finder method to generate its implementation
     MethodMetadataBuilder methodBuilder =
@@ -788,7 +1846,9 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
   private JavaType getDomainTypeOfFinderMethod(MethodMetadata method) {
     JavaType returnType = method.getReturnType();
     if (returnType.getFullyQualifiedTypeName().equals(
-        SpringJavaType.PAGE.getFullyQualifiedTypeName())) {
+        SpringJavaType.PAGE.getFullyQualifiedTypeName())
+        || returnType.getFullyQualifiedTypeName().equals(
+            SpringJavaType.SLICE.getFullyQualifiedTypeName())) {
       if (returnType.getParameters() != null && returnType.getParameters().size() == 1) {
         return returnType.getParameters().get(0);
       }
@@ -884,6 +1944,25 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
     return JavaType.wrapperOf(QUERYDSL_JPQLQUERY, entityType);
   }
 
+  /**
+   * Returns the joins which fetch the single-valued associations of the
+   * entities loaded by a query
+   *
+   * @param entityVariable name of the variable that contains the Q entity
+   * @return
+   */
+  private String getFetchJoins(String entityVariable) {
+    StringBuilder fetchJoins = new StringBuilder();
+    for (FieldMetadata field : this.fetchJoinFields) {
+      fetchJoins.append(".leftJoin(");
+      fetchJoins.append(entityVariable);
+      fetchJoins.append(".");
+      fetchJoins.append(field.getFieldName());
+      fetchJoins.append(").fetchJoin()");
+    }
+    return fetchJoins.toString();
+  }
+
   /**
    * Builds the search query
    *
@@ -900,23 +1979,37 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
    * @param finderName the name of the finder. Only available when method is a
    *            projection/DTO finder.
    * @param partTree
+   * @param fetchAssociations whether the query loads the entities, so it
+   *            fetches their single-valued associations. The queries
+   *            selecting only the identifiers can't fetch them.
    */
   private void buildQuery(InvocableMemberBodyBuilder bodyBuilder, String entityVariable,
       JavaSymbolName globalSearch, JavaSymbolName referencedFieldParamName,
       FieldMetadata referencedField, String referencedFieldIdentifierPathName,
       JavaType formBeanType, String formBeanParameterName, JavaType returnType,
-      JavaSymbolName finderName, PartTree partTree) {
+      JavaSymbolName finderName, PartTree partTree, boolean fetchAssociations) {
 
-    // Prepare leftJoin for compositions oneToOne
     StringBuilder fetchJoins = new StringBuilder();
-    for (RelationInfo relationInfo : entityMetadata.getRelationInfos().values()) {
-      if (relationInfo.type == JpaRelationType.COMPOSITION
-          && relationInfo.cardinality == Cardinality.ONE_TO_ONE) {
-        fetchJoins.append(".leftJoin(");
-        fetchJoins.append(entityVariable);
-        fetchJoins.append(".");
-        fetchJoins.append(relationInfo.fieldName);
-        fetchJoins.append(")");
+    if (!this.typesAreProjections.get(returnType)) {
+
+      // Fetch the single-valued associations with the entities. Querydsl
+      // leaves the fetch out of the count queries.
+      if (fetchAssociations) {
+        fetchJoins.append(getFetchJoins(entityVariable));
+      }
+    } else {
+
+      // Prepare leftJoin for compositions oneToOne. Projections can't fetch
+      // associations, as they only select some of their columns
+      for (RelationInfo relationInfo : entityMetadata.getRelationInfos().values()) {
+        if (relationInfo.type == JpaRelationType.COMPOSITION
+            && relationInfo.cardinality == Cardinality.ONE_TO_ONE) {
+          fetchJoins.append(".leftJoin(");
+          fetchJoins.append(entityVariable);
+          fetchJoins.append(".");
+          fetchJoins.append(relationInfo.fieldName);
+          fetchJoins.append(")");
+        }
       }
     }
 
@@ -987,6 +2080,22 @@ public class RepositoryJpaCustomImplMetadata extends AbstractItdTypeDetailsProvi
       }
     }
 
+    if (!this.fullTextFields.isEmpty()) {
+
+      // if (globalSearch != null && StringUtils.hasText(globalSearch.getText())) {
+      //   query.where(myEntity.id.in(findIdsByFullText(globalSearch.getText())));
+      // }
+      bodyBuilder.appendFormalLine(
+          "if (globalSearch != null && %s.hasText(globalSearch.getText())) {",
+          getNameOfJavaType(SpringJavaType.STRING_UTILS));
+      bodyBuilder.indent();
+      bodyBuilder.appendFormalLine("query.where(%s.%s.in(%s(globalSearch.getText())));",
+          entityVariable, idField.getFieldName(), FIND_IDS_BY_FULL_TEXT_METHOD_NAME);
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+      return;
+    }
+
     // Path<?>[] paths = new Path[] { .... };
     bodyBuilder.appendIndent();
     final String pathType = getNameOfJavaType(QUERYDSL_PATH);
@@ -356,15 +356,26 @@ public class RepositoryJpaCustomImplMetadataProviderImpl extends
         entityMetadata.getCurrentIndentifierField(), validFields,
         repositoryCustomMetadata.getCurrentFindAllGlobalSearchMethod(),
         repositoryCustomMetadata.getCurrentFindAllByIdsInGlobalSearchMethod(),
+        repositoryCustomMetadata.getCurrentFindAllAfterMethod(),
+        repositoryCustomMetadata.getCurrentFindAllSliceMethod(),
+        repositoryCustomMetadata.getCurrentStreamAllMethod(),
+        repositoryCustomMetadata.getCurrentSaveInBatchMethod(),
+        repositoryCustomMetadata.getCurrentDeleteAllByIdInBatchMethod(),
         repositoryCustomMetadata.getDefaultReturnType(), referencedFieldsMethods,
         referencedFieldsIdentifierNames, typesFieldMaps, customFinderMethods, customCountMethods,
-        typesFieldsMetadataMap, typesAreProjections);
+        repositoryCustomMetadata.getReferencedFieldsFindAllSliceMethods(),
+        repositoryCustomMetadata.getCustomFinderSliceMethods(),
+        repositoryCustomMetadata.getCountCacheSeconds(), repositoryCustomMetadata.isFullTextSearch(),
+        entityDetails.getAnnotation(JpaJavaType.CACHEABLE) != null, typesFieldsMetadataMap,
+        typesAreProjections);
   }
 
   private JavaType getDomainTypeOfFinderMethod(MethodMetadata method) {
     JavaType returnType = method.getReturnType();
     if (returnType.getFullyQualifiedTypeName().equals(
-        SpringJavaType.PAGE.getFullyQualifiedTypeName())) {
+        SpringJavaType.PAGE.getFullyQualifiedTypeName())
+        || returnType.getFullyQualifiedTypeName().equals(
+            SpringJavaType.SLICE.getFullyQualifiedTypeName())) {
       if (returnType.getParameters() != null && returnType.getParameters().size() == 1) {
         return returnType.getParameters().get(0);
       }
@@ -21,6 +21,7 @@ import org.springframework.roo.classpath.itd.AbstractItdTypeDetailsProvidingMeta
 import org.springframework.roo.classpath.operations.Cardinality;
 import org.springframework.roo.metadata.MetadataIdentificationUtils;
 import org.springframework.roo.model.DataType;
+import org.springframework.roo.model.JavaPackage;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
 import org.springframework.roo.model.SpringJavaType;
@@ -34,6 +35,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Metadata for {@link RooJpaRepositoryCustom}.
@@ -50,6 +52,8 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
       SpringJavaType.PAGEABLE);
   private static final AnnotatedJavaType GLOBAL_SEARCH_PARAMETER = AnnotatedJavaType
       .convertFromJavaType(SpringletsJavaType.SPRINGLETS_GLOBAL_SEARCH);
+  private static final JavaSymbolName CURSOR_PARAMETER_NAME = new JavaSymbolName("cursor");
+  private static final JavaSymbolName SIZE_PARAMETER_NAME = new JavaSymbolName("size");
   private static final String PROVIDES_TYPE_STRING = RepositoryJpaCustomMetadata.class.getName();
   private static final String PROVIDES_TYPE = MetadataIdentificationUtils
       .create(PROVIDES_TYPE_STRING);
@@ -63,6 +67,15 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
 
   private final MethodMetadata findAllGlobalSearchMethod;
   private final MethodMetadata findAllByIdsInGlobalSearchMethod;
+  private final MethodMetadata findAllAfterMethod;
+  private final MethodMetadata streamAllMethod;
+  private final MethodMetadata saveInBatchMethod;
+  private final MethodMetadata deleteAllByIdInBatchMethod;
+  private final MethodMetadata findAllSliceMethod;
+  private final Map<FieldMetadata, MethodMetadata> referencedFieldsFindAllSliceMethods;
+  private final List<Pair<MethodMetadata, PartTree>> customFinderSliceMethods;
+  private final int countCacheSeconds;
+  private final boolean fullTextSearch;
 
   private Map<JavaSymbolName, MethodMetadata> finderMethodsAndCounts;
 
@@ -95,6 +108,18 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
         metadataIdentificationString);
   }
 
+  /**
+   * Returns the type of the results of the keyset pagination finders of the
+   * repositories on the given package.
+   *
+   * @param repositoryPackage
+   * @return the KeysetSlice JavaType
+   */
+  public static JavaType getKeysetSliceType(final JavaPackage repositoryPackage) {
+    return new JavaType(repositoryPackage.getFullyQualifiedPackageName().concat(".KeysetSlice"),
+        repositoryPackage.getModule());
+  }
+
   /**
    * Constructor
    *
@@ -109,12 +134,20 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
    * @param searchResult the java type o the search result returned by findAll finder
    * @param repositoryMetadata list of information of fields which entity is child part
    * @param relationsAsChild
+   * @param keysetPagination whether to generate the findAllAfter method. Requires
+   *            a simple, comparable identifier.
+   * @param fullTextSearch whether the global search of the finders queries
+   *            the full-text index. Requires a simple identifier.
+   * @param batchOperations whether to generate the saveInBatch and
+   *            deleteAllByIdInBatch methods. Requires a writable entity with
+   *            a simple identifier.
    */
   public RepositoryJpaCustomMetadata(final String identifier, final JavaType aspectName,
       final PhysicalTypeMetadata governorPhysicalTypeMetadata,
       final RepositoryJpaCustomAnnotationValues annotationValues, final JavaType identifierType,
       final JavaType domainType, final RepositoryJpaMetadata repositoryMetadata,
-      List<Pair<FieldMetadata, RelationInfo>> relationsAsChild) {
+      List<Pair<FieldMetadata, RelationInfo>> relationsAsChild, final boolean keysetPagination,
+      final boolean fullTextSearch, final boolean batchOperations) {
     super(identifier, aspectName, governorPhysicalTypeMetadata);
     Validate.notNull(annotationValues, "Annotation values required");
     Validate.notNull(repositoryMetadata, "Referenced fields could be empty but not null");
@@ -122,6 +155,9 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
     this.defaultReturnType = repositoryMetadata.getDefaultReturnType();
     this.identifierType = identifierType;
     this.finderMethodsAndCounts = new HashMap<JavaSymbolName, MethodMetadata>();
+    this.countCacheSeconds = annotationValues.getCountCacheSeconds();
+    this.fullTextSearch = fullTextSearch;
+    final boolean sliceFinders = annotationValues.isSliceFinders();
 
     ArrayList<Pair<MethodMetadata, PartTree>> tmpCustomFinderMethods =
         new ArrayList<Pair<MethodMetadata, PartTree>>();
@@ -130,6 +166,10 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
 
     Map<FieldMetadata, MethodMetadata> tempTeferencedFieldsFindAllMethods =
         new HashMap<FieldMetadata, MethodMetadata>(relationsAsChild.size());
+    Map<FieldMetadata, MethodMetadata> tempReferencedFieldsFindAllSliceMethods =
+        new HashMap<FieldMetadata, MethodMetadata>();
+    ArrayList<Pair<MethodMetadata, PartTree>> tmpCustomFinderSliceMethods =
+        new ArrayList<Pair<MethodMetadata, PartTree>>();
 
     boolean composition = false;
     // Generate findAllMethod for every referencedFields
@@ -145,9 +185,17 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
           getFindAllMethodByReferencedField(referencedField.getLeft(), referencedField.getValue());
       ensureGovernorHasMethod(new MethodMetadataBuilder(method));
       tempTeferencedFieldsFindAllMethods.put(referencedField.getLeft(), method);
+
+      if (sliceFinders) {
+        MethodMetadata sliceMethod = getSliceFinder(method);
+        ensureGovernorHasMethod(new MethodMetadataBuilder(sliceMethod));
+        tempReferencedFieldsFindAllSliceMethods.put(referencedField.getLeft(), sliceMethod);
+      }
     }
     referencedFieldsFindAllMethods =
         Collections.unmodifiableMap(tempTeferencedFieldsFindAllMethods);
+    referencedFieldsFindAllSliceMethods =
+        Collections.unmodifiableMap(tempReferencedFieldsFindAllSliceMethods);
 
     // Generate findAll method
     if (!composition) {
@@ -155,9 +203,39 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
       ensureGovernorHasMethod(new MethodMetadataBuilder(findAllGlobalSearchMethod));
       findAllByIdsInGlobalSearchMethod = getFindAllByIdsInGlobalSearchMethod();
       ensureGovernorHasMethod(new MethodMetadataBuilder(findAllByIdsInGlobalSearchMethod));
+      streamAllMethod = getStreamAllMethod();
+      ensureGovernorHasMethod(new MethodMetadataBuilder(streamAllMethod));
     } else {
       findAllGlobalSearchMethod = null;
       findAllByIdsInGlobalSearchMethod = null;
+      streamAllMethod = null;
+    }
+
+    // Generate findAllSlice method
+    if (!composition && sliceFinders) {
+      findAllSliceMethod = getSliceFinder(findAllGlobalSearchMethod);
+      ensureGovernorHasMethod(new MethodMetadataBuilder(findAllSliceMethod));
+    } else {
+      findAllSliceMethod = null;
+    }
+
+    // Generate findAllAfter method
+    if (!composition && keysetPagination) {
+      findAllAfterMethod = getFindAllAfterMethod();
+      ensureGovernorHasMethod(new MethodMetadataBuilder(findAllAfterMethod));
+    } else {
+      findAllAfterMethod = null;
+    }
+
+    // Generate batch methods
+    if (!composition && batchOperations) {
+      saveInBatchMethod = getSaveInBatchMethod(domainType);
+      ensureGovernorHasMethod(new MethodMetadataBuilder(saveInBatchMethod));
+      deleteAllByIdInBatchMethod = getDeleteAllByIdInBatchMethod();
+      ensureGovernorHasMethod(new MethodMetadataBuilder(deleteAllByIdInBatchMethod));
+    } else {
+      saveInBatchMethod = null;
+      deleteAllByIdInBatchMethod = null;
     }
 
     // Prepare a list of all finder and count methods already declared on
@@ -179,6 +257,12 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
         if (!isAlreadyDeclaredMethod(method, allFinderMethods)) {
           ensureGovernorHasMethod(new MethodMetadataBuilder(method));
           tmpCustomFinderMethods.add(Pair.of(method, finderInfo.getRight()));
+
+          if (sliceFinders) {
+            MethodMetadata sliceMethod = getSliceFinder(method);
+            ensureGovernorHasMethod(new MethodMetadataBuilder(sliceMethod));
+            tmpCustomFinderSliceMethods.add(Pair.of(sliceMethod, finderInfo.getRight()));
+          }
         }
         allFinderMethods.add(method);
 
@@ -197,6 +281,7 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
     }
     customCountMethods = Collections.unmodifiableList(tmpCustomCountMethods);
     customFinderMethods = Collections.unmodifiableList(tmpCustomFinderMethods);
+    customFinderSliceMethods = Collections.unmodifiableList(tmpCustomFinderSliceMethods);
 
     // Build the ITD
     itdTypeDetails = builder.build();
@@ -247,6 +332,127 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
     return methodBuilder.build(); // Build and return a MethodMetadata
   }
 
+  /**
+   * Method that generates the saveInBatch method on current interface, which
+   * saves the provided entities flushing them in JDBC batches.
+   *
+   * @param entity
+   * @return
+   */
+  private MethodMetadata getSaveInBatchMethod(JavaType entity) {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.iterableOf(entity)));
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("entities"));
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.ABSTRACT, new JavaSymbolName(
+            "saveInBatch"), JavaType.listOf(entity), parameterTypes, parameterNames, null);
+
+    return methodBuilder.build(); // Build and return a MethodMetadata
+  }
+
+  /**
+   * Method that generates the deleteAllByIdInBatch method on current
+   * interface, which deletes the entities with the provided identifiers using
+   * a single bulk delete statement.
+   *
+   * @return
+   */
+  private MethodMetadata getDeleteAllByIdInBatchMethod() {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.iterableOf(identifierType)));
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(new JavaSymbolName("ids"));
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.ABSTRACT, new JavaSymbolName(
+            "deleteAllByIdInBatch"), JavaType.LONG_PRIMITIVE, parameterTypes, parameterNames, null);
+
+    return methodBuilder.build(); // Build and return a MethodMetadata
+  }
+
+  /**
+   * Method that generates the streamAll method on current interface, which
+   * returns the same results as findAll, but reading them as they are
+   * iterated instead of loading them all, to export large amounts of them.
+   *
+   * @return
+   */
+  private MethodMetadata getStreamAllMethod() {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    //Global search parameter
+    parameterTypes.add(GLOBAL_SEARCH_PARAMETER);
+    parameterNames.add(GOBAL_SEARCH_PARAMETER_NAME);
+
+    // Pageable parameter
+    parameterTypes.add(PAGEABLE_PARAMETER);
+    parameterNames.add(PAGEABLE_PARAMETER_NAME);
+
+    // Method name
+    JavaSymbolName methodName = new JavaSymbolName("streamAll");
+
+    // Return type
+    JavaType returnType = JavaType.wrapperOf(SpringJavaType.CLOSEABLE_ITERATOR, defaultReturnType);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.ABSTRACT, methodName,
+            returnType, parameterTypes, parameterNames, null);
+
+    return methodBuilder.build(); // Build and return a MethodMetadata
+  }
+
+  /**
+   * Method that generates the findAllAfter method on current interface, which
+   * uses keyset pagination: it returns the results which follow the one
+   * pointed by the cursor, ordered by identifier.
+   *
+   * @return
+   */
+  private MethodMetadata getFindAllAfterMethod() {
+
+    // Define method parameter types and parameter names
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+
+    //Global search parameter
+    parameterTypes.add(GLOBAL_SEARCH_PARAMETER);
+    parameterNames.add(GOBAL_SEARCH_PARAMETER_NAME);
+
+    // Cursor parameter
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.STRING));
+    parameterNames.add(CURSOR_PARAMETER_NAME);
+
+    // Size parameter
+    parameterTypes.add(AnnotatedJavaType.convertFromJavaType(JavaType.INT_PRIMITIVE));
+    parameterNames.add(SIZE_PARAMETER_NAME);
+
+    // Method name
+    JavaSymbolName methodName = new JavaSymbolName("findAllAfter");
+
+    // Return type
+    JavaType returnType =
+        JavaType.wrapperOf(getKeysetSliceType(getDestination().getPackage()), defaultReturnType);
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.ABSTRACT, methodName,
+            returnType, parameterTypes, parameterNames, null);
+
+    return methodBuilder.build(); // Build and return a MethodMetadata
+  }
+
   /**
    * Method that generates the findAllByIdsIn method on current interface.
    *
@@ -371,6 +577,34 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
     return methodBuilder.build(); // Build and return a MethodMetadata
   }
 
+  /**
+   * Method that generates the variant of a finder which returns a Slice
+   * instead of a Page, so that results aren't counted. It has the same
+   * parameters and its name ends with "Slice".
+   *
+   * @param pageFinder the finder which returns a Page
+   *
+   * @return
+   */
+  private MethodMetadata getSliceFinder(MethodMetadata pageFinder) {
+
+    // Method name
+    JavaSymbolName methodName =
+        new JavaSymbolName(pageFinder.getMethodName().getSymbolName().concat("Slice"));
+
+    // Return type
+    JavaType returnType =
+        new JavaType(SpringJavaType.SLICE.getFullyQualifiedTypeName(), 0, DataType.TYPE, null,
+            pageFinder.getReturnType().getParameters());
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.ABSTRACT, methodName,
+            returnType, pageFinder.getParameterTypes(), pageFinder.getParameterNames(), null);
+
+    return methodBuilder.build(); // Build and return a MethodMetadata
+  }
+
   /**
    * Method that generates count methods for custom finders.
    *
@@ -474,4 +708,109 @@ public class RepositoryJpaCustomMetadata extends AbstractItdTypeDetailsProviding
   public MethodMetadata getCurrentFindAllByIdsInGlobalSearchMethod() {
     return findAllByIdsInGlobalSearchMethod;
   }
+
+  /**
+   *
+   * @return method findAllSlice declared for this repository, or null if
+   *         slice finders are not enabled
+   */
+  public MethodMetadata getCurrentFindAllSliceMethod() {
+    return findAllSliceMethod;
+  }
+
+  /**
+   * This method returns the variants returning a Slice of the findAll
+   * methods for referenced fields
+   *
+   * @return
+   */
+  public Map<FieldMetadata, MethodMetadata> getReferencedFieldsFindAllSliceMethods() {
+    return referencedFieldsFindAllSliceMethods;
+  }
+
+  /**
+   * This method returns the variants returning a Slice of the finder
+   * methods which return a projection
+   *
+   * @return
+   */
+  public List<Pair<MethodMetadata, PartTree>> getCustomFinderSliceMethods() {
+    return customFinderSliceMethods;
+  }
+
+  /**
+   * Returns all the finders returning a Slice declared for this repository
+   *
+   * @return
+   */
+  public List<MethodMetadata> getSliceFinderMethods() {
+    List<MethodMetadata> sliceFinders = new ArrayList<MethodMetadata>();
+    if (findAllSliceMethod != null) {
+      sliceFinders.add(findAllSliceMethod);
+    }
+    // Sort them to prevent ITD regeneration (ROO-3765)
+    Map<FieldMetadata, MethodMetadata> referencedFieldsSliceMethodsOrderedByFieldName =
+        new TreeMap<FieldMetadata, MethodMetadata>(FieldMetadata.COMPARATOR_BY_NAME);
+    referencedFieldsSliceMethodsOrderedByFieldName.putAll(referencedFieldsFindAllSliceMethods);
+    sliceFinders.addAll(referencedFieldsSliceMethodsOrderedByFieldName.values());
+    for (Pair<MethodMetadata, PartTree> sliceFinder : customFinderSliceMethods) {
+      sliceFinders.add(sliceFinder.getLeft());
+    }
+    return sliceFinders;
+  }
+
+  /**
+   * Returns for how many seconds the finders returning a Page cache their
+   * counts
+   *
+   * @return 0 if counts are not cached
+   */
+  public int getCountCacheSeconds() {
+    return countCacheSeconds;
+  }
+
+  /**
+   * Indicates whether the global search of the finders queries the
+   * full-text index of the entity
+   *
+   * @return see above
+   */
+  public boolean isFullTextSearch() {
+    return fullTextSearch;
+  }
+
+  /**
+   *
+   * @return method findAllAfter declared for this repository, or null if
+   *         keyset pagination is not enabled
+   */
+  public MethodMetadata getCurrentFindAllAfterMethod() {
+    return findAllAfterMethod;
+  }
+
+  /**
+   *
+   * @return method streamAll declared for this repository
+   */
+  public MethodMetadata getCurrentStreamAllMethod() {
+    return streamAllMethod;
+  }
+
+  /**
+   *
+   * @return method saveInBatch declared for this repository, or null if the
+   *         entity can't be saved in batches
+   */
+  public MethodMetadata getCurrentSaveInBatchMethod() {
+    return saveInBatchMethod;
+  }
+
+  /**
+   *
+   * @return method deleteAllByIdInBatch declared for this repository, or null
+   *         if the entity can't be deleted in batches
+   */
+  public MethodMetadata getCurrentDeleteAllByIdInBatchMethod() {
+    return deleteAllByIdInBatchMethod;
+  }
 }
@@ -34,6 +34,7 @@ import org.springframework.roo.metadata.MetadataItem;
 import org.springframework.roo.metadata.internal.MetadataDependencyRegistryTracker;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
+import org.springframework.roo.model.JpaJavaType;
 import org.springframework.roo.model.RooJavaType;
 import org.springframework.roo.project.LogicalPath;
 import org.springframework.roo.support.logging.HandlerUtils;
@@ -212,9 +213,25 @@ public class RepositoryJpaCustomMetadataProviderImpl extends
       return null;
     }
 
+    // Keyset pagination seeks by identifier, so it can't be used with
+    // composite identifiers
+    final FieldMetadata identifierField = entityMetadata.getCurrentIndentifierField();
+    final boolean keysetPagination =
+        annotationValues.isKeysetPagination()
+            && identifierField.getAnnotation(JpaJavaType.EMBEDDED_ID) == null;
+
+    // The full-text index is looked up for identifiers, which must be simple
+    // too
+    final boolean fullTextSearch =
+        annotationValues.isFullTextSearch()
+            && identifierField.getAnnotation(JpaJavaType.EMBEDDED_ID) == null;
+    final boolean batchOperations =
+        !entityMetadata.isReadOnly()
+            && identifierField.getAnnotation(JpaJavaType.EMBEDDED_ID) == null;
+
     return new RepositoryJpaCustomMetadata(metadataIdentificationString, aspectName,
-        governorPhysicalTypeMetadata, annotationValues, entityMetadata.getCurrentIndentifierField()
-            .getFieldType(), entity, repositoryMetadata, relationsAsChild);
+        governorPhysicalTypeMetadata, annotationValues, identifierField.getFieldType(), entity,
+        repositoryMetadata, relationsAsChild, keysetPagination, fullTextSearch, batchOperations);
   }
 
   private JpaOperations getJpaOperations() {
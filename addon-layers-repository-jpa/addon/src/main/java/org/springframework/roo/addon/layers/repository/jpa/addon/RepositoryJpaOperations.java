@@ -26,16 +26,23 @@ public interface RepositoryJpaOperations {
    * @param domainType the JavaType representing the domain entity this repository should expose.
    * @param defaultReturnType the JavaType of the findAll search results.
    * @param failOnComposition whatever should fail if a should-not-generate-repository-entity is received as parameter
+   * @param keysetPagination whether to generate a keyset pagination finder
+   * @param fullTextSearch whether the global search of the finders queries a
+   *            full-text index of the entity
    */
   void addRepository(JavaType interfaceType, JavaType domainType, JavaType defaultReturnType,
-      boolean failOnComposition);
+      boolean failOnComposition, boolean keysetPagination, boolean fullTextSearch);
 
   /**
    * Add new repository for all existing entities.
    *
    * @param repositoriesPackage package where repositories will be generated
+   * @param keysetPagination whether to generate keyset pagination finders
+   * @param fullTextSearch whether the global search of the finders queries
+   *            full-text indexes of the entities
    */
-  void generateAllRepositories(JavaPackage repositoriesPackage);
+  void generateAllRepositories(JavaPackage repositoriesPackage, boolean keysetPagination,
+      boolean fullTextSearch);
 
   /**
    * Informs a DomainType (entity) should or shouldn't has a repository.
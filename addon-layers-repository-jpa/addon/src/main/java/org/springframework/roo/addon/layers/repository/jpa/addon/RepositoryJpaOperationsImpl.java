@@ -13,6 +13,8 @@ import org.osgi.service.component.ComponentContext;
 import org.springframework.roo.addon.jpa.addon.JpaOperations;
 import org.springframework.roo.addon.jpa.addon.entity.JpaEntityMetadata;
 import org.springframework.roo.addon.jpa.addon.entity.JpaEntityMetadata.RelationInfo;
+import org.springframework.roo.addon.layers.repository.jpa.annotations.RooJpaRepositoryCustom;
+import org.springframework.roo.application.config.ApplicationConfigService;
 import org.springframework.roo.classpath.PhysicalTypeCategory;
 import org.springframework.roo.classpath.PhysicalTypeIdentifier;
 import org.springframework.roo.classpath.TypeLocationService;
@@ -20,6 +22,7 @@ import org.springframework.roo.classpath.TypeManagementService;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
 import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetailsBuilder;
 import org.springframework.roo.classpath.details.FieldMetadata;
+import org.springframework.roo.classpath.details.FieldMetadataBuilder;
 import org.springframework.roo.classpath.details.annotations.AnnotationAttributeValue;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
@@ -27,9 +30,11 @@ import org.springframework.roo.classpath.details.annotations.ClassAttributeValue
 import org.springframework.roo.classpath.operations.Cardinality;
 import org.springframework.roo.classpath.scanner.MemberDetailsScanner;
 import org.springframework.roo.metadata.MetadataService;
+import org.springframework.roo.model.HibernateJavaType;
 import org.springframework.roo.model.JavaPackage;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
+import org.springframework.roo.model.JpaJavaType;
 import org.springframework.roo.model.RooJavaType;
 import org.springframework.roo.model.SpringJavaType;
 import org.springframework.roo.model.SpringletsJavaType;
@@ -73,6 +78,25 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
 
   protected final static Logger LOGGER = HandlerUtils.getLogger(RepositoryJpaOperationsImpl.class);
 
+  private static final Dependency HIBERNATE_SEARCH_DEPENDENCY = new Dependency("org.hibernate",
+      "hibernate-search-orm", "5.5.8.Final");
+  private static final String SEARCH_DIRECTORY_PROVIDER_PROPERTY =
+      "spring.jpa.properties.hibernate.search.default.directory_provider";
+  private static final String SEARCH_DIRECTORY_PROVIDER_VALUE = "filesystem";
+  private static final String SEARCH_INDEX_BASE_PROPERTY =
+      "spring.jpa.properties.hibernate.search.default.indexBase";
+  private static final String SEARCH_INDEX_BASE_VALUE = "${user.dir}/indexes";
+  private static final String JDBC_BATCH_SIZE_PROPERTY =
+      "spring.jpa.properties.hibernate.jdbc.batch_size";
+  private static final String ORDER_INSERTS_PROPERTY =
+      "spring.jpa.properties.hibernate.order_inserts";
+  private static final String ORDER_UPDATES_PROPERTY =
+      "spring.jpa.properties.hibernate.order_updates";
+  private static final String BATCH_VERSIONED_DATA_PROPERTY =
+      "spring.jpa.properties.hibernate.jdbc.batch_versioned_data";
+  private static final String DEFAULT_BATCH_FETCH_SIZE_PROPERTY =
+      "spring.jpa.properties.hibernate.default_batch_fetch_size";
+
   // ------------ OSGi component attributes ----------------
   private BundleContext context;
 
@@ -89,7 +113,8 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
   }
 
   @Override
-  public void generateAllRepositories(JavaPackage repositoriesPackage) {
+  public void generateAllRepositories(JavaPackage repositoriesPackage, boolean keysetPagination,
+      boolean fullTextSearch) {
     // Getting all project entities
     Set<ClassOrInterfaceTypeDetails> entities =
         getTypeLocationService().findClassesOrInterfaceDetailsWithAnnotation(
@@ -110,14 +135,16 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
               repositoriesPackage.getModule());
 
       // Delegate on simple add repository method
-      addRepository(interfaceType, entity.getType(), null, false);
+      addRepository(interfaceType, entity.getType(), null, false, keysetPagination,
+          fullTextSearch);
     }
 
   }
 
   @Override
   public void addRepository(JavaType interfaceType, final JavaType domainType,
-      JavaType defaultReturnType, boolean failOnComposition) {
+      JavaType defaultReturnType, boolean failOnComposition, boolean keysetPagination,
+      boolean fullTextSearch) {
     Validate.notNull(domainType, "ERROR: You must specify a valid Entity. ");
 
     if (getProjectOperations().isMultimoduleProject()) {
@@ -201,6 +228,10 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
     // Add Springlets base repository class
     addRepositoryConfigurationClass();
 
+    // Send the statements of the batch operations in JDBC batches, and load
+    // the lazy associations in batches too
+    addBatchProperties();
+
     // Check if current entity is defined as "readOnly".
     AnnotationAttributeValue<Boolean> readOnlyAttr =
         entityDetails.getAnnotation(RooJavaType.ROO_JPA_ENTITY).getAttribute("readOnly");
@@ -219,7 +250,12 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
     // By default, generate RepositoryCustom interface and its
     // implementation that allow developers to include its dynamic queries
     // using QueryDSL
-    addRepositoryCustom(domainType, interfaceType);
+    addRepositoryCustom(domainType, interfaceType, keysetPagination, fullTextSearch);
+
+    // Index the entity to search it by full text
+    if (fullTextSearch) {
+      addFullTextIndex(entityDetails);
+    }
 
     // Add dependencies between modules
     getProjectOperations().addModuleDependency(interfaceType.getModule(), domainType.getModule());
@@ -278,6 +314,120 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
     }
   }
 
+  /**
+   * Configures every application module to send the insert, update and
+   * delete statements in JDBC batches of the same size the generated
+   * repositories flush their batch operations with, grouping the statements
+   * by entity so they can be batched together. The lazy associations and
+   * collections of the loaded entities are also initialized in batches of
+   * that size, instead of one query per entity. Values already set are kept.
+   */
+  private void addBatchProperties() {
+    Set<ClassOrInterfaceTypeDetails> applicationCids =
+        getTypeLocationService().findClassesOrInterfaceDetailsWithAnnotation(
+            SpringJavaType.SPRING_BOOT_APPLICATION);
+    for (ClassOrInterfaceTypeDetails applicationCid : applicationCids) {
+      final String moduleName = applicationCid.getType().getModule();
+      getApplicationConfigService().addProperty(moduleName, JDBC_BATCH_SIZE_PROPERTY,
+          String.valueOf(RepositoryJpaCustomImplMetadata.BATCH_SIZE), null, false);
+      getApplicationConfigService().addProperty(moduleName, ORDER_INSERTS_PROPERTY, "true", null,
+          false);
+      getApplicationConfigService().addProperty(moduleName, ORDER_UPDATES_PROPERTY, "true", null,
+          false);
+      getApplicationConfigService().addProperty(moduleName, BATCH_VERSIONED_DATA_PROPERTY, "true",
+          null, false);
+      getApplicationConfigService().addProperty(moduleName, DEFAULT_BATCH_FETCH_SIZE_PROPERTY,
+          String.valueOf(RepositoryJpaCustomImplMetadata.BATCH_SIZE), null, false);
+    }
+  }
+
+  /**
+   * Indexes the provided entity with Hibernate Search, so that its
+   * repository can search it by full text: annotates the entity and its text
+   * fields, and configures every application module to keep the index in
+   * the "indexes" folder of its working directory, to build it on start when
+   * it is empty and to restrict the global search to its best matches.
+   *
+   * @param entityDetails
+   */
+  private void addFullTextIndex(ClassOrInterfaceTypeDetails entityDetails) {
+    getProjectOperations().addDependency(entityDetails.getType().getModule(),
+        HIBERNATE_SEARCH_DEPENDENCY);
+
+    // Add @Indexed to the entity and @Field to its persistent text fields
+    final ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(entityDetails);
+    if (cidBuilder.getDeclaredTypeAnnotation(HibernateJavaType.SEARCH_INDEXED) == null) {
+      cidBuilder.addAnnotation(new AnnotationMetadataBuilder(HibernateJavaType.SEARCH_INDEXED));
+    }
+    for (FieldMetadataBuilder field : cidBuilder.getDeclaredFields()) {
+      if (!JavaType.STRING.equals(field.getFieldType())
+          || Modifier.isStatic(field.getModifier()) || Modifier.isTransient(field.getModifier())
+          || field.getDeclaredTypeAnnotation(JpaJavaType.TRANSIENT) != null
+          || field.getDeclaredTypeAnnotation(HibernateJavaType.SEARCH_FIELD) != null) {
+        continue;
+      }
+      field.addAnnotation(new AnnotationMetadataBuilder(HibernateJavaType.SEARCH_FIELD));
+    }
+    getTypeManagementService().createOrUpdateTypeOnDisk(cidBuilder.build());
+
+    Set<ClassOrInterfaceTypeDetails> applicationCids =
+        getTypeLocationService().findClassesOrInterfaceDetailsWithAnnotation(
+            SpringJavaType.SPRING_BOOT_APPLICATION);
+    for (ClassOrInterfaceTypeDetails applicationCid : applicationCids) {
+      Pom module =
+          getProjectOperations().getPomFromModuleName(applicationCid.getType().getModule());
+
+      // Keep the indexes on disk, so they don't use the heap and they are
+      // only built from the database once
+      getApplicationConfigService().addProperty(module.getModuleName(),
+          SEARCH_DIRECTORY_PROVIDER_PROPERTY, SEARCH_DIRECTORY_PROVIDER_VALUE, null, false);
+      getApplicationConfigService().addProperty(module.getModuleName(),
+          SEARCH_INDEX_BASE_PROPERTY, SEARCH_INDEX_BASE_VALUE, null, false);
+      getApplicationConfigService().addProperty(module.getModuleName(),
+          RepositoryJpaCustomImplMetadata.FULL_TEXT_MAX_RESULTS_PROPERTY,
+          String.valueOf(RepositoryJpaCustomImplMetadata.FULL_TEXT_MAX_RESULTS), null, false);
+
+      // Build the empty ones when the application starts
+      generateFullTextIndexConfiguration(new JavaPackage(String.format("%s.config",
+          getTypeLocationService().getTopLevelPackageForModule(module)), module.getModuleName()));
+    }
+  }
+
+  /**
+   * Method that generates the FullTextIndexConfiguration class, which builds
+   * the empty full-text indexes when the application starts, on the provided
+   * package if it doesn't exist yet.
+   *
+   * @param configPackage
+   */
+  private void generateFullTextIndexConfiguration(JavaPackage configPackage) {
+    final JavaType javaType =
+        new JavaType(String.format("%s.FullTextIndexConfiguration", configPackage),
+            configPackage.getModule());
+    final String physicalPath =
+        getPathResolver().getCanonicalPath(javaType.getModule(), Path.SRC_MAIN_JAVA, javaType);
+    if (getFileManager().exists(physicalPath)) {
+      return;
+    }
+
+    InputStream inputStream = null;
+    try {
+      // Use defined template
+      inputStream = FileUtils.getInputStream(getClass(), "FullTextIndexConfiguration-template._java");
+      String input = IOUtils.toString(inputStream);
+      // Replacing package
+      input = input.replace("__PACKAGE__", configPackage.getFullyQualifiedPackageName());
+
+      // Creating FullTextIndexConfiguration class
+      getFileManager().createOrUpdateTextFileIfRequired(physicalPath, input, true);
+    } catch (final IOException e) {
+      throw new IllegalStateException(String.format("Unable to create '%s'", physicalPath), e);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+  }
+
   /**
    * Method that generates RepositoryCustom interface and its implementation
    * for an specific entity
@@ -286,10 +436,13 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
    * @param repositoryType
    * @param repositoryPackage
    * @param defaultReturnType
+   * @param keysetPagination
+   * @param fullTextSearch
    *
    * @return JavaType with new RepositoryCustom interface.
    */
-  private JavaType addRepositoryCustom(JavaType domainType, JavaType repositoryType) {
+  private JavaType addRepositoryCustom(JavaType domainType, JavaType repositoryType,
+      boolean keysetPagination, boolean fullTextSearch) {
 
     // Getting RepositoryCustom interface JavaType
     JavaType interfaceType = getCustomRepositoryJavaTypeFor(repositoryType);
@@ -316,6 +469,17 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
         new AnnotationMetadataBuilder(RooJavaType.ROO_REPOSITORY_JPA_CUSTOM);
     repositoryCustomAnnotationMetadata.addAttribute(new ClassAttributeValue(new JavaSymbolName(
         "entity"), domainType));
+    if (keysetPagination) {
+      repositoryCustomAnnotationMetadata.addBooleanAttribute(
+          RooJpaRepositoryCustom.KEYSET_PAGINATION_ATTRIBUTE, true);
+
+      // The keyset pagination finder returns a KeysetSlice
+      generateKeysetSlice(interfaceType.getPackage());
+    }
+    if (fullTextSearch) {
+      repositoryCustomAnnotationMetadata.addBooleanAttribute(
+          RooJpaRepositoryCustom.FULL_TEXT_SEARCH_ATTRIBUTE, true);
+    }
 
     interfaceBuilder.addAnnotation(repositoryCustomAnnotationMetadata);
 
@@ -553,6 +717,40 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
 
   }
 
+  /**
+   * Method that generates the KeysetSlice class, returned by keyset
+   * pagination finders, on the provided package if it doesn't exist yet.
+   *
+   * @param repositoryPackage
+   * @return JavaType with KeysetSlice class
+   */
+  private JavaType generateKeysetSlice(JavaPackage repositoryPackage) {
+    final JavaType javaType = RepositoryJpaCustomMetadata.getKeysetSliceType(repositoryPackage);
+    final String physicalPath =
+        getPathResolver().getCanonicalPath(javaType.getModule(), Path.SRC_MAIN_JAVA, javaType);
+    if (getFileManager().exists(physicalPath)) {
+      return javaType;
+    }
+
+    InputStream inputStream = null;
+    try {
+      // Use defined template
+      inputStream = FileUtils.getInputStream(getClass(), "KeysetSlice-template._java");
+      String input = IOUtils.toString(inputStream);
+      // Replacing package
+      input = input.replace("__PACKAGE__", repositoryPackage.getFullyQualifiedPackageName());
+
+      // Creating KeysetSlice class
+      getFileManager().createOrUpdateTextFileIfRequired(physicalPath, input, true);
+    } catch (final IOException e) {
+      throw new IllegalStateException(String.format("Unable to create '%s'", physicalPath), e);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+
+    return javaType;
+  }
+
   /**
    * Method that generates RepositoryCustom implementation on current package.
    * If this RepositoryCustom implementation already exists in this or other
@@ -658,6 +856,10 @@ public class RepositoryJpaOperationsImpl implements RepositoryJpaOperations {
     return serviceInstaceManager.getServiceInstance(this, MemberDetailsScanner.class);
   }
 
+  public ApplicationConfigService getApplicationConfigService() {
+    return serviceInstaceManager.getServiceInstance(this, ApplicationConfigService.class);
+  }
+
   public MetadataService getMetadataService() {
     return serviceInstaceManager.getServiceInstance(this, MetadataService.class);
   }
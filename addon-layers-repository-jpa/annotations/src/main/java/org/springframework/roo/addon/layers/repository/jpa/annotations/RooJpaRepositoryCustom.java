@@ -21,6 +21,29 @@ public @interface RooJpaRepositoryCustom {
    */
   String ENTITY_ATTRIBUTE = "entity";
 
+  /**
+   * The name of this annotation's attribute that enables the keyset
+   * pagination finder.
+   */
+  String KEYSET_PAGINATION_ATTRIBUTE = "keysetPagination";
+
+  /**
+   * The name of this annotation's attribute that enables the finders
+   * returning slices.
+   */
+  String SLICE_FINDERS_ATTRIBUTE = "sliceFinders";
+
+  /**
+   * The name of this annotation's attribute that specifies for how long
+   * counts are cached.
+   */
+  String COUNT_CACHE_SECONDS_ATTRIBUTE = "countCacheSeconds";
+
+  /**
+   * The name of this annotation's attribute that enables the full-text
+   * global search.
+   */
+  String FULL_TEXT_SEARCH_ATTRIBUTE = "fullTextSearch";
 
   /**
    * The entity managed by the annotated repository
@@ -29,4 +52,48 @@ public @interface RooJpaRepositoryCustom {
    */
   Class<?> entity(); // No default => mandatory
 
+  /**
+   * Whether to generate a <code>findAllAfter</code> finder, which returns
+   * the results following a cursor instead of the results of a page number.
+   * Unlike offset pagination, its cost doesn't grow with the position of the
+   * results and it doesn't need to count them.
+   *
+   * @return <code>false</code> by default
+   */
+  boolean keysetPagination() default false;
+
+  /**
+   * Whether to generate, for every finder returning a page, a variant whose
+   * name ends with <code>Slice</code> returning a slice instead. Slices only
+   * know whether more results follow, fetching one more result than
+   * requested, so no count query is executed.
+   *
+   * @return <code>false</code> by default
+   */
+  boolean sliceFinders() default false;
+
+  /**
+   * For how many seconds the number of results of a search is cached by the
+   * finders returning pages, so that browsing the pages of a search doesn't
+   * count its results again. Counts are cached per search predicate, so the
+   * total shown may be stale for up to this time.
+   *
+   * @return 0 by default, to count the results on every page
+   */
+  int countCacheSeconds() default 0;
+
+  /**
+   * Whether the global search of the finders queries the Hibernate Search
+   * index of the entity, looking up the identifiers of the matching results,
+   * instead of comparing every text field with a <code>LIKE</code> condition.
+   * Only the entity fields annotated with
+   * <code>@org.hibernate.search.annotations.Field</code> are searched, and
+   * only the most relevant matches are returned: 1000 unless the
+   * <code>application.search.full-text.max-results</code> property is set.
+   * A warning is logged when a search has more matches.
+   *
+   * @return <code>false</code> by default
+   */
+  boolean fullTextSearch() default false;
+
 }
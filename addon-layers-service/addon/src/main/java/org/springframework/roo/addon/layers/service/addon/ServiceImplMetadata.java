@@ -20,6 +20,8 @@ import org.springframework.roo.classpath.details.MethodMetadataBuilder;
 import org.springframework.roo.classpath.details.annotations.AnnotatedJavaType;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadata;
 import org.springframework.roo.classpath.details.annotations.AnnotationMetadataBuilder;
+import org.springframework.roo.classpath.details.annotations.ArrayAttributeValue;
+import org.springframework.roo.classpath.details.annotations.StringAttributeValue;
 import org.springframework.roo.classpath.itd.AbstractItdTypeDetailsProvidingMetadataItem;
 import org.springframework.roo.classpath.itd.InvocableMemberBodyBuilder;
 import org.springframework.roo.classpath.operations.Cardinality;
@@ -39,7 +41,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Metadata for {@link RooServiceImpl}.
@@ -74,7 +78,11 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
   private final ServiceMetadata serviceMetadata;
   private final JpaEntityMetadata entityMetadata;
   private final List<Pair<FieldMetadata, RelationInfo>> childRelationsInfo;
+  private final boolean bulkDeletable;
   private final JavaType entityIdentifierType;
+  private final boolean cacheable;
+  private final Set<String> evictedCacheNames;
+  private final Map<JavaType, JavaSymbolName> referencedIdentifierNames;
 
   // Temporal arrays don't share
   private ArrayList<MethodMetadata> pendingTransactionalMethodToAdd;
@@ -120,13 +128,25 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
    * @param serviceMetadata
    * @param requiredServicesByEntity
    * @param childRelationsInfo
+   * @param cacheable whether the entity is cached, so the results of the
+   *            count by reference methods are cached too
+   * @param cachedRelatedEntities the related entities which are cached, whose
+   *            counts may change when this entity changes
+   * @param referencedIdentifierNames the identifier field name of each
+   *            entity the count by reference methods receive, to key their
+   *            results by
+   * @param bulkDeletable whether the entity has no association nor element
+   *            collection that a bulk delete statement would skip, so that
+   *            it can be deleted in batch by identifier
    */
   public ServiceImplMetadata(final String identifier, final JavaType aspectName,
       final PhysicalTypeMetadata governorPhysicalTypeMetadata, final JavaType serviceInterface,
       final JavaType repository, RepositoryJpaMetadata repositoryMetadata, final JavaType entity,
       JpaEntityMetadata entityMetadata, ServiceMetadata serviceMetadata,
       Map<JavaType, ServiceMetadata> requiredServicesByEntity,
-      List<Pair<FieldMetadata, RelationInfo>> childRelationsInfo) {
+      List<Pair<FieldMetadata, RelationInfo>> childRelationsInfo, final boolean cacheable,
+      final List<JavaType> cachedRelatedEntities,
+      final Map<JavaType, JavaSymbolName> referencedIdentifierNames, final boolean bulkDeletable) {
     super(identifier, aspectName, governorPhysicalTypeMetadata);
 
     this.importResolver = builder.getImportRegistrationResolver();
@@ -140,7 +160,21 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
     this.serviceMetadata = serviceMetadata;
     this.entityMetadata = entityMetadata;
     this.childRelationsInfo = childRelationsInfo;
+    this.bulkDeletable = bulkDeletable;
     this.entityIdentifierType = serviceMetadata.getIdType();
+    this.cacheable = cacheable;
+    this.referencedIdentifierNames = referencedIdentifierNames;
+
+    // The transactional methods can change the counts of this entity and of
+    // the related ones
+    Set<String> evictedCacheNamesTemp = new TreeSet<String>();
+    if (cacheable) {
+      evictedCacheNamesTemp.add(getCountsCacheName(entity));
+    }
+    for (JavaType cachedRelatedEntity : cachedRelatedEntities) {
+      evictedCacheNamesTemp.add(getCountsCacheName(cachedRelatedEntity));
+    }
+    this.evictedCacheNames = Collections.unmodifiableSet(evictedCacheNamesTemp);
 
     // All services should include @Service annotation
     AnnotationMetadataBuilder serviceAnnotation =
@@ -638,6 +672,9 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
     boolean isDelete = methodToBeImplemented.getMethodName().getSymbolName().equals("delete");
     boolean isSaveMethod =
         methodToBeImplemented.equals(this.serviceMetadata.getCurrentSaveMethod());
+    boolean isSaveBatchMethod =
+        methodToBeImplemented.equals(this.serviceMetadata.getCurrentSaveBatchMethod())
+            && this.serviceMetadata.getRepositorySaveInBatchMethod() != null;
     boolean isFindOneForUpdate =
         methodToBeImplemented.getMethodName().getSymbolName().equals("findOneForUpdate");
 
@@ -646,6 +683,8 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
       bodyBuilder = builDeleteMethodBody(methodToBeImplemented, isBatch);
     } else if (isSaveMethod) {
       bodyBuilder = builSaveMethodBody(methodToBeImplemented);
+    } else if (isSaveBatchMethod) {
+      bodyBuilder = buildSaveBatchMethodBody(methodToBeImplemented);
     } else if (isFindOneForUpdate) {
       bodyBuilder = buildFindOneForUpdateBody(methodToBeImplemented);
     } else {
@@ -690,10 +729,88 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
       methodBuilder.addAnnotation(transactionalAnnotation);
     }
 
+    // Adding @Cacheable or @CacheEvict
+    if (isTransactional && !this.evictedCacheNames.isEmpty()) {
+      methodBuilder.addAnnotation(getCacheEvictAnnotation());
+    } else if (this.cacheable
+        && this.allCountByReferencedFieldMethods.containsValue(methodToBeImplemented)) {
+      AnnotationMetadataBuilder cacheableAnnotation =
+          getCountCacheableAnnotation(methodToBeImplemented);
+      if (cacheableAnnotation != null) {
+        methodBuilder.addAnnotation(cacheableAnnotation);
+      }
+    }
+
     // Build and return a MethodMetadata instance
     return methodBuilder.build();
   }
 
+  /**
+   * Builds the annotation which caches the result of a count by reference
+   * method, keyed by the identifier of the referenced entity
+   *
+   * @param countMethod
+   * @return null if the identifier of the referenced entity is unknown, as
+   *            the entities themselves can't be used as keys
+   */
+  private AnnotationMetadataBuilder getCountCacheableAnnotation(MethodMetadata countMethod) {
+    final JavaType referencedEntity = countMethod.getParameterTypes().get(0).getJavaType();
+    final JavaSymbolName identifierName = this.referencedIdentifierNames.get(referencedEntity);
+    if (identifierName == null) {
+      return null;
+    }
+
+    // The parameter is referred to by position, as its name may not be
+    // available at runtime. The counts of unsaved entities aren't cached,
+    // as they have no identifier to use as key
+    // @Cacheable(cacheNames = "ENTITY.counts", key = "#p0.id", condition = "#p0?.id != null")
+    AnnotationMetadataBuilder cacheableAnnotation =
+        new AnnotationMetadataBuilder(SpringJavaType.CACHEABLE);
+    cacheableAnnotation.addStringAttribute("cacheNames", getCountsCacheName(this.entity));
+    cacheableAnnotation.addStringAttribute("key", "#p0.".concat(identifierName.getSymbolName()));
+    cacheableAnnotation.addStringAttribute("condition",
+        String.format("#p0?.%s != null", identifierName));
+    return cacheableAnnotation;
+  }
+
+  /**
+   * Builds the annotation which evicts all the cached counts that a
+   * transactional method may change. All of them are evicted, as any change
+   * of a reference moves the entity from a count to another.
+   *
+   * @return
+   */
+  private AnnotationMetadataBuilder getCacheEvictAnnotation() {
+
+    // @CacheEvict(cacheNames = {"ENTITY.counts", "RELATED.counts"}, allEntries = true)
+    AnnotationMetadataBuilder cacheEvictAnnotation =
+        new AnnotationMetadataBuilder(SpringJavaType.CACHE_EVICT);
+    if (this.evictedCacheNames.size() == 1) {
+      cacheEvictAnnotation.addStringAttribute("cacheNames", this.evictedCacheNames.iterator()
+          .next());
+    } else {
+      List<StringAttributeValue> cacheNames = new ArrayList<StringAttributeValue>();
+      for (String cacheName : this.evictedCacheNames) {
+        cacheNames.add(new StringAttributeValue(new JavaSymbolName("value"), cacheName));
+      }
+      cacheEvictAnnotation.addAttribute(new ArrayAttributeValue<StringAttributeValue>(
+          new JavaSymbolName("cacheNames"), cacheNames));
+    }
+    cacheEvictAnnotation.addBooleanAttribute("allEntries", true);
+    return cacheEvictAnnotation;
+  }
+
+  /**
+   * Returns the name of the cache which keeps the results of the count by
+   * reference methods of the service of an entity
+   *
+   * @param entity
+   * @return
+   */
+  public static String getCountsCacheName(JavaType entity) {
+    return entity.getFullyQualifiedTypeName().concat(".counts");
+  }
+
   /**
    * Build method body which delegates on repository
    *
@@ -738,7 +855,41 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
     final JavaSymbolName param0 = methodToBeImplemented.getParameterNames().get(0);
     final String entity = getNameOfJavaType(this.entity);
 
-    if (isBatch) {
+    final boolean hasRelations =
+        !childRelationsInfo.isEmpty() || !entityMetadata.getRelationInfos().isEmpty();
+    final MethodMetadata deleteAllByIdInBatchMethod =
+        this.serviceMetadata.getRepositoryDeleteAllByIdInBatchMethod();
+
+    // Bulk deletes would leave the relationships, cascades, element
+    // collections and join tables behind
+    if (isBatch && (hasRelations || !bulkDeletable)) {
+
+      // // Delete them one by one to maintain their relationships
+      // List<Entity> toDelete = repositoryField.FIND_ALL_METHOD(paramName);
+      // for (Entity item : toDelete) {
+      //   delete(item);
+      // }
+      bodyBuilder.appendFormalLine("// Delete them one by one to maintain their relationships");
+      bodyBuilder.appendFormalLine("%s<%s> toDelete = %s().%s(%s);",
+          getNameOfJavaType(JavaType.LIST), entity, getAccessorMethod(repositoryFieldMetadata)
+              .getMethodName(), this.findAllIterableMethod.getMethodName(), param0);
+      bodyBuilder.appendFormalLine("for (%s item : toDelete) {", entity);
+      bodyBuilder.indent();
+      bodyBuilder.appendFormalLine("%s(item);", methodToBeImplemented.getMethodName());
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+
+    } else if (isBatch && deleteAllByIdInBatchMethod != null) {
+
+      // // No relationship has to be maintained, so they are deleted without
+      // // loading them
+      // repositoryField.deleteAllByIdInBatch(ids);
+      bodyBuilder.appendFormalLine(
+          "// No relationship has to be maintained, so they are deleted without loading them");
+      bodyBuilder.appendFormalLine("%s().%s(%s);", getAccessorMethod(repositoryFieldMetadata)
+          .getMethodName(), deleteAllByIdInBatchMethod.getMethodName(), param0);
+
+    } else if (isBatch) {
 
       // List<Entity> toDelete = repositoryField.FIND_ALL_METHOD(paramName);
       bodyBuilder.appendFormalLine("%s<%s> toDelete = %s().%s(%s);",
@@ -918,6 +1069,55 @@ public class ServiceImplMetadata extends AbstractItdTypeDetailsProvidingMetadata
     return bodyBuilder;
   }
 
+  /**
+   * Build "save(Iterable)" method body which delegates on the repository
+   * method saving the entities in JDBC batches
+   *
+   * @param methodToBeImplemented
+   * @return
+   */
+  private InvocableMemberBodyBuilder buildSaveBatchMethodBody(
+      final MethodMetadata methodToBeImplemented) {
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+    final JavaSymbolName param0 = methodToBeImplemented.getParameterNames().get(0);
+    final String entity = getNameOfJavaType(this.entity);
+    final String entityVariable = StringUtils.uncapitalize(this.entity.getSimpleTypeName());
+
+    /*
+     * // Ensure the relationships are maintained
+     * for (Entity entity : entities) {
+     *   entity.addToRelatedEntity(entity.getRelatedEntity());
+     * }
+     */
+    boolean loopAdded = false;
+    Map<String, RelationInfo> relationInfos = entityMetadata.getRelationInfos();
+    for (Entry<String, RelationInfo> entry : relationInfos.entrySet()) {
+      RelationInfo info = entry.getValue();
+      if (info.cardinality == Cardinality.ONE_TO_ONE) {
+        if (!loopAdded) {
+          bodyBuilder.appendFormalLine("// Ensure the relationships are maintained");
+          bodyBuilder.appendFormalLine("for (%s %s : %s) {", entity, entityVariable, param0);
+          bodyBuilder.indent();
+          loopAdded = true;
+        }
+        bodyBuilder.appendFormalLine("%s.%s(%s.get%s());", entityVariable,
+            info.addMethod.getMethodName(), entityVariable, StringUtils.capitalize(entry.getKey()));
+      }
+    }
+    if (loopAdded) {
+      bodyBuilder.indentRemove();
+      bodyBuilder.appendFormalLine("}");
+      bodyBuilder.newLine();
+    }
+
+    // return repositoryField.saveInBatch(entities);
+    bodyBuilder.appendFormalLine("return %s().%s(%s);", getAccessorMethod(repositoryFieldMetadata)
+        .getMethodName(), this.serviceMetadata.getRepositorySaveInBatchMethod().getMethodName(),
+        param0);
+    return bodyBuilder;
+  }
+
   /**
    * This method returns field to included on service for a Service or
    * Repository
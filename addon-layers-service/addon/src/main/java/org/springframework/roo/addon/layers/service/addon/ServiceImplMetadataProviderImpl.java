@@ -34,6 +34,7 @@ import org.springframework.roo.metadata.MetadataIdentificationUtils;
 import org.springframework.roo.metadata.internal.MetadataDependencyRegistryTracker;
 import org.springframework.roo.model.JavaSymbolName;
 import org.springframework.roo.model.JavaType;
+import org.springframework.roo.model.JpaJavaType;
 import org.springframework.roo.model.RooJavaType;
 import org.springframework.roo.project.LogicalPath;
 import org.springframework.roo.support.logging.HandlerUtils;
@@ -227,10 +228,60 @@ public class ServiceImplMetadataProviderImpl extends AbstractMemberDiscoveringIt
     List<Pair<FieldMetadata, RelationInfo>> childRelationsInfo =
         getJpaOperations().getFieldChildPartOfRelation(entityDetails);
 
+    // Locate the related entities which are cached
+    final boolean cacheable = entityDetails.getAnnotation(JpaJavaType.CACHEABLE) != null;
+    List<JavaType> cachedRelatedEntities = new ArrayList<JavaType>();
+    for (RelationInfo info : entityMetadata.getRelationInfos().values()) {
+      ClassOrInterfaceTypeDetails childDetails =
+          getTypeLocationService().getTypeDetails(info.childType);
+      if (childDetails == null) {
+        continue;
+      }
+      registerDependency(childDetails.getDeclaredByMetadataId(), metadataIdentificationString);
+      if (childDetails.getAnnotation(JpaJavaType.CACHEABLE) != null
+          && !cachedRelatedEntities.contains(info.childType)) {
+        cachedRelatedEntities.add(info.childType);
+      }
+    }
+
+    // Get the identifier names of the entities the count methods receive
+    Map<JavaType, JavaSymbolName> referencedIdentifierNames =
+        new HashMap<JavaType, JavaSymbolName>();
+    if (cacheable) {
+      for (MethodMetadata countMethod : serviceMetadata.getCountByReferenceFieldDefinedMethod()
+          .values()) {
+        JavaType referencedEntity = countMethod.getParameterTypes().get(0).getJavaType();
+        List<FieldMetadata> identifierFields =
+            getPersistenceMemberLocator().getIdentifierFields(referencedEntity);
+        if (!identifierFields.isEmpty()) {
+          referencedIdentifierNames.put(referencedEntity, identifierFields.get(0).getFieldName());
+        }
+      }
+    }
+
+    // Bulk delete statements neither cascade nor delete the rows of element
+    // collections and join tables
+    boolean bulkDeletable = true;
+    for (FieldMetadata field : entityDetails.getDeclaredFields()) {
+      if (field.getAnnotation(JpaJavaType.ELEMENT_COLLECTION) != null
+          || field.getAnnotation(JpaJavaType.MANY_TO_MANY) != null
+          || field.getAnnotation(JpaJavaType.ONE_TO_MANY) != null
+          || field.getAnnotation(JpaJavaType.ONE_TO_ONE) != null) {
+        bulkDeletable = false;
+        break;
+      }
+      final AnnotationMetadata manyToOne = field.getAnnotation(JpaJavaType.MANY_TO_ONE);
+      if (manyToOne != null && manyToOne.getAttribute("cascade") != null) {
+        bulkDeletable = false;
+        break;
+      }
+    }
+
     return new ServiceImplMetadata(metadataIdentificationString, aspectName,
         governorPhysicalTypeMetadata, serviceInterface, repositoryDetails.getType(),
         repositoryMetadata, entity, entityMetadata, serviceMetadata, requiredServicesByEntity,
-        childRelationsInfo);
+        childRelationsInfo, cacheable, cachedRelatedEntities, referencedIdentifierNames,
+        bulkDeletable);
   }
 
   /**
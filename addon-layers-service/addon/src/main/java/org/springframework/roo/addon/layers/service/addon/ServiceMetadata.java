@@ -55,8 +55,12 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
   private final JavaType entity;
   private final JavaType identifierType;
   private final List<MethodMetadata> finders;
+  private final List<MethodMetadata> sliceFinders;
   private final MethodMetadata findAllGlobalSearchMethod;
   private final MethodMetadata findAllByIdsInGlobalSearchMethod;
+  private final MethodMetadata findAllAfterRepositoryMethod;
+  private final MethodMetadata saveInBatchRepositoryMethod;
+  private final MethodMetadata deleteAllByIdInBatchRepositoryMethod;
   private final List<MethodMetadata> transactionalDefinedMethod;
   private final List<MethodMetadata> notTransactionalDefinedMethod;
   private final Map<FieldMetadata, MethodMetadata> countByReferenceFieldDefinedMethod;
@@ -75,6 +79,8 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
   private final MethodMetadata countMethod;
   private final MethodMetadata findAllWithGlobalSearchMethod;
   private final MethodMetadata findAllByIdsInWithGlobalSearchMethod;
+  private final MethodMetadata findAllAfterMethod;
+  private final MethodMetadata streamAllMethod;
   private final Map<JavaType, JpaEntityMetadata> relatedEntitiesMetadata;
   private final Set<MethodMetadata> allMethods;
   private final Map<RelationInfo, MethodMetadata> addToRelationMethods;
@@ -128,7 +134,17 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
    * @param repositoryMetadata
    * @param finders list of finders added to current entity
    * @param findAllGlobalSearchMethod MethodMetadata with findAllGlobalSearch method
+   * @param findAllByIdsInGlobalSearchMethod
+   * @param findAllAfterMethod MethodMetadata with the repository keyset pagination
+   *            method, or null if not enabled
+   * @param streamAllMethod MethodMetadata with the repository method iterating
+   *            over the results of findAll as they are read
+   * @param saveInBatchMethod MethodMetadata with the repository method saving
+   *            entities in JDBC batches, or null if not available
+   * @param deleteAllByIdInBatchMethod MethodMetadata with the repository method
+   *            deleting entities with bulk statements, or null if not available
    * @param referencedFieldsFindAllMethods
+   * @param sliceFinderMethods the repository finders returning a Slice
    * @param countByReferencedFieldsMethods
    * @param customCountMethods
    * @param relatedEntities
@@ -141,7 +157,10 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
       RepositoryJpaMetadata repositoryMetadata, final List<MethodMetadata> finders,
       final MethodMetadata findAllGlobalSearchMethod,
       final MethodMetadata findAllByIdsInGlobalSearchMethod,
+      final MethodMetadata findAllAfterMethod, final MethodMetadata streamAllMethod,
+      final MethodMetadata saveInBatchMethod, final MethodMetadata deleteAllByIdInBatchMethod,
       final Map<FieldMetadata, MethodMetadata> referencedFieldsFindAllMethods,
+      final List<MethodMetadata> sliceFinderMethods,
       final Map<FieldMetadata, MethodMetadata> countByReferencedFieldsMethods,
       final List<MethodMetadata> customCountMethods,
       Map<JavaType, JpaEntityMetadata> relatedEntities,
@@ -162,6 +181,9 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
     this.finders = finders;
     this.findAllGlobalSearchMethod = findAllGlobalSearchMethod;
     this.findAllByIdsInGlobalSearchMethod = findAllByIdsInGlobalSearchMethod;
+    this.findAllAfterRepositoryMethod = findAllAfterMethod;
+    this.saveInBatchRepositoryMethod = saveInBatchMethod;
+    this.deleteAllByIdInBatchRepositoryMethod = deleteAllByIdInBatchMethod;
     this.repositoryFindersAndCounts = repositoryFindersAndCounts;
     this.repositoryCustomFindersAndCounts = repositoryCustomFindersAndCounts;
     this.relatedInfosWithServiceLayer = relatedInfosWithServiceLayer;
@@ -235,6 +257,8 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
       this.countMethod = null;
       this.findAllWithGlobalSearchMethod = null;
       this.findAllByIdsInWithGlobalSearchMethod = null;
+      this.findAllAfterMethod = null;
+      this.streamAllMethod = null;
 
     } else {
       // Add standard finders methods
@@ -255,6 +279,24 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
       this.findAllByIdsInWithGlobalSearchMethod = getFindAllByIdsInGlobalSearchMethod();
       notTransactionalDefinedMethod.add(findAllByIdsInWithGlobalSearchMethod);
       ensureGovernorHasMethod(new MethodMetadataBuilder(findAllByIdsInWithGlobalSearchMethod));
+
+      // Generating findAllAfter method if repository uses keyset pagination
+      if (this.findAllAfterRepositoryMethod != null) {
+        this.findAllAfterMethod = getFindAllAfterMethod();
+        notTransactionalDefinedMethod.add(findAllAfterMethod);
+        ensureGovernorHasMethod(new MethodMetadataBuilder(findAllAfterMethod));
+      } else {
+        this.findAllAfterMethod = null;
+      }
+
+      // Generating streamAll method, delegating on the repository one
+      if (streamAllMethod != null) {
+        this.streamAllMethod = getFinderMethod(streamAllMethod);
+        notTransactionalDefinedMethod.add(this.streamAllMethod);
+        ensureGovernorHasMethod(new MethodMetadataBuilder(this.streamAllMethod));
+      } else {
+        this.streamAllMethod = null;
+      }
     }
 
     // Add relation management methods
@@ -336,6 +378,16 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
       ensureGovernorHasMethod(new MethodMetadataBuilder(finderMethod));
     }
 
+    // Generating finders returning a Slice
+    List<MethodMetadata> sliceFinders = new ArrayList<MethodMetadata>();
+    for (MethodMetadata sliceFinder : sliceFinderMethods) {
+      MethodMetadata sliceFinderMethod = getFinderMethod(sliceFinder);
+      sliceFinders.add(sliceFinderMethod);
+      notTransactionalDefinedMethod.add(sliceFinderMethod);
+      ensureGovernorHasMethod(new MethodMetadataBuilder(sliceFinderMethod));
+    }
+    this.sliceFinders = Collections.unmodifiableList(sliceFinders);
+
     // Generating count finder methods
     for (MethodMetadata customCountMethod : customCountMethods) {
       MethodMetadata customCountServiceMethod = getCustomCountMethod(customCountMethod);
@@ -589,6 +641,39 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
     // instance
   }
 
+  /**
+   * Method that generates method "findAllAfter" method. This method uses
+   * keyset pagination, returning the results after the provided cursor.
+   *
+   * @return MethodMetadata
+   */
+  private MethodMetadata getFindAllAfterMethod() {
+    // Define method name
+    JavaSymbolName methodName = this.findAllAfterRepositoryMethod.getMethodName();
+
+    // Define method parameter types
+    List<AnnotatedJavaType> parameterTypes = this.findAllAfterRepositoryMethod.getParameterTypes();
+
+    // Define method parameter names
+    List<JavaSymbolName> parameterNames = this.findAllAfterRepositoryMethod.getParameterNames();
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(methodName,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    // Use the MethodMetadataBuilder for easy creation of MethodMetadata
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC + Modifier.ABSTRACT, methodName,
+            this.findAllAfterRepositoryMethod.getReturnType(), parameterTypes, parameterNames,
+            null);
+
+    return methodBuilder.build(); // Build and return a MethodMetadata
+    // instance
+  }
+
   /**
    * Method that generates method "findAll" method.
    *
@@ -1086,6 +1171,16 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
     return finders;
   }
 
+  /**
+   * Method that returns the finders returning a Slice, which don't count
+   * the results.
+   *
+   * @return a list of finder methods
+   */
+  public List<MethodMetadata> getSliceFinders() {
+    return this.sliceFinders;
+  }
+
   /**
    * Method that returns the count methods.
    *
@@ -1172,6 +1267,38 @@ public class ServiceMetadata extends AbstractItdTypeDetailsProvidingMetadataItem
     return this.findAllByIdsInWithGlobalSearchMethod;
   }
 
+  /**
+   * @return method findAllAfter(GlobalSearch, String, int) implemented in service,
+   *         or null if repository doesn't use keyset pagination
+   */
+  public MethodMetadata getCurrentFindAllAfterMethod() {
+    return this.findAllAfterMethod;
+  }
+
+  /**
+   * @return the repository method which saves entities in JDBC batches, or
+   *         null if the repository doesn't provide it
+   */
+  public MethodMetadata getRepositorySaveInBatchMethod() {
+    return this.saveInBatchRepositoryMethod;
+  }
+
+  /**
+   * @return the repository method which deletes entities with bulk
+   *         statements, or null if the repository doesn't provide it
+   */
+  public MethodMetadata getRepositoryDeleteAllByIdInBatchMethod() {
+    return this.deleteAllByIdInBatchRepositoryMethod;
+  }
+
+  /**
+   * @return method streamAll(globalSearch, pageable) implemented in service,
+   *         or null if the repository doesn't provide it
+   */
+  public MethodMetadata getCurrentStreamAllMethod() {
+    return this.streamAllMethod;
+  }
+
   /**
    * @return methods addToRelation generated in service
    */
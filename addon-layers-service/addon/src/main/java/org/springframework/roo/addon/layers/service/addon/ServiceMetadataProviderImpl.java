@@ -316,7 +316,12 @@ public class ServiceMetadataProviderImpl extends AbstractMemberDiscoveringItdMet
         governorPhysicalTypeMetadata, entity, identifierType, entityMetadata, repositoryMetadata,
         finders, repositoryCustomMetadata.getCurrentFindAllGlobalSearchMethod(),
         repositoryCustomMetadata.getCurrentFindAllByIdsInGlobalSearchMethod(),
+        repositoryCustomMetadata.getCurrentFindAllAfterMethod(),
+        repositoryCustomMetadata.getCurrentStreamAllMethod(),
+        repositoryCustomMetadata.getCurrentSaveInBatchMethod(),
+        repositoryCustomMetadata.getCurrentDeleteAllByIdInBatchMethod(),
         repositoryCustomMetadata.getReferencedFieldsFindAllMethods(),
+        repositoryCustomMetadata.getSliceFinderMethods(),
         countByReferencedFieldMethods, countMethods, relatedEntities, repositoryFindersAndCounts,
         repositoryCustomFindersAndCounts, relatedInfosWithServiceLayer);
   }
@@ -226,6 +226,25 @@ public class ControllerCommands implements CommandMarker {
     return false;
   }
 
+  /**
+   * This indicator says if --projection parameter should be visible or not
+   *
+   * The projection only applies to the list methods of a single entity, so
+   * --projection parameter is only visible if --entity parameter has been
+   * specified before.
+   *
+   * @param context ShellContext
+   * @return
+   */
+  @CliOptionVisibilityIndicator(params = "projection", command = "web mvc controller",
+      help = "--projection parameter is not visible if --entity parameter has not been specified before.")
+  public boolean isProjectionParameterVisible(ShellContext context) {
+    if (context.getParameters().containsKey("entity")) {
+      return true;
+    }
+    return false;
+  }
+
   /**
    * Find entities in project and returns a list with their fully qualified
    * names.
@@ -316,6 +335,7 @@ public class ControllerCommands implements CommandMarker {
    * @param responseType
    * @param package
    * @param pathPrefix
+   * @param projection
    */
   @CliCommand(
       value = "web mvc controller",
@@ -373,7 +393,17 @@ public class ControllerCommands implements CommandMarker {
           unspecifiedDefaultValue = "",
           help = "Indicates `@RequestMapping` prefix to be used on this controller. It is not necessary "
               + "to specify '/' as Spring Roo shell will include it automatically. "
-              + "This option is available only if `--all` or `--entity` option has been specified.") String pathPrefix) {
+              + "This option is available only if `--all` or `--entity` option has been specified.") String pathPrefix,
+      @CliOption(
+          key = "projection",
+          mandatory = false,
+          optionContext = PROJECT,
+          help = "The projection of the entity, annotated with `@RooEntityProjection`, which the list "
+              + "methods of the controller should return. The repository of the entity will select "
+              + "only the projection fields, instead of loading whole entities. The projection must "
+              + "include the entity identifier. "
+              + "This option is available only if `--entity` option has been specified. "
+              + "Default if option not present: the current return type of the entity repository.") JavaType projection) {
 
     // Getting --responseType service
     Map<String, ControllerMVCResponseService> responseTypeServices =
@@ -396,7 +426,7 @@ public class ControllerCommands implements CommandMarker {
           responseTypeServices.get(responseType), controllersPackage, pathPrefix);
     } else {
       getControllerOperations().createOrUpdateControllerForEntity(entity,
-          responseTypeServices.get(responseType), controllersPackage, pathPrefix);
+          responseTypeServices.get(responseType), controllersPackage, pathPrefix, projection);
     }
   }
 
@@ -92,9 +92,13 @@ public interface ControllerOperations extends Feature {
    *            Package where is situated the controller
    * @param pathPrefix
    *            Prefix to use in RequestMapping
+   * @param projection
+   *            Projection of the entity the list methods should return, selecting
+   *            only its fields from the database. null to keep the current one.
    */
   void createOrUpdateControllerForEntity(JavaType entity,
-      ControllerMVCResponseService responseType, JavaPackage controllerPackage, String pathPrefix);
+      ControllerMVCResponseService responseType, JavaPackage controllerPackage, String pathPrefix,
+      JavaType projection);
 
   /**
    * This operation will generate or update a first level detail controller
@@ -26,6 +26,7 @@ import org.osgi.service.component.ComponentContext;
 import org.springframework.roo.addon.jpa.addon.entity.JpaEntityMetadata;
 import org.springframework.roo.addon.jpa.addon.entity.JpaEntityMetadata.RelationInfo;
 import org.springframework.roo.addon.jpa.annotations.entity.JpaRelationType;
+import org.springframework.roo.addon.layers.repository.jpa.addon.RepositoryJpaLocator;
 import org.springframework.roo.addon.layers.service.addon.ServiceLocator;
 import org.springframework.roo.addon.layers.service.addon.ServiceMetadata;
 import org.springframework.roo.addon.plural.addon.PluralService;
@@ -341,7 +342,7 @@ public class ControllerOperationsImpl implements ControllerOperations {
     for (ClassOrInterfaceTypeDetails entity : entities) {
       if (!entity.isAbstract()) {
         createOrUpdateControllerForEntity(entity.getType(), responseType, controllerPackage,
-            pathPrefix);
+            pathPrefix, null);
       }
     }
 
@@ -349,7 +350,8 @@ public class ControllerOperationsImpl implements ControllerOperations {
 
   @Override
   public void createOrUpdateControllerForEntity(JavaType entity,
-      ControllerMVCResponseService responseType, JavaPackage controllerPackage, String pathPrefix) {
+      ControllerMVCResponseService responseType, JavaPackage controllerPackage, String pathPrefix,
+      JavaType projection) {
 
     // Getting entity details to obtain information about it
     ClassOrInterfaceTypeDetails entityDetails = getTypeLocationService().getTypeDetails(entity);
@@ -402,6 +404,11 @@ public class ControllerOperationsImpl implements ControllerOperations {
     }
     service = serviceDetails.getName();
 
+    // The list methods follow the return type of the repository finders
+    if (projection != null && !setRepositoryDefaultReturnType(entity, entityMetadata, projection)) {
+      return;
+    }
+
     Collection<ClassOrInterfaceTypeDetails> controllers =
         getControllerLocator().getControllers(entity);
 
@@ -1793,6 +1800,98 @@ public class ControllerOperationsImpl implements ControllerOperations {
     return serviceInstaceManager.getServiceInstance(this, PluralService.class);
   }
 
+  /**
+   * Sets the provided projection as the default return type of the repository
+   * of an entity, so its finders select only the projection fields with a
+   * constructor expression, and the list methods of the controllers return
+   * the projection instead of the whole entity.
+   *
+   * @param entity
+   * @param entityMetadata
+   * @param projection the projection, which should be annotated with
+   *            `@RooEntityProjection` and include the entity identifier
+   * @return false if the projection can't be used
+   */
+  private boolean setRepositoryDefaultReturnType(JavaType entity,
+      JpaEntityMetadata entityMetadata, JavaType projection) {
+
+    // Check the projection
+    ClassOrInterfaceTypeDetails projectionDetails =
+        getTypeLocationService().getTypeDetails(projection);
+    AnnotationMetadata projectionAnnotation =
+        projectionDetails == null ? null : projectionDetails
+            .getAnnotation(RooJavaType.ROO_ENTITY_PROJECTION);
+    if (projectionAnnotation == null
+        || !entity.equals(projectionAnnotation.getAttribute("entity").getValue())) {
+      LOGGER.log(Level.INFO, String.format(
+          "ERROR: The provided class %s should be a projection of the entity %s, annotated "
+              + "with @RooEntityProjection.", projection.getSimpleTypeName(),
+          entity.getSimpleTypeName()));
+      return false;
+    }
+
+    // The lists link their items through the identifier
+    String identifierName =
+        entityMetadata.getCurrentIndentifierField().getFieldName().getSymbolName();
+    boolean includesIdentifier = false;
+    AnnotationAttributeValue<?> fieldsAttribute = projectionAnnotation.getAttribute("fields");
+    if (fieldsAttribute instanceof ArrayAttributeValue) {
+      for (Object field : ((ArrayAttributeValue<?>) fieldsAttribute).getValue()) {
+        if (field instanceof StringAttributeValue
+            && identifierName.equals(((StringAttributeValue) field).getValue())) {
+          includesIdentifier = true;
+          break;
+        }
+      }
+    }
+    if (!includesIdentifier) {
+      LOGGER.log(Level.INFO, String.format(
+          "ERROR: The projection %s should include the identifier field '%s' of the entity %s.",
+          projection.getSimpleTypeName(), identifierName, entity.getSimpleTypeName()));
+      return false;
+    }
+
+    // Update the repository, unless it returns another projection already
+    ClassOrInterfaceTypeDetails repositoryDetails =
+        getRepositoryJpaLocator().getRepository(entity);
+    if (repositoryDetails == null) {
+      LOGGER.log(Level.INFO, String.format(
+          "ERROR: You must generate a repository to '%s' entity before to generate a new "
+              + "controller.", entity.getFullyQualifiedTypeName()));
+      return false;
+    }
+    AnnotationMetadata repositoryAnnotation =
+        repositoryDetails.getAnnotation(RooJavaType.ROO_REPOSITORY_JPA);
+    AnnotationAttributeValue<?> defaultReturnType =
+        repositoryAnnotation.getAttribute("defaultReturnType");
+    if (defaultReturnType != null) {
+      if (projection.equals(defaultReturnType.getValue())) {
+        return true;
+      }
+      LOGGER.log(Level.INFO, String.format(
+          "ERROR: The repository %s already returns the projection %s.",
+          repositoryDetails.getType().getSimpleTypeName(), defaultReturnType.getValue()));
+      return false;
+    }
+
+    AnnotationMetadataBuilder repositoryAnnotationBuilder =
+        new AnnotationMetadataBuilder(repositoryAnnotation);
+    repositoryAnnotationBuilder.addClassAttribute("defaultReturnType", projection);
+    ClassOrInterfaceTypeDetailsBuilder cidBuilder =
+        new ClassOrInterfaceTypeDetailsBuilder(repositoryDetails);
+    cidBuilder.updateTypeAnnotation(repositoryAnnotationBuilder);
+    getTypeManagementService().createOrUpdateTypeOnDisk(cidBuilder.build());
+
+    // Add dependencies between modules
+    getProjectOperations().addModuleDependency(repositoryDetails.getType().getModule(),
+        projection.getModule());
+    return true;
+  }
+
+  private RepositoryJpaLocator getRepositoryJpaLocator() {
+    return serviceInstaceManager.getServiceInstance(this, RepositoryJpaLocator.class);
+  }
+
   private ServiceLocator getServiceLocator() {
     return serviceInstaceManager.getServiceInstance(this, ServiceLocator.class);
   }
@@ -89,6 +89,21 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
   private static final AnnotationMetadataBuilder RESPONSE_BODY_ANNOTATION =
       new AnnotationMetadataBuilder(SpringJavaType.RESPONSE_BODY);
 
+  private static final JavaType OBJECT_MAPPER = new JavaType(
+      "com.fasterxml.jackson.databind.ObjectMapper");
+  private static final JavaType JSON_GENERATOR = new JavaType(
+      "com.fasterxml.jackson.core.JsonGenerator");
+  private static final JavaType JSON_ENCODING = new JavaType(
+      "com.fasterxml.jackson.core.JsonEncoding");
+  private static final JavaType HTTP_SERVLET_RESPONSE = new JavaType(
+      "javax.servlet.http.HttpServletResponse");
+  private static final JavaType IO_EXCEPTION = new JavaType("java.io.IOException");
+  private static final JavaSymbolName STREAM_METHOD_NAME = new JavaSymbolName("stream");
+  private static final JavaSymbolName OBJECT_MAPPER_FIELD_NAME = new JavaSymbolName(
+      "objectMapper");
+  private static final JavaSymbolName RESPONSE_PARAM_NAME = new JavaSymbolName("response");
+  private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
   private final JSONAnnotationValues annotationValues;
   private final boolean readOnly;
   private final ControllerMetadata controllerMetadata;
@@ -108,6 +123,8 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
   private final Map<RelationInfo, MethodMetadata> modelAttributeDetailsMethod;
 
   private final MethodMetadata listMethod;
+  private final MethodMetadata listAfterMethod;
+  private final MethodMetadata streamMethod;
   private final MethodMetadata showMethod;
   private final MethodMetadata createMethod;
   private final MethodMetadata updateMethod;
@@ -231,6 +248,18 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
       case COLLECTION: {
         this.listMethod = addAndGet(getListMethod(), allMethods);
         this.listURIMethod = addAndGet(getListURIMethod(), allMethods);
+        if (serviceMetadata.getCurrentFindAllAfterMethod() != null) {
+          this.listAfterMethod = addAndGet(getListAfterMethod(), allMethods);
+        } else {
+          this.listAfterMethod = null;
+        }
+        if (serviceMetadata.getCurrentStreamAllMethod() != null
+            && !excludeMethods.contains(STREAM_METHOD_NAME.getSymbolName())) {
+          ensureGovernorHasField(getObjectMapperField());
+          this.streamMethod = addAndGet(getStreamMethod(), allMethods);
+        } else {
+          this.streamMethod = null;
+        }
 
         if (readOnly) {
           this.createMethod = null;
@@ -276,6 +305,8 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
 
         this.listMethod = null;
         this.listURIMethod = null;
+        this.listAfterMethod = null;
+        this.streamMethod = null;
         this.createMethod = null;
         this.createBatchMethod = null;
         this.updateBatchMethod = null;
@@ -304,6 +335,8 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
 
         this.listMethod = null;
         this.listURIMethod = null;
+        this.listAfterMethod = null;
+        this.streamMethod = null;
         this.createMethod = null;
         this.createBatchMethod = null;
         this.updateBatchMethod = null;
@@ -361,6 +394,8 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
 
         this.listMethod = null;
         this.listURIMethod = null;
+        this.listAfterMethod = null;
+        this.streamMethod = null;
         this.createMethod = null;
         this.createBatchMethod = null;
         this.updateBatchMethod = null;
@@ -400,6 +435,8 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
         this.removeFromDetailsBatchMethod = null;
         this.listMethod = null;
         this.listURIMethod = null;
+        this.listAfterMethod = null;
+        this.streamMethod = null;
         this.createMethod = null;
         this.createBatchMethod = null;
         this.updateBatchMethod = null;
@@ -1482,6 +1519,257 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
     return methodBuilder.build();
   }
 
+  /**
+   * This method provides the "listAfter" method using JSON response type,
+   * which returns the results following a cursor using keyset pagination
+   *
+   * @return MethodMetadata
+   */
+  private MethodMetadata getListAfterMethod() {
+
+    // Define methodName
+    final JavaSymbolName methodName = new JavaSymbolName("listAfter");
+
+    final MethodMetadata findAllAfterMethod = serviceMetadata.getCurrentFindAllAfterMethod();
+    final JavaSymbolName cursorParamName = findAllAfterMethod.getParameterNames().get(1);
+    final JavaSymbolName sizeParamName = findAllAfterMethod.getParameterNames().get(2);
+
+    // @RequestParam(value = "cursor", required = false) String cursor
+    AnnotationMetadataBuilder cursorRequestParam =
+        new AnnotationMetadataBuilder(SpringJavaType.REQUEST_PARAM);
+    cursorRequestParam.addStringAttribute("value", cursorParamName.getSymbolName());
+    cursorRequestParam.addBooleanAttribute("required", false);
+
+    // @RequestParam(value = "size", defaultValue = "20") int size
+    AnnotationMetadataBuilder sizeRequestParam =
+        new AnnotationMetadataBuilder(SpringJavaType.REQUEST_PARAM);
+    sizeRequestParam.addStringAttribute("value", sizeParamName.getSymbolName());
+    sizeRequestParam.addStringAttribute("defaultValue", "20");
+
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(new AnnotatedJavaType(SpringletsJavaType.SPRINGLETS_GLOBAL_SEARCH));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.STRING, cursorRequestParam.build()));
+    parameterTypes.add(new AnnotatedJavaType(JavaType.INT_PRIMITIVE, sizeRequestParam.build()));
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(methodName,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    final List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(GLOBAL_SEARCH_NAME);
+    parameterNames.add(cursorParamName);
+    parameterNames.add(sizeParamName);
+
+    // Adding annotations
+    final List<AnnotationMetadataBuilder> annotations = new ArrayList<AnnotationMetadataBuilder>();
+
+    // Adding @GetMapping annotation
+    AnnotationMetadataBuilder getMappingAnnotation = new AnnotationMetadataBuilder(GET_MAPPING);
+    getMappingAnnotation.addStringAttribute("value", "/after");
+    getMappingAnnotation.addStringAttribute("name", methodName.getSymbolName());
+    annotations.add(getMappingAnnotation);
+
+    // Generating returnType
+    JavaType serviceReturnType = findAllAfterMethod.getReturnType();
+    JavaType returnType = JavaType.wrapperOf(RESPONSE_ENTITY, serviceReturnType);
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    final String itemNames = StringUtils.uncapitalize(this.entityPlural);
+
+    // KeysetSlice<Customer> customers = customerService.findAllAfter(globalSearch, cursor, size);
+    bodyBuilder.newLine();
+    bodyBuilder.appendFormalLine("%s %s = %s().%s(%s, %s, %s);",
+        getNameOfJavaType(serviceReturnType), itemNames,
+        getAccessorMethod(controllerMetadata.getServiceField()).getMethodName(),
+        findAllAfterMethod.getMethodName(), GLOBAL_SEARCH_NAME, cursorParamName, sizeParamName);
+
+    // return ResponseEntity.ok(customers);
+    bodyBuilder.appendFormalLine(String.format("return %s.ok(%s);",
+        getNameOfJavaType(RESPONSE_ENTITY), itemNames));
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, methodName, returnType, parameterTypes,
+            parameterNames, bodyBuilder);
+    methodBuilder.setAnnotations(annotations);
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * This method provides the "stream" method using JSON response type, which
+   * writes the results as newline delimited JSON (one object per line) while
+   * they are read from a database cursor, so the memory used doesn't depend
+   * on the number of results. A page can only be requested along with its
+   * size, as the offset of the pages of the default size would overflow.
+   *
+   * @return MethodMetadata
+   */
+  private MethodMetadata getStreamMethod() {
+
+    // Define parameters. Every result is returned unless a page size is requested
+    AnnotationMetadataBuilder pageableDefaultAnnotation =
+        new AnnotationMetadataBuilder(SpringJavaType.PAGEABLE_DEFAULT);
+    pageableDefaultAnnotation.addIntegerAttribute("size", Integer.MAX_VALUE);
+
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(new AnnotatedJavaType(SpringletsJavaType.SPRINGLETS_GLOBAL_SEARCH));
+    parameterTypes.add(new AnnotatedJavaType(SpringJavaType.PAGEABLE, pageableDefaultAnnotation
+        .build()));
+    parameterTypes.add(new AnnotatedJavaType(HTTP_SERVLET_RESPONSE));
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(STREAM_METHOD_NAME,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    final List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(GLOBAL_SEARCH_NAME);
+    parameterNames.add(PAGEABLE_PARAM_NAME);
+    parameterNames.add(RESPONSE_PARAM_NAME);
+
+    // Adding annotations. The transaction keeps the database cursor open
+    // while the results are written
+    final List<AnnotationMetadataBuilder> annotations = new ArrayList<AnnotationMetadataBuilder>();
+    AnnotationMetadataBuilder getMappingAnnotation = new AnnotationMetadataBuilder(GET_MAPPING);
+    getMappingAnnotation.addStringAttribute("value", "/stream");
+    getMappingAnnotation.addStringAttribute("name", STREAM_METHOD_NAME.getSymbolName());
+    getMappingAnnotation.addStringAttribute("produces", NDJSON_MEDIA_TYPE);
+    annotations.add(getMappingAnnotation);
+    AnnotationMetadataBuilder transactionalAnnotation =
+        new AnnotationMetadataBuilder(SpringJavaType.TRANSACTIONAL);
+    transactionalAnnotation.addBooleanAttribute("readOnly", true);
+    annotations.add(transactionalAnnotation);
+
+    // Add throws types
+    final List<JavaType> throwTypes = new ArrayList<JavaType>();
+    throwTypes.add(IO_EXCEPTION);
+
+    final MethodMetadata streamAllMethod = serviceMetadata.getCurrentStreamAllMethod();
+    final String itemNames = StringUtils.uncapitalize(this.entityPlural);
+
+    // Generate body
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // // Every result is a single page, so only the first one can be requested
+    // if (pageable.getPageNumber() > 0 && pageable.getPageSize() == Integer.MAX_VALUE) {
+    //   response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+    //       "The page size is required to request a page");
+    //   return;
+    // }
+    bodyBuilder.appendFormalLine(
+        "// Every result is a single page, so only the first one can be requested");
+    bodyBuilder.appendFormalLine(
+        "if (%s.getPageNumber() > 0 && %s.getPageSize() == Integer.MAX_VALUE) {",
+        PAGEABLE_PARAM_NAME, PAGEABLE_PARAM_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("%s.sendError(%s.SC_BAD_REQUEST,", RESPONSE_PARAM_NAME,
+        getNameOfJavaType(HTTP_SERVLET_RESPONSE));
+    bodyBuilder.appendFormalLine("    \"The page size is required to request a page\");");
+    bodyBuilder.appendFormalLine("return;");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+
+    // response.setContentType("application/x-ndjson");
+    // response.setCharacterEncoding("UTF-8");
+    bodyBuilder.appendFormalLine("%s.setContentType(\"%s\");", RESPONSE_PARAM_NAME,
+        NDJSON_MEDIA_TYPE);
+    bodyBuilder.appendFormalLine("%s.setCharacterEncoding(\"UTF-8\");", RESPONSE_PARAM_NAME);
+    bodyBuilder.newLine();
+
+    // // The results are read as they are written, and detached from the
+    // // persistence context in batches
+    // CloseableIterator<Customer> customers = customerService.streamAll(globalSearch, pageable);
+    bodyBuilder.appendFormalLine(
+        "// The results are read as they are written, and detached from the");
+    bodyBuilder.appendFormalLine("// persistence context in batches");
+    bodyBuilder.appendFormalLine("%s %s = %s().%s(%s, %s);",
+        getNameOfJavaType(streamAllMethod.getReturnType()), itemNames,
+        getAccessorMethod(controllerMetadata.getServiceField()).getMethodName(),
+        streamAllMethod.getMethodName(), GLOBAL_SEARCH_NAME, PAGEABLE_PARAM_NAME);
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
+
+    // // A single generator writes every result, so the serializers are
+    // // only looked up once
+    // JsonGenerator generator = objectMapper.getFactory().createGenerator(
+    //     response.getOutputStream(), JsonEncoding.UTF8);
+    // try {
+    //   // The results are only separated by the new lines
+    //   generator.setRootValueSeparator(null);
+    bodyBuilder.appendFormalLine("// A single generator writes every result, so the serializers are");
+    bodyBuilder.appendFormalLine("// only looked up once");
+    bodyBuilder.appendFormalLine("%s generator = %s.getFactory().createGenerator(",
+        getNameOfJavaType(JSON_GENERATOR), OBJECT_MAPPER_FIELD_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("%s.getOutputStream(), %s.UTF8);", RESPONSE_PARAM_NAME,
+        getNameOfJavaType(JSON_ENCODING));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("// The results are only separated by the new lines");
+    bodyBuilder.appendFormalLine("generator.setRootValueSeparator(null);");
+
+    //   while (customers.hasNext()) {
+    //     generator.writeObject(customers.next());
+    //     generator.writeRaw('\n');
+    //   }
+    // } finally {
+    //   generator.close();
+    // }
+    bodyBuilder.appendFormalLine("while (%s.hasNext()) {", itemNames);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("generator.writeObject(%s.next());", itemNames);
+    bodyBuilder.appendFormalLine("generator.writeRaw('\\n');");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("} finally {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("generator.close();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+
+    // } finally {
+    //   customers.close();
+    // }
+    bodyBuilder.appendFormalLine("} finally {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("%s.close();", itemNames);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, STREAM_METHOD_NAME,
+            JavaType.VOID_PRIMITIVE, parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.setAnnotations(annotations);
+    methodBuilder.setThrowsTypes(throwTypes);
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Builds the field with the application ObjectMapper, which serializes the
+   * results of the "stream" method with the same configuration and mixins
+   * as the rest of JSON methods
+   *
+   * @return FieldMetadataBuilder
+   */
+  private FieldMetadataBuilder getObjectMapperField() {
+    List<AnnotationMetadataBuilder> annotations = new ArrayList<AnnotationMetadataBuilder>();
+    annotations.add(new AnnotationMetadataBuilder(SpringJavaType.AUTOWIRED));
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE, annotations,
+        OBJECT_MAPPER_FIELD_NAME, OBJECT_MAPPER);
+  }
+
   /**
    * This method provides the "show" method using JSON response type
    *
@@ -1897,6 +2185,26 @@ public class JSONMetadata extends AbstractItdTypeDetailsProvidingMetadataItem {
     return this.listMethod;
   }
 
+  /**
+   * Method that returns listAfter JSON method
+   *
+   * @return {@link MethodMetadata}, or null if keyset pagination is not
+   *         enabled
+   */
+  public MethodMetadata getCurrentListAfterMethod() {
+    return this.listAfterMethod;
+  }
+
+  /**
+   * Method that returns stream JSON method
+   *
+   * @return {@link MethodMetadata}, or null if the service can't stream the
+   *         results
+   */
+  public MethodMetadata getCurrentStreamMethod() {
+    return this.streamMethod;
+  }
+
   /**
    * Method that returns create JSON method
    *
@@ -181,6 +181,23 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
       "ar.com.fdvs.dj.core.layout.ClassicLayoutManager");
   private static final JavaType STRING_UTILS_APACHE = new JavaType(
       "org.apache.commons.lang3.StringUtils");
+  private static final JavaType STRING_ESCAPE_UTILS_APACHE = new JavaType(
+      "org.apache.commons.lang3.StringEscapeUtils");
+  private static final JavaType JR_PARAMETER = new JavaType(
+      "net.sf.jasperreports.engine.JRParameter");
+  private static final JavaType JR_SWAP_FILE = new JavaType(
+      "net.sf.jasperreports.engine.util.JRSwapFile");
+  private static final JavaType JR_SWAP_FILE_VIRTUALIZER = new JavaType(
+      "net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer");
+  private static final JavaType BEAN_WRAPPER = new JavaType(
+      "org.springframework.beans.BeanWrapper");
+  private static final JavaType PROPERTY_ACCESSOR_FACTORY = new JavaType(
+      "org.springframework.beans.PropertyAccessorFactory");
+  private static final JavaType WRITER = new JavaType("java.io.Writer");
+  private static final JavaType BUFFERED_WRITER = new JavaType("java.io.BufferedWriter");
+  private static final JavaType OUTPUT_STREAM_WRITER = new JavaType("java.io.OutputStreamWriter");
+  private static final JavaSymbolName EXPORT_MAX_ROWS_FIELD_NAME = new JavaSymbolName(
+      "exportMaxRows");
 
   private static final String PROVIDES_TYPE_STRING = ThymeleafMetadata.class.getName();
   private static final String PROVIDES_TYPE = MetadataIdentificationUtils
@@ -271,6 +288,7 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
   private final List<MethodMetadata> allMethods;
   private final FieldMetadata concurrencyTemplateField;
   private final FieldMetadata messageSourceField;
+  private final FieldMetadata exportMaxRowsField;
   private final FieldMetadata collectionMethodLinkBuilderFactoryField;
   private final FieldMetadata itemMethodLinkBuilderFactoryField;
   private final FieldMetadata conversionServiceField;
@@ -421,6 +439,7 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
 
     this.messageSourceField = getMessageSourceField();
     ensureGovernorHasField(new FieldMetadataBuilder(this.messageSourceField));
+    this.exportMaxRowsField = getExportMaxRowsField();
 
     List<MethodMetadata> allMethods = new ArrayList<MethodMetadata>();
 
@@ -532,6 +551,7 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
         this.showDetailInlineMethod = null;
 
         // Jasper export methods
+        ensureGovernorHasField(new FieldMetadataBuilder(this.exportMaxRowsField));
         List<MethodMetadata> exportMethods = new ArrayList<MethodMetadata>();
         this.exportMethod = addAndGet(getExportMethod(), exportMethods);
         this.exportCsvMethod = addAndGet(getCsvExportMethod(), exportMethods);
@@ -970,6 +990,21 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
         .build();
   }
 
+  /**
+   * Returns the field with the maximum number of rows of the reports built in
+   * memory, which can be configured with the "export.max-rows" property.
+   *
+   * @return FieldMetadata
+   */
+  private FieldMetadata getExportMaxRowsField() {
+    List<AnnotationMetadataBuilder> annotations = new ArrayList<AnnotationMetadataBuilder>();
+    AnnotationMetadataBuilder valueAnnotation = new AnnotationMetadataBuilder(SpringJavaType.VALUE);
+    valueAnnotation.addStringAttribute("value", "${export.max-rows:10000}");
+    annotations.add(valueAnnotation);
+    return new FieldMetadataBuilder(getId(), Modifier.PRIVATE, annotations,
+        EXPORT_MAX_ROWS_FIELD_NAME, JavaType.INT_PRIMITIVE).build();
+  }
+
   private MethodMetadata addAndGet(MethodMetadata method, List<MethodMetadata> allMethods) {
     if (method == null) {
       return null;
@@ -1262,13 +1297,25 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
     // Getting the default return type
     JavaType defaultReturnType = findAllMethod.getReturnType();
 
+    // Reports are built in memory, so the number of exported rows is limited
+    // Pageable limitedPageable = new PageRequest(0,
+    //     Math.min(pageable.getPageSize(), getExportMaxRows()), pageable.getSort());
+    bodyBuilder
+        .appendFormalLine("// Reports are built in memory, so the number of exported rows is limited");
+    bodyBuilder.appendFormalLine(
+        "%s limitedPageable = new %s(0, Math.min(%s.getPageSize(), %s()), %s.getSort());",
+        getNameOfJavaType(SpringJavaType.PAGEABLE), getNameOfJavaType(SpringJavaType.PAGE_REQUEST),
+        PAGEABLE_PARAM_NAME, getAccessorMethod(this.exportMaxRowsField).getMethodName(),
+        PAGEABLE_PARAM_NAME);
+    bodyBuilder.newLine();
+
     // Obtain the filtered and ordered elements
-    // Page<Owner> owners = ownerService.findAll(search, pageable);
+    // Page<Owner> owners = ownerService.findAll(search, limitedPageable);
     bodyBuilder.appendFormalLine("// Obtain the filtered and ordered elements");
-    bodyBuilder.appendFormalLine("%s %s = %s().%s(%s, %s);", getNameOfJavaType(defaultReturnType),
-        this.entityPluralUncapitalized,
+    bodyBuilder.appendFormalLine("%s %s = %s().%s(%s, limitedPageable);",
+        getNameOfJavaType(defaultReturnType), this.entityPluralUncapitalized,
         getAccessorMethod(this.controllerMetadata.getServiceField()).getMethodName(), findAllMethod
-            .getMethodName().getSymbolName(), GLOBAL_SEARCH_PARAM_NAME, PAGEABLE_PARAM_NAME);
+            .getMethodName().getSymbolName(), GLOBAL_SEARCH_PARAM_NAME);
     bodyBuilder.newLine();
 
     // // Prevent generation of reports with empty data
@@ -1355,6 +1402,30 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
     bodyBuilder.appendFormalLine("builder.setUseFullPageWidth(true);");
     bodyBuilder.newLine();
 
+    // // Tell the user when the report doesn't contain every record
+    // if (owners.getTotalElements() > owners.getNumberOfElements()) {
+    //   builder.setSubtitle(getMessageSource().getMessage("info_exportTruncated",
+    //       new Object[] {owners.getNumberOfElements(), owners.getTotalElements()},
+    //       "Only the first {0} of {1} records have been exported", locale));
+    // }
+    bodyBuilder.appendFormalLine("// Tell the user when the report doesn't contain every record");
+    bodyBuilder.appendFormalLine("if (%1$s.getTotalElements() > %1$s.getNumberOfElements()) {",
+        this.entityPluralUncapitalized);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(
+        "builder.setSubtitle(%s().getMessage(\"info_exportTruncated\",",
+        getAccessorMethod(this.messageSourceField).getMethodName());
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(
+        "new Object[] {%1$s.getNumberOfElements(), %1$s.getTotalElements()},",
+        this.entityPluralUncapitalized);
+    bodyBuilder.appendFormalLine(
+        "\"Only the first {0} of {1} records have been exported\", %s));", LOCALE_PARAM_NAME);
+    bodyBuilder.indentRemove();
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+
     // // Creates a new Jasper Reports Datasource using the obtained
     // elements
     bodyBuilder
@@ -1366,6 +1437,32 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
         this.entityPluralUncapitalized);
     bodyBuilder.newLine();
 
+    // // The filled report pages are swapped to a temporary file, so they
+    // // aren't all held in memory
+    // JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(10,
+    //     new JRSwapFile(System.getProperty("java.io.tmpdir"), 4096, 100), true);
+    // Map<String, Object> params = new HashMap<String, Object>();
+    // params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+    bodyBuilder
+        .appendFormalLine("// The filled report pages are swapped to a temporary file, so they");
+    bodyBuilder.appendFormalLine("// aren't all held in memory");
+    bodyBuilder.appendFormalLine("%1$s virtualizer = new %1$s(10,",
+        getNameOfJavaType(JR_SWAP_FILE_VIRTUALIZER));
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(
+        "new %s(System.getProperty(\"java.io.tmpdir\"), 4096, 100), true);",
+        getNameOfJavaType(JR_SWAP_FILE));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("%s<String, Object> params = new %s<String, Object>();",
+        getNameOfJavaType(JavaType.MAP), getNameOfJavaType(JavaType.HASH_MAP));
+    bodyBuilder.appendFormalLine("params.put(%s.REPORT_VIRTUALIZER, virtualizer);",
+        getNameOfJavaType(JR_PARAMETER));
+    bodyBuilder.newLine();
+
+    // try {
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
+
     // // Generates the JasperReport
     bodyBuilder.appendFormalLine("// Generates the JasperReport");
     // JasperPrint jp;
@@ -1374,8 +1471,9 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
     bodyBuilder.appendFormalLine("try {");
     bodyBuilder.indent();
     // jp = DynamicJasperHelper.generateJasperPrint(builder.build(), new
-    // ClassicLayoutManager(), ds);
-    bodyBuilder.appendFormalLine("jp = %s.generateJasperPrint(builder.build(), new %s(), ds);",
+    // ClassicLayoutManager(), ds, params);
+    bodyBuilder.appendFormalLine(
+        "jp = %s.generateJasperPrint(builder.build(), new %s(), ds, params);",
         getNameOfJavaType(DYNAMIC_JASPER_HELPER), getNameOfJavaType(CLASSIC_LAYOUT_MANAGER));
     bodyBuilder.indentRemove();
     // "}"
@@ -1402,6 +1500,16 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
     bodyBuilder.appendFormalLine("}");
     buildExportCatchBlock(bodyBuilder, JR_EXCEPTION);
     buildExportCatchBlock(bodyBuilder, IO_EXCEPTION);
+    bodyBuilder.indentRemove();
+
+    // } finally {
+    //   virtualizer.cleanup();
+    // }
+    bodyBuilder.appendFormalLine("} finally {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("virtualizer.cleanup();");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
     bodyBuilder.reset();
 
     // Build method
@@ -1414,7 +1522,11 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
     String description =
         "Method that obtains the filtered and ordered records using the Datatables information and "
             .concat(IOUtils.LINE_SEPARATOR)
-            .concat("export them to a new report file. (It ignores the current pagination).")
+            .concat("export them to a new report file. (It ignores the current pagination, but")
+            .concat(IOUtils.LINE_SEPARATOR)
+            .concat("exports at most as many records as the \"export.max-rows\" property sets,")
+            .concat(IOUtils.LINE_SEPARATOR)
+            .concat("saying so in the subtitle of the report).")
             .concat(IOUtils.LINE_SEPARATOR)
             .concat(IOUtils.LINE_SEPARATOR)
             .concat("To generate the report file it uses the `DynamicJasper` library")
@@ -1459,7 +1571,9 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
   }
 
   /**
-   * Generates a method to export data to CSV using DynamicJasper.
+   * Generates a method to export data to CSV using DynamicJasper, or writing
+   * the records to the response as they are read, if the service can stream
+   * them.
    *
    * @return MethodMetadata
    */
@@ -1472,6 +1586,10 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
           String.format("%s_report.csv", StringUtils.uncapitalize(this.entityPlural));
       final JavaSymbolName methodName = EXPORT_CSV_METHOD_NAME;
 
+      if (this.serviceMetadata.getCurrentStreamAllMethod() != null) {
+        return buildStreamingCsvExportMethod(fileName, methodName);
+      }
+
       return buildExportTypeMethod(exporterMethodInvocation, fileName, methodName, "exportCsv",
           "/export/csv", "CSV");
     }
@@ -1663,6 +1781,263 @@ public class ThymeleafMetadata extends AbstractViewMetadata {
     return methodBuilder.build();
   }
 
+  /**
+   * Builds the export CSV method which writes the records to the response as
+   * they are read from the database, so the number of exported records isn't
+   * limited by the available memory. It has the same parameters and mapping
+   * as the method built by
+   * {@link #buildExportTypeMethod(String, String, JavaSymbolName, String, String, String)}.
+   *
+   * @param fileName
+   *            the String with the output file name.
+   * @param methodName
+   *            the JavaSymbolName with the method name.
+   * @return MethodMetadata
+   */
+  private MethodMetadata buildStreamingCsvExportMethod(final String fileName,
+      final JavaSymbolName methodName) {
+
+    // Including parameter types
+    List<AnnotatedJavaType> parameterTypes = new ArrayList<AnnotatedJavaType>();
+    parameterTypes.add(GLOBAL_SEARCH_PARAM);
+    AnnotationMetadataBuilder pageableDefaultAnnotation =
+        new AnnotationMetadataBuilder(SpringJavaType.PAGEABLE_DEFAULT);
+    pageableDefaultAnnotation.addIntegerAttribute("size", Integer.MAX_VALUE);
+    parameterTypes.add(new AnnotatedJavaType(SpringJavaType.PAGEABLE, pageableDefaultAnnotation
+        .build()));
+    AnnotationMetadataBuilder requestParamAnnotation =
+        new AnnotationMetadataBuilder(SpringJavaType.REQUEST_PARAM);
+    requestParamAnnotation.addStringAttribute("value",
+        DATATABLES_COLUMNS_PARAM_NAME.getSymbolName());
+    parameterTypes
+        .add(new AnnotatedJavaType(JavaType.STRING_ARRAY, requestParamAnnotation.build()));
+    parameterTypes
+        .add(new AnnotatedJavaType(new JavaType("javax.servlet.http.HttpServletResponse")));
+    parameterTypes.add(LOCALE_PARAM);
+
+    MethodMetadata existingMethod =
+        getGovernorMethod(methodName,
+            AnnotatedJavaType.convertFromAnnotatedJavaTypes(parameterTypes));
+    if (existingMethod != null) {
+      return existingMethod;
+    }
+
+    // Including parameter names
+    final List<JavaSymbolName> parameterNames = new ArrayList<JavaSymbolName>();
+    parameterNames.add(GLOBAL_SEARCH_PARAM_NAME);
+    parameterNames.add(PAGEABLE_PARAM_NAME);
+    parameterNames.add(DATATABLES_COLUMNS_PARAM_NAME);
+    parameterNames.add(RESPONSE_PARAM_NAME);
+    parameterNames.add(LOCALE_PARAM_NAME);
+
+    // Adding annotations. The transaction keeps the database cursor open
+    // while the records are written
+    final List<AnnotationMetadataBuilder> annotations = new ArrayList<AnnotationMetadataBuilder>();
+    AnnotationMetadataBuilder getMappingBuilder = new AnnotationMetadataBuilder(GET_MAPPING);
+    getMappingBuilder.addStringAttribute("name", "exportCsv");
+    getMappingBuilder.addStringAttribute("value", "/export/csv");
+    annotations.add(getMappingBuilder);
+    annotations.add(RESPONSE_BODY_ANNOTATION);
+    AnnotationMetadataBuilder transactionalAnnotation =
+        new AnnotationMetadataBuilder(SpringJavaType.TRANSACTIONAL);
+    transactionalAnnotation.addBooleanAttribute("readOnly", true);
+    annotations.add(transactionalAnnotation);
+
+    // Add throws types
+    final List<JavaType> throwTypes = new ArrayList<JavaType>();
+    throwTypes.add(IO_EXCEPTION);
+
+    MethodMetadata streamAllMethod = this.serviceMetadata.getCurrentStreamAllMethod();
+    JavaType iteratorType = streamAllMethod.getReturnType();
+    List<String> validColumns = new ArrayList<String>();
+    for (FieldMetadata field : this.entityValidFields) {
+      validColumns.add(String.format("\"%s\"", field.getFieldName().getSymbolName()));
+    }
+
+    InvocableMemberBodyBuilder bodyBuilder = new InvocableMemberBodyBuilder();
+
+    // // Only the columns of the entity fields can be exported
+    // List<String> columns = new ArrayList<String>();
+    // if (datatablesColumns != null) {
+    //   List<String> validColumns = Arrays.asList("FIELD1", "FIELD2");
+    //   for (String column : datatablesColumns) {
+    //     if (validColumns.contains(column)) {
+    //       columns.add(column);
+    //     }
+    //   }
+    // }
+    bodyBuilder.appendFormalLine("// Only the columns of the entity fields can be exported");
+    bodyBuilder.appendFormalLine("%s<String> columns = new %s<String>();",
+        getNameOfJavaType(JavaType.LIST), getNameOfJavaType(JavaType.ARRAY_LIST));
+    bodyBuilder.appendFormalLine("if (%s != null) {", DATATABLES_COLUMNS_PARAM_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("%s<String> validColumns = %s.asList(%s);",
+        getNameOfJavaType(JavaType.LIST), getNameOfJavaType(JavaType.ARRAYS),
+        StringUtils.join(validColumns, ", "));
+    bodyBuilder.appendFormalLine("for (String column : %s) {", DATATABLES_COLUMNS_PARAM_NAME);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("if (validColumns.contains(column)) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("columns.add(column);");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.newLine();
+
+    // response.setContentType("text/csv");
+    // response.setCharacterEncoding("UTF-8");
+    // response.setHeader("Content-Disposition", "attachment; filename=\"FILE_NAME\"");
+    bodyBuilder.appendFormalLine("%s.setContentType(\"text/csv\");", RESPONSE_PARAM_NAME);
+    bodyBuilder.appendFormalLine("%s.setCharacterEncoding(\"UTF-8\");", RESPONSE_PARAM_NAME);
+    bodyBuilder.appendFormalLine(
+        "%s.setHeader(\"Content-Disposition\", \"attachment; filename=\\\"%s\\\"\");",
+        RESPONSE_PARAM_NAME, fileName);
+    bodyBuilder.newLine();
+
+    // // The records are read as they are written
+    // CloseableIterator<Owner> owners = getOwnerService().streamAll(search, pageable);
+    bodyBuilder.appendFormalLine("// The records are read as they are written");
+    bodyBuilder.appendFormalLine("%s %s = %s().%s(%s, %s);", getNameOfJavaType(iteratorType),
+        this.entityPluralUncapitalized,
+        getAccessorMethod(this.controllerMetadata.getServiceField()).getMethodName(),
+        streamAllMethod.getMethodName(), GLOBAL_SEARCH_PARAM_NAME, PAGEABLE_PARAM_NAME);
+    bodyBuilder.appendFormalLine("try {");
+    bodyBuilder.indent();
+
+    // Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), "UTF-8"));
+    bodyBuilder.appendFormalLine(
+        "%s writer = new %s(new %s(%s.getOutputStream(), \"UTF-8\"));",
+        getNameOfJavaType(WRITER), getNameOfJavaType(BUFFERED_WRITER),
+        getNameOfJavaType(OUTPUT_STREAM_WRITER), RESPONSE_PARAM_NAME);
+    bodyBuilder.newLine();
+
+    // // Header with the labels of the columns
+    // for (int i = 0; i < columns.size(); i++) {
+    //   if (i > 0) {
+    //     writer.write(',');
+    //   }
+    //   writer.write(StringEscapeUtils.escapeCsv(getMessageSource().getMessage(
+    //       "label_owner_" + columns.get(i).toLowerCase(), null, columns.get(i), locale)));
+    // }
+    // writer.write("\r\n");
+    bodyBuilder.appendFormalLine("// Header with the labels of the columns");
+    bodyBuilder.appendFormalLine("for (int i = 0; i < columns.size(); i++) {");
+    bodyBuilder.indent();
+    buildCsvSeparator(bodyBuilder);
+    bodyBuilder.appendFormalLine("writer.write(%s.escapeCsv(%s().getMessage(",
+        getNameOfJavaType(STRING_ESCAPE_UTILS_APACHE),
+        getAccessorMethod(this.messageSourceField).getMethodName());
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine(
+        "\"%s_\" + columns.get(i).toLowerCase(), null, columns.get(i), %s)));",
+        this.entityLabel, LOCALE_PARAM_NAME);
+    bodyBuilder.indentRemove();
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("writer.write(\"\\r\\n\");");
+    bodyBuilder.newLine();
+
+    // // A row for each record
+    // while (owners.hasNext()) {
+    //   BeanWrapper item = PropertyAccessorFactory.forBeanPropertyAccess(owners.next());
+    //   for (int i = 0; i < columns.size(); i++) {
+    //     if (i > 0) {
+    //       writer.write(',');
+    //     }
+    //     Object value = item.getPropertyValue(columns.get(i));
+    //     if (value != null) {
+    //       writer.write(StringEscapeUtils.escapeCsv(value.toString()));
+    //     }
+    //   }
+    //   writer.write("\r\n");
+    // }
+    // writer.flush();
+    bodyBuilder.appendFormalLine("// A row for each record");
+    bodyBuilder.appendFormalLine("while (%s.hasNext()) {", this.entityPluralUncapitalized);
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("%s item = %s.forBeanPropertyAccess(%s.next());",
+        getNameOfJavaType(BEAN_WRAPPER), getNameOfJavaType(PROPERTY_ACCESSOR_FACTORY),
+        this.entityPluralUncapitalized);
+    bodyBuilder.appendFormalLine("for (int i = 0; i < columns.size(); i++) {");
+    bodyBuilder.indent();
+    buildCsvSeparator(bodyBuilder);
+    bodyBuilder.appendFormalLine("Object value = item.getPropertyValue(columns.get(i));");
+    bodyBuilder.appendFormalLine("if (value != null) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("writer.write(%s.escapeCsv(value.toString()));",
+        getNameOfJavaType(STRING_ESCAPE_UTILS_APACHE));
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("writer.write(\"\\r\\n\");");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+    bodyBuilder.appendFormalLine("writer.flush();");
+    bodyBuilder.indentRemove();
+
+    // } finally {
+    //   owners.close();
+    // }
+    bodyBuilder.appendFormalLine("} finally {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("%s.close();", this.entityPluralUncapitalized);
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+
+    // return ResponseEntity.ok().build();
+    bodyBuilder.appendFormalLine("return %s.ok().build();", getNameOfJavaType(RESPONSE_ENTITY));
+
+    // Build method
+    MethodMetadataBuilder methodBuilder =
+        new MethodMetadataBuilder(getId(), Modifier.PUBLIC, methodName,
+            JavaType.wrapperWilcard(RESPONSE_ENTITY), parameterTypes, parameterNames, bodyBuilder);
+    methodBuilder.setAnnotations(annotations);
+    methodBuilder.setThrowsTypes(throwTypes);
+
+    // Add JavaDoc
+    CommentStructure commentStructure = new CommentStructure();
+    String description =
+        "Writes the filtered and ordered records to the response as a CSV file while they are"
+            .concat(IOUtils.LINE_SEPARATOR).concat(
+                "read from the database, without loading them all in memory.");
+
+    // Add params info to commment block
+    List<String> paramsInfo = new ArrayList<String>();
+    paramsInfo
+        .add("search The GlobalSearch that contains the filter provided by the Datatables component");
+    paramsInfo
+        .add("pageable The Pageable that contains the Sort info provided by the Datatabes component");
+    paramsInfo.add("datatablesColumns The Columns displayed in the Datatables component");
+    paramsInfo.add("response The HttpServletResponse");
+    paramsInfo.add("locale The current Locale in the view context");
+
+    // Add JavadocComment to CommentStructure and to method
+    commentStructure.addComment(new JavadocComment(description, paramsInfo, null, null),
+        CommentLocation.BEGINNING);
+    methodBuilder.setCommentStructure(commentStructure);
+
+    return methodBuilder.build();
+  }
+
+  /**
+   * Builds the sentence writing the separator before every CSV value but the
+   * first one of a row.
+   *
+   * @param bodyBuilder
+   *            the InvocableMemberBodyBuilder of the export CSV method
+   */
+  private void buildCsvSeparator(InvocableMemberBodyBuilder bodyBuilder) {
+    bodyBuilder.appendFormalLine("if (i > 0) {");
+    bodyBuilder.indent();
+    bodyBuilder.appendFormalLine("writer.write(',');");
+    bodyBuilder.indentRemove();
+    bodyBuilder.appendFormalLine("}");
+  }
+
   /**
    * Returns a String with default label to show when cannot find the right
    * label code.
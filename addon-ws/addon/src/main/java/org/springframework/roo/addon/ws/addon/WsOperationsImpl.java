@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -62,10 +63,9 @@ import org.springframework.roo.project.Property;
 import org.springframework.roo.project.maven.Pom;
 import org.springframework.roo.support.logging.HandlerUtils;
 import org.springframework.roo.support.osgi.ServiceInstaceManager;
+import org.springframework.roo.support.util.XmlStreamUtils;
 import org.springframework.roo.support.util.XmlUtils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
 /**
  * Implementation of the {@link WsOperations}. It contains all the necessary
@@ -862,18 +862,11 @@ public class WsOperationsImpl implements WsOperations {
     List<String> availableEndPoints = new ArrayList<String>();
     // Check if provided wsdl file exists
     if (getFileManager().exists(wsdlPath)) {
-      // Obtain document
-      final Document document = XmlUtils.readXml(getFileManager().getInputStream(wsdlPath));
-
-      // Finding service elements
-      List<Element> services = XmlUtils.findElements("service", document.getDocumentElement());
-      for (Element service : services) {
-        NodeList ports = service.getChildNodes();
-        for (int i = 0; i < ports.getLength(); i++) {
-          Element port = (Element) ports.item(1);
-          if (port != null && port.getAttribute("name") != null) {
-            availableEndPoints.add(port.getAttribute("name"));
-          }
+      // Finding the ports of every service, without loading the whole WSDL
+      for (Map<String, String> port : XmlStreamUtils.findAllAttributes(getFileManager()
+          .getInputStream(wsdlPath), "service/*")) {
+        if (port.get("name") != null) {
+          availableEndPoints.add(port.get("name"));
         }
       }
     }
@@ -884,10 +877,8 @@ public class WsOperationsImpl implements WsOperations {
   public String getTargetNameSpaceFromWsdlFile(String wsdlPath) {
     // Check if provided wsdl file exists
     if (getFileManager().exists(wsdlPath)) {
-      // Obtain document
-      final Document document = XmlUtils.readXml(getFileManager().getInputStream(wsdlPath));
       // Return targetNamespace
-      return document.getDocumentElement().getAttribute("targetNamespace");
+      return StringUtils.defaultString(getWsdlRootAttributes(wsdlPath).get("targetNamespace"));
     }
 
     return null;
@@ -897,17 +888,16 @@ public class WsOperationsImpl implements WsOperations {
   public SoapBindingType getBindingTypeFromWsdlFile(String wsdlPath) {
     // Check if provided wsdl file exists
     if (getFileManager().exists(wsdlPath)) {
-      // Obtain document
-      final Document document = XmlUtils.readXml(getFileManager().getInputStream(wsdlPath));
+      final Map<String, String> rootAttributes = getWsdlRootAttributes(wsdlPath);
       // Get soap attribute
-      String soapAttr = document.getDocumentElement().getAttribute("xmlns:soap");
+      String soapAttr = rootAttributes.get("xmlns:soap");
       if ("http://schemas.xmlsoap.org/wsdl/soap/".equals(soapAttr)) {
         return SoapBindingType.SOAP11;
       } else if ("http://schemas.xmlsoap.org/wsdl/soap12/".equals(soapAttr)) {
         return SoapBindingType.SOAP12;
       } else if (soapAttr == null || "".equals(soapAttr)) {
         // Maybe attribute is called soap12
-        String soap12Attr = document.getDocumentElement().getAttribute("xmlns:soap12");
+        String soap12Attr = rootAttributes.get("xmlns:soap12");
         if ("http://schemas.xmlsoap.org/wsdl/soap12/".equals(soap12Attr)) {
           return SoapBindingType.SOAP12;
         }
@@ -921,33 +911,31 @@ public class WsOperationsImpl implements WsOperations {
   public String getServiceUrlForEndpointFromWsdlFile(String endPoint, String wsdlPath) {
     // Check if provided wsdl file exists
     if (getFileManager().exists(wsdlPath)) {
-      // Obtain document
-      final Document document = XmlUtils.readXml(getFileManager().getInputStream(wsdlPath));
-
-      // Finding service elements
-      List<Element> services = XmlUtils.findElements("service", document.getDocumentElement());
-      for (Element service : services) {
-        NodeList ports = service.getChildNodes();
-        for (int i = 0; i < ports.getLength(); i++) {
-          Element port = (Element) ports.item(1);
-          // Check if current endPoint has the same name as the provided one
-          if (port != null && port.getAttribute("name") != null
-              && endPoint.equals(port.getAttribute("name"))) {
-            NodeList addresses = port.getChildNodes();
-            for (int x = 0; x < addresses.getLength(); x++) {
-              if (addresses.item(x) != null && addresses.item(x) instanceof Element) {
-                Element address = (Element) addresses.item(x);
-                return address.getAttribute("location");
-              }
-            }
-          }
-        }
+      // The address is the first element of the port with the provided name
+      final Map<String, String> address =
+          XmlStreamUtils.findFirstAttributes(getFileManager().getInputStream(wsdlPath),
+              "service/*[@name='" + endPoint + "']/*");
+      if (address != null) {
+        return StringUtils.defaultString(address.get("location"));
       }
     }
 
     return null;
   }
 
+  /**
+   * Returns the attributes of the root element of the given WSDL file, reading
+   * no further than its start tag
+   * 
+   * @param wsdlPath the path of an existing WSDL file
+   * @return a non-<code>null</code> map
+   */
+  private Map<String, String> getWsdlRootAttributes(String wsdlPath) {
+    final Map<String, String> rootAttributes =
+        XmlStreamUtils.findFirstAttributes(getFileManager().getInputStream(wsdlPath), "/*");
+    return rootAttributes == null ? Collections.<String, String>emptyMap() : rootAttributes;
+  }
+
   /**
    * This method provides @RooWsClient annotation with all the necessary attributes
    * 
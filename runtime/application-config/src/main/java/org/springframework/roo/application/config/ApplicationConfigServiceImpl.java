@@ -18,6 +18,7 @@ import org.springframework.roo.process.manager.FileManager;
 import org.springframework.roo.project.LogicalPath;
 import org.springframework.roo.project.Path;
 import org.springframework.roo.project.PathResolver;
+import org.springframework.roo.project.ProjectOperations;
 import org.springframework.roo.project.maven.Pom;
 import org.springframework.roo.propfiles.manager.PropFilesManagerService;
 import org.springframework.roo.settings.project.ProjectSettingsService;
@@ -50,6 +51,8 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
   @Reference
   private FileManager fileManager;
   @Reference
+  private ProjectOperations projectOperations;
+  @Reference
   private ProjectSettingsService settingsService;
   @Reference
   private TypeLocationService typeLocationService;
@@ -61,6 +64,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     // Get application modules
     propFilesManager.addPropertyIfNotExists(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), key, value, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -69,6 +73,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     // Get application modules
     propFilesManager.addPropertyIfNotExists(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), prefix, key, value, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -77,6 +82,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     // Get application modules
     propFilesManager.addProperties(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), properties, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -85,6 +91,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     // Get application modules
     propFilesManager.addProperties(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), prefix, properties, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -92,6 +99,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
       String profile, boolean force) {
     propFilesManager.changeProperty(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), key, value, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -99,6 +107,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
       final String value, String profile, boolean force) {
     propFilesManager.changeProperty(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), prefix, key, value, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -106,6 +115,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
       String profile, boolean force) {
     propFilesManager.changeProperties(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), properties, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -113,6 +123,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
       final Map<String, String> properties, String profile, boolean force) {
     propFilesManager.changeProperties(getApplicationConfigFileLocation(moduleName),
         getAppliCationConfigFileName(profile), prefix, properties, true, force);
+    projectOperations.invalidateFeatureStatuses(moduleName);
   }
 
   @Override
@@ -182,6 +193,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     if (existsSpringConfigFile(moduleName, profile)) {
       propFilesManager.removeProperty(getApplicationConfigFileLocation(moduleName),
           getAppliCationConfigFileName(profile), key);
+      projectOperations.invalidateFeatureStatuses(moduleName);
     }
   }
 
@@ -191,6 +203,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     if (existsSpringConfigFile(moduleName, profile)) {
       propFilesManager.removeProperty(getApplicationConfigFileLocation(moduleName),
           getAppliCationConfigFileName(profile), prefix, key);
+      projectOperations.invalidateFeatureStatuses(moduleName);
     }
   }
 
@@ -206,6 +219,7 @@ public class ApplicationConfigServiceImpl implements ApplicationConfigService {
     if (existsSpringConfigFile(moduleName, profile)) {
       propFilesManager.removePropertiesByPrefix(getApplicationConfigFileLocation(moduleName),
           getAppliCationConfigFileName(profile), prefix);
+      projectOperations.invalidateFeatureStatuses(moduleName);
     }
   }
 
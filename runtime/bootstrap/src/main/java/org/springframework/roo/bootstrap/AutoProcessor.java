@@ -4,15 +4,18 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
+import org.osgi.framework.wiring.FrameworkWiring;
 import org.osgi.service.startlevel.StartLevel;
 
 @SuppressWarnings({ "unchecked", "rawtypes" }) // **** CHANGE FROM ORIGINAL FELIX VERSION ****
@@ -58,6 +61,18 @@ public class AutoProcessor
      * The property name prefix for the launcher's auto-start property.
     **/
     public static final String AUTO_START_PROP = "felix.auto.start";
+    // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+    /**
+     * The property name used to enable lazy activation of auto-deploy
+     * bundles declaring a "<tt>Bundle-ActivationPolicy: lazy</tt>" header.
+    **/
+    public static final String AUTO_DEPLOY_LAZY_PROPERY = "felix.auto.deploy.lazy";
+    /**
+     * The property name used to enable resolving all auto-deploy bundles
+     * in a single resolver pass before they are started.
+    **/
+    public static final String AUTO_DEPLOY_RESOLVE_PROPERY = "felix.auto.deploy.resolve";
+    // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
 
     /**
      * Used to instigate auto-deploy directory process and auto-install/auto-start
@@ -66,11 +81,29 @@ public class AutoProcessor
      * @param context The system bundle context.
     **/
 	public static void process(Map configMap, BundleContext context)
+    {
+        process(configMap, context, null, null); // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+    }
+
+    // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+    /**
+     * Used to instigate auto-deploy directory process and auto-install/auto-start
+     * configuration property processing, reusing bundles already installed in
+     * the framework storage when their JAR is unchanged.
+     * @param configMap Map of configuration properties.
+     * @param context The system bundle context.
+     * @param cacheIndex The checksums of the bundles in the framework storage,
+     *        or <tt>null</tt> if the storage is not reused across sessions.
+     * @param timings The boot phase timings to update, or <tt>null</tt>.
+    **/
+    public static void process(Map configMap, BundleContext context,
+        BundleCacheIndex cacheIndex, BootTimings timings)
     {
         configMap = (configMap == null) ? new HashMap() : configMap;
-        processAutoDeploy(configMap, context);
+        processAutoDeploy(configMap, context, cacheIndex, timings);
         processAutoProperties(configMap, context);
     }
+    // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
 
     /**
      * <p>
@@ -78,7 +111,8 @@ public class AutoProcessor
      * specified deploy actions.
      * </p>
      */
-    private static void processAutoDeploy(Map configMap, BundleContext context)
+    private static void processAutoDeploy(Map configMap, BundleContext context,
+        BundleCacheIndex cacheIndex, BootTimings timings) // **** CHANGE FROM ORIGINAL FELIX VERSION ****
     {
         // Determine if auto deploy actions to perform.
         String action = (String) configMap.get(AUTO_DEPLOY_ACTION_PROPERY);
@@ -154,8 +188,11 @@ public class AutoProcessor
                 // Look up the bundle by location, removing it from
                 // the map of installed bundles so the remaining bundles
                 // indicate which bundles may need to be uninstalled.
-                Bundle b = (Bundle) installedBundleMap.remove(
-                    ((File) jarList.get(i)).toURI().toString());
+                // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+                File jar = (File) jarList.get(i);
+                String location = jar.toURI().toString();
+                Bundle b = (Bundle) installedBundleMap.remove(location);
+                // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
 
                 try
                 {
@@ -163,15 +200,42 @@ public class AutoProcessor
                     // if the 'install' action is present.
                     if ((b == null) && actionList.contains(AUTO_DEPLOY_INSTALL_VALUE))
                     {
-                        b = context.installBundle(
-                            ((File) jarList.get(i)).toURI().toString());
+                        b = context.installBundle(location);
+                        // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+                        if (cacheIndex != null)
+                        {
+                            cacheIndex.record(location, jar);
+                        }
+                        // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
                     }
                     // If the bundle is already installed, then update it
                     // if the 'update' action is present.
                     else if ((b != null) && actionList.contains(AUTO_DEPLOY_UPDATE_VALUE))
+                    {
+                        // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+                        // Bundles whose JAR is unchanged since they were last
+                        // recorded don't need to be updated again.
+                        if (cacheIndex == null)
+                        {
+                            b.update();
+                        }
+                        else if (!cacheIndex.isUnchanged(location, jar))
+                        {
+                            b.update();
+                            cacheIndex.record(location, jar);
+                        }
+                        // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
+                    }
+                    // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+                    // On a warm start the bundle comes from the reused framework
+                    // storage, so it is only updated if its JAR has changed.
+                    else if ((b != null) && (cacheIndex != null)
+                        && !cacheIndex.isUnchanged(location, jar))
                     {
                         b.update();
+                        cacheIndex.record(location, jar);
                     }
+                    // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
 
                     // If we have found and/or successfully installed a bundle,
                     // then add it to the list of bundles to potentially start
@@ -189,6 +253,24 @@ public class AutoProcessor
                 }
             }
 
+            // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            // Forget the checksums of the JARs no longer in the auto-deploy
+            // directory.
+            if (cacheIndex != null)
+            {
+                Set deployedLocations = new HashSet();
+                for (int i = 0; i < jarList.size(); i++)
+                {
+                    deployedLocations.add(((File) jarList.get(i)).toURI().toString());
+                }
+                cacheIndex.retainAll(deployedLocations);
+            }
+            if (timings != null)
+            {
+                timings.phaseFinished(BootTimings.INSTALL);
+            }
+            // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
+
             // Uninstall all bundles not in the auto-deploy directory if
             // the 'uninstall' action is present.
             if (actionList.contains(AUTO_DEPLOY_UNINSTALL_VALUE))
@@ -212,6 +294,22 @@ public class AutoProcessor
                 }
             }
 
+            // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            // Resolve every deployed bundle in one resolver pass, so independent
+            // bundles are wired together (in parallel when
+            // "felix.resolver.parallelism" allows it) instead of one by one as
+            // each bundle gets started.
+            if (isEnabled(configMap, AUTO_DEPLOY_RESOLVE_PROPERY))
+            {
+                resolveBundles(context, startBundleList);
+                if (timings != null)
+                {
+                    timings.phaseFinished(BootTimings.RESOLVE);
+                }
+            }
+            final boolean lazy = isEnabled(configMap, AUTO_DEPLOY_LAZY_PROPERY);
+            // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
+
             // Start all installed and/or updated bundles if the 'start'
             // action is present.
             if (actionList.contains(AUTO_DEPLOY_START_VALUE))
@@ -220,7 +318,21 @@ public class AutoProcessor
                 {
                     try
                     {
-                        ((Bundle) startBundleList.get(i)).start();
+                        // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+                        // Lazy bundles are only marked as started: their
+                        // components are registered, but the bundle is not
+                        // activated until one of its classes (a command,
+                        // converter or metadata provider) is first loaded.
+                        Bundle b = (Bundle) startBundleList.get(i);
+                        if (lazy && isLazy(b))
+                        {
+                            b.start(Bundle.START_ACTIVATION_POLICY);
+                        }
+                        else
+                        {
+                            b.start();
+                        }
+                        // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
                     }
                     catch (BundleException ex)
                     {
@@ -387,4 +499,31 @@ if (ex.getCause() != null)
     {
         return bundle.getHeaders().get(Constants.FRAGMENT_HOST) != null;
     }
+
+    // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+    private static boolean isLazy(Bundle bundle)
+    {
+        String policy = (String) bundle.getHeaders().get(Constants.BUNDLE_ACTIVATIONPOLICY);
+        return (policy != null)
+            && policy.trim().startsWith(Constants.ACTIVATION_LAZY);
+    }
+
+    private static boolean isEnabled(Map configMap, String key)
+    {
+        Object value = configMap.get(key);
+        return (value != null) && Boolean.valueOf(value.toString().trim()).booleanValue();
+    }
+
+    private static void resolveBundles(BundleContext context, List bundles)
+    {
+        FrameworkWiring wiring = (FrameworkWiring) context.getBundle(0).adapt(FrameworkWiring.class);
+        if ((wiring == null) || bundles.isEmpty())
+        {
+            return;
+        }
+        // Unresolvable bundles are reported again (with their cause) when
+        // they are started, so a partial resolution is not an error here.
+        wiring.resolveBundles(bundles);
+    }
+    // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
 }
\ No newline at end of file
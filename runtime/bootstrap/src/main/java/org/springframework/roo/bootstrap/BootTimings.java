@@ -0,0 +1,78 @@
+package org.springframework.roo.bootstrap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each phase of the Roo boot takes (framework init, bundle
+ * install, resolve, start and shell ready), so startup regressions can be
+ * tracked over time.
+ * <p>
+ * Phases are measured in the order they finish; each phase lasts from the end
+ * of the previous one (or the creation of this object) until
+ * {@link #phaseFinished(String)} is called.
+ *
+ * @since 2.0.1
+ */
+public class BootTimings {
+
+  public static final String FRAMEWORK_INIT = "framework init";
+  public static final String INSTALL = "install";
+  public static final String RESOLVE = "resolve";
+  public static final String START = "start";
+  public static final String SHELL_READY = "shell ready";
+
+  private final Map<String, Long> phases = new LinkedHashMap<String, Long>();
+  private final long startedNanoseconds;
+  private long lastNanoseconds;
+
+  public BootTimings() {
+    startedNanoseconds = System.nanoTime();
+    lastNanoseconds = startedNanoseconds;
+  }
+
+  /**
+   * Records the end of the given phase
+   *
+   * @param phase the phase name (required)
+   */
+  public synchronized void phaseFinished(final String phase) {
+    final long now = System.nanoTime();
+    final Long previous = phases.get(phase);
+    final long elapsed = now - lastNanoseconds;
+    phases.put(phase, previous == null ? elapsed : previous + elapsed);
+    lastNanoseconds = now;
+  }
+
+  /**
+   * Returns the duration of each finished phase, in milliseconds
+   *
+   * @return a non-<code>null</code> copy, in phase order
+   */
+  public synchronized Map<String, Long> getPhaseMillis() {
+    final Map<String, Long> result = new LinkedHashMap<String, Long>();
+    for (final Map.Entry<String, Long> entry : phases.entrySet()) {
+      result.put(entry.getKey(), entry.getValue() / 1000000L);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the time elapsed since the boot started, in milliseconds
+   *
+   * @return see above
+   */
+  public synchronized long getTotalMillis() {
+    return (lastNanoseconds - startedNanoseconds) / 1000000L;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder("Boot phases:");
+    for (final Map.Entry<String, Long> entry : getPhaseMillis().entrySet()) {
+      sb.append(" ").append(entry.getKey()).append("=").append(entry.getValue()).append("ms");
+    }
+    sb.append(" (total ").append(getTotalMillis()).append("ms)");
+    return sb.toString();
+  }
+}
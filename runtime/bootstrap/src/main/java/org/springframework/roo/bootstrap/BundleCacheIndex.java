@@ -0,0 +1,206 @@
+package org.springframework.roo.bootstrap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+/**
+ * Records the checksum of every bundle JAR installed into the Felix storage
+ * directory, so a later session can reuse that directory (a "warm start") and
+ * only reinstall the bundles whose JAR actually changed.
+ * <p>
+ * The index is kept in a properties file inside the storage directory, keyed
+ * by bundle location. It also records the checksum of the framework JAR, as
+ * the storage format is only guaranteed to be readable by the same framework
+ * version that wrote it.
+ * <p>
+ * Only JDK classes may be used here, as this class runs before any bundle is
+ * installed.
+ *
+ * @since 2.0.1
+ */
+public class BundleCacheIndex {
+
+  /**
+   * The property name used to enable reusing the framework storage directory
+   * across sessions when bundle checksums are unchanged.
+   */
+  public static final String WARM_START_PROP = "felix.cache.warmstart";
+
+  private static final String FRAMEWORK_KEY = "framework";
+  private static final String INDEX_FILE_NAME = "roo-bundle-checksums.properties";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Calculates the CRC-32 checksum of the given file
+   *
+   * @param file the file to read (required)
+   * @return the checksum, or <code>null</code> if the file cannot be read
+   */
+  static String checksum(final File file) {
+    final CRC32 crc = new CRC32();
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    InputStream is = null;
+    try {
+      is = new FileInputStream(file);
+      for (int read = is.read(buffer); read != -1; read = is.read(buffer)) {
+        crc.update(buffer, 0, read);
+      }
+      return file.length() + ":" + Long.toHexString(crc.getValue());
+    } catch (final IOException e) {
+      return null;
+    } finally {
+      closeQuietly(is);
+    }
+  }
+
+  private static void closeQuietly(final Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (final IOException ignored) {
+      }
+    }
+  }
+
+  private final Properties checksums = new Properties();
+  private final File indexFile;
+  private final boolean loaded;
+
+  /**
+   * Constructor that loads any index previously stored in the given
+   * directory
+   *
+   * @param storageDirectory the framework storage directory (required)
+   */
+  public BundleCacheIndex(final File storageDirectory) {
+    indexFile = new File(storageDirectory, INDEX_FILE_NAME);
+    loaded = load();
+  }
+
+  private boolean load() {
+    if (!indexFile.isFile()) {
+      return false;
+    }
+    InputStream is = null;
+    try {
+      is = new FileInputStream(indexFile);
+      checksums.load(is);
+      return true;
+    } catch (final IOException e) {
+      checksums.clear();
+      return false;
+    } finally {
+      closeQuietly(is);
+    }
+  }
+
+  /**
+   * Indicates whether the storage directory can be reused with the given
+   * framework JAR, i.e. whether an index was found and it was written by a
+   * framework with the same checksum.
+   *
+   * @param frameworkJar the framework JAR on the class path (can be
+   *            <code>null</code> if unknown, in which case the storage is
+   *            never reused)
+   * @return see above
+   */
+  public boolean isReusable(final File frameworkJar) {
+    if (!loaded || frameworkJar == null) {
+      return false;
+    }
+    final String expected = checksums.getProperty(FRAMEWORK_KEY);
+    return expected != null && expected.equals(checksum(frameworkJar));
+  }
+
+  /**
+   * Indicates whether the bundle JAR with the given location has the same
+   * checksum it had when it was last recorded
+   *
+   * @param location the bundle location (required)
+   * @param jar the bundle JAR (required)
+   * @return <code>false</code> if the bundle was never recorded or has
+   *         changed since
+   */
+  public boolean isUnchanged(final String location, final File jar) {
+    final String expected = checksums.getProperty(location);
+    return expected != null && expected.equals(checksum(jar));
+  }
+
+  /**
+   * Records the current checksum of the given bundle JAR
+   *
+   * @param location the bundle location (required)
+   * @param jar the bundle JAR (required)
+   */
+  public void record(final String location, final File jar) {
+    final String checksum = checksum(jar);
+    if (checksum == null) {
+      checksums.remove(location);
+    } else {
+      checksums.setProperty(location, checksum);
+    }
+  }
+
+  /**
+   * Records the current checksum of the framework JAR
+   *
+   * @param frameworkJar the framework JAR (can be <code>null</code>)
+   */
+  public void recordFramework(final File frameworkJar) {
+    if (frameworkJar == null) {
+      checksums.remove(FRAMEWORK_KEY);
+    } else {
+      record(FRAMEWORK_KEY, frameworkJar);
+    }
+  }
+
+  /**
+   * Discards the checksums of the bundles not at any of the given locations,
+   * e.g. because their JARs have been removed. The framework checksum is
+   * kept.
+   *
+   * @param locations the locations of the bundles still deployed (required)
+   */
+  public void retainAll(final Collection<String> locations) {
+    for (final Iterator<Object> it = checksums.keySet().iterator(); it.hasNext();) {
+      final Object key = it.next();
+      if (!FRAMEWORK_KEY.equals(key) && !locations.contains(key)) {
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Discards the checksum of every bundle, e.g. after the storage has been
+   * cleaned
+   */
+  public void clear() {
+    checksums.clear();
+  }
+
+  /**
+   * Stores the index in the storage directory. Failures are reported but not
+   * fatal, as they only mean the next start will be a cold one.
+   */
+  public void store() {
+    OutputStream os = null;
+    try {
+      indexFile.getParentFile().mkdirs();
+      os = new FileOutputStream(indexFile);
+      checksums.store(os, "Spring Roo bundle cache checksums");
+    } catch (final IOException e) {
+      System.err.println("Could not store bundle cache index " + indexFile + ": " + e);
+    } finally {
+      closeQuietly(os);
+    }
+  }
+}
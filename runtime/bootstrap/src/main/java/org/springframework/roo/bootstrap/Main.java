@@ -16,8 +16,10 @@ import java.util.Properties;
 import org.apache.felix.framework.util.Util;
 import org.osgi.framework.Constants;
 import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
 import org.osgi.framework.launch.Framework;
 import org.osgi.framework.launch.FrameworkFactory;
+import org.osgi.framework.startlevel.FrameworkStartLevel;
 
 /**
  * Loads Roo via Felix.
@@ -68,6 +70,22 @@ public class Main
      * Name of the configuration directory.
      */
     public static final String CONFIG_DIRECTORY = "conf";
+    // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+    /**
+     * The system property used to print the boot phase timings even when
+     * not running in development mode.
+    **/
+    public static final String BOOT_TIMINGS_PROP = "roo.boot.timings";
+    /**
+     * The start level set once all immediate services are active, i.e. once
+     * the shell is ready (see the "startlevel" bundle).
+    **/
+    private static final int SHELL_READY_START_LEVEL = 99;
+    /**
+     * The default framework storage directory used by Felix.
+    **/
+    private static final String DEFAULT_STORAGE_DIRECTORY = "felix-cache";
+    // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
 
     private static Framework m_fwk = null;
 
@@ -280,14 +298,30 @@ public class Main
         try
         {
             double startedNanoseconds = System.nanoTime(); // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            final BootTimings timings = new BootTimings();
+            // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
             // Create an instance of the framework.
             FrameworkFactory factory = getFrameworkFactory();
+            // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            BundleCacheIndex cacheIndex = prepareWarmStart(configProps, factory);
+            // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
             m_fwk = factory.newFramework(configProps);
             // Initialize the framework, but don't start it yet.
             m_fwk.init();
+            // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            timings.phaseFinished(BootTimings.FRAMEWORK_INIT);
+            m_fwk.getBundleContext().addFrameworkListener(new BootTimingsListener(timings));
+            // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
             // Use the system bundle context to process the auto-deploy
             // and auto-install/auto-start properties.
-            AutoProcessor.process(configProps, m_fwk.getBundleContext());
+            AutoProcessor.process(configProps, m_fwk.getBundleContext(), cacheIndex, timings); // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+            if (cacheIndex != null)
+            {
+                cacheIndex.store();
+            }
+            // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
             FrameworkEvent event;
             do
             {
@@ -314,6 +348,92 @@ public class Main
         }
     }
 
+    // **** CHANGE FROM ORIGINAL FELIX VERSION ****
+    /**
+     * Prepares the reuse of the framework storage directory across sessions
+     * if the <tt>felix.cache.warmstart</tt> property is enabled. The storage
+     * is cleaned on initialization when it was not written by the same
+     * framework JAR (or never recorded).
+     * @param configProps The framework configuration properties.
+     * @param factory The framework factory about to be used.
+     * @return The checksums of the bundles in the storage, or <tt>null</tt>
+     *         if warm starts are disabled.
+    **/
+    private static BundleCacheIndex prepareWarmStart(
+        Map<String, String> configProps, FrameworkFactory factory)
+    {
+        String warmStart = configProps.get(BundleCacheIndex.WARM_START_PROP);
+        if ((warmStart == null) || !warmStart.trim().equalsIgnoreCase("true"))
+        {
+            return null;
+        }
+
+        String storage = configProps.get(Constants.FRAMEWORK_STORAGE);
+        BundleCacheIndex cacheIndex = new BundleCacheIndex(
+            new File((storage == null) ? DEFAULT_STORAGE_DIRECTORY : storage));
+        File frameworkJar = getJarFile(factory.getClass());
+        if (!cacheIndex.isReusable(frameworkJar))
+        {
+            configProps.put(Constants.FRAMEWORK_STORAGE_CLEAN,
+                Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+            cacheIndex.clear();
+        }
+        cacheIndex.recordFramework(frameworkJar);
+        return cacheIndex;
+    }
+
+    private static File getJarFile(Class clazz)
+    {
+        try
+        {
+            File file = new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return file.isFile() ? file : null;
+        }
+        catch (Exception ex)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Records the end of the "start" and "shell ready" boot phases, printing
+     * the timings in development mode or when <tt>roo.boot.timings</tt> is set.
+    **/
+    private static class BootTimingsListener implements FrameworkListener
+    {
+        private final BootTimings m_timings;
+        private boolean m_shellReady = false;
+
+        BootTimingsListener(BootTimings timings)
+        {
+            m_timings = timings;
+        }
+
+        public synchronized void frameworkEvent(FrameworkEvent event)
+        {
+            if (event.getType() == FrameworkEvent.STARTED)
+            {
+                m_timings.phaseFinished(BootTimings.START);
+            }
+            else if ((event.getType() == FrameworkEvent.STARTLEVEL_CHANGED) && !m_shellReady)
+            {
+                FrameworkStartLevel startLevel =
+                    (FrameworkStartLevel) event.getBundle().adapt(FrameworkStartLevel.class);
+                if ((startLevel != null) && (startLevel.getStartLevel() >= SHELL_READY_START_LEVEL))
+                {
+                    m_shellReady = true;
+                    m_timings.phaseFinished(BootTimings.SHELL_READY);
+                    if (Boolean.TRUE.toString().equals(System.getProperty("developmentMode"))
+                        || (System.getProperty(BOOT_TIMINGS_PROP) != null))
+                    {
+                        System.out.println(m_timings);
+                    }
+                }
+            }
+        }
+    }
+    // **** END OF CHANGE FROM ORIGINAL FELIX VERSION ****
+
     /**
      * Simple method to parse META-INF/services file for framework factory.
      * Currently, it assumes the first non-commented line is the class name
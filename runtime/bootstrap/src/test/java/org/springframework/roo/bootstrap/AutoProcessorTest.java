@@ -0,0 +1,112 @@
+package org.springframework.roo.bootstrap;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.osgi.service.startlevel.StartLevel;
+
+/**
+ * Unit test of the warm start support of {@link AutoProcessor}
+ *
+ * @since 2.0.1
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class AutoProcessorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Bundle bundle;
+  private BundleCacheIndex cacheIndex;
+  private Map configMap;
+  private BundleContext context;
+  private File jar;
+  private String location;
+
+  @Before
+  public void setUp() throws Exception {
+    final File bundleDirectory = folder.newFolder("bundle");
+    jar = new File(bundleDirectory, "a.jar");
+    BundleCacheIndexTest.write(jar, "first");
+    location = jar.toURI().toString();
+    cacheIndex = new BundleCacheIndex(folder.newFolder("storage"));
+
+    configMap = new HashMap();
+    configMap.put(AutoProcessor.AUTO_DEPLOY_DIR_PROPERY, bundleDirectory.getAbsolutePath());
+    configMap.put(AutoProcessor.AUTO_DEPLOY_ACTION_PROPERY, "install,update");
+
+    // The bundle is already in the framework storage
+    bundle = mock(Bundle.class);
+    when(bundle.getLocation()).thenReturn(location);
+    when(bundle.getBundleId()).thenReturn(1L);
+    when(bundle.getHeaders()).thenReturn(new Hashtable<String, String>());
+
+    final ServiceReference startLevelReference = mock(ServiceReference.class);
+    context = mock(BundleContext.class);
+    when(context.getBundles()).thenReturn(new Bundle[] {bundle});
+    when(context.getServiceReference(StartLevel.class.getName())).thenReturn(
+        startLevelReference);
+    when(context.getService(startLevelReference)).thenReturn(mock(StartLevel.class));
+  }
+
+  @Test
+  public void testUpdateRecordsTheChecksum() throws Exception {
+    AutoProcessor.process(configMap, context, cacheIndex, null);
+
+    verify(bundle).update();
+    assertTrue(cacheIndex.isUnchanged(location, jar));
+
+    // The next session doesn't update it again
+    AutoProcessor.process(configMap, context, cacheIndex, null);
+    verify(bundle, times(1)).update();
+  }
+
+  @Test
+  public void testUnchangedBundleIsNotUpdated() throws Exception {
+    cacheIndex.record(location, jar);
+
+    AutoProcessor.process(configMap, context, cacheIndex, null);
+
+    verify(bundle, never()).update();
+  }
+
+  @Test
+  public void testChangedBundleIsUpdated() throws Exception {
+    cacheIndex.record(location, jar);
+    BundleCacheIndexTest.write(jar, "second");
+
+    AutoProcessor.process(configMap, context, cacheIndex, null);
+
+    verify(bundle).update();
+    assertTrue(cacheIndex.isUnchanged(location, jar));
+  }
+
+  @Test
+  public void testRemovedBundlesArePruned() throws Exception {
+    final File removedJar = folder.newFile("removed.jar");
+    final String removedLocation = removedJar.toURI().toString();
+    cacheIndex.record(removedLocation, removedJar);
+
+    AutoProcessor.process(configMap, context, cacheIndex, null);
+
+    assertFalse(cacheIndex.isUnchanged(removedLocation, removedJar));
+    assertTrue(cacheIndex.isUnchanged(location, jar));
+  }
+}
@@ -0,0 +1,99 @@
+package org.springframework.roo.bootstrap;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test of {@link BundleCacheIndex}
+ *
+ * @since 2.0.1
+ */
+public class BundleCacheIndexTest {
+
+  private static final String LOCATION = "file:/bundle/a.jar";
+  private static final String OTHER_LOCATION = "file:/bundle/b.jar";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private File storage;
+  private File jar;
+  private File otherJar;
+
+  static void write(final File file, final String contents) throws IOException {
+    final FileOutputStream os = new FileOutputStream(file);
+    try {
+      os.write(contents.getBytes("UTF-8"));
+    } finally {
+      os.close();
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    storage = folder.newFolder("storage");
+    jar = folder.newFile("a.jar");
+    otherJar = folder.newFile("b.jar");
+    write(jar, "first");
+    write(otherJar, "other");
+  }
+
+  @Test
+  public void testUnrecordedBundleIsChanged() {
+    assertFalse(new BundleCacheIndex(storage).isUnchanged(LOCATION, jar));
+  }
+
+  @Test
+  public void testRecordedChecksumIsStoredAcrossSessions() {
+    final BundleCacheIndex index = new BundleCacheIndex(storage);
+    index.record(LOCATION, jar);
+    index.store();
+
+    assertTrue(new BundleCacheIndex(storage).isUnchanged(LOCATION, jar));
+  }
+
+  @Test
+  public void testModifiedJarIsChanged() throws Exception {
+    final BundleCacheIndex index = new BundleCacheIndex(storage);
+    index.record(LOCATION, jar);
+    write(jar, "second");
+
+    assertFalse(index.isUnchanged(LOCATION, jar));
+  }
+
+  @Test
+  public void testRetainAllPrunesRemovedBundles() {
+    final BundleCacheIndex index = new BundleCacheIndex(storage);
+    index.recordFramework(otherJar);
+    index.record(LOCATION, jar);
+    index.record(OTHER_LOCATION, otherJar);
+
+    index.retainAll(Arrays.asList(LOCATION));
+    index.store();
+
+    final BundleCacheIndex reloaded = new BundleCacheIndex(storage);
+    assertTrue(reloaded.isUnchanged(LOCATION, jar));
+    assertFalse(reloaded.isUnchanged(OTHER_LOCATION, otherJar));
+    assertTrue(reloaded.isReusable(otherJar));
+  }
+
+  @Test
+  public void testStorageIsNotReusableWithAnotherFramework() throws Exception {
+    final BundleCacheIndex index = new BundleCacheIndex(storage);
+    index.recordFramework(jar);
+    index.store();
+
+    assertTrue(new BundleCacheIndex(storage).isReusable(jar));
+    assertFalse(new BundleCacheIndex(storage).isReusable(otherJar));
+  }
+}
@@ -16,6 +16,16 @@ public interface TypeCache {
 
   Set<String> getAllTypeIdentifiers();
 
+  /**
+   * Returns a counter that is incremented whenever a type is cached, cached
+   * against a module or removed, so callers can cheaply detect whether
+   * anything they derived from the cache is stale.
+   * 
+   * @return a non-negative number
+   * @since 2.0.1
+   */
+  long getModificationCount();
+
   String getPhysicalTypeIdentifier(JavaType javaType);
 
   ClassOrInterfaceTypeDetails getTypeDetails(String mid);
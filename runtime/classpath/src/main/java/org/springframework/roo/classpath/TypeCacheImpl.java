@@ -28,6 +28,7 @@ public class TypeCacheImpl implements TypeCache {
   private final Map<String, String> typeNameToModuleFilePathMap = new HashMap<String, String>();
   private final Map<String, String> typeNameToModuleNameMap = new HashMap<String, String>();
   private final Set<JavaType> types = new HashSet<JavaType>();
+  private long modificationCount;
 
   public void cacheFilePathAgainstTypeIdentifier(final String typeFilePath,
       final String typeIdentifier) {
@@ -51,6 +52,7 @@ public class TypeCacheImpl implements TypeCache {
     }
 
     simpleTypeNameTypesMap.get(simpleTypeName).add(fullyQualifiedTypeName);
+    modificationCount++;
   }
 
   public void cacheTypeAgainstModule(final Pom pom, final JavaType javaType) {
@@ -62,6 +64,7 @@ public class TypeCacheImpl implements TypeCache {
       moduleFilePathToTypeNamesMap.put(pom.getPath(), new HashSet<String>());
     }
     moduleFilePathToTypeNamesMap.get(pom.getPath()).add(javaType.getFullyQualifiedTypeName());
+    modificationCount++;
   }
 
   public Set<String> getAllTypeIdentifiers() {
@@ -72,6 +75,10 @@ public class TypeCacheImpl implements TypeCache {
     return new HashSet<JavaType>(types);
   }
 
+  public long getModificationCount() {
+    return modificationCount;
+  }
+
   public String getPhysicalTypeIdentifier(final JavaType javaType) {
     Validate.notNull(javaType, "Java type cannot be null");
     return typeNameToMidMap.get(javaType.getFullyQualifiedTypeName());
@@ -106,15 +113,20 @@ public class TypeCacheImpl implements TypeCache {
     Validate.notBlank(typeIdentifier, "Physical type identifier required");
     final ClassOrInterfaceTypeDetails cid = midToTypeDetailsMap.get(typeIdentifier);
     if (cid != null) {
-      typeNameToMidMap.remove(cid.getName().getFullyQualifiedTypeName());
-      typeNameToModuleFilePathMap.remove(cid.getName().getFullyQualifiedTypeName());
-      typeNameToModuleNameMap.remove(cid.getName().getFullyQualifiedTypeName());
+      final String fullyQualifiedTypeName = cid.getName().getFullyQualifiedTypeName();
+      typeNameToMidMap.remove(fullyQualifiedTypeName);
+      typeNameToModuleNameMap.remove(fullyQualifiedTypeName);
+      final String moduleFilePath = typeNameToModuleFilePathMap.remove(fullyQualifiedTypeName);
+      if (moduleFilePath != null && moduleFilePathToTypeNamesMap.containsKey(moduleFilePath)) {
+        moduleFilePathToTypeNamesMap.get(moduleFilePath).remove(fullyQualifiedTypeName);
+      }
     }
     final String filePath = typeIdentifierToFilePathMap.get(typeIdentifier);
     if (filePath != null) {
       typeFilePathToMidMap.remove(filePath);
       typeIdentifierToFilePathMap.remove(typeIdentifier);
     }
+    modificationCount++;
 
   }
 }
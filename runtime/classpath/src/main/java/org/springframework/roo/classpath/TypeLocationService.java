@@ -227,6 +227,17 @@ public interface TypeLocationService {
    */
   LogicalPath getTypePath(JavaType javaType);
 
+  /**
+   * Returns a counter that changes whenever a project type is added, updated
+   * or removed, after applying any pending type changes. Callers that derive
+   * state from the project's types (e.g. completion indexes) can compare it
+   * with a previously obtained value to know whether that state is stale.
+   * 
+   * @return a non-negative number
+   * @since 2.0.1
+   */
+  long getTypeCacheModificationCount();
+
   /**
    * Returns the Java types that belong to the given module.
    * 
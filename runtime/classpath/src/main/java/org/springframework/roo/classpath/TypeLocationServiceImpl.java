@@ -517,6 +517,11 @@ public class TypeLocationServiceImpl implements TypeLocationService {
     return PhysicalTypeIdentifier.getPath(physicalTypeId);
   }
 
+  public long getTypeCacheModificationCount() {
+    updateTypeCache();
+    return getTypeCache().getModificationCount();
+  }
+
   public Collection<JavaType> getTypesForModule(final Pom module) {
     if ("pom".equals(module.getPackaging())) {
       return Collections.emptySet();
@@ -14,11 +14,11 @@ import static org.springframework.roo.support.util.AnsiEscapeCode.decorate;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -72,6 +72,8 @@ public class JavaTypeConverter implements Converter<JavaType> {
   @Reference
   TypeLocationService typeLocationService;
 
+  private final Map<String, TypeNameIndex> typeIndexes = new HashMap<String, TypeNameIndex>();
+
   public JavaType convertFromText(String value, final Class<?> requiredType,
       final String optionContext) {
     if (StringUtils.isBlank(value)) {
@@ -198,39 +200,58 @@ public class JavaTypeConverter implements Converter<JavaType> {
       final String optionContext, final Pom targetModule, final String heading,
       final String prefix, final String formattedPrefix, final String topLevelPackage,
       final String basePackage) {
-    final Collection<JavaType> typesInModule = getTypesForModule(optionContext, targetModule);
+    final TypeNameIndex typeIndex = getTypeIndex(targetModule);
     completions.add(new Completion(prefix + topLevelPackage, formattedPrefix + topLevelPackage,
         heading, 1));
 
-    for (final JavaType javaType : typesInModule) {
-      String type = javaType.getFullyQualifiedTypeName();
-      if (type.startsWith(basePackage)) {
-        type = StringUtils.replace(type, topLevelPackage, TOP_LEVEL_PACKAGE_SYMBOL, 1);
-        completions.add(new Completion(prefix + type, formattedPrefix + type, heading, 1));
+    // Only the types matching what was typed so far are visited
+    for (final JavaType javaType : typeIndex.getMatchingTypes(basePackage)) {
+      if (!isApplicable(optionContext, javaType, typeIndex)) {
+        continue;
       }
+      final String type =
+          StringUtils.replace(javaType.getFullyQualifiedTypeName(), topLevelPackage,
+              TOP_LEVEL_PACKAGE_SYMBOL, 1);
+      completions.add(new Completion(prefix + type, formattedPrefix + type, heading, 1));
+    }
+  }
 
+  /**
+   * Returns the up-to-date type index of the given module, applying only the
+   * type changes made since it was last used
+   * 
+   * @param module the module whose types to index (required)
+   * @return a non-<code>null</code> index
+   */
+  private TypeNameIndex getTypeIndex(final Pom module) {
+    final long modificationCount = typeLocationService.getTypeCacheModificationCount();
+    TypeNameIndex typeIndex = typeIndexes.get(module.getPath());
+    if (typeIndex == null) {
+      typeIndex = new TypeNameIndex();
+      typeIndexes.put(module.getPath(), typeIndex);
+    }
+    if (typeIndex.isStale(modificationCount)) {
+      typeIndex.update(typeLocationService.getTypesForModule(module), modificationCount);
     }
+    return typeIndex;
   }
 
-  private Collection<JavaType> getTypesForModule(final String optionContext, final Pom targetModule) {
-    final Collection<JavaType> typesForModule = typeLocationService.getTypesForModule(targetModule);
+  private boolean isApplicable(final String optionContext, final JavaType javaType,
+      final TypeNameIndex typeIndex) {
     if (!(optionContext.contains(SUPERCLASS) || optionContext.contains(INTERFACE) || optionContext
         .contains(ENUMERATION))) {
-      return typesForModule;
+      return true;
     }
 
-    final Collection<JavaType> types = new ArrayList<JavaType>();
-    for (final JavaType javaType : typesForModule) {
-      final ClassOrInterfaceTypeDetails typeDetails = typeLocationService.getTypeDetails(javaType);
-      if ((optionContext.contains(SUPERCLASS) && (Modifier.isFinal(typeDetails.getModifier()) || typeDetails
-          .getPhysicalTypeCategory() == PhysicalTypeCategory.INTERFACE))
-          || (optionContext.contains(INTERFACE) && typeDetails.getPhysicalTypeCategory() != PhysicalTypeCategory.INTERFACE)
-          || (optionContext.contains(ENUMERATION) && typeDetails.getPhysicalTypeCategory() != PhysicalTypeCategory.ENUMERATION)) {
-        continue;
-      }
-      types.add(javaType);
+    final ClassOrInterfaceTypeDetails typeDetails =
+        typeIndex.getTypeDetails(javaType, typeLocationService);
+    if (typeDetails == null) {
+      return false;
     }
-    return types;
+    return !((optionContext.contains(SUPERCLASS) && (Modifier.isFinal(typeDetails.getModifier()) || typeDetails
+        .getPhysicalTypeCategory() == PhysicalTypeCategory.INTERFACE))
+        || (optionContext.contains(INTERFACE) && typeDetails.getPhysicalTypeCategory() != PhysicalTypeCategory.INTERFACE) || (optionContext
+        .contains(ENUMERATION) && typeDetails.getPhysicalTypeCategory() != PhysicalTypeCategory.ENUMERATION));
   }
 
   /**
@@ -0,0 +1,141 @@
+package org.springframework.roo.converters;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.roo.classpath.TypeLocationService;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.model.JavaType;
+import org.springframework.roo.shell.ParserUtils;
+
+/**
+ * A sorted index of the types of one module, used to complete type names
+ * without enumerating every type of the module on each key stroke.
+ * <p>
+ * Types are kept sorted by fully qualified name, so the types starting with
+ * a given prefix are a contiguous slice found by binary search. The index is
+ * updated incrementally: only the types added or removed since the last
+ * update are touched. The details of each type (needed to filter superclass,
+ * interface and enum completions) are only looked up for the types of the
+ * requested slice, and cached until the type cache next changes.
+ *
+ * @since 2.0.1
+ */
+class TypeNameIndex {
+
+  private static boolean isCamelCasePattern(final String text) {
+    final String name = text.substring(text.lastIndexOf('.') + 1);
+    int upperCaseLetters = 0;
+    for (int i = 0; i < name.length(); i++) {
+      if (Character.isUpperCase(name.charAt(i))) {
+        upperCaseLetters++;
+      }
+    }
+    return upperCaseLetters > 1;
+  }
+
+  private final Map<String, ClassOrInterfaceTypeDetails> detailsByName =
+      new HashMap<String, ClassOrInterfaceTypeDetails>();
+  private long modificationCount = -1;
+  private final NavigableMap<String, JavaType> typesByName = new TreeMap<String, JavaType>();
+
+  /**
+   * Returns the types whose fully qualified name starts with the given text,
+   * followed by those matching it as a camel-case pattern (see
+   * {@link ParserUtils#isCamelCaseMatch(String, String)}), in name order
+   *
+   * @param text the fully qualified text typed so far (required)
+   * @return a non-<code>null</code> list
+   */
+  List<JavaType> getMatchingTypes(final String text) {
+    final List<JavaType> matches = new ArrayList<JavaType>(getSlice(text).values());
+    if (isCamelCasePattern(text)) {
+      final String packagePrefix = text.substring(0, text.lastIndexOf('.') + 1);
+      for (final Map.Entry<String, JavaType> entry : getSlice(packagePrefix).entrySet()) {
+        if (!entry.getKey().startsWith(text)
+            && ParserUtils.isCamelCaseMatch(text, entry.getKey())) {
+          matches.add(entry.getValue());
+        }
+      }
+    }
+    return matches;
+  }
+
+  private NavigableMap<String, JavaType> getSlice(final String prefix) {
+    return typesByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+  }
+
+  /**
+   * Returns the details of the given indexed type, looking them up only the
+   * first time they are requested after an update that changed the index
+   *
+   * @param javaType the type (required)
+   * @param typeLocationService the service to look the details up with
+   * @return <code>null</code> if the type no longer exists
+   */
+  ClassOrInterfaceTypeDetails getTypeDetails(final JavaType javaType,
+      final TypeLocationService typeLocationService) {
+    final String typeName = javaType.getFullyQualifiedTypeName();
+    if (!detailsByName.containsKey(typeName)) {
+      detailsByName.put(typeName, typeLocationService.getTypeDetails(javaType));
+    }
+    return detailsByName.get(typeName);
+  }
+
+  /**
+   * Indicates whether the index was last updated for a different type cache
+   * modification count
+   *
+   * @param currentModificationCount see
+   *            {@link TypeLocationService#getTypeCacheModificationCount()}
+   * @return see above
+   */
+  boolean isStale(final long currentModificationCount) {
+    return modificationCount != currentModificationCount;
+  }
+
+  /**
+   * Returns the number of indexed types
+   *
+   * @return see above
+   */
+  int size() {
+    return typesByName.size();
+  }
+
+  /**
+   * Brings the index in line with the given types, only inserting and
+   * removing the entries that differ
+   *
+   * @param types the current types of the module (required)
+   * @param currentModificationCount the type cache modification count these
+   *            types correspond to
+   */
+  void update(final Collection<JavaType> types, final long currentModificationCount) {
+    final Set<String> currentNames = new HashSet<String>(types.size());
+    for (final JavaType javaType : types) {
+      final String typeName = javaType.getFullyQualifiedTypeName();
+      currentNames.add(typeName);
+      if (!typesByName.containsKey(typeName)) {
+        typesByName.put(typeName, javaType);
+      }
+    }
+    for (final Iterator<String> iter = typesByName.keySet().iterator(); iter.hasNext();) {
+      if (!currentNames.contains(iter.next())) {
+        iter.remove();
+      }
+    }
+    // Any type may have been modified (e.g. made final), so details are
+    // looked up again on demand
+    detailsByName.clear();
+    modificationCount = currentModificationCount;
+  }
+}
@@ -0,0 +1,94 @@
+package org.springframework.roo.converters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.roo.classpath.TypeLocationService;
+import org.springframework.roo.classpath.details.ClassOrInterfaceTypeDetails;
+import org.springframework.roo.model.JavaType;
+
+/**
+ * Unit test of {@link TypeNameIndex}
+ *
+ * @since 2.0.1
+ */
+public class TypeNameIndexTest {
+
+  private static final JavaType OWNER = new JavaType("com.example.domain.Owner");
+  private static final JavaType OWNER_SERVICE = new JavaType("com.example.service.OwnerService");
+  private static final JavaType PET = new JavaType("com.example.domain.Pet");
+  private static final JavaType PET_SERVICE = new JavaType("com.example.service.PetService");
+
+  // Fixture
+  private TypeNameIndex index;
+
+  @Before
+  public void setUp() {
+    index = new TypeNameIndex();
+    index.update(Arrays.asList(PET_SERVICE, OWNER, PET, OWNER_SERVICE), 1);
+  }
+
+  @Test
+  public void testCamelCaseFragmentsMatchTypesUnderThePackage() {
+    assertEquals(Arrays.asList(OWNER_SERVICE), index.getMatchingTypes("com.example.OwSe"));
+    assertEquals(Arrays.asList(PET_SERVICE), index.getMatchingTypes("com.example.service.PS"));
+  }
+
+  @Test
+  public void testDetailsAreLookedUpOncePerUpdate() {
+    // Set up
+    final TypeLocationService mockTypeLocationService = mock(TypeLocationService.class);
+    final ClassOrInterfaceTypeDetails mockDetails = mock(ClassOrInterfaceTypeDetails.class);
+    when(mockTypeLocationService.getTypeDetails(PET)).thenReturn(mockDetails);
+
+    // Invoke
+    index.getTypeDetails(PET, mockTypeLocationService);
+    index.getTypeDetails(PET, mockTypeLocationService);
+    index.update(Arrays.asList(PET), 2);
+    index.getTypeDetails(PET, mockTypeLocationService);
+
+    // Check
+    verify(mockTypeLocationService, times(2)).getTypeDetails(PET);
+  }
+
+  @Test
+  public void testPrefixReturnsSortedSlice() {
+    final List<JavaType> matches = index.getMatchingTypes("com.example.domain.");
+    assertEquals(Arrays.asList(OWNER, PET), matches);
+  }
+
+  @Test
+  public void testPrefixWithoutMatches() {
+    assertEquals(Collections.emptyList(), index.getMatchingTypes("com.example.web"));
+  }
+
+  @Test
+  public void testStaleness() {
+    assertFalse(index.isStale(1));
+    assertTrue(index.isStale(2));
+  }
+
+  @Test
+  public void testUpdateAppliesAddedAndRemovedTypes() {
+    // Set up
+    final JavaType visit = new JavaType("com.example.domain.Visit");
+
+    // Invoke
+    index.update(Arrays.asList(OWNER, visit), 2);
+
+    // Check
+    assertEquals(2, index.size());
+    assertEquals(Arrays.asList(OWNER, visit), index.getMatchingTypes("com.example.domain"));
+  }
+}
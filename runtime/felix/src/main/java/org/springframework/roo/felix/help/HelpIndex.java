@@ -0,0 +1,327 @@
+package org.springframework.roo.felix.help;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.roo.shell.CliCommand;
+import org.springframework.roo.shell.CliOption;
+import org.springframework.roo.shell.CommandMarker;
+import org.springframework.roo.shell.MethodTarget;
+
+/**
+ * The help of every available command, built once per change of the set of
+ * registered {@link CommandMarker}s so that showing help does not walk the
+ * commands and their annotations again.
+ * <p>
+ * Commands are kept sorted by name, so the commands a pattern can match are
+ * the slice starting with its first word. Besides those exact matches, the
+ * index supports a fuzzy search over command names (tolerating typos) and
+ * over the command and option descriptions.
+ *
+ * @since 2.0.1
+ */
+class HelpIndex {
+
+  /**
+   * The help of a single command method, which may be reachable by several
+   * names.
+   */
+  static class CommandHelp {
+
+    private final MethodTarget availabilityIndicator;
+    private final CliCommand command;
+    private final List<CliOption> options;
+    private volatile String renderedHelp;
+    private final String searchText;
+    private final CommandMarker target;
+
+    CommandHelp(final CommandMarker target, final Method method,
+        final MethodTarget availabilityIndicator) {
+      this.target = target;
+      this.availabilityIndicator = availabilityIndicator;
+      command = method.getAnnotation(CliCommand.class);
+
+      final List<CliOption> cliOptions = new ArrayList<CliOption>();
+      for (final Annotation[] annotations : method.getParameterAnnotations()) {
+        for (final Annotation annotation : annotations) {
+          if (annotation instanceof CliOption) {
+            cliOptions.add((CliOption) annotation);
+          }
+        }
+      }
+      options = Collections.unmodifiableList(cliOptions);
+
+      // Everything that can be searched, lower cased once
+      final StringBuilder text = new StringBuilder(command.help());
+      for (final CliOption option : options) {
+        text.append(' ').append(StringUtils.join(option.key(), ' '));
+        text.append(' ').append(option.help());
+      }
+      searchText = text.toString().toLowerCase(Locale.ENGLISH);
+    }
+
+    CliCommand getCommand() {
+      return command;
+    }
+
+    List<CliOption> getOptions() {
+      return options;
+    }
+
+    /**
+     * Returns the help of this command as last rendered by
+     * {@link #setRenderedHelp(String)}
+     *
+     * @return <code>null</code> if not rendered yet
+     */
+    String getRenderedHelp() {
+      return renderedHelp;
+    }
+
+    CommandMarker getTarget() {
+      return target;
+    }
+
+    /**
+     * Indicates whether this command is available at this moment, according
+     * to its {@link org.springframework.roo.shell.CliAvailabilityIndicator},
+     * if any
+     *
+     * @return see above
+     */
+    boolean isAvailable() {
+      if (availabilityIndicator == null) {
+        return true;
+      }
+      try {
+        return (Boolean) availabilityIndicator.getMethod().invoke(
+            availabilityIndicator.getTarget());
+      } catch (final Exception e) {
+        return false;
+      }
+    }
+
+    void setRenderedHelp(final String renderedHelp) {
+      this.renderedHelp = renderedHelp;
+    }
+  }
+
+  private static final int FUZZY_RESULTS = 10;
+
+  /**
+   * Returns the number of single-character edits between the given term and
+   * the given word; when the term is shorter, the start of the word is also
+   * considered (as the term may still be being typed)
+   */
+  static int getDistance(final String term, final String word) {
+    if (word.length() > term.length()) {
+      return Math.min(getEditDistance(term, word.substring(0, term.length())),
+          getEditDistance(term, word));
+    }
+    return getEditDistance(term, word);
+  }
+
+  private static int getEditDistance(final String term, final String target) {
+    int[] previous = new int[target.length() + 1];
+    int[] current = new int[target.length() + 1];
+    for (int j = 0; j <= target.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= term.length(); i++) {
+      current[0] = i;
+      for (int j = 1; j <= target.length(); j++) {
+        final int cost = term.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+        current[j] =
+            Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+      }
+      final int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[target.length()];
+  }
+
+  private static int getMaxDistance(final String term) {
+    return term.length() <= 4 ? 1 : 2;
+  }
+
+  /**
+   * Returns how well the given search terms match the given command, lower
+   * being better
+   *
+   * @return -1 if some term does not match at all
+   */
+  private static int getScore(final String[] terms, final String name, final CommandHelp help) {
+    final String[] words = StringUtils.split(name.toLowerCase(Locale.ENGLISH), ' ');
+    int score = 0;
+    next_term: for (final String term : terms) {
+      int best = Integer.MAX_VALUE;
+      for (final String word : words) {
+        if (word.startsWith(term)) {
+          continue next_term;
+        }
+        final int distance = getDistance(term, word);
+        if (distance <= getMaxDistance(term)) {
+          best = Math.min(best, 1 + distance);
+        }
+      }
+      if (best == Integer.MAX_VALUE) {
+        if (!help.searchText.contains(term)) {
+          return -1;
+        }
+        // A match in the descriptions weighs less than a typo in the name
+        best = 2 + getMaxDistance(term);
+      }
+      score += best;
+    }
+    return score;
+  }
+
+  private final List<CommandHelp> commands = new ArrayList<CommandHelp>();
+  private final NavigableMap<String, CommandHelp> commandsByName =
+      new TreeMap<String, CommandHelp>();
+  private volatile String renderedCommandIndex;
+
+  /**
+   * Constructor
+   *
+   * @param commandMarkers the command markers to index (required)
+   * @param availabilityIndicators the availability indicators, keyed by
+   *            command name (required)
+   */
+  HelpIndex(final Collection<CommandMarker> commandMarkers,
+      final Map<String, MethodTarget> availabilityIndicators) {
+    for (final CommandMarker commandMarker : commandMarkers) {
+      for (final Method method : commandMarker.getClass().getMethods()) {
+        final CliCommand cmd = method.getAnnotation(CliCommand.class);
+        if (cmd == null) {
+          continue;
+        }
+        MethodTarget availabilityIndicator = null;
+        for (final String value : cmd.value()) {
+          if (availabilityIndicators.containsKey(value)) {
+            availabilityIndicator = availabilityIndicators.get(value);
+          }
+        }
+        final CommandHelp help = new CommandHelp(commandMarker, method, availabilityIndicator);
+        commands.add(help);
+        for (final String value : cmd.value()) {
+          commandsByName.put(value, help);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the help of every indexed command method
+   *
+   * @return a non-<code>null</code> list
+   */
+  List<CommandHelp> getCommands() {
+    return Collections.unmodifiableList(commands);
+  }
+
+  /**
+   * Returns the commands matching the given pattern, as described by
+   * {@link HelpServiceImpl#isMatch(String, String, boolean)}
+   *
+   * @param pattern the pattern typed by the user (required)
+   * @param checkAvailabilityIndicators whether to exclude commands that are
+   *            not available at this moment
+   * @return a non-<code>null</code> set, without duplicates for commands
+   *         matched by more than one of their names
+   */
+  Set<CommandHelp> getMatches(final String pattern, final boolean checkAvailabilityIndicators) {
+    // A match always starts within the first word of the command name, so
+    // only the names starting with the first word typed can match
+    final String trimmed = pattern.trim();
+    final int endOfFirstWord = trimmed.indexOf(' ');
+    final String firstWord = endOfFirstWord < 0 ? trimmed : trimmed.substring(0, endOfFirstWord);
+    final Map<String, CommandHelp> candidates =
+        commandsByName.subMap(firstWord, true, firstWord + Character.MAX_VALUE, false);
+
+    final Set<CommandHelp> matches = new LinkedHashSet<CommandHelp>();
+    for (final Map.Entry<String, CommandHelp> candidate : candidates.entrySet()) {
+      if (matches.contains(candidate.getValue())
+          || HelpServiceImpl.isMatch(pattern, candidate.getKey(), false) == null) {
+        continue;
+      }
+      if (!checkAvailabilityIndicators || candidate.getValue().isAvailable()) {
+        matches.add(candidate.getValue());
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Returns the command index of all commands as last rendered by
+   * {@link #setRenderedCommandIndex(String)}
+   *
+   * @return <code>null</code> if not rendered yet
+   */
+  String getRenderedCommandIndex() {
+    return renderedCommandIndex;
+  }
+
+  /**
+   * Searches the commands whose name approximately matches the given text,
+   * or whose descriptions contain its words
+   *
+   * @param text the text to search (required)
+   * @return the best matching commands, best first
+   */
+  List<CommandHelp> search(final String text) {
+    final String[] terms = StringUtils.split(text.toLowerCase(Locale.ENGLISH));
+    if (terms.length == 0) {
+      return Collections.emptyList();
+    }
+    final Map<CommandHelp, Integer> scores = new TreeMap<CommandHelp, Integer>(
+        new Comparator<CommandHelp>() {
+          public int compare(final CommandHelp o1, final CommandHelp o2) {
+            return o1.getCommand().value()[0].compareTo(o2.getCommand().value()[0]);
+          }
+        });
+    for (final Map.Entry<String, CommandHelp> entry : commandsByName.entrySet()) {
+      final int score = getScore(terms, entry.getKey(), entry.getValue());
+      final Integer previous = scores.get(entry.getValue());
+      if (score >= 0 && (previous == null || score < previous)) {
+        scores.put(entry.getValue(), score);
+      }
+    }
+
+    final List<Map.Entry<CommandHelp, Integer>> ranked =
+        new ArrayList<Map.Entry<CommandHelp, Integer>>(scores.entrySet());
+    // Stable, so commands with the same score stay in name order
+    Collections.sort(ranked, new Comparator<Map.Entry<CommandHelp, Integer>>() {
+      public int compare(final Map.Entry<CommandHelp, Integer> o1,
+          final Map.Entry<CommandHelp, Integer> o2) {
+        return o1.getValue().compareTo(o2.getValue());
+      }
+    });
+
+    final List<CommandHelp> result = new ArrayList<CommandHelp>();
+    for (final Map.Entry<CommandHelp, Integer> entry : ranked) {
+      if (result.size() == FUZZY_RESULTS) {
+        break;
+      }
+      result.add(entry.getKey());
+    }
+    return result;
+  }
+
+  void setRenderedCommandIndex(final String renderedCommandIndex) {
+    this.renderedCommandIndex = renderedCommandIndex;
+  }
+}
@@ -9,7 +9,6 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -38,9 +37,11 @@ import org.apache.commons.lang3.Validate;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Service;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
+import org.springframework.roo.felix.help.HelpIndex.CommandHelp;
 import org.springframework.roo.shell.AbstractShell;
 import org.springframework.roo.shell.CliAvailabilityIndicator;
 import org.springframework.roo.shell.CliCommand;
@@ -86,6 +87,14 @@ public class HelpServiceImpl implements HelpService {
 
   private final Object mutex = new Object();
 
+  private static final Pattern SECTION_WORD = Pattern.compile("[A-Z][^A-Z]*");
+
+  // Help of the registered commands, built again when they change
+  private HelpIndex helpIndex;
+  private Set<Object> indexedServiceIds = Collections.emptySet();
+  private Template cmdIndexTemplate;
+  private Template cmdTemplate;
+
   protected void activate(final ComponentContext cContext) {
     context = cContext.getBundleContext();
   }
@@ -98,21 +107,7 @@ public class HelpServiceImpl implements HelpService {
   public void helpReferenceGuide() {
     synchronized (mutex) {
 
-      // Get all Services implement CommandMarker interface
-      try {
-        ServiceReference<?>[] references =
-            this.context.getAllServiceReferences(CommandMarker.class.getName(), null);
-
-        for (ServiceReference<?> ref : references) {
-          CommandMarker command = (CommandMarker) this.context.getService(ref);
-          if (!commands.contains(command)) {
-            add(command);
-          }
-        }
-
-      } catch (InvalidSyntaxException e) {
-        LOGGER.warning("Cannot load CommandMarker on SimpleParser.");
-      }
+      final HelpIndex index = getHelpIndex();
 
       final File f = new File(".");
       final File[] existing = f.listFiles(new FileFilter() {
@@ -127,26 +122,25 @@ public class HelpServiceImpl implements HelpService {
       // Compute the sections we'll be outputting, and get them into a
       // nice order
       final SortedMap<String, Object> sections = new TreeMap<String, Object>(COMPARATOR);
-      next_target: for (final Object target : commands) {
-        final Method[] methods = target.getClass().getMethods();
-        for (final Method m : methods) {
-          final CliCommand cmd = m.getAnnotation(CliCommand.class);
-          if (cmd != null) {
-            String sectionName = target.getClass().getSimpleName();
-            final Pattern p = Pattern.compile("[A-Z][^A-Z]*");
-            final Matcher matcher = p.matcher(sectionName);
-            final StringBuilder string = new StringBuilder();
-            while (matcher.find()) {
-              string.append(matcher.group()).append(" ");
-            }
-            sectionName = string.toString().trim();
-            if (sections.containsKey(sectionName)) {
-              throw new IllegalStateException("Section name '" + sectionName + "' not unique");
-            }
-            sections.put(sectionName, target);
-            continue next_target;
+      final Map<Object, List<CommandHelp>> commandsByTarget =
+          new HashMap<Object, List<CommandHelp>>();
+      for (final CommandHelp commandHelp : index.getCommands()) {
+        final Object target = commandHelp.getTarget();
+        if (!commandsByTarget.containsKey(target)) {
+          String sectionName = target.getClass().getSimpleName();
+          final Matcher matcher = SECTION_WORD.matcher(sectionName);
+          final StringBuilder string = new StringBuilder();
+          while (matcher.find()) {
+            string.append(matcher.group()).append(" ");
+          }
+          sectionName = string.toString().trim();
+          if (sections.containsKey(sectionName)) {
+            throw new IllegalStateException("Section name '" + sectionName + "' not unique");
           }
+          sections.put(sectionName, target);
+          commandsByTarget.put(target, new ArrayList<CommandHelp>());
         }
+        commandsByTarget.get(target).add(commandHelp);
       }
 
       // Build each section of the appendix
@@ -160,117 +154,109 @@ public class HelpServiceImpl implements HelpService {
         final SortedMap<String, Element> individualCommands =
             new TreeMap<String, Element>(COMPARATOR);
 
-        final Method[] methods = target.getClass().getMethods();
-        for (final Method m : methods) {
-          final CliCommand cmd = m.getAnnotation(CliCommand.class);
-          if (cmd != null) {
-            final StringBuilder cmdSyntax = new StringBuilder();
-            cmdSyntax.append(cmd.value()[0]);
-
-            // Build the syntax list
-
-            // Store the order options appear
-            final List<String> optionKeys = new ArrayList<String>();
-            // key: option key, value: help text
-            final Map<String, String> optionDetails = new HashMap<String, String>();
-            for (final Annotation[] ann : m.getParameterAnnotations()) {
-              for (final Annotation a : ann) {
-                if (a instanceof CliOption) {
-                  final CliOption option = (CliOption) a;
-                  // Figure out which key we want to use (use
-                  // first non-empty string, or make it
-                  // "(default)" if needed)
-                  String key = option.key()[0];
-                  if ("".equals(key)) {
-                    for (final String otherKey : option.key()) {
-                      if (!"".equals(otherKey)) {
-                        key = otherKey;
-                        break;
-                      }
-                    }
-                    if ("".equals(key)) {
-                      key = "[default]";
-                    }
-                  }
-
-                  final StringBuilder help = new StringBuilder();
-                  if ("".equals(option.help())) {
-                    help.append("No help available");
-                  } else {
-                    help.append(option.help());
-                  }
-                  if (option.specifiedDefaultValue().equals(option.unspecifiedDefaultValue())) {
-                    if (option.specifiedDefaultValue().equals(null)) {
-                      help.append("; no default value");
-                    } else {
-                      help.append("; default: '").append(option.specifiedDefaultValue())
-                          .append("'");
-                    }
-                  } else {
-                    if (!"".equals(option.specifiedDefaultValue())
-                        && !NULL.equals(option.specifiedDefaultValue())) {
-                      help.append("; default if option present: '")
-                          .append(option.specifiedDefaultValue()).append("'");
-                    }
-                    if (!"".equals(option.unspecifiedDefaultValue())
-                        && !NULL.equals(option.unspecifiedDefaultValue())) {
-                      help.append("; default if option not present: '")
-                          .append(option.unspecifiedDefaultValue()).append("'");
-                    }
-                  }
-                  help.append(option.mandatory() ? " " : "");
-
-                  // Store details for later
-                  key = "--" + key;
-                  optionKeys.add(key);
-                  optionDetails.put(key, help.toString());
-
-                  // Include it in the mandatory syntax
-                  if (option.mandatory()) {
-                    cmdSyntax.append(" ").append(key);
-                  }
+        for (final CommandHelp commandHelp : commandsByTarget.get(target)) {
+          final CliCommand cmd = commandHelp.getCommand();
+          final StringBuilder cmdSyntax = new StringBuilder();
+          cmdSyntax.append(cmd.value()[0]);
+
+          // Build the syntax list
+
+          // Store the order options appear
+          final List<String> optionKeys = new ArrayList<String>();
+          // key: option key, value: help text
+          final Map<String, String> optionDetails = new HashMap<String, String>();
+          for (final CliOption option : commandHelp.getOptions()) {
+            // Figure out which key we want to use (use
+            // first non-empty string, or make it
+            // "(default)" if needed)
+            String key = option.key()[0];
+            if ("".equals(key)) {
+              for (final String otherKey : option.key()) {
+                if (!"".equals(otherKey)) {
+                  key = otherKey;
+                  break;
                 }
               }
+              if ("".equals(key)) {
+                key = "[default]";
+              }
             }
 
-            // Make a variable list element
-            Element variableListElement = document.createElement("variablelist");
-            boolean anyVars = false;
-            for (final String optionKey : optionKeys) {
-              anyVars = true;
-              final String help = optionDetails.get(optionKey);
-              variableListElement.appendChild(new XmlElementBuilder("varlistentry", document)
-                  .addChild(new XmlElementBuilder("term", document).setText(optionKey).build())
-                  .addChild(
-                      new XmlElementBuilder("listitem", document).addChild(
-                          new XmlElementBuilder("para", document).setText(help).build()).build())
-                  .build());
+            final StringBuilder help = new StringBuilder();
+            if ("".equals(option.help())) {
+              help.append("No help available");
+            } else {
+              help.append(option.help());
+            }
+            if (option.specifiedDefaultValue().equals(option.unspecifiedDefaultValue())) {
+              if (option.specifiedDefaultValue().equals(null)) {
+                help.append("; no default value");
+              } else {
+                help.append("; default: '").append(option.specifiedDefaultValue())
+                    .append("'");
+              }
+            } else {
+              if (!"".equals(option.specifiedDefaultValue())
+                  && !NULL.equals(option.specifiedDefaultValue())) {
+                help.append("; default if option present: '")
+                    .append(option.specifiedDefaultValue()).append("'");
+              }
+              if (!"".equals(option.unspecifiedDefaultValue())
+                  && !NULL.equals(option.unspecifiedDefaultValue())) {
+                help.append("; default if option not present: '")
+                    .append(option.unspecifiedDefaultValue()).append("'");
+              }
             }
+            help.append(option.mandatory() ? " " : "");
+
+            // Store details for later
+            key = "--" + key;
+            optionKeys.add(key);
+            optionDetails.put(key, help.toString());
 
-            if (!anyVars) {
-              variableListElement =
-                  new XmlElementBuilder("para", document).setText(
-                      "This command does not accept any options.").build();
+            // Include it in the mandatory syntax
+            if (option.mandatory()) {
+              cmdSyntax.append(" ").append(key);
             }
+          }
+
+          // Make a variable list element
+          Element variableListElement = document.createElement("variablelist");
+          boolean anyVars = false;
+          for (final String optionKey : optionKeys) {
+            anyVars = true;
+            final String help = optionDetails.get(optionKey);
+            variableListElement.appendChild(new XmlElementBuilder("varlistentry", document)
+                .addChild(new XmlElementBuilder("term", document).setText(optionKey).build())
+                .addChild(
+                    new XmlElementBuilder("listitem", document).addChild(
+                        new XmlElementBuilder("para", document).setText(help).build()).build())
+                .build());
+          }
 
-            // Now we've figured out the options, store this
-            // individual command
-            final CDATASection progList = document.createCDATASection(cmdSyntax.toString());
-            final String safeName =
-                cmd.value()[0].replace("\\", "BCK").replace("/", "FWD").replace("*", "ASX");
-            final Element element =
-                new XmlElementBuilder("section", document)
-                    .addAttribute("xml:id",
-                        "command-index-" + safeName.toLowerCase().replace(' ', '-'))
-                    .addChild(
-                        new XmlElementBuilder("title", document).setText(cmd.value()[0]).build())
-                    .addChild(new XmlElementBuilder("para", document).setText(cmd.help()).build())
-                    .addChild(
-                        new XmlElementBuilder("programlisting", document).addChild(progList)
-                            .build()).addChild(variableListElement).build();
-
-            individualCommands.put(cmdSyntax.toString(), element);
+          if (!anyVars) {
+            variableListElement =
+                new XmlElementBuilder("para", document).setText(
+                    "This command does not accept any options.").build();
           }
+
+          // Now we've figured out the options, store this
+          // individual command
+          final CDATASection progList = document.createCDATASection(cmdSyntax.toString());
+          final String safeName =
+              cmd.value()[0].replace("\\", "BCK").replace("/", "FWD").replace("*", "ASX");
+          final Element element =
+              new XmlElementBuilder("section", document)
+                  .addAttribute("xml:id",
+                      "command-index-" + safeName.toLowerCase().replace(' ', '-'))
+                  .addChild(
+                      new XmlElementBuilder("title", document).setText(cmd.value()[0]).build())
+                  .addChild(new XmlElementBuilder("para", document).setText(cmd.help()).build())
+                  .addChild(
+                      new XmlElementBuilder("programlisting", document).addChild(progList)
+                          .build()).addChild(variableListElement).build();
+
+          individualCommands.put(cmdSyntax.toString(), element);
         }
 
         final Element topSection = document.createElement("section");
@@ -401,6 +387,11 @@ public class HelpServiceImpl implements HelpService {
    * 
    * If the given pattern matches with only one command, this method
    * writes to {@link #LOGGER} the full info about that command.
+   * 
+   * If the given pattern matches no command, this method writes to
+   * {@link #LOGGER} the list of the commands most similar to it, tolerating
+   * typos in the command name and also looking for the given words in the
+   * command and option descriptions.
    *
    * @param pattern
    */
@@ -410,136 +401,47 @@ public class HelpServiceImpl implements HelpService {
         pattern = "";
       }
 
-      Template helpTemplate;
-
-      // Create the data-model for Freemarker engine.
-      Map<String, Object> fmContext = new HashMap<String, Object>();
-      fmContext.put("LINE_SEPARATOR", IOUtils.LINE_SEPARATOR);
-      fmContext.put("CMD_MAX_LENGTH", CMD_MAX_LENGTH);
-      fmContext.put("OPT_MAX_LENGTH", OPT_MAX_LENGTH);
-
-      // Get the methods annotated with @CliCommand that matches the pattern
-      final Collection<MethodTarget> matchingTargets = locateTargets(pattern, false, false);
+      final HelpIndex index = getHelpIndex();
 
       try {
 
+        // Get the commands which name matches the pattern
+        final Set<CommandHelp> matches = index.getMatches(pattern, false);
+
         // There is only one command which name matches. Example: "web mvc controller"
         // In that case the full command help will be rendered.
-        if (matchingTargets.size() == 1) {
-
-          helpTemplate =
-              new Template("cmdTemplate", new StringReader(cmdTemplateStr), new Configuration(
-                  Configuration.DEFAULT_INCOMPATIBLE_IMPROVEMENTS));
-
-          // Single command help
-          final MethodTarget methodTarget = matchingTargets.iterator().next();
-
-          // Argument conversion time
-          final Annotation[][] parameterAnnotations =
-              methodTarget.getMethod().getParameterAnnotations();
-
-          // Offer specified help
-          final CliCommand cmd = methodTarget.getMethod().getAnnotation(CliCommand.class);
-          Validate.notNull(cmd, "CliCommand not found");
-
-          // The command has options, those method arguments annotated with @CliOption
-          if (parameterAnnotations.length > 0) {
-
-            // Synopsis
-            fmContext.put("synopsis", justify(cmd.value(), CMD_HELP_LEFT_PAD, LINE_MAX_LENGTH));
-
-            // Description
-            fmContext.put("description", justify(cmd.help(), CMD_HELP_LEFT_PAD, LINE_MAX_LENGTH));
-
-            // Options
-            Map<String, List<String>> options = new TreeMap<String, List<String>>();
-            fmContext.put("options", options);
-
-            // Build the Map of command options analyzing the info provided by
-            // method arguments annotated with the @CliOption annotation 
-            for (final Annotation[] annotations : parameterAnnotations) {
-              CliOption cliOption = null;
-              for (final Annotation a : annotations) {
-                if (a instanceof CliOption) {
-                  cliOption = (CliOption) a;
-
-                  for (final String option : cliOption.key()) {
-                    String dashOption = "--".concat(option);
-
-                    // Note justification should be done in the Freemarker template,
-                    // but it is easier to do it here and adjust both justifications
-                    // (cmd name and cmd help) depending on the cmd name length
-                    String optStr =
-                        StringUtils.repeat(" ", CMD_HELP_LEFT_PAD)
-                            + (dashOption.length() <= OPT_MAX_LENGTH ? StringUtils.rightPad(
-                                dashOption, OPT_MAX_LENGTH) : dashOption);
-
-                    // Add as left padding the cmd length to avoid overwrite the command on the left
-                    // +1 to add an empty char (space) between the command and the description
-                    options.put(
-                        optStr,
-                        justify(cliOption.help(), CMD_HELP_LEFT_PAD + OPT_MAX_LENGTH,
-                            LINE_MAX_LENGTH));
-                  }
-                }
-              }
-            }
-          }
-          // The command hasn't options, usually methods without arguments
-          else {
-
-            // Synopsis
-            fmContext.put("synopsis", justify(cmd.value(), CMD_HELP_LEFT_PAD, LINE_MAX_LENGTH));
-
-            // Description
-            fmContext.put("description", justify(cmd.help(), CMD_HELP_LEFT_PAD, LINE_MAX_LENGTH));
+        if (matches.size() == 1) {
+          final CommandHelp commandHelp = matches.iterator().next();
+          if (commandHelp.getRenderedHelp() == null) {
+            commandHelp.setRenderedHelp(renderCommandHelp(commandHelp));
           }
+          LOGGER.info(commandHelp.getRenderedHelp());
         }
 
         // There are several commands that matches the pattern. Example: "web mvc"
         // In that case only a list of command names and descriptions will be rendered.
-        else {
-          helpTemplate =
-              new Template("cmdIndexTemplate", new StringReader(cmdIndexTemplateStr),
-                  new Configuration(Configuration.DEFAULT_INCOMPATIBLE_IMPROVEMENTS));
-
-          // Create the list of commands that start with the given token.
-          // Note that empty token will cause all commands will be rendered.
-          Map<String, List<String>> cmdList = new TreeMap<String, List<String>>();
-
-          // Build the Map of commands analyzing the info provided by
-          // method annotation @CliCommand 
-          for (final MethodTarget mt : matchingTargets) {
-            final CliCommand cmd = mt.getMethod().getAnnotation(CliCommand.class);
-            if (cmd != null) {
-              for (final String value : cmd.value()) {
-
-                // Note justification should be done in the Freemarker template,
-                // but it is easier to do it here and adjust both justifications
-                // (cmd name and cmd help) depending on the cmd name length
-                String cmdStr =
-                    StringUtils.repeat(" ", CMD_INDEX_LEFT_PAD)
-                        + (value.length() <= CMD_MAX_LENGTH ? StringUtils.rightPad(value,
-                            CMD_MAX_LENGTH) : value);
-
-                // Add as left padding the cmd length to avoid overwrite the command on the left
-                // +1 to add an empty char (space) between the command and the description
-                cmdList.put(cmdStr,
-                    justify(cmd.help(), CMD_INDEX_LEFT_PAD + CMD_MAX_LENGTH, LINE_MAX_LENGTH));
-              }
+        // Note empty pattern will cause all commands will be rendered, which
+        // is kept until the commands change.
+        else if (!matches.isEmpty()) {
+          if (StringUtils.isBlank(pattern)) {
+            if (index.getRenderedCommandIndex() == null) {
+              index.setRenderedCommandIndex(renderCommandIndex(matches));
             }
+            LOGGER.info(index.getRenderedCommandIndex());
+          } else {
+            LOGGER.info(renderCommandIndex(matches));
           }
-
-          // Add the command list to the Freemarker context
-          fmContext.put("commands", cmdList);
         }
 
-        // Merge data-model with template
-        Writer strWriter = new StringWriter();
-
-        helpTemplate.process(fmContext, strWriter);
-
-        LOGGER.info(strWriter.toString());
+        // No command matches the pattern, so suggest the most similar ones
+        else {
+          final List<CommandHelp> similarCommands = index.search(pattern);
+          if (!similarCommands.isEmpty()) {
+            LOGGER.info(String.format("No command matches '%s'. Did you mean one of these?",
+                pattern.trim()));
+          }
+          LOGGER.info(renderCommandIndex(similarCommands));
+        }
 
       } catch (TemplateException e) {
         LOGGER.log(Level.SEVERE, "Help engine internal error!", e);
@@ -552,6 +454,126 @@ public class HelpServiceImpl implements HelpService {
     }
   }
 
+  /**
+   * Renders the full help of a single command.
+   * 
+   * @param commandHelp
+   * @return the rendered help
+   * @throws TemplateException
+   * @throws IOException
+   */
+  private String renderCommandHelp(final CommandHelp commandHelp) throws TemplateException,
+      IOException {
+    final CliCommand cmd = commandHelp.getCommand();
+
+    // Create the data-model for Freemarker engine.
+    Map<String, Object> fmContext = createTemplateContext();
+
+    // Synopsis
+    fmContext.put("synopsis", justify(cmd.value(), CMD_HELP_LEFT_PAD, LINE_MAX_LENGTH));
+
+    // Description
+    fmContext.put("description", justify(cmd.help(), CMD_HELP_LEFT_PAD, LINE_MAX_LENGTH));
+
+    // Options
+    Map<String, List<String>> options = new TreeMap<String, List<String>>();
+    fmContext.put("options", options);
+
+    // Build the Map of command options analyzing the info provided by
+    // method arguments annotated with the @CliOption annotation 
+    for (final CliOption cliOption : commandHelp.getOptions()) {
+      for (final String option : cliOption.key()) {
+        String dashOption = "--".concat(option);
+
+        // Note justification should be done in the Freemarker template,
+        // but it is easier to do it here and adjust both justifications
+        // (cmd name and cmd help) depending on the cmd name length
+        String optStr =
+            StringUtils.repeat(" ", CMD_HELP_LEFT_PAD)
+                + (dashOption.length() <= OPT_MAX_LENGTH ? StringUtils.rightPad(dashOption,
+                    OPT_MAX_LENGTH) : dashOption);
+
+        // Add as left padding the cmd length to avoid overwrite the command on the left
+        // +1 to add an empty char (space) between the command and the description
+        options.put(optStr,
+            justify(cliOption.help(), CMD_HELP_LEFT_PAD + OPT_MAX_LENGTH, LINE_MAX_LENGTH));
+      }
+    }
+
+    if (cmdTemplate == null) {
+      cmdTemplate =
+          new Template("cmdTemplate", new StringReader(cmdTemplateStr), new Configuration(
+              Configuration.DEFAULT_INCOMPATIBLE_IMPROVEMENTS));
+    }
+    return process(cmdTemplate, fmContext);
+  }
+
+  /**
+   * Renders the list of names and descriptions of the given commands.
+   * 
+   * @param commandHelps
+   * @return the rendered command index
+   * @throws TemplateException
+   * @throws IOException
+   */
+  private String renderCommandIndex(final Collection<CommandHelp> commandHelps)
+      throws TemplateException, IOException {
+
+    // Create the data-model for Freemarker engine.
+    Map<String, Object> fmContext = createTemplateContext();
+
+    Map<String, List<String>> cmdList = new TreeMap<String, List<String>>();
+
+    // Build the Map of commands analyzing the info provided by
+    // method annotation @CliCommand 
+    for (final CommandHelp commandHelp : commandHelps) {
+      final CliCommand cmd = commandHelp.getCommand();
+      for (final String value : cmd.value()) {
+
+        // Note justification should be done in the Freemarker template,
+        // but it is easier to do it here and adjust both justifications
+        // (cmd name and cmd help) depending on the cmd name length
+        String cmdStr =
+            StringUtils.repeat(" ", CMD_INDEX_LEFT_PAD)
+                + (value.length() <= CMD_MAX_LENGTH ? StringUtils.rightPad(value, CMD_MAX_LENGTH)
+                    : value);
+
+        // Add as left padding the cmd length to avoid overwrite the command on the left
+        // +1 to add an empty char (space) between the command and the description
+        cmdList.put(cmdStr,
+            justify(cmd.help(), CMD_INDEX_LEFT_PAD + CMD_MAX_LENGTH, LINE_MAX_LENGTH));
+      }
+    }
+
+    // Add the command list to the Freemarker context
+    fmContext.put("commands", cmdList);
+
+    if (cmdIndexTemplate == null) {
+      cmdIndexTemplate =
+          new Template("cmdIndexTemplate", new StringReader(cmdIndexTemplateStr),
+              new Configuration(Configuration.DEFAULT_INCOMPATIBLE_IMPROVEMENTS));
+    }
+    return process(cmdIndexTemplate, fmContext);
+  }
+
+  private Map<String, Object> createTemplateContext() {
+    Map<String, Object> fmContext = new HashMap<String, Object>();
+    fmContext.put("LINE_SEPARATOR", IOUtils.LINE_SEPARATOR);
+    fmContext.put("CMD_MAX_LENGTH", CMD_MAX_LENGTH);
+    fmContext.put("OPT_MAX_LENGTH", OPT_MAX_LENGTH);
+    return fmContext;
+  }
+
+  /**
+   * Merge data-model with template
+   */
+  private String process(final Template template, final Map<String, Object> fmContext)
+      throws TemplateException, IOException {
+    Writer strWriter = new StringWriter();
+    template.process(fmContext, strWriter);
+    return strWriter.toString();
+  }
+
   /**
    * Justify the texts in the given list of texts.
    * 
@@ -659,84 +681,43 @@ public class HelpServiceImpl implements HelpService {
   }
 
   /**
-   * Get the methods annotated with {@link CliCommand} 
-   * inside the {@link CommandMarker} classes, which value attribute matches 
-   * the given pattern.
+   * Get the help index of the {@link CommandMarker} services currently
+   * registered, building it again only if the services changed since it
+   * was last built.
    * 
-   * @param pattern
-   * @param strictMatching
-   * @param checkAvailabilityIndicators
-   * @return the @{@link CliCommand} methods that matches the given pattern
+   * @return the help index
    */
-  private Collection<MethodTarget> locateTargets(final String pattern,
-      final boolean strictMatching, final boolean checkAvailabilityIndicators) {
+  private HelpIndex getHelpIndex() {
 
     // Get all Services implement CommandMarker interface
+    ServiceReference<?>[] references = null;
     try {
-      ServiceReference<?>[] references =
-          this.context.getAllServiceReferences(CommandMarker.class.getName(), null);
-
-      for (ServiceReference<?> ref : references) {
-        CommandMarker command = (CommandMarker) this.context.getService(ref);
-        if (!commands.contains(command)) {
-          add(command);
-        }
-      }
-
+      references = this.context.getAllServiceReferences(CommandMarker.class.getName(), null);
     } catch (InvalidSyntaxException e) {
       LOGGER.warning("Cannot load CommandMarker on SimpleParser.");
     }
+    if (references == null) {
+      references = new ServiceReference<?>[0];
+    }
 
-    Validate.notNull(pattern, "Buffer required");
-    final Collection<MethodTarget> result = new HashSet<MethodTarget>();
-
-    // The reflection could certainly be optimised, but it's good enough for
-    // now (and cached reflection
-    // is unlikely to be noticeable to a human being using the CLI)
-    for (final CommandMarker command : commands) {
-      for (final Method method : command.getClass().getMethods()) {
-        final CliCommand cmd = method.getAnnotation(CliCommand.class);
-        if (cmd != null) {
-
-          // We have a @CliCommand.
-          if (checkAvailabilityIndicators) {
-
-            // Decide if this @CliCommand is available at this
-            // moment
-            Boolean available = null;
-            for (final String value : cmd.value()) {
-              final MethodTarget mt = getAvailabilityIndicator(value);
-              if (mt != null) {
-                Validate.isTrue(
-                    available == null,
-                    "More than one availability indicator is defined for '"
-                        + method.toGenericString() + "'");
-                try {
-                  available = (Boolean) mt.getMethod().invoke(mt.getTarget());
-                  // We should "break" here, but we loop over
-                  // all to ensure no conflicting availability
-                  // indicators are defined
-                } catch (final Exception e) {
-                  available = false;
-                }
-              }
-            }
-            // Skip this @CliCommand if it's not available
-            if (available != null && !available) {
-              continue;
-            }
-          }
+    final Set<Object> serviceIds = new HashSet<Object>();
+    for (ServiceReference<?> ref : references) {
+      serviceIds.add(ref.getProperty(Constants.SERVICE_ID));
+    }
 
-          for (final String value : cmd.value()) {
-            final String remainingBuffer = isMatch(pattern, value, strictMatching);
-            if (remainingBuffer != null) {
-              result.add(new MethodTarget(method, command, remainingBuffer, value));
-            }
-          }
+    if (helpIndex == null || !serviceIds.equals(indexedServiceIds)) {
+      commands.clear();
+      availabilityIndicators.clear();
+      for (ServiceReference<?> ref : references) {
+        CommandMarker command = (CommandMarker) this.context.getService(ref);
+        if (command != null && !commands.contains(command)) {
+          add(command);
         }
       }
+      helpIndex = new HelpIndex(commands, availabilityIndicators);
+      indexedServiceIds = serviceIds;
     }
-    return result;
+    return helpIndex;
   }
 
   public final void add(final CommandMarker command) {
@@ -768,10 +749,6 @@ public class HelpServiceImpl implements HelpService {
     }
   }
 
-  private MethodTarget getAvailabilityIndicator(final String command) {
-    return availabilityIndicators.get(command);
-  }
-
   static String isMatch(final String buffer, final String command, final boolean strictMatching) {
     if ("".equals(buffer.trim())) {
       return "";
@@ -0,0 +1,156 @@
+package org.springframework.roo.felix.help;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.roo.felix.help.HelpIndex.CommandHelp;
+import org.springframework.roo.shell.CliAvailabilityIndicator;
+import org.springframework.roo.shell.CliCommand;
+import org.springframework.roo.shell.CliOption;
+import org.springframework.roo.shell.CommandMarker;
+import org.springframework.roo.shell.MethodTarget;
+
+/**
+ * Unit test of {@link HelpIndex}
+ *
+ * @since 2.0.1
+ */
+public class HelpIndexTest {
+
+  public static class ProjectCommands implements CommandMarker {
+
+    private boolean settingsAvailable = true;
+
+    @CliAvailabilityIndicator("project settings")
+    public boolean isSettingsAvailable() {
+      return settingsAvailable;
+    }
+
+    @CliCommand(value = "project settings", help = "Shows the project settings")
+    public void settings() {}
+
+    @CliCommand(value = "project setup", help = "Creates a new project")
+    public void setup(@CliOption(key = "topLevelPackage",
+        help = "The uppermost package name") final String topLevelPackage) {}
+  }
+
+  public static class JpaCommands implements CommandMarker {
+
+    @CliCommand(value = {"jpa setup", "jpa install"}, help = "Installs a JPA persistence provider")
+    public void setup() {}
+
+    @CliCommand(value = "entity jpa", help = "Creates a new JPA persistent entity")
+    public void entity() {}
+  }
+
+  private HelpIndex index;
+  private ProjectCommands projectCommands;
+
+  private static List<String> getNames(final Iterable<CommandHelp> commands) {
+    final List<String> names = new ArrayList<String>();
+    for (final CommandHelp command : commands) {
+      names.add(command.getCommand().value()[0]);
+    }
+    return names;
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    projectCommands = new ProjectCommands();
+    final Map<String, MethodTarget> availabilityIndicators = new HashMap<String, MethodTarget>();
+    availabilityIndicators.put("project settings", new MethodTarget(ProjectCommands.class
+        .getMethod("isSettingsAvailable"), projectCommands));
+    index =
+        new HelpIndex(Arrays.<CommandMarker>asList(projectCommands, new JpaCommands()),
+            availabilityIndicators);
+  }
+
+  @Test
+  public void testIndexesEveryCommandMethodOnce() {
+    final List<String> names = getNames(index.getCommands());
+    Collections.sort(names);
+
+    assertEquals(Arrays.asList("entity jpa", "jpa setup", "project settings", "project setup"),
+        names);
+  }
+
+  @Test
+  public void testIndexesTheOptions() {
+    for (final CommandHelp command : index.getCommands()) {
+      if ("project setup".equals(command.getCommand().value()[0])) {
+        assertEquals(1, command.getOptions().size());
+        assertEquals("topLevelPackage", command.getOptions().get(0).key()[0]);
+        return;
+      }
+    }
+    throw new AssertionError("project setup not indexed");
+  }
+
+  @Test
+  public void testPrefixOfTheFirstWordMatchesEveryCommandStartingWithIt() {
+    assertEquals(Arrays.asList("project settings", "project setup"),
+        getNames(index.getMatches("proj", false)));
+  }
+
+  @Test
+  public void testAmbiguousPrefixMatchesEveryCandidate() {
+    assertEquals(Arrays.asList("project settings", "project setup"),
+        getNames(index.getMatches("project set", false)));
+  }
+
+  @Test
+  public void testUnambiguousPrefixMatchesOneCommand() {
+    assertEquals(Arrays.asList("project setup"), getNames(index.getMatches("project setu", false)));
+    assertEquals(Arrays.asList("project setup"),
+        getNames(index.getMatches("project setup", false)));
+  }
+
+  @Test
+  public void testCommandWithSeveralNamesIsMatchedOnce() {
+    final Set<CommandHelp> matches = index.getMatches("jpa", false);
+
+    assertEquals(Arrays.asList("jpa setup"), getNames(matches));
+    assertEquals(Arrays.asList("jpa setup"), getNames(index.getMatches("jpa inst", false)));
+  }
+
+  @Test
+  public void testMatchMustStartWithinTheFirstWord() {
+    assertTrue(index.getMatches("setup", false).isEmpty());
+    assertTrue(index.getMatches("pro jpa", false).isEmpty());
+  }
+
+  @Test
+  public void testUnavailableCommandsAreOnlyExcludedWhenChecked() {
+    projectCommands.settingsAvailable = false;
+
+    assertEquals(Arrays.asList("project setup"), getNames(index.getMatches("project", true)));
+    assertEquals(Arrays.asList("project settings", "project setup"),
+        getNames(index.getMatches("project", false)));
+  }
+
+  @Test
+  public void testSearchToleratesTypos() {
+    assertEquals("project setup", getNames(index.search("projet setupp")).get(0));
+  }
+
+  @Test
+  public void testSearchMatchesDescriptions() {
+    assertEquals(Arrays.asList("project setup"), getNames(index.search("uppermost")));
+    assertEquals(Arrays.asList("entity jpa", "jpa setup"), getNames(index.search("jpa")));
+  }
+
+  @Test
+  public void testSearchWithoutTermsFindsNothing() {
+    assertTrue(index.search("  ").isEmpty());
+  }
+}
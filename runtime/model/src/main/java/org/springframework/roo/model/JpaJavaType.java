@@ -10,6 +10,7 @@ package org.springframework.roo.model;
 public final class JpaJavaType {
 
   // javax.persistence
+  public static final JavaType CACHEABLE = new JavaType("javax.persistence.Cacheable");
   public static final JavaType CASCADE_TYPE = new JavaType("javax.persistence.CascadeType");
   public static final JavaType COLUMN = new JavaType("javax.persistence.Column");
   public static final JavaType CRITERIA_BUILDER = new JavaType(
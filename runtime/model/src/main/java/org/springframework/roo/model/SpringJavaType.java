@@ -48,6 +48,10 @@ public final class SpringJavaType {
       "org.springframework.validation.BindingResult");
   public static final JavaType BEAN = new JavaType("org.springframework.context.annotation.Bean");
   public static final JavaType LAZY = new JavaType("org.springframework.context.annotation.Lazy");
+  public static final JavaType CACHE_EVICT = new JavaType(
+      "org.springframework.cache.annotation.CacheEvict");
+  public static final JavaType CACHEABLE = new JavaType(
+      "org.springframework.cache.annotation.Cacheable");
   public static final JavaType CHARACTER_ENCODING_FILTER = new JavaType(
       "org.springframework.web.filter.CharacterEncodingFilter");
   public static final JavaType COMPONENT = new JavaType("org.springframework.stereotype.Component");
@@ -57,6 +61,8 @@ public final class SpringJavaType {
       "org.springframework.context.annotation.Configuration");
   public static final JavaType CONTEXT_CONFIGURATION = new JavaType(
       "org.springframework.test.context.ContextConfiguration");
+  public static final JavaType CLOSEABLE_ITERATOR = new JavaType(
+      "org.springframework.data.util.CloseableIterator");
   public static final JavaType CONTEXT_LOADER_LISTENER = new JavaType(
       "org.springframework.web.context.ContextLoaderListener");
   public static final JavaType CONTROLLER = new JavaType(
@@ -155,6 +161,8 @@ public final class SpringJavaType {
   public static final JavaType OPEN_ENTITY_MANAGER_IN_VIEW_FILTER = new JavaType(
       "org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter");
   public static final JavaType PAGE = new JavaType("org.springframework.data.domain.Page");
+  public static final JavaType PAGE_IMPL = new JavaType(
+      "org.springframework.data.domain.PageImpl");
   public static final JavaType PAGE_REQUEST = new JavaType(
       "org.springframework.data.domain.PageRequest");
   public static final JavaType PAGEABLE = new JavaType("org.springframework.data.domain.Pageable");
@@ -219,6 +227,9 @@ public final class SpringJavaType {
       "org.springframework.mail.SimpleMailMessage");
   public static final JavaType SIMPLE_TYPE_CONVERTER = new JavaType(
       "org.springframework.beans.SimpleTypeConverter");
+  public static final JavaType SLICE = new JavaType("org.springframework.data.domain.Slice");
+  public static final JavaType SLICE_IMPL = new JavaType(
+      "org.springframework.data.domain.SliceImpl");
   public static final JavaType SPRING_BOOT_TEST = new JavaType(
       "org.springframework.boot.test.context.SpringBootTest");
   public static final JavaType SPRING_RUNNER = new JavaType(
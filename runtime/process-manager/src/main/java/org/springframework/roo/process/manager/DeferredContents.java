@@ -0,0 +1,19 @@
+package org.springframework.roo.process.manager;
+
+/**
+ * The contents of a text file whose write has been deferred, which are only
+ * obtained when they are read through the {@link FileManager} or written to
+ * disk.
+ *
+ * @since 2.0.1
+ */
+public interface DeferredContents {
+
+  /**
+   * Returns the contents to write, which may change until the write is
+   * committed.
+   *
+   * @return the contents (can be zero bytes if the file should be deleted)
+   */
+  String getContents();
+}
@@ -129,6 +129,25 @@ public interface FileManager {
   void createOrUpdateTextFileIfRequired(String fileIdentifier, String newContents,
       String descriptionOfChange, boolean writeImmediately);
 
+  /**
+   * Defers the creation or update of a text file like
+   * {@link #createOrUpdateTextFileIfRequired(String, String, String, boolean)}
+   * does, but only obtains its contents when they are needed: when the file
+   * is read through {@link #getInputStream(String)} or when the deferred
+   * writes are committed. Callers can keep changing the contents until then
+   * without handing them over again.
+   * <p>
+   * A later call for the same file replaces these contents.
+   * 
+   * @param fileIdentifier the file to create or update as appropriate
+   *            (required)
+   * @param newContents the provider of the replacement contents (required)
+   * @param descriptionOfChange the additional information about a change (can
+   *            be null)
+   */
+  void createOrUpdateTextFileIfRequired(String fileIdentifier, DeferredContents newContents,
+      String descriptionOfChange);
+
   /**
    * Attempts to delete a file or directory on the disk. The path should be in
    * canonical file name format.
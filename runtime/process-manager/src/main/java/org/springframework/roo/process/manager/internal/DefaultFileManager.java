@@ -34,6 +34,7 @@ import org.springframework.roo.file.undo.UndoEvent;
 import org.springframework.roo.file.undo.UndoListener;
 import org.springframework.roo.file.undo.UndoManager;
 import org.springframework.roo.file.undo.UpdateFile;
+import org.springframework.roo.process.manager.DeferredContents;
 import org.springframework.roo.process.manager.FileManager;
 import org.springframework.roo.process.manager.MutableFile;
 import org.springframework.roo.process.manager.ProcessManager;
@@ -54,8 +55,9 @@ public class DefaultFileManager implements FileManager, UndoListener {
   /** key: file identifier, value: new description of change */
   private final Map<String, String> deferredDescriptionOfChanges =
       new LinkedHashMap<String, String>();
-  /** key: file identifier, value: new textual content */
-  private final Map<String, String> deferredFileWrites = new LinkedHashMap<String, String>();
+  /** key: file identifier, value: provider of the new textual content */
+  private final Map<String, DeferredContents> deferredFileWrites =
+      new LinkedHashMap<String, DeferredContents>();
 
   // ------------ OSGi component attributes ----------------
   private BundleContext context;
@@ -79,11 +81,12 @@ public class DefaultFileManager implements FileManager, UndoListener {
   }
 
   public void commit() {
-    final Map<String, String> toRemove = new LinkedHashMap<String, String>(deferredFileWrites);
+    final Map<String, DeferredContents> toRemove =
+        new LinkedHashMap<String, DeferredContents>(deferredFileWrites);
     try {
-      for (final Entry<String, String> entry : toRemove.entrySet()) {
+      for (final Entry<String, DeferredContents> entry : toRemove.entrySet()) {
         final String fileIdentifier = entry.getKey();
-        final String newContents = entry.getValue();
+        final String newContents = entry.getValue().getContents();
         if (StringUtils.isNotBlank(newContents)) {
           createOrUpdateTextFileIfRequired(fileIdentifier, newContents,
               StringUtils.stripToEmpty(deferredDescriptionOfChanges.get(fileIdentifier)));
@@ -205,17 +208,26 @@ public class DefaultFileManager implements FileManager, UndoListener {
     if (writeImmediately) {
       createOrUpdateTextFileIfRequired(fileIdentifier, newContents, descriptionOfChange);
     } else {
-      deferredFileWrites.put(fileIdentifier, newContents);
+      createOrUpdateTextFileIfRequired(fileIdentifier, new DeferredContents() {
+        public String getContents() {
+          return newContents;
+        }
+      }, descriptionOfChange);
+    }
+  }
 
-      String deferredDescriptionOfChange =
-          StringUtils.defaultIfEmpty(deferredDescriptionOfChanges.get(fileIdentifier), "");
-      if (StringUtils.isNotBlank(deferredDescriptionOfChange)
-          && !deferredDescriptionOfChange.trim().endsWith(";")) {
-        deferredDescriptionOfChange += "; ";
-      }
-      deferredDescriptionOfChanges.put(fileIdentifier,
-          deferredDescriptionOfChange + StringUtils.stripToEmpty(descriptionOfChange));
+  public void createOrUpdateTextFileIfRequired(final String fileIdentifier,
+      final DeferredContents newContents, final String descriptionOfChange) {
+    deferredFileWrites.put(fileIdentifier, newContents);
+
+    String deferredDescriptionOfChange =
+        StringUtils.defaultIfEmpty(deferredDescriptionOfChanges.get(fileIdentifier), "");
+    if (StringUtils.isNotBlank(deferredDescriptionOfChange)
+        && !deferredDescriptionOfChange.trim().endsWith(";")) {
+      deferredDescriptionOfChange += "; ";
     }
+    deferredDescriptionOfChanges.put(fileIdentifier,
+        deferredDescriptionOfChange + StringUtils.stripToEmpty(descriptionOfChange));
   }
 
   protected void deactivate(final ComponentContext context) {
@@ -276,7 +288,7 @@ public class DefaultFileManager implements FileManager, UndoListener {
   public InputStream getInputStream(final String fileIdentifier) {
     if (deferredFileWrites.containsKey(fileIdentifier)) {
       return new BufferedInputStream(new ByteArrayInputStream(deferredFileWrites
-          .get(fileIdentifier).getBytes()));
+          .get(fileIdentifier).getContents().getBytes()));
     }
 
     final File file = new File(fileIdentifier);
@@ -21,6 +21,9 @@ import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.ReferenceCardinality;
 import org.apache.felix.scr.annotations.ReferencePolicy;
 import org.apache.felix.scr.annotations.ReferenceStrategy;
+import org.springframework.roo.file.monitor.event.FileEvent;
+import org.springframework.roo.file.monitor.event.FileEventListener;
+import org.springframework.roo.file.undo.UndoManager;
 import org.springframework.roo.metadata.MetadataService;
 import org.springframework.roo.model.JavaPackage;
 import org.springframework.roo.process.manager.FileManager;
@@ -51,7 +54,7 @@ import org.w3c.dom.NodeList;
 @Component(componentAbstract = true)
 @Reference(name = "feature", strategy = ReferenceStrategy.EVENT, policy = ReferencePolicy.DYNAMIC,
     referenceInterface = Feature.class, cardinality = ReferenceCardinality.OPTIONAL_MULTIPLE)
-public abstract class AbstractProjectOperations implements ProjectOperations {
+public abstract class AbstractProjectOperations implements ProjectOperations, FileEventListener {
 
   private static final String DEFAULT_VALUE_TEXT = "VALUE_TEXT";
   static final String ADDED = "added";
@@ -74,6 +77,10 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
   @Reference(policy = ReferencePolicy.DYNAMIC)
   protected Shell shell;
 
+  // Marked dirty from the file monitor's thread
+  private volatile FeatureStatusCache featureStatusCache;
+  private PomSession pomSession;
+
   /**
    * Generates a message about the addition of the given items to the POM
    *
@@ -143,13 +150,12 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     Validate.notNull(pom, "The pom is not available, so plugin addition cannot be performed");
 
 
-    final Document parentDocument =
-        XmlUtils.readXml(fileManager.getInputStream(parentPom.getPath()));
+    final Document parentDocument = getPomSession().getDocument(parentPom.getPath());
     Document document = null;
     if (isSamePom) {
       document = parentDocument;
     } else {
-      document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+      document = getPomSession().getDocument(pom.getPath());
     }
 
     writePluginInPom(newPlugins, parentPom, pom, parentDocument, document,
@@ -181,13 +187,12 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     }
     Validate.notNull(pom, "The pom is not available, so dependencies cannot be added");
 
-    final Document parentDocument =
-        XmlUtils.readXml(fileManager.getInputStream(parentPom.getPath()));
+    final Document parentDocument = getPomSession().getDocument(parentPom.getPath());
     Document document = null;
     if (isSamePom) {
       document = parentDocument;
     } else {
-      document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+      document = getPomSession().getDocument(pom.getPath());
     }
     return writeDependencyInPom(newDependencies, parentPom, pom, parentDocument, document,
         parentDocument.getDocumentElement(), document.getDocumentElement(),
@@ -280,7 +285,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
     final String descriptionOfChange;
     final Element buildElement = XmlUtils.findFirstElement("/project/build", root);
@@ -297,8 +302,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       descriptionOfChange = highlight(UPDATED + " filter") + " '" + filter.getValue() + "'";
     }
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   @Override
@@ -368,13 +372,12 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     Validate.notNull(pom, "The pom is not available, so plugin addition cannot be performed");
 
 
-    final Document parentDocument =
-        XmlUtils.readXml(fileManager.getInputStream(parentPom.getPath()));
+    final Document parentDocument = getPomSession().getDocument(parentPom.getPath());
     Document document = null;
     if (isSamePom) {
       document = parentDocument;
     } else {
-      document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+      document = getPomSession().getDocument(pom.getPath());
     }
 
     final Element parentRoot = parentDocument.getDocumentElement();
@@ -439,13 +442,11 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
                 if (!isSamePom && addToPluginManagement) {
                   elementsElement.appendChild(XmlUtils.createTextElement(parentDocument,
                       elementName, element.getValue()));
-                  fileManager.createOrUpdateTextFileIfRequired(parentPom.getPath(),
-                      XmlUtils.nodeToString(parentDocument), descriptionOfChange, false);
+                  getPomSession().update(parentPom.getPath(), parentDocument, descriptionOfChange);
                 } else {
                   elementsElement.appendChild(XmlUtils.createTextElement(document, elementName,
                       element.getValue()));
-                  fileManager.createOrUpdateTextFileIfRequired(pom.getPath(),
-                      XmlUtils.nodeToString(document), descriptionOfChange, false);
+                  getPomSession().update(pom.getPath(), document, descriptionOfChange);
                 }
               } else {
                 if (!isSamePom && addToPluginManagement) {
@@ -457,8 +458,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
                   }
                   newParentElement.appendChild(XmlUtils.createTextElement(parentDocument,
                       element.getKey(), element.getValue()));
-                  fileManager.createOrUpdateTextFileIfRequired(parentPom.getPath(),
-                      XmlUtils.nodeToString(parentDocument), descriptionOfChange, false);
+                  getPomSession().update(parentPom.getPath(), parentDocument, descriptionOfChange);
                 } else {
                   if (newParentElement == null) {
                     newParentElement =
@@ -468,8 +468,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
                   }
                   newParentElement.appendChild(XmlUtils.createTextElement(document,
                       element.getKey(), element.getValue()));
-                  fileManager.createOrUpdateTextFileIfRequired(pom.getPath(),
-                      XmlUtils.nodeToString(document), descriptionOfChange, false);
+                  getPomSession().update(pom.getPath(), document, descriptionOfChange);
                 }
               }
             }
@@ -550,7 +549,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
     final String descriptionOfChange;
     final Element existing =
@@ -572,8 +571,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
               + property.getValue() + "'";
     }
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   public void addRepositories(final String moduleName,
@@ -593,7 +591,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     }
     final Pom pom = getPomFromModuleName(moduleName);
     Validate.notNull(pom, "The pom is not available, so repository addition cannot be performed");
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element repositoriesElement =
         DomUtils.createChildIfNotExists(containingPath, document.getDocumentElement(), document);
 
@@ -632,8 +630,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     }
     final String message = getDescriptionOfChange(ADDED, addedRepositories, path, containingPath);
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        message, false);
+    getPomSession().update(pom.getPath(), document, message);
   }
 
   public void addRepository(final String moduleName, final Repository repository) {
@@ -658,7 +655,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element buildElement =
         XmlUtils.findFirstElement("/project/build", document.getDocumentElement());
     final Element resourcesElement =
@@ -667,13 +664,15 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     final String descriptionOfChange =
         highlight(ADDED + " resource") + " " + resource.getSimpleDescription();
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   protected void bindFeature(final Feature feature) {
     if (feature != null) {
       features.put(feature.getName(), feature);
+      if (featureStatusCache != null) {
+        featureStatusCache.clear();
+      }
     }
   }
 
@@ -730,6 +729,17 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     return pomManagementService.getModuleForFileIdentifier(fileIdentifier);
   }
 
+  /**
+   * Returns whether each registered feature is installed in each module,
+   * checking again only the modules changed since their last check
+   *
+   * @return a non-<code>null</code> list, by module then feature
+   */
+  public List<FeatureStatus> getFeatureStatuses() {
+    return getFeatureStatusCache().getStatuses(new ArrayList<Feature>(features.values()),
+        getModuleNames());
+  }
+
   public Collection<String> getModuleNames() {
     return pomManagementService.getModuleNames();
   }
@@ -747,6 +757,61 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     return pomManagementService.getPoms();
   }
 
+  /**
+   * Returns the cache of which features are installed in which modules,
+   * creating it on first use; file events mark it dirty from the file
+   * monitor's thread
+   *
+   * @return a non-<code>null</code> cache
+   */
+  private FeatureStatusCache getFeatureStatusCache() {
+    FeatureStatusCache cache = featureStatusCache;
+    if (cache == null) {
+      synchronized (this) {
+        cache = featureStatusCache;
+        if (cache == null) {
+          cache = new FeatureStatusCache(pomManagementService);
+          featureStatusCache = cache;
+        }
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * Returns the session through which this class reads and writes POMs,
+   * creating it on first use
+   *
+   * @return a non-<code>null</code> session
+   */
+  PomSession getPomSession() {
+    if (pomSession == null) {
+      final UndoManager undoManager = getUndoManager();
+      pomSession =
+          new PomSession(fileManager, pomManagementService, undoManager != null,
+              getFeatureStatusCache());
+      if (undoManager != null) {
+        undoManager.addUndoListener(pomSession);
+      }
+    }
+    return pomSession;
+  }
+
+  /**
+   * Stops listening to transactions of the undo manager, discarding any
+   * pending POM changes
+   */
+  protected void closePomSession() {
+    if (pomSession == null) {
+      return;
+    }
+    final UndoManager undoManager = getUndoManager();
+    if (undoManager != null) {
+      undoManager.removeUndoListener(pomSession);
+    }
+    pomSession = null;
+  }
+
   private String getPomDependenciesUpdateMessage(final Collection<String> addedDependencies,
       final Collection<String> removedDependencies, final Collection<String> skippedDependencies) {
     final List<String> changes = new ArrayList<String>();
@@ -798,13 +863,23 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     return null;
   }
 
+  /**
+   * Returns the undo manager whose transactions delimit the changes made to
+   * the POMs; if none is available, each change is written immediately.
+   *
+   * @return <code>null</code> by default
+   */
+  protected UndoManager getUndoManager() {
+    return null;
+  }
+
   public boolean isFeatureInstalled(final String featureName) {
     final Feature feature = features.get(featureName);
     if (feature == null) {
       return false;
     }
     for (final String moduleName : getModuleNames()) {
-      if (feature.isInstalledInModule(moduleName)) {
+      if (getFeatureStatusCache().isInstalled(feature, moduleName)) {
         return true;
       }
     }
@@ -825,10 +900,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     if (feature == null) {
       return false;
     }
-    if (feature.isInstalledInModule(module.getModuleName())) {
-      return true;
-    }
-    return false;
+    return getFeatureStatusCache().isInstalled(feature, module.getModuleName());
   }
 
   public boolean isFocusedProjectAvailable() {
@@ -880,7 +952,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
     final Element pluginsElement = XmlUtils.findFirstElement("/project/build/plugins", root);
     if (pluginsElement == null) {
@@ -911,8 +983,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     DomUtils.removeTextNodes(pluginsElement);
     final String message = getDescriptionOfChange(REMOVED, removedPlugins, "plugin", "plugins");
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        message, writeImmediately);
+    getPomSession().update(pom.getPath(), document, message, writeImmediately);
   }
 
   public void removeDependencies(final String moduleName,
@@ -929,7 +1000,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
     final Element dependenciesElement = XmlUtils.findFirstElement("/project/dependencies", root);
     if (dependenciesElement == null) {
@@ -963,8 +1034,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     final String message =
         getDescriptionOfChange(REMOVED, removedDependencies, "dependency", "dependencies");
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        message, false);
+    getPomSession().update(pom.getPath(), document, message);
   }
 
   public void removeDependency(final String moduleName, final Dependency dependency) {
@@ -992,7 +1062,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
 
     String descriptionOfChange = "";
@@ -1009,8 +1079,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
 
     DomUtils.removeTextNodes(dependenciesElement);
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   public final void removeDependency(final String moduleName, final String groupId,
@@ -1124,7 +1193,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
 
     final Element filtersElement = XmlUtils.findFirstElement("/project/build/filters", root);
@@ -1149,8 +1218,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
 
     DomUtils.removeTextNodes(root);
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   public void removePluginRepository(final String moduleName, final Repository repository) {
@@ -1170,7 +1238,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
     final Element propertiesElement = XmlUtils.findFirstElement("/project/properties", root);
     String descriptionOfChange = "";
@@ -1186,8 +1254,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
 
     DomUtils.removeTextNodes(propertiesElement);
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   public void removeRepository(final String moduleName, final Repository repository) {
@@ -1211,7 +1278,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       }
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
 
     String descriptionOfChange = "";
@@ -1224,8 +1291,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       }
     }
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   public void removeResource(final String moduleName, final Resource resource) {
@@ -1238,7 +1304,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
     final Element resourcesElement = XmlUtils.findFirstElement("/project/build/resources", root);
     if (resourcesElement == null) {
@@ -1263,8 +1329,24 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
 
     DomUtils.removeTextNodes(root);
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
+  }
+
+  public void invalidateFeatureStatuses(final String moduleName) {
+    final FeatureStatusCache cache = featureStatusCache;
+    if (cache != null) {
+      cache.invalidate(moduleName);
+    }
+  }
+
+  public void onFileEvent(final FileEvent fileEvent) {
+    // Features are checked against the files of their module, so only the
+    // results for that module are affected; which module that is is left to
+    // the next check, rather than done on the file monitor's thread
+    final FeatureStatusCache cache = featureStatusCache;
+    if (cache != null) {
+      cache.markDirty(fileEvent.getFileDetails().getCanonicalPath());
+    }
   }
 
   public void setModule(final Pom module) {
@@ -1277,6 +1359,9 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
   protected void unbindFeature(final Feature feature) {
     if (feature != null) {
       features.remove(feature.getName());
+      if (featureStatusCache != null) {
+        featureStatusCache.clear();
+      }
     }
   }
 
@@ -1309,7 +1394,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       return;
     }
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element root = document.getDocumentElement();
     final Element dependencyElement =
         XmlUtils.findFirstElement(
@@ -1346,8 +1431,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     }
 
     if (descriptionOfChange != null) {
-      fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-          descriptionOfChange, false);
+      getPomSession().update(pom.getPath(), document, descriptionOfChange);
     }
   }
 
@@ -1356,7 +1440,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     final Pom pom = getPomFromModuleName(moduleName);
     Validate.notNull(pom, "The pom is not available, so the project type cannot be changed");
 
-    final Document document = XmlUtils.readXml(fileManager.getInputStream(pom.getPath()));
+    final Document document = getPomSession().getDocument(pom.getPath());
     final Element packaging =
         DomUtils.createChildIfNotExists("packaging", document.getDocumentElement(), document);
     if (packaging.getTextContent().equals(projectType.getType())) {
@@ -1367,8 +1451,7 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
     final String descriptionOfChange =
         highlight(UPDATED + " project type") + " to " + projectType.getType();
 
-    fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-        descriptionOfChange, false);
+    getPomSession().update(pom.getPath(), document, descriptionOfChange);
   }
 
   /**
@@ -1527,12 +1610,10 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
       final String message =
           getPomDependenciesUpdateMessage(addedDependencies, removedDependencies,
               skippedDependencies);
-      fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-          message, false);
+      getPomSession().update(pom.getPath(), document, message);
       // If parent pom is different, is necessary to add dependencies to dependencyManagement
       if (!isSamePom && addToDependencyManagement) {
-        fileManager.createOrUpdateTextFileIfRequired(parentPom.getPath(),
-            XmlUtils.nodeToString(parentDocument), message, false);
+        getPomSession().update(parentPom.getPath(), parentDocument, message);
       }
     }
 
@@ -1669,12 +1750,10 @@ public abstract class AbstractProjectOperations implements ProjectOperations {
 
     if (!newPlugins.isEmpty()) {
       final String message = getPomPluginsUpdateMessage(addedPlugins, removedPlugins);
-      fileManager.createOrUpdateTextFileIfRequired(pom.getPath(), XmlUtils.nodeToString(document),
-          message, false);
+      getPomSession().update(pom.getPath(), document, message);
       // If parent pom is different, is necessary to add plugins to pluginManagement
       if (!isSamePom && addToPluginManagement) {
-        fileManager.createOrUpdateTextFileIfRequired(parentPom.getPath(),
-            XmlUtils.nodeToString(parentDocument), message, false);
+        getPomSession().update(parentPom.getPath(), parentDocument, message);
       }
     }
   }
@@ -0,0 +1,56 @@
+package org.springframework.roo.project;
+
+/**
+ * Whether a {@link Feature} is installed in a module, as last evaluated by
+ * {@link ProjectOperations#isFeatureInstalled(String)}, with the cost of
+ * that evaluation.
+ *
+ * @since 2.0.1
+ */
+public class FeatureStatus {
+
+  private final long cachedChecks;
+  private final long evaluationNanos;
+  private final String featureName;
+  private final boolean installed;
+  private final String moduleName;
+
+  /**
+   * Constructor
+   *
+   * @param moduleName the name of the module
+   * @param featureName the name of the feature
+   * @param installed whether the feature is installed in the module
+   * @param evaluationNanos how long the feature took to check the module
+   * @param cachedChecks how many checks have been answered since without
+   *            evaluating the feature again
+   */
+  public FeatureStatus(final String moduleName, final String featureName,
+      final boolean installed, final long evaluationNanos, final long cachedChecks) {
+    this.moduleName = moduleName;
+    this.featureName = featureName;
+    this.installed = installed;
+    this.evaluationNanos = evaluationNanos;
+    this.cachedChecks = cachedChecks;
+  }
+
+  public long getCachedChecks() {
+    return cachedChecks;
+  }
+
+  public long getEvaluationNanos() {
+    return evaluationNanos;
+  }
+
+  public String getFeatureName() {
+    return featureName;
+  }
+
+  public String getModuleName() {
+    return moduleName;
+  }
+
+  public boolean isInstalled() {
+    return installed;
+  }
+}
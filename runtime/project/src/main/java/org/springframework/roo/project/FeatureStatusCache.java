@@ -0,0 +1,272 @@
+package org.springframework.roo.project;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.roo.project.maven.Pom;
+
+/**
+ * Remembers whether each {@link Feature} is installed in each module, so that
+ * the many availability indicators and metadata providers asking the same
+ * question don't each have the feature inspect the project again.
+ * <p>
+ * A result stays valid for as long as the module's {@link Pom} is the same
+ * instance (the POM is only modelled again when it changes) and no file of
+ * the module has changed since. Changes made by the current command are
+ * reported synchronously through {@link #invalidate(String)} and
+ * {@link #invalidateFile(String)}, as their file events only arrive once the
+ * command has completed; those events are only recorded by
+ * {@link #markDirty(String)}, and applied by the next check. A feature whose
+ * check asks whether other features are installed depends on the modules
+ * those checks looked at too.
+ *
+ * @since 2.0.1
+ */
+class FeatureStatusCache {
+
+  /**
+   * The result of a feature's check of a module
+   */
+  private static class Result {
+
+    private final AtomicLong cachedChecks = new AtomicLong();
+    private final long evaluationNanos;
+    private final boolean installed;
+    private final Map<String, Snapshot> snapshots;
+
+    Result(final boolean installed, final long evaluationNanos,
+        final Map<String, Snapshot> snapshots) {
+      this.installed = installed;
+      this.evaluationNanos = evaluationNanos;
+      this.snapshots = snapshots;
+    }
+  }
+
+  /**
+   * The state of a module a result depends on
+   */
+  private static class Snapshot {
+
+    private final long generation;
+    private final Pom pom;
+
+    Snapshot(final Pom pom, final long generation) {
+      this.pom = pom;
+      this.generation = generation;
+    }
+  }
+
+  // The snapshots of the checks in progress on each thread, innermost first
+  private final ThreadLocal<LinkedList<Map<String, Snapshot>>> evaluations =
+      new ThreadLocal<LinkedList<Map<String, Snapshot>>>() {
+        @Override
+        protected LinkedList<Map<String, Snapshot>> initialValue() {
+          return new LinkedList<Map<String, Snapshot>>();
+        }
+      };
+  // The files changed according to the file monitor, not yet applied
+  private final Queue<String> dirtyFiles = new ConcurrentLinkedQueue<String>();
+  private final AtomicLong generationCounter = new AtomicLong();
+  private final ConcurrentMap<String, Long> generations = new ConcurrentHashMap<String, Long>();
+  private final PomManagementService pomManagementService;
+  // Module name -> feature name -> result
+  private final ConcurrentMap<String, ConcurrentMap<String, Result>> results =
+      new ConcurrentHashMap<String, ConcurrentMap<String, Result>>();
+
+  /**
+   * Constructor
+   *
+   * @param pomManagementService the service providing each module's POM
+   *            (required)
+   */
+  FeatureStatusCache(final PomManagementService pomManagementService) {
+    this.pomManagementService = pomManagementService;
+  }
+
+  /**
+   * Forgets all results, e.g. when features come and go
+   */
+  void clear() {
+    results.clear();
+  }
+
+  private Result evaluate(final Feature feature, final String moduleName) {
+    final Map<String, Snapshot> snapshots = new HashMap<String, Snapshot>();
+    // Taken before the check, so that a change made during it invalidates
+    // the result
+    snapshots.put(moduleName, getSnapshot(moduleName));
+    final LinkedList<Map<String, Snapshot>> inProgress = evaluations.get();
+    inProgress.push(snapshots);
+    final long start = System.nanoTime();
+    final boolean installed;
+    try {
+      installed = feature.isInstalledInModule(moduleName);
+    } finally {
+      inProgress.pop();
+    }
+    final Result result = new Result(installed, System.nanoTime() - start, snapshots);
+    getResults(moduleName).put(feature.getName(), result);
+    return result;
+  }
+
+  private ConcurrentMap<String, Result> getResults(final String moduleName) {
+    ConcurrentMap<String, Result> moduleResults = results.get(moduleName);
+    if (moduleResults == null) {
+      final ConcurrentMap<String, Result> newResults = new ConcurrentHashMap<String, Result>();
+      moduleResults = results.putIfAbsent(moduleName, newResults);
+      if (moduleResults == null) {
+        moduleResults = newResults;
+      }
+    }
+    return moduleResults;
+  }
+
+  private Snapshot getSnapshot(final String moduleName) {
+    final Long generation = generations.get(moduleName);
+    return new Snapshot(pomManagementService.getPomFromModuleName(moduleName),
+        generation == null ? 0 : generation);
+  }
+
+  /**
+   * Returns the status of each of the given features in each of the given
+   * modules, checking the modules whose status isn't known
+   *
+   * @param features the features (required)
+   * @param moduleNames the names of the modules (required)
+   * @return a non-<code>null</code> list, by module then feature
+   */
+  List<FeatureStatus> getStatuses(final Collection<Feature> features,
+      final Collection<String> moduleNames) {
+    final List<FeatureStatus> statuses = new ArrayList<FeatureStatus>();
+    for (final String moduleName : moduleNames) {
+      for (final Feature feature : features) {
+        Result result = getValidResult(feature.getName(), moduleName);
+        if (result == null) {
+          result = evaluate(feature, moduleName);
+        }
+        statuses.add(new FeatureStatus(moduleName, feature.getName(), result.installed,
+            result.evaluationNanos, result.cachedChecks.get()));
+      }
+    }
+    return statuses;
+  }
+
+  private Result getValidResult(final String featureName, final String moduleName) {
+    for (String fileIdentifier = dirtyFiles.poll(); fileIdentifier != null; fileIdentifier =
+        dirtyFiles.poll()) {
+      invalidateFile(fileIdentifier);
+    }
+    final Map<String, Result> moduleResults = results.get(moduleName);
+    final Result result = moduleResults == null ? null : moduleResults.get(featureName);
+    if (result == null) {
+      return null;
+    }
+    for (final Entry<String, Snapshot> snapshot : result.snapshots.entrySet()) {
+      final Snapshot current = getSnapshot(snapshot.getKey());
+      if (current.pom != snapshot.getValue().pom
+          || current.generation != snapshot.getValue().generation) {
+        return null;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Records that something the results for the given module may depend on
+   * has changed
+   *
+   * @param moduleName the name of the module; <code>null</code> for all
+   *            modules
+   */
+  void invalidate(final String moduleName) {
+    if (moduleName == null) {
+      clear();
+    } else {
+      generations.put(moduleName, generationCounter.incrementAndGet());
+    }
+  }
+
+  /**
+   * Records that the given file has changed, which invalidates the results
+   * of the module containing it
+   *
+   * @param fileIdentifier the canonical path of the file (required)
+   */
+  void invalidateFile(final String fileIdentifier) {
+    // Only the modules of existing results can be affected, so their POMs
+    // locate the file without asking the POM management service
+    String moduleName = null;
+    int longestRoot = -1;
+    for (final Map<String, Result> moduleResults : results.values()) {
+      for (final Result result : moduleResults.values()) {
+        for (final Snapshot snapshot : result.snapshots.values()) {
+          if (snapshot.pom == null) {
+            continue;
+          }
+          final String root = snapshot.pom.getRoot();
+          if (fileIdentifier.equals(snapshot.pom.getPath())) {
+            invalidate(snapshot.pom.getModuleName());
+            return;
+          }
+          if (root != null && root.length() > longestRoot
+              && fileIdentifier.startsWith(root + File.separator)) {
+            moduleName = snapshot.pom.getModuleName();
+            longestRoot = root.length();
+          }
+        }
+      }
+    }
+    if (moduleName != null) {
+      invalidate(moduleName);
+    }
+  }
+
+  /**
+   * Records that the given file has changed, without checking which module
+   * it belongs to until the results are next used; for callers such as file
+   * event listeners that must not do more than that
+   *
+   * @param fileIdentifier the canonical path of the file (required)
+   */
+  void markDirty(final String fileIdentifier) {
+    dirtyFiles.add(fileIdentifier);
+  }
+
+  /**
+   * Indicates whether the given feature is installed in the given module,
+   * only checking the module if it has changed since it was last checked
+   *
+   * @param feature the feature (required)
+   * @param moduleName the name of the module (required)
+   * @return see above
+   */
+  boolean isInstalled(final Feature feature, final String moduleName) {
+    Result result = getValidResult(feature.getName(), moduleName);
+    if (result == null) {
+      result = evaluate(feature, moduleName);
+    } else {
+      result.cachedChecks.incrementAndGet();
+    }
+    final Map<String, Snapshot> enclosing = evaluations.get().peek();
+    if (enclosing != null) {
+      // The enclosing check depends on whatever this one depends on
+      for (final Entry<String, Snapshot> snapshot : result.snapshots.entrySet()) {
+        if (!enclosing.containsKey(snapshot.getKey())) {
+          enclosing.put(snapshot.getKey(), snapshot.getValue());
+        }
+      }
+    }
+    return result.installed;
+  }
+}
@@ -2,6 +2,7 @@ package org.springframework.roo.project;
 
 import static org.springframework.roo.shell.OptionContexts.UPDATE;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Reference;
 import org.apache.felix.scr.annotations.Service;
@@ -47,6 +48,10 @@ public class MavenCommands implements CommandMarker {
 
   private static final String DEPENDENCY_ADD_COMMAND = "dependency add";
   private static final String DEPENDENCY_REMOVE_COMMAND = "dependency remove";
+  private static final String MAVEN_JOB_CANCEL_COMMAND = "maven job cancel";
+  private static final String MAVEN_JOB_LIST_COMMAND = "maven job list";
+  private static final String MAVEN_JOB_OUTPUT_COMMAND = "maven job output";
+  private static final String MAVEN_JOB_RUN_COMMAND = "maven job run";
   private static final String MODULE_CREATE_COMMAND = "module create";
   private static final String MODULE_FOCUS_COMMAND = "module focus";
   private static final String PERFORM_ASSEMBLY_COMMAND = "perform assembly";
@@ -160,17 +165,77 @@ public class MavenCommands implements CommandMarker {
 
   @CliAvailabilityIndicator({PERFORM_PACKAGE_COMMAND, PERFORM_ECLIPSE_COMMAND,
       PERFORM_TESTS_COMMAND, PERFORM_CLEAN_COMMAND, PERFORM_ASSEMBLY_COMMAND,
-      PERFORM_COMMAND_COMMAND})
+      PERFORM_COMMAND_COMMAND, MAVEN_JOB_RUN_COMMAND, MAVEN_JOB_LIST_COMMAND,
+      MAVEN_JOB_OUTPUT_COMMAND, MAVEN_JOB_CANCEL_COMMAND})
   public boolean isPerformCommandAllowed() {
     return getMavenOperations().isFocusedProjectAvailable();
   }
 
   /* @CliCommand(value = {PERFORM_COMMAND_COMMAND}, help = "Executes a user-specified Maven command") */
-  public void mvn(@CliOption(key = "mavenCommand", mandatory = true,
+  public String mvn(@CliOption(key = "mavenCommand", mandatory = true,
       help = "User-specified Maven command (eg test:test)") final String command)
       throws IOException {
 
-    getMavenOperations().executeMvnCommand(command);
+    return runMavenJob(command, false);
+  }
+
+  @CliCommand(value = MAVEN_JOB_CANCEL_COMMAND, help = "Cancels a running Maven job.")
+  public String cancelMavenJob(@CliOption(key = "id", mandatory = true,
+      help = "The number of the job, as shown by 'maven job list'.") final int id) {
+
+    final MavenJob job = getMavenOperations().getMavenJob(id);
+    if (job == null) {
+      return "No Maven job " + id;
+    }
+    return job.cancel() ? "Cancelled Maven job " + id : "Maven job " + id + " already finished";
+  }
+
+  @CliCommand(value = MAVEN_JOB_LIST_COMMAND,
+      help = "Lists the Maven jobs started in this session, with their state and duration.")
+  public String listMavenJobs() {
+    final List<MavenJob> jobs = getMavenOperations().getMavenJobs();
+    if (jobs.isEmpty()) {
+      return "No Maven jobs";
+    }
+    final StringBuilder sb = new StringBuilder();
+    for (final MavenJob job : jobs) {
+      sb.append(String.format("%4d  %-10s %6ds  %s%n", job.getId(), job.getState(),
+          job.getDuration() / 1000, job.getCommand()));
+    }
+    return sb.toString().trim();
+  }
+
+  @CliCommand(value = MAVEN_JOB_OUTPUT_COMMAND,
+      help = "Displays the most recent output of a Maven job, including lines not logged "
+          + "while it ran.")
+  public String showMavenJobOutput(@CliOption(key = "id", mandatory = true,
+      help = "The number of the job, as shown by 'maven job list'.") final int id) {
+
+    final MavenJob job = getMavenOperations().getMavenJob(id);
+    if (job == null) {
+      return "No Maven job " + id;
+    }
+    return StringUtils.join(job.getOutput(), System.getProperty("line.separator"));
+  }
+
+  @CliCommand(value = MAVEN_JOB_RUN_COMMAND,
+      help = "Runs a Maven command in the background, keeping the shell available while it runs.")
+  public String runMavenJob(
+      @CliOption(key = "mavenCommand", mandatory = true,
+          help = "The Maven goals and options to run (eg `-DskipTests=true package`).") final String command,
+      @CliOption(
+          key = "daemon",
+          mandatory = false,
+          unspecifiedDefaultValue = "false",
+          specifiedDefaultValue = "true",
+          help = "Whether to run the command with the Maven Daemon (`mvnd`), which keeps a warm "
+              + "build process between runs. "
+              + "Default if option present: `true`; default if option not present: `false`.") final boolean daemon)
+      throws IOException {
+
+    final MavenJob job = getMavenOperations().startMvnCommand(command, daemon);
+    return "Started Maven job " + job.getId() + " ('" + job.getCommand()
+        + "'); see 'maven job list'";
   }
 
   /*  @CliCommand(value = DEPENDENCY_REMOVE_COMMAND,
@@ -197,32 +262,32 @@ public class MavenCommands implements CommandMarker {
   }
 
   /* @CliCommand(value = {PERFORM_ASSEMBLY_COMMAND}, help = "Executes the assembly goal via Maven") */
-  public void runAssembly() throws IOException {
-    mvn("assembly:assembly");
+  public String runAssembly() throws IOException {
+    return mvn("assembly:assembly");
   }
 
   /* @CliCommand(value = {PERFORM_CLEAN_COMMAND},
        help = "Executes a full clean (including Eclipse files) via Maven") */
-  public void runClean() throws IOException {
-    mvn("clean");
+  public String runClean() throws IOException {
+    return mvn("clean");
   }
 
   /* @CliCommand(
        value = {PERFORM_ECLIPSE_COMMAND},
        help = "Sets up Eclipse configuration via Maven (only necessary if you have not installed the m2eclipse plugin in Eclipse)") */
-  public void runEclipse() throws IOException {
-    mvn("eclipse:clean eclipse:eclipse");
+  public String runEclipse() throws IOException {
+    return mvn("eclipse:clean eclipse:eclipse");
   }
 
   /* @CliCommand(value = {PERFORM_PACKAGE_COMMAND},
        help = "Packages the application using Maven, but does not execute any tests") */
-  public void runPackage() throws IOException {
-    mvn("-DskipTests=true package");
+  public String runPackage() throws IOException {
+    return mvn("-DskipTests=true package");
   }
 
   /* @CliCommand(value = {PERFORM_TESTS_COMMAND}, help = "Executes the tests via Maven") */
-  public void runTest() throws IOException {
-    mvn("test");
+  public String runTest() throws IOException {
+    return mvn("test");
   }
 
   public MavenOperations getMavenOperations() {
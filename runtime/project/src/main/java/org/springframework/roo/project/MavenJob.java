@@ -0,0 +1,308 @@
+package org.springframework.roo.project;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.IOUtils;
+import org.springframework.roo.process.manager.ActiveProcessManager;
+import org.springframework.roo.process.manager.ProcessManager;
+import org.springframework.roo.support.logging.HandlerUtils;
+
+/**
+ * A Maven command running in the background, so that the shell stays
+ * responsive while it runs.
+ * <p>
+ * The command's output is logged as it is produced, but at most
+ * {@link #MAX_LINES_LOGGED_PER_SECOND} lines a second are logged (errors and
+ * warnings always are); the most recent {@link #MAX_LINES_KEPT} lines are
+ * kept and can be obtained through {@link #getOutput()}.
+ *
+ * @since 2.0.1
+ */
+public class MavenJob {
+
+  /**
+   * The states a job can be in
+   */
+  public enum State {
+    CANCELLED, FAILED, RUNNING, SUCCEEDED
+  }
+
+  /**
+   * Logs the lines of one of the process' output streams
+   */
+  private class OutputPump extends Thread {
+
+    private final InputStream inputStream;
+
+    OutputPump(final InputStream inputStream, final String name) {
+      super("Maven job " + id + " " + name);
+      this.inputStream = inputStream;
+      setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+      ActiveProcessManager.setActiveProcessManager(processManager);
+      try {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
+        String line;
+        while ((line = reader.readLine()) != null) {
+          log(line);
+        }
+      } catch (final IOException ignored) {
+        // The process was destroyed
+      } finally {
+        IOUtils.closeQuietly(inputStream);
+        ActiveProcessManager.clearActiveProcessManager();
+      }
+    }
+  }
+
+  private static final Logger LOGGER = HandlerUtils.getLogger(MavenJob.class);
+
+  /**
+   * The number of lines of output kept for {@link #getOutput()}
+   */
+  static final int MAX_LINES_KEPT = 500;
+
+  /**
+   * The number of lines of informational output logged per second, beyond
+   * which lines are only kept
+   */
+  static final int MAX_LINES_LOGGED_PER_SECOND = 40;
+
+  private final String command;
+  private long endTime;
+  private int exitCode = -1;
+  private final int id;
+  private long linesLoggedInWindow;
+  private long linesSuppressed;
+  private final LinkedList<String> output = new LinkedList<String>();
+  private Process process;
+  private final ProcessManager processManager;
+  private final long startTime = System.currentTimeMillis();
+  private State state = State.RUNNING;
+  private Thread waiter;
+  private long windowStart;
+
+  /**
+   * Constructor
+   *
+   * @param id the job's number, for the user to refer to it
+   * @param command the command line to run (required)
+   * @param processManager the process manager to log on behalf of
+   *            (required)
+   */
+  MavenJob(final int id, final String command, final ProcessManager processManager) {
+    this.id = id;
+    this.command = command;
+    this.processManager = processManager;
+  }
+
+  /**
+   * Cancels this job by destroying its process.
+   * <p>
+   * Only the process started for the command is destroyed. On Windows the
+   * command is a batch script, so the Maven JVM it started (and any process
+   * started by the build, such as a forked test JVM) keeps running until it
+   * finishes on its own; Java 1.7 has no way of finding a process'
+   * descendants.
+   *
+   * @return <code>false</code> if it had already finished
+   */
+  public synchronized boolean cancel() {
+    if (state != State.RUNNING) {
+      return false;
+    }
+    state = State.CANCELLED;
+    process.destroy();
+    return true;
+  }
+
+  private synchronized void finish(final int exitCode) {
+    this.exitCode = exitCode;
+    endTime = System.currentTimeMillis();
+    if (state == State.RUNNING) {
+      state = exitCode == 0 ? State.SUCCEEDED : State.FAILED;
+    }
+    reportSuppressedLines();
+    notifyAll();
+  }
+
+  public String getCommand() {
+    return command;
+  }
+
+  /**
+   * Returns how long this job has run, or ran for
+   *
+   * @return a number of milliseconds
+   */
+  public synchronized long getDuration() {
+    return (state == State.RUNNING ? System.currentTimeMillis() : endTime) - startTime;
+  }
+
+  /**
+   * Returns the exit code of the process
+   *
+   * @return -1 while running
+   */
+  public synchronized int getExitCode() {
+    return exitCode;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * Returns the most recent lines of the command's output, including those
+   * not logged
+   *
+   * @return a non-<code>null</code> copy
+   */
+  public synchronized List<String> getOutput() {
+    return new ArrayList<String>(output);
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  private synchronized void log(final String line) {
+    output.add(line);
+    if (output.size() > MAX_LINES_KEPT) {
+      output.removeFirst();
+    }
+    if (line.startsWith("[ERROR]")) {
+      LOGGER.severe(line);
+      return;
+    }
+    if (line.startsWith("[WARNING]")) {
+      LOGGER.warning(line);
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    if (now - windowStart >= 1000) {
+      reportSuppressedLines();
+      windowStart = now;
+      linesLoggedInWindow = 0;
+    }
+    if (linesLoggedInWindow < MAX_LINES_LOGGED_PER_SECOND) {
+      linesLoggedInWindow++;
+      LOGGER.info(line);
+    } else {
+      linesSuppressed++;
+    }
+  }
+
+  private void reportSuppressedLines() {
+    if (linesSuppressed > 0) {
+      LOGGER.info("(" + linesSuppressed + " more lines of output from Maven job " + id
+          + "; see 'maven job output --id " + id + "')");
+      linesSuppressed = 0;
+    }
+  }
+
+  /**
+   * Starts the command's process and the threads logging its output
+   *
+   * @param directory the directory to run the command in (required)
+   * @throws IOException if the process can't be started
+   */
+  void start(final File directory) throws IOException {
+    final Process process;
+    try {
+      process = Runtime.getRuntime().exec(command, null, directory);
+    } catch (final IOException e) {
+      // 1st condition for *nix/Mac, 2nd condition for Windows
+      if (e.getMessage().contains("No such file or directory")
+          || e.getMessage().contains("CreateProcess error=2")) {
+        LOGGER.severe("Could not locate Maven executable; please ensure it is in your path");
+      }
+      throw e;
+    }
+    start(process);
+  }
+
+  /**
+   * Starts the threads logging the output of the given process and waiting
+   * for it to finish
+   *
+   * @param process the command's process, already started (required)
+   */
+  void start(final Process process) {
+    synchronized (this) {
+      this.process = process;
+    }
+
+    // Close OutputStream to avoid blocking by Maven commands that expect
+    // input, as per ROO-2034
+    IOUtils.closeQuietly(process.getOutputStream());
+
+    // Ensure separate threads are used for logging, as per ROO-652
+    final OutputPump input = new OutputPump(process.getInputStream(), "output");
+    final OutputPump errors = new OutputPump(process.getErrorStream(), "errors");
+    input.start();
+    errors.start();
+
+    waiter = new Thread("Maven job " + id) {
+      @Override
+      public void run() {
+        int exitCode;
+        try {
+          exitCode = process.waitFor();
+          if (MavenJob.this.getState() == MavenJob.State.RUNNING) {
+            // Log all of the output before reporting the outcome; once
+            // cancelled, processes it started may still hold the streams
+            input.join();
+            errors.join();
+          }
+        } catch (final InterruptedException e) {
+          process.destroy();
+          exitCode = -1;
+        }
+        finish(exitCode);
+        ActiveProcessManager.setActiveProcessManager(processManager);
+        try {
+          switch (MavenJob.this.getState()) {
+            case SUCCEEDED:
+              LOGGER.info("Maven job " + id + " ('" + command + "') completed in "
+                  + getDuration() / 1000 + "s");
+              break;
+            case CANCELLED:
+              LOGGER.info("Maven job " + id + " ('" + command + "') cancelled");
+              break;
+            default:
+              LOGGER.warning("The command '" + command + "' did not complete successfully");
+          }
+        } finally {
+          ActiveProcessManager.clearActiveProcessManager();
+        }
+      }
+    };
+    waiter.setDaemon(true);
+    waiter.start();
+  }
+
+  /**
+   * Waits for this job to finish
+   *
+   * @return whether it succeeded
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public synchronized boolean waitFor() throws InterruptedException {
+    while (state == State.RUNNING || endTime == 0) {
+      wait();
+    }
+    return state == State.SUCCEEDED;
+  }
+}
@@ -1,6 +1,7 @@
 package org.springframework.roo.project;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.roo.model.JavaPackage;
 import org.springframework.roo.project.maven.Pom;
@@ -62,6 +63,34 @@ public interface MavenOperations extends ProjectOperations {
    */
   void executeMvnCommand(String command) throws IOException;
 
+  /**
+   * Returns the Maven jobs started in this session that are still running
+   * or finished recently
+   *
+   * @return a non-<code>null</code> list, oldest first
+   */
+  List<MavenJob> getMavenJobs();
+
+  /**
+   * Returns the Maven job with the given number
+   *
+   * @param id the job's number
+   * @return <code>null</code> if there is no such job
+   */
+  MavenJob getMavenJob(int id);
+
+  /**
+   * Starts the given Maven command in the background, returning immediately
+   *
+   * @param command the command and any arguments it requires (e.g.
+   *            "-o clean install")
+   * @param daemon whether to run the command with the Maven Daemon (mvnd),
+   *            which keeps a warm build process between invocations
+   * @return the running job
+   * @throws IOException if the command can't be started
+   */
+  MavenJob startMvnCommand(String command, boolean daemon) throws IOException;
+
   String getProjectRoot();
 
   /**
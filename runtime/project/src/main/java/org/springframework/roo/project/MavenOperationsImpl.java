@@ -10,9 +10,9 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.component.ComponentContext;
+import org.springframework.roo.file.undo.UndoManager;
 import org.springframework.roo.model.JavaPackage;
 import org.springframework.roo.model.JavaType;
-import org.springframework.roo.process.manager.ActiveProcessManager;
 import org.springframework.roo.process.manager.FileManager;
 import org.springframework.roo.process.manager.MutableFile;
 import org.springframework.roo.process.manager.ProcessManager;
@@ -35,8 +35,11 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 /**
@@ -54,6 +57,10 @@ public class MavenOperationsImpl extends AbstractProjectOperations implements Ma
 
   protected static final Logger LOGGER = HandlerUtils.getLogger(MavenOperationsImpl.class);
   private static final String JAVA_PRODUCT_VERSION_DEFAULT = "6";
+  private static final int MAX_MAVEN_JOBS = 20;
+
+  private final AtomicInteger mavenJobIds = new AtomicInteger();
+  private final List<MavenJob> mavenJobs = new LinkedList<MavenJob>();
 
   private PackagingProviderRegistry packagingProviderRegistry;
   private ProcessManager processManager;
@@ -66,45 +73,10 @@ public class MavenOperationsImpl extends AbstractProjectOperations implements Ma
     this.context = context.getBundleContext();
   }
 
-  private static class LoggingInputStream extends Thread {
-    private InputStream inputStream;
-    private final ProcessManager processManager;
-
-    /**
-     * Constructor
-     *
-     * @param inputStream
-     * @param processManager
-     */
-    public LoggingInputStream(final InputStream inputStream, final ProcessManager processManager) {
-      this.inputStream = inputStream;
-      this.processManager = processManager;
-    }
-
-    @Override
-    public void run() {
-      ActiveProcessManager.setActiveProcessManager(processManager);
-      try {
-        for (String line : IOUtils.readLines(inputStream)) {
-          if (line.startsWith("[ERROR]")) {
-            LOGGER.severe(line);
-          } else if (line.startsWith("[WARNING]")) {
-            LOGGER.warning(line);
-          } else {
-            LOGGER.info(line);
-          }
-        }
-      } catch (final IOException e) {
-        // 1st condition for *nix/Mac, 2nd condition for Windows
-        if (e.getMessage().contains("No such file or directory")
-            || e.getMessage().contains("CreateProcess error=2")) {
-          LOGGER
-              .severe("Could not locate Maven executable; please ensure mvn command is in your path");
-        }
-      } finally {
-        IOUtils.closeQuietly(inputStream);
-        ActiveProcessManager.clearActiveProcessManager();
-      }
+  protected void deactivate(final ComponentContext context) {
+    closePomSession();
+    for (final MavenJob job : getMavenJobs()) {
+      job.cancel();
     }
   }
 
@@ -489,6 +461,33 @@ public class MavenOperationsImpl extends AbstractProjectOperations implements Ma
   // }
 
   public void executeMvnCommand(final String extra) throws IOException {
+    final MavenJob job = startMvnCommand(extra, false);
+    try {
+      job.waitFor();
+    } catch (final InterruptedException e) {
+      job.cancel();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public MavenJob getMavenJob(final int id) {
+    synchronized (mavenJobs) {
+      for (final MavenJob job : mavenJobs) {
+        if (job.getId() == id) {
+          return job;
+        }
+      }
+    }
+    return null;
+  }
+
+  public List<MavenJob> getMavenJobs() {
+    synchronized (mavenJobs) {
+      return new ArrayList<MavenJob>(mavenJobs);
+    }
+  }
+
+  public MavenJob startMvnCommand(final String extra, final boolean daemon) throws IOException {
 
     if (processManager == null) {
       processManager = getProcessManager();
@@ -500,26 +499,23 @@ public class MavenOperationsImpl extends AbstractProjectOperations implements Ma
     Validate.isTrue(root.isDirectory() && root.exists(),
         "Project root does not currently exist as a directory ('%s')", root.getCanonicalPath());
 
-    final String cmd = (File.separatorChar == '\\' ? "mvn.bat " : "mvn ") + extra;
-    final Process p = Runtime.getRuntime().exec(cmd, null, root);
-
-    // Ensure separate threads are used for logging, as per ROO-652
-    final LoggingInputStream input = new LoggingInputStream(p.getInputStream(), processManager);
-    final LoggingInputStream errors = new LoggingInputStream(p.getErrorStream(), processManager);
-
-    // Close OutputStream to avoid blocking by Maven commands that expect
-    // input, as per ROO-2034
-    IOUtils.closeQuietly(p.getOutputStream());
-    input.start();
-    errors.start();
-
-    try {
-      if (p.waitFor() != 0) {
-        LOGGER.warning("The command '" + cmd + "' did not complete successfully");
+    final String executable = daemon ? "mvnd" : "mvn";
+    final String cmd =
+        executable + (File.separatorChar == '\\' ? (daemon ? ".cmd " : ".bat ") : " ") + extra;
+    final MavenJob job = new MavenJob(mavenJobIds.incrementAndGet(), cmd, processManager);
+    job.start(root);
+
+    synchronized (mavenJobs) {
+      mavenJobs.add(job);
+      // Forget the oldest finished jobs
+      final Iterator<MavenJob> iterator = mavenJobs.iterator();
+      while (mavenJobs.size() > MAX_MAVEN_JOBS && iterator.hasNext()) {
+        if (iterator.next().getState() != MavenJob.State.RUNNING) {
+          iterator.remove();
+        }
       }
-    } catch (final InterruptedException e) {
-      throw new IllegalStateException(e);
     }
+    return job;
   }
 
   /**
@@ -597,15 +593,36 @@ public class MavenOperationsImpl extends AbstractProjectOperations implements Ma
 
   private void updateParentModulePom(final String moduleName) {
     final String parentPomPath = pomManagementService.getFocusedModule().getPath();
-    final Document parentPomDocument = XmlUtils.readXml(fileManager.getInputStream(parentPomPath));
+    final Document parentPomDocument = getPomSession().getDocument(parentPomPath);
     final Element parentPomRoot = parentPomDocument.getDocumentElement();
     DomUtils.createChildIfNotExists("packaging", parentPomRoot, parentPomDocument).setTextContent(
         "pom");
     addModuleDeclaration(moduleName, parentPomDocument, parentPomRoot);
     final String addModuleMessage =
         getDescriptionOfChange(ADDED, Collections.singleton(moduleName), "module", "modules");
-    fileManager.createOrUpdateTextFileIfRequired(getFocusedModule().getPath(),
-        XmlUtils.nodeToString(parentPomDocument), addModuleMessage, false);
+    getPomSession().update(parentPomPath, parentPomDocument, addModuleMessage);
+  }
+
+  @Override
+  protected UndoManager getUndoManager() {
+    if (context == null) {
+      return null;
+    }
+    // Get all Services implement UndoManager interface
+    try {
+      ServiceReference<?>[] references =
+          this.context.getAllServiceReferences(UndoManager.class.getName(), null);
+
+      for (ServiceReference<?> ref : references) {
+        return (UndoManager) this.context.getService(ref);
+      }
+
+      return null;
+
+    } catch (InvalidSyntaxException e) {
+      LOGGER.warning("Cannot load UndoManager on MavenOperationsImpl.");
+      return null;
+    }
   }
 
   public PackagingProviderRegistry getPackagingProviderRegistry() {
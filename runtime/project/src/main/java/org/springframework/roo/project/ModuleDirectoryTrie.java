@@ -0,0 +1,103 @@
+package org.springframework.roo.project;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The root directories of the modules of the user project, held as a trie of
+ * path segments so that the module containing a given file can be found
+ * without touching the file system.
+ *
+ * @since 2.0.1
+ */
+class ModuleDirectoryTrie {
+
+  private static class Node {
+
+    private final Map<String, Node> children = new HashMap<String, Node>();
+    private String pomPath;
+  }
+
+  private static String[] getSegments(final String path) {
+    return StringUtils.split(path, File.separatorChar);
+  }
+
+  private final Node root = new Node();
+
+  /**
+   * Removes all modules
+   */
+  void clear() {
+    root.children.clear();
+    root.pomPath = null;
+  }
+
+  /**
+   * Returns the POM of the innermost module whose root directory contains
+   * the given path
+   *
+   * @param path the canonical path of a file or directory (can be blank)
+   * @return <code>null</code> if that path is in no known module
+   */
+  String getPomPath(final String path) {
+    if (StringUtils.isBlank(path)) {
+      return null;
+    }
+    Node node = root;
+    String pomPath = root.pomPath;
+    for (final String segment : getSegments(path)) {
+      node = node.children.get(segment);
+      if (node == null) {
+        break;
+      }
+      if (node.pomPath != null) {
+        pomPath = node.pomPath;
+      }
+    }
+    return pomPath;
+  }
+
+  /**
+   * Adds the module with the given POM, whose root directory is the one
+   * containing that POM
+   *
+   * @param pomPath the canonical path of the module's POM (required)
+   */
+  void put(final String pomPath) {
+    Node node = root;
+    for (final String segment : getSegments(getModuleDirectory(pomPath))) {
+      Node child = node.children.get(segment);
+      if (child == null) {
+        child = new Node();
+        node.children.put(segment, child);
+      }
+      node = child;
+    }
+    node.pomPath = pomPath;
+  }
+
+  /**
+   * Removes the module with the given POM, if present
+   *
+   * @param pomPath the canonical path of the module's POM (required)
+   */
+  void remove(final String pomPath) {
+    Node node = root;
+    for (final String segment : getSegments(getModuleDirectory(pomPath))) {
+      node = node.children.get(segment);
+      if (node == null) {
+        return;
+      }
+    }
+    if (pomPath.equals(node.pomPath)) {
+      node.pomPath = null;
+    }
+  }
+
+  private String getModuleDirectory(final String pomPath) {
+    return StringUtils.substringBeforeLast(pomPath, File.separator);
+  }
+}
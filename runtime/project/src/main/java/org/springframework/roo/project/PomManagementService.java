@@ -3,6 +3,7 @@ package org.springframework.roo.project;
 import java.util.Collection;
 
 import org.springframework.roo.project.maven.Pom;
+import org.w3c.dom.Document;
 
 /**
  * Provides {@link Pom}-related methods to the "project" package. Code outside
@@ -73,6 +74,17 @@ interface PomManagementService {
    */
   Pom getRootPom();
 
+  /**
+   * Updates the {@link Pom} with the given canonical path from the given
+   * document, which is about to be written to that path; the resulting file
+   * change is then not parsed again.
+   * 
+   * @param pomPath the canonical path of the descriptor file (required)
+   * @param document the new contents of the descriptor (required)
+   * @param contents the same contents, as they will be written (required)
+   */
+  void updatePom(String pomPath, Document document, String contents);
+
   /**
    * Focuses on the given module.
    * 
@@ -93,6 +93,15 @@ public class PomManagementServiceImpl implements PomManagementService {
   private final Map<String, Pom> pomMap = new LinkedHashMap<String, Pom>();
   private String projectRootDirectory;
   private final Set<String> toBeParsed = new HashSet<String>();
+  // The contents each Pom of pomMap was built from, so that a notified
+  // change to contents already modelled is not parsed again
+  private final Map<String, String> modelledContents = new HashMap<String, String>();
+  // The modelled sections of each Pom of pomMap, so that a change only
+  // rebuilds the Pom and notifies its module when the model is affected
+  private final Map<String, PomSections> modelledSections = new HashMap<String, PomSections>();
+  // The root directory of each module of pomMap, for finding the module of
+  // a file without walking the file system
+  private final ModuleDirectoryTrie moduleDirectories = new ModuleDirectoryTrie();
 
   /**
    * For test cases to set up the state of this service
@@ -101,6 +110,7 @@ public class PomManagementServiceImpl implements PomManagementService {
    */
   void addPom(final Pom pom) {
     pomMap.put(pom.getPath(), pom);
+    moduleDirectories.put(pom.getPath());
   }
 
   private void findUnparsedPoms() {
@@ -128,25 +138,8 @@ public class PomManagementServiceImpl implements PomManagementService {
 
   public Pom getModuleForFileIdentifier(final String fileIdentifier) {
     updatePomCache();
-    String startingPoint = FileUtils.getFirstDirectory(fileIdentifier);
-    String pomPath = FileUtils.ensureTrailingSeparator(startingPoint) + DEFAULT_POM_NAME;
-    File pom = new File(pomPath);
-    while (!pom.exists()) {
-      if (startingPoint.equals(SEPARATOR)) {
-        break;
-      }
-      startingPoint = StringUtils.removeEnd(startingPoint, SEPARATOR);
-
-      if (startingPoint.lastIndexOf(SEPARATOR) < 0) {
-        break;
-      }
-      startingPoint = startingPoint.substring(0, startingPoint.lastIndexOf(SEPARATOR));
-      startingPoint = StringUtils.removeEnd(startingPoint, SEPARATOR);
-
-      pomPath = FileUtils.ensureTrailingSeparator(startingPoint) + DEFAULT_POM_NAME;
-      pom = new File(pomPath);
-    }
-    return getPomFromPath(pomPath);
+    final String pomPath = moduleDirectories.getPomPath(fileIdentifier);
+    return pomPath == null ? null : pomMap.get(pomPath);
   }
 
   private String getModuleName(final String pomDirectory) {
@@ -190,8 +183,7 @@ public class PomManagementServiceImpl implements PomManagementService {
   }
 
   private Set<Pom> parseUnparsedPoms() {
-    final Map<String, String> pomModuleMap = new HashMap<String, String>();
-    final Set<Pom> newPoms = new HashSet<Pom>();
+    final Set<Pom> changedPoms = new HashSet<Pom>();
     for (final Iterator<String> iter = toBeParsed.iterator(); iter.hasNext();) {
       final String pathToChangedPom = iter.next();
       if (new File(pathToChangedPom).exists()) {
@@ -201,20 +193,33 @@ public class PomManagementServiceImpl implements PomManagementService {
               org.apache.commons.io.FileUtils.readFileToString(new File(pathToChangedPom));
         } catch (IOException ignored) {
         }
-        if (StringUtils.isNotBlank(pomContents)) {
+        if (pomContents.equals(modelledContents.get(pathToChangedPom))) {
+          // This change was already applied by updatePom
+          iter.remove();
+        } else if (StringUtils.isNotBlank(pomContents)) {
           final Element rootElement = XmlUtils.stringToElement(pomContents);
-          resolvePoms(rootElement, pathToChangedPom, pomModuleMap);
-          final String moduleName = getModuleName(FileUtils.getFirstDirectory(pathToChangedPom));
-          final Pom pom = getPomFactory().getInstance(rootElement, pathToChangedPom, moduleName);
-          Validate.notNull(pom, "POM is null for module '%s' and path '%s'", moduleName,
-              pathToChangedPom);
-          pomMap.put(pathToChangedPom, pom);
-          newPoms.add(pom);
+          final Pom pom = updateModel(pathToChangedPom, rootElement, pomContents);
+          if (pom != null) {
+            changedPoms.add(pom);
+          }
           iter.remove();
         }
+      } else if (pomMap.containsKey(pathToChangedPom)) {
+        changedPoms.add(removePom(pathToChangedPom));
+        iter.remove();
       }
     }
-    return newPoms;
+    return changedPoms;
+  }
+
+  private Pom removePom(final String pomPath) {
+    modelledContents.remove(pomPath);
+    modelledSections.remove(pomPath);
+    moduleDirectories.remove(pomPath);
+    if (pomPath.equals(focusedModulePath)) {
+      focusedModulePath = null;
+    }
+    return pomMap.remove(pomPath);
   }
 
   private void resolveChildModulePoms(final Element pomRoot, final String pomPath,
@@ -323,15 +328,58 @@ public class PomManagementServiceImpl implements PomManagementService {
 
   private void updatePomCache() {
     findUnparsedPoms();
-    final Collection<Pom> newPoms = parseUnparsedPoms();
-    if (!newPoms.isEmpty()) {
+    updateProjectMetadataForModules(parseUnparsedPoms());
+  }
+
+  /**
+   * Updates the model of the given POM, only doing the work required by the
+   * sections that changed since it was last modelled
+   * 
+   * @param pomPath the canonical path of the POM (required)
+   * @param rootElement the POM's root element (required)
+   * @param contents the POM's contents (required)
+   * @return the new {@link Pom}, or <code>null</code> if none of its modelled
+   *         sections changed
+   */
+  private Pom updateModel(final String pomPath, final Element rootElement, final String contents) {
+    final PomSections sections = PomSections.of(rootElement);
+    final boolean newPom = !pomMap.containsKey(pomPath);
+    final Set<String> changedSections =
+        sections.getChangedSections(newPom ? null : modelledSections.get(pomPath));
+    modelledContents.put(pomPath, contents);
+    modelledSections.put(pomPath, sections);
+    if (changedSections.isEmpty()) {
+      // Only formatting, comments or unmodelled sections changed, so the
+      // existing Pom still applies
+      return null;
+    }
+
+    if (changedSections.contains(PomSections.MODULES)
+        || changedSections.contains(PomSections.PARENT)) {
+      resolvePoms(rootElement, pomPath, new HashMap<String, String>());
+    }
+    final String moduleName = getModuleName(FileUtils.getFirstDirectory(pomPath));
+    final Pom pom = getPomFactory().getInstance(rootElement, pomPath, moduleName);
+    Validate.notNull(pom, "POM is null for module '%s' and path '%s'", moduleName, pomPath);
+    pomMap.put(pomPath, pom);
+    if (newPom) {
+      // A module's place in the hierarchy only depends on its path
+      moduleDirectories.put(pomPath);
       sortPomMap();
     }
-    updateProjectMetadataForModules(newPoms);
+    return pom;
+  }
+
+  public void updatePom(final String pomPath, final Document document, final String contents) {
+    toBeParsed.remove(pomPath);
+    final Pom pom = updateModel(pomPath, document.getDocumentElement(), contents);
+    if (pom != null) {
+      updateProjectMetadataForModules(Collections.singleton(pom));
+    }
   }
 
-  private void updateProjectMetadataForModules(final Iterable<Pom> newPoms) {
-    for (final Pom pom : newPoms) {
+  private void updateProjectMetadataForModules(final Iterable<Pom> changedPoms) {
+    for (final Pom pom : changedPoms) {
       final String projectMetadataId = ProjectMetadata.getProjectIdentifier(pom.getModuleName());
       getMetadataService().evictAndGet(projectMetadataId);
       getMetadataDependencyRegistry().notifyDownstream(projectMetadataId);
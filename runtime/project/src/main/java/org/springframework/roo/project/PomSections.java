@@ -0,0 +1,127 @@
+package org.springframework.roo.project;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * The canonical form of each top-level section of a POM that the
+ * {@link org.springframework.roo.project.maven.Pom} model is built from, so
+ * that a new version of a POM can be compared section by section with the
+ * version that was last modelled.
+ * <p>
+ * The canonical form ignores comments, attribute order and whitespace between
+ * elements; reformatting a POM, or changing sections that are not modelled
+ * (such as its description or profiles), does not change its sections.
+ *
+ * @since 2.0.1
+ */
+class PomSections {
+
+  static final String MODULES = "modules";
+  static final String PARENT = "parent";
+
+  /**
+   * The top-level elements read by
+   * {@link org.springframework.roo.project.maven.PomFactory}
+   */
+  private static final List<String> MODELLED_SECTIONS = Arrays.asList("artifactId", "build",
+      "dependencies", "dependencyManagement", "groupId", MODULES, "name", "packaging", PARENT,
+      "pluginRepositories", "properties", "repositories", "version");
+
+  /**
+   * Returns the sections of the POM with the given root element
+   *
+   * @param root the POM's root element (required)
+   * @return a non-<code>null</code> instance
+   */
+  static PomSections of(final Element root) {
+    final Map<String, StringBuilder> sections = new HashMap<String, StringBuilder>();
+    final NodeList children = root.getChildNodes();
+    for (int i = 0; i < children.getLength(); i++) {
+      final Node child = children.item(i);
+      if (child.getNodeType() == Node.ELEMENT_NODE
+          && MODELLED_SECTIONS.contains(child.getNodeName())) {
+        StringBuilder section = sections.get(child.getNodeName());
+        if (section == null) {
+          section = new StringBuilder();
+          sections.put(child.getNodeName(), section);
+        }
+        appendCanonicalForm(child, section);
+      }
+    }
+
+    final Map<String, String> canonicalForms = new HashMap<String, String>();
+    for (final Map.Entry<String, StringBuilder> section : sections.entrySet()) {
+      canonicalForms.put(section.getKey(), section.getValue().toString());
+    }
+    return new PomSections(canonicalForms);
+  }
+
+  private static void appendCanonicalForm(final Node node, final StringBuilder canonicalForm) {
+    switch (node.getNodeType()) {
+      case Node.ELEMENT_NODE:
+        canonicalForm.append('<').append(node.getNodeName());
+        final NamedNodeMap attributes = node.getAttributes();
+        final String[] sortedAttributes = new String[attributes.getLength()];
+        for (int i = 0; i < attributes.getLength(); i++) {
+          final Node attribute = attributes.item(i);
+          sortedAttributes[i] = attribute.getNodeName() + "=\"" + attribute.getNodeValue() + "\"";
+        }
+        Arrays.sort(sortedAttributes);
+        for (final String attribute : sortedAttributes) {
+          canonicalForm.append(' ').append(attribute);
+        }
+        canonicalForm.append('>');
+        final NodeList children = node.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+          appendCanonicalForm(children.item(i), canonicalForm);
+        }
+        canonicalForm.append("</").append(node.getNodeName()).append('>');
+        break;
+      case Node.TEXT_NODE:
+      case Node.CDATA_SECTION_NODE:
+        canonicalForm.append(StringUtils.trimToEmpty(node.getNodeValue()));
+        break;
+      default:
+        // Comments and processing instructions are not modelled
+    }
+  }
+
+  private final Map<String, String> canonicalForms;
+
+  private PomSections(final Map<String, String> canonicalForms) {
+    this.canonicalForms = canonicalForms;
+  }
+
+  /**
+   * Returns the names of the sections that differ between these sections and
+   * the given ones
+   *
+   * @param previous the sections to compare with (can be <code>null</code>
+   *            if not known, in which case every section is deemed changed)
+   * @return a non-<code>null</code> set of top-level element names
+   */
+  Set<String> getChangedSections(final PomSections previous) {
+    if (previous == null) {
+      return new HashSet<String>(MODELLED_SECTIONS);
+    }
+    final Set<String> changedSections = new HashSet<String>();
+    for (final String section : MODELLED_SECTIONS) {
+      if (!StringUtils.equals(canonicalForms.get(section), previous.canonicalForms.get(section))) {
+        changedSections.add(section);
+      }
+    }
+    return Collections.unmodifiableSet(changedSections);
+  }
+}
@@ -0,0 +1,311 @@
+package org.springframework.roo.project;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.Validate;
+import org.springframework.roo.file.undo.UndoEvent;
+import org.springframework.roo.file.undo.UndoListener;
+import org.springframework.roo.process.manager.DeferredContents;
+import org.springframework.roo.process.manager.FileManager;
+import org.springframework.roo.support.util.XmlRoundTripUtils;
+import org.springframework.roo.support.util.XmlUtils;
+import org.w3c.dom.Document;
+
+/**
+ * The working copies of the POMs modified by the current transaction.
+ * <p>
+ * Once a POM has been modified, all further modifications within the same
+ * transaction are applied to that same {@link Document} instead of parsing
+ * the POM again. The working copy is handed to the {@link FileManager} as a
+ * deferred write whose contents are only serialized when they are needed: the
+ * document is serialized once, when the
+ * {@link org.springframework.roo.file.undo.UndoManager} flushes the
+ * transaction, and the {@link PomManagementService} is then given it so that
+ * it can update its {@link org.springframework.roo.project.maven.Pom} without
+ * parsing the file again. Undoing the transaction discards the working
+ * copies. Only the text of the elements that were changed is rewritten, so
+ * the rest of the POM keeps its formatting and comments.
+ * <p>
+ * Each modification invalidates the {@link FeatureStatusCache} results of the
+ * POM's module straight away, as the file events would only do so once the
+ * transaction has been flushed.
+ * <p>
+ * Code reading a POM through the file manager gets the pending changes,
+ * serialized at that moment. If it then writes the POM back along with its
+ * own changes, the working copy is discarded and the POM is parsed again the
+ * next time it is needed, so both sets of changes are kept.
+ * <p>
+ * When not registered with an undo manager (for example in unit tests), each
+ * modification is written through as soon as it is made, as if each one was
+ * its own transaction.
+ *
+ * @since 2.0.1
+ */
+class PomSession implements UndoListener {
+
+  /**
+   * A modified POM, serialized when the file manager needs its contents
+   */
+  private static class WorkingCopy implements DeferredContents {
+
+    private String contents;
+    private final Document document;
+    // Whether the contents were read since the POM was last checked to be
+    // current
+    private boolean handedOut;
+
+    WorkingCopy(final Document document) {
+      this.document = document;
+    }
+
+    public String getContents() {
+      if (contents == null) {
+        contents = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+      }
+      handedOut = true;
+      return contents;
+    }
+  }
+
+  private static final Pattern ENCODING = Pattern
+      .compile("<\\?xml[^>]*encoding\\s*=\\s*[\"']([^\"']+)[\"']");
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private final FeatureStatusCache featureStatusCache;
+  private final FileManager fileManager;
+  private final PomManagementService pomManagementService;
+  private final boolean transactional;
+  // Documents handed out but not modified yet; weak, as most of them are
+  // only read
+  private final Set<Document> unmodifiedDocuments = Collections
+      .newSetFromMap(new WeakHashMap<Document, Boolean>());
+  private final Map<String, WorkingCopy> workingCopies = new LinkedHashMap<String, WorkingCopy>();
+
+  /**
+   * Constructor
+   *
+   * @param fileManager the file manager through which POMs are read and
+   *            written (required)
+   * @param pomManagementService the service to notify of written POMs
+   *            (required)
+   * @param transactional whether this session is flushed by an
+   *            {@link org.springframework.roo.file.undo.UndoManager}; if not,
+   *            each modification is written through immediately
+   */
+  PomSession(final FileManager fileManager, final PomManagementService pomManagementService,
+      final boolean transactional) {
+    this(fileManager, pomManagementService, transactional, null);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param fileManager the file manager through which POMs are read and
+   *            written (required)
+   * @param pomManagementService the service to notify of written POMs
+   *            (required)
+   * @param transactional whether this session is flushed by an
+   *            {@link org.springframework.roo.file.undo.UndoManager}; if not,
+   *            each modification is written through immediately
+   * @param featureStatusCache the cache to invalidate when a POM is
+   *            modified (can be <code>null</code>)
+   */
+  PomSession(final FileManager fileManager, final PomManagementService pomManagementService,
+      final boolean transactional, final FeatureStatusCache featureStatusCache) {
+    Validate.notNull(fileManager, "File manager required");
+    Validate.notNull(pomManagementService, "POM management service required");
+    this.fileManager = fileManager;
+    this.pomManagementService = pomManagementService;
+    this.transactional = transactional;
+    this.featureStatusCache = featureStatusCache;
+  }
+
+  /**
+   * Discards the working copies without writing them
+   */
+  void clear() {
+    unmodifiedDocuments.clear();
+    for (final String pomPath : workingCopies.keySet()) {
+      // Results may have been computed from the discarded changes
+      invalidate(pomPath);
+    }
+    workingCopies.clear();
+  }
+
+  /**
+   * Writes the modified POMs and updates their models from the working
+   * copies, unless they were written by other means since
+   */
+  void flush() {
+    unmodifiedDocuments.clear();
+    if (workingCopies.isEmpty()) {
+      return;
+    }
+    final Map<String, WorkingCopy> toWrite = new LinkedHashMap<String, WorkingCopy>(workingCopies);
+    workingCopies.clear();
+    for (final Entry<String, WorkingCopy> entry : toWrite.entrySet()) {
+      final WorkingCopy workingCopy = entry.getValue();
+      if (isCurrent(entry.getKey(), workingCopy)) {
+        pomManagementService.updatePom(entry.getKey(), workingCopy.document,
+            workingCopy.contents);
+      }
+    }
+    fileManager.commit();
+  }
+
+  /**
+   * Returns the document of the given POM, as modified so far by the current
+   * transaction. Changes made to it must be recorded by calling
+   * {@link #update(String, Document, String)}.
+   *
+   * @param pomPath the canonical path of the POM (required)
+   * @return a non-<code>null</code> document
+   */
+  Document getDocument(final String pomPath) {
+    final WorkingCopy workingCopy = workingCopies.get(pomPath);
+    if (workingCopy != null) {
+      // Only others who read the pending changes can have written them back
+      if (!workingCopy.handedOut || isCurrent(pomPath, workingCopy)) {
+        return workingCopy.document;
+      }
+      // Written by other means, on top of the pending changes
+      workingCopies.remove(pomPath);
+    }
+    final Document document = parse(read(pomPath));
+    unmodifiedDocuments.add(document);
+    return document;
+  }
+
+  private void invalidate(final String pomPath) {
+    if (featureStatusCache != null) {
+      featureStatusCache.invalidateFile(pomPath);
+    }
+  }
+
+  /**
+   * Returns whether the given POM has changes not yet written
+   *
+   * @param pomPath the canonical path of the POM
+   * @return see above
+   */
+  boolean isModified(final String pomPath) {
+    return workingCopies.containsKey(pomPath);
+  }
+
+  /**
+   * Indicates whether the POM still has the contents of the given working
+   * copy. Reading the POM serializes the working copy if it is still its
+   * pending write.
+   */
+  private boolean isCurrent(final String pomPath, final WorkingCopy workingCopy) {
+    final byte[] contents = read(pomPath);
+    workingCopy.handedOut = false;
+    return workingCopy.contents != null
+        && Arrays.equals(workingCopy.contents.getBytes(), contents);
+  }
+
+  public void onUndoEvent(final UndoEvent event) {
+    if (event.isUndoing()) {
+      clear();
+    } else {
+      // It's a flush or a reset event
+      flush();
+    }
+  }
+
+  /**
+   * Parses the given POM so that writing it back only changes the text of
+   * the elements that were modified
+   */
+  private Document parse(final byte[] contents) {
+    final Matcher encoding = ENCODING.matcher(new String(contents, 0,
+        Math.min(contents.length, 100), UTF_8));
+    if (contents.length > 0 && contents[0] != '<' || encoding.lookingAt()
+        && !UTF_8.name().equalsIgnoreCase(encoding.group(1))) {
+      // A byte order mark or another encoding; written in full
+      return XmlUtils.readXml(new ByteArrayInputStream(contents));
+    }
+    return XmlRoundTripUtils.readXmlPreservingFormatting(new String(contents, UTF_8));
+  }
+
+  private byte[] read(final String pomPath) {
+    InputStream inputStream = null;
+    try {
+      inputStream = fileManager.getInputStream(pomPath);
+      return IOUtils.toByteArray(inputStream);
+    } catch (final IOException e) {
+      throw new IllegalStateException("Could not read '" + pomPath + "'", e);
+    } finally {
+      IOUtils.closeQuietly(inputStream);
+    }
+  }
+
+  /**
+   * Records that the given document, as returned by
+   * {@link #getDocument(String)}, has been modified
+   *
+   * @param pomPath the canonical path of the POM (required)
+   * @param document the modified document (required)
+   * @param descriptionOfChange the description of the change to show once
+   *            it is written (can be blank)
+   */
+  void update(final String pomPath, final Document document, final String descriptionOfChange) {
+    update(pomPath, document, descriptionOfChange, false);
+  }
+
+  /**
+   * Records that the given document, as returned by
+   * {@link #getDocument(String)}, has been modified
+   *
+   * @param pomPath the canonical path of the POM (required)
+   * @param document the modified document (required)
+   * @param descriptionOfChange the description of the change to show once
+   *            it is written (can be blank)
+   * @param writeImmediately whether to write the POM to disk now rather than
+   *            when the transaction is flushed
+   */
+  void update(final String pomPath, final Document document, final String descriptionOfChange,
+      final boolean writeImmediately) {
+    WorkingCopy workingCopy = workingCopies.get(pomPath);
+    if (workingCopy == null) {
+      Validate.isTrue(unmodifiedDocuments.remove(document),
+          "Document of '%s' was not obtained from this session", pomPath);
+      workingCopy = new WorkingCopy(document);
+    } else {
+      Validate.isTrue(workingCopy.document == document,
+          "'%s' has pending changes made through another document", pomPath);
+      // The document was obtained before the POM was written by other
+      // means, so writing it would lose those changes
+      Validate.validState(!workingCopy.handedOut || isCurrent(pomPath, workingCopy),
+          "'%s' was modified by other means while its document was being changed", pomPath);
+    }
+    workingCopy.contents = null;
+    invalidate(pomPath);
+    if (!transactional || writeImmediately) {
+      workingCopies.remove(pomPath);
+      final String contents = workingCopy.getContents();
+      fileManager.createOrUpdateTextFileIfRequired(pomPath, contents, descriptionOfChange,
+          writeImmediately);
+      pomManagementService.updatePom(pomPath, document, contents);
+      return;
+    }
+
+    // Serialized when the transaction is flushed, or before if the POM is
+    // read through the file manager
+    fileManager.createOrUpdateTextFileIfRequired(pomPath, workingCopy, descriptionOfChange);
+    workingCopies.put(pomPath, workingCopy);
+  }
+}
@@ -38,6 +38,7 @@ import org.springframework.roo.support.logging.HandlerUtils;
 public class ProjectCommands implements CommandMarker {
 
   private static final String DEVELOPMENT_MODE_COMMAND = "addon development mode";
+  private static final String FEATURE_STATUS_COMMAND = "feature status";
   private static final String PROJECT_SETUP_COMMAND = "project setup";
   private static final String PROJECT_SCAN_SPEED_COMMAND = "project scan speed";
   private static final String PROJECT_SCAN_STATUS_COMMAND = "project scan status";
@@ -127,7 +128,7 @@ public class ProjectCommands implements CommandMarker {
   }
 
   @CliAvailabilityIndicator({PROJECT_SCAN_SPEED_COMMAND, PROJECT_SCAN_STATUS_COMMAND,
-      PROJECT_SCAN_NOW_COMMAND})
+      PROJECT_SCAN_NOW_COMMAND, FEATURE_STATUS_COMMAND})
   public boolean isProjecScanAvailable() {
     return getProjectOperations().isFocusedProjectAvailable();
   }
@@ -207,6 +208,28 @@ public class ProjectCommands implements CommandMarker {
     return sb.toString();
   }
 
+  @CliCommand(value = FEATURE_STATUS_COMMAND,
+      help = "Displays which features are installed in each module, how long each feature took "
+          + "to check the module and how many checks have since been answered without checking "
+          + "again.")
+  public String featureStatus() {
+    final List<FeatureStatus> statuses = getProjectOperations().getFeatureStatuses();
+    if (statuses.isEmpty()) {
+      return "No features available";
+    }
+    final StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%-20s %-20s %-10s %10s %14s%n", "Module", "Feature", "Installed",
+        "Check (ms)", "Cached checks"));
+    for (final FeatureStatus status : statuses) {
+      final String moduleName =
+          "".equals(status.getModuleName()) ? "~" : status.getModuleName();
+      sb.append(String.format("%-20s %-20s %-10s %10.2f %14d%n", moduleName,
+          status.getFeatureName(), status.isInstalled() ? "yes" : "no",
+          status.getEvaluationNanos() / 1000000d, status.getCachedChecks()));
+    }
+    return sb.toString().trim();
+  }
+
   @CliCommand(value = PROJECT_SCAN_SPEED_COMMAND,
       help = "Changes the time inteval between file system scans.")
   public String scanningSpeed(@CliOption(key = {"", "ms"}, mandatory = true,
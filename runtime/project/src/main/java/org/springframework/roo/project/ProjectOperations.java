@@ -705,6 +705,25 @@ public interface ProjectOperations {
    */
   JavaPackage getTopLevelPackage(String moduleName);
 
+  /**
+   * Returns whether each registered feature is installed in each module,
+   * with how long each feature took to check each module; features are only
+   * checked again in modules that have changed since their last check.
+   *
+   * @return a non-<code>null</code> list, by module then feature
+   */
+  List<FeatureStatus> getFeatureStatuses();
+
+  /**
+   * Records that files of the given module that features check have been
+   * changed by the current command, whose file events only arrive once it
+   * has completed.
+   *
+   * @param moduleName the name of the module; <code>null</code> for all
+   *            modules
+   */
+  void invalidateFeatureStatuses(String moduleName);
+
   /**
    * Indicates whether the supplied feature is installed in any module of a
    * project.
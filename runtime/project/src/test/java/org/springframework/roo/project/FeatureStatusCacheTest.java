@@ -0,0 +1,176 @@
+package org.springframework.roo.project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.roo.project.maven.Pom;
+
+/**
+ * Unit test of {@link FeatureStatusCache}
+ *
+ * @since 2.0.1
+ */
+public class FeatureStatusCacheTest {
+
+  private static final String MODULE = "model";
+  private static final String MODULE_ROOT = "/project/model";
+  private static final String OTHER_MODULE = "web";
+
+  @Mock
+  private Feature mockFeature;
+  @Mock
+  private Pom mockPom;
+  @Mock
+  private PomManagementService mockPomManagementService;
+
+  // Fixture
+  private FeatureStatusCache cache;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    when(mockFeature.getName()).thenReturn("jpa");
+    when(mockFeature.isInstalledInModule(MODULE)).thenReturn(true);
+    when(mockPom.getModuleName()).thenReturn(MODULE);
+    when(mockPom.getPath()).thenReturn(MODULE_ROOT + "/pom.xml");
+    when(mockPom.getRoot()).thenReturn(MODULE_ROOT);
+    when(mockPomManagementService.getPomFromModuleName(MODULE)).thenReturn(mockPom);
+    when(mockPomManagementService.getPomFromModuleName(OTHER_MODULE)).thenReturn(mock(Pom.class));
+    cache = new FeatureStatusCache(mockPomManagementService);
+  }
+
+  @Test
+  public void testRepeatedChecksOfUnchangedModuleEvaluateFeatureOnce() {
+    // Invoke
+    final boolean first = cache.isInstalled(mockFeature, MODULE);
+    final boolean second = cache.isInstalled(mockFeature, MODULE);
+
+    // Check
+    assertTrue(first);
+    assertTrue(second);
+    verify(mockFeature, times(1)).isInstalledInModule(MODULE);
+  }
+
+  @Test
+  public void testNewPomOfModuleCausesFeatureToBeEvaluatedAgain() {
+    // Set up
+    cache.isInstalled(mockFeature, MODULE);
+    when(mockPomManagementService.getPomFromModuleName(MODULE)).thenReturn(mock(Pom.class));
+
+    // Invoke
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Check
+    verify(mockFeature, times(2)).isInstalledInModule(MODULE);
+  }
+
+  @Test
+  public void testInvalidatingOtherModuleKeepsResult() {
+    // Set up
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Invoke
+    cache.invalidate(OTHER_MODULE);
+    cache.isInstalled(mockFeature, MODULE);
+    cache.invalidate(MODULE);
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Check
+    verify(mockFeature, times(2)).isInstalledInModule(MODULE);
+  }
+
+  @Test
+  public void testChangedPomInvalidatesResultOfItsModule() {
+    // Set up
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Invoke
+    cache.invalidateFile(MODULE_ROOT + "/pom.xml");
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Check
+    verify(mockFeature, times(2)).isInstalledInModule(MODULE);
+  }
+
+  @Test
+  public void testChangedFileOutsideModuleKeepsResult() {
+    // Set up
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Invoke
+    cache.invalidateFile(MODULE_ROOT + "-web/pom.xml");
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Check
+    verify(mockFeature, times(1)).isInstalledInModule(MODULE);
+  }
+
+  @Test
+  public void testDirtyFileInvalidatesResultOfItsModuleAtNextCheck() {
+    // Set up
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Invoke
+    cache.markDirty(MODULE_ROOT + "/src/main/resources/application.properties");
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Check
+    verify(mockFeature, times(2)).isInstalledInModule(MODULE);
+    verify(mockPomManagementService, never()).getModuleForFileIdentifier(anyString());
+  }
+
+  @Test
+  public void testResultDependsOnModulesOfNestedChecks() {
+    // Set up
+    final Feature mockOuterFeature = mock(Feature.class);
+    when(mockOuterFeature.getName()).thenReturn("thymeleaf");
+    when(mockOuterFeature.isInstalledInModule(OTHER_MODULE)).thenAnswer(new Answer<Boolean>() {
+      public Boolean answer(final InvocationOnMock invocation) {
+        return cache.isInstalled(mockFeature, MODULE);
+      }
+    });
+    cache.isInstalled(mockOuterFeature, OTHER_MODULE);
+
+    // Invoke
+    cache.invalidate(MODULE);
+    cache.isInstalled(mockOuterFeature, OTHER_MODULE);
+
+    // Check
+    verify(mockOuterFeature, times(2)).isInstalledInModule(OTHER_MODULE);
+  }
+
+  @Test
+  public void testStatusesReportEachModuleAndCachedChecks() {
+    // Set up
+    cache.isInstalled(mockFeature, MODULE);
+    cache.isInstalled(mockFeature, MODULE);
+
+    // Invoke
+    final List<FeatureStatus> statuses =
+        cache.getStatuses(Arrays.asList(mockFeature), Arrays.asList(MODULE, OTHER_MODULE));
+
+    // Check
+    assertEquals(2, statuses.size());
+    assertEquals(MODULE, statuses.get(0).getModuleName());
+    assertTrue(statuses.get(0).isInstalled());
+    assertEquals(1, statuses.get(0).getCachedChecks());
+    assertFalse(statuses.get(1).isInstalled());
+    assertEquals(0, statuses.get(1).getCachedChecks());
+  }
+}
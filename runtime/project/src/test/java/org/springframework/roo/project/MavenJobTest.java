@@ -0,0 +1,260 @@
+package org.springframework.roo.project;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.roo.process.manager.ProcessManager;
+
+/**
+ * Unit test of {@link MavenJob}
+ *
+ * @since 2.0.1
+ */
+public class MavenJobTest {
+
+  /**
+   * A process with the given output, which runs until told to exit or
+   * destroyed
+   */
+  private static class FakeProcess extends Process {
+
+    private volatile boolean destroyed;
+    private volatile int exitCode;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final InputStream inputStream;
+
+    FakeProcess(final String output) {
+      inputStream = new ByteArrayInputStream(output.getBytes());
+    }
+
+    @Override
+    public void destroy() {
+      destroyed = true;
+      exit(143);
+    }
+
+    void exit(final int exitCode) {
+      this.exitCode = exitCode;
+      finished.countDown();
+    }
+
+    @Override
+    public int exitValue() {
+      if (finished.getCount() > 0) {
+        throw new IllegalThreadStateException();
+      }
+      return exitCode;
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return inputStream;
+    }
+
+    @Override
+    public OutputStream getOutputStream() {
+      return new ByteArrayOutputStream();
+    }
+
+    @Override
+    public int waitFor() throws InterruptedException {
+      finished.await();
+      return exitCode;
+    }
+  }
+
+  private static final Pattern SUPPRESSED = Pattern.compile("\\((\\d+) more lines of output.*");
+
+  @Mock
+  private ProcessManager mockProcessManager;
+
+  // Fixture
+  private MavenJob job;
+  private Logger logger;
+  private final List<LogRecord> records = new ArrayList<LogRecord>();
+  private final Handler handler = new Handler() {
+    @Override
+    public void close() {}
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void publish(final LogRecord record) {
+      synchronized (records) {
+        records.add(record);
+      }
+    }
+  };
+  private boolean useParentHandlers;
+
+  private static String getLines(final String prefix, final int count) {
+    final StringBuilder lines = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      lines.append(prefix).append(i).append('\n');
+    }
+    return lines.toString();
+  }
+
+  private List<String> getMessages(final Level level, final String prefix) {
+    final List<String> messages = new ArrayList<String>();
+    synchronized (records) {
+      for (final LogRecord record : records) {
+        if (record.getLevel().equals(level) && record.getMessage().startsWith(prefix)) {
+          messages.add(record.getMessage());
+        }
+      }
+    }
+    return messages;
+  }
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    logger = Logger.getLogger(MavenJob.class.getName());
+    useParentHandlers = logger.getUseParentHandlers();
+    logger.setUseParentHandlers(false);
+    logger.addHandler(handler);
+    job = new MavenJob(1, "mvn test", mockProcessManager);
+  }
+
+  @After
+  public void tearDown() {
+    logger.removeHandler(handler);
+    logger.setUseParentHandlers(useParentHandlers);
+  }
+
+  @Test
+  public void testJobSucceedsWhenTheProcessExitsNormally() throws Exception {
+    // Set up
+    final FakeProcess process = new FakeProcess("[INFO] BUILD SUCCESS\n");
+    job.start(process);
+    assertEquals(MavenJob.State.RUNNING, job.getState());
+    assertEquals(-1, job.getExitCode());
+
+    // Invoke
+    process.exit(0);
+
+    // Check
+    assertTrue(job.waitFor());
+    assertEquals(MavenJob.State.SUCCEEDED, job.getState());
+    assertEquals(0, job.getExitCode());
+    assertFalse(job.cancel());
+  }
+
+  @Test
+  public void testJobFailsWhenTheProcessExitsWithAnError() throws Exception {
+    // Set up
+    final FakeProcess process = new FakeProcess("[ERROR] BUILD FAILURE\n");
+    job.start(process);
+
+    // Invoke
+    process.exit(1);
+
+    // Check
+    assertFalse(job.waitFor());
+    assertEquals(MavenJob.State.FAILED, job.getState());
+    assertEquals(1, job.getExitCode());
+  }
+
+  @Test
+  public void testCancellingDestroysTheProcess() throws Exception {
+    // Set up
+    final FakeProcess process = new FakeProcess("");
+    job.start(process);
+
+    // Invoke
+    final boolean cancelled = job.cancel();
+
+    // Check
+    assertTrue(cancelled);
+    assertTrue(process.destroyed);
+    assertFalse(job.waitFor());
+    assertEquals(MavenJob.State.CANCELLED, job.getState());
+    assertFalse(job.cancel());
+  }
+
+  @Test
+  public void testOnlyTheMostRecentLinesAreKept() throws Exception {
+    // Set up
+    final int lines = MavenJob.MAX_LINES_KEPT + 100;
+    final FakeProcess process = new FakeProcess(getLines("line ", lines));
+    job.start(process);
+
+    // Invoke
+    process.exit(0);
+    job.waitFor();
+
+    // Check
+    final List<String> output = job.getOutput();
+    assertEquals(MavenJob.MAX_LINES_KEPT, output.size());
+    assertEquals("line 100", output.get(0));
+    assertEquals("line " + (lines - 1), output.get(output.size() - 1));
+  }
+
+  @Test
+  public void testInformationalLinesAreRateLimited() throws Exception {
+    // Set up
+    final int lines = MavenJob.MAX_LINES_LOGGED_PER_SECOND * 3;
+    final FakeProcess process = new FakeProcess(getLines("[INFO] line ", lines));
+    job.start(process);
+
+    // Invoke
+    process.exit(0);
+    job.waitFor();
+
+    // Check
+    final int logged = getMessages(Level.INFO, "[INFO] line ").size();
+    int suppressed = 0;
+    for (final String message : getMessages(Level.INFO, "(")) {
+      final Matcher matcher = SUPPRESSED.matcher(message);
+      if (matcher.matches()) {
+        suppressed += Integer.parseInt(matcher.group(1));
+      }
+    }
+    assertTrue(logged < lines);
+    assertEquals(lines, logged + suppressed);
+  }
+
+  @Test
+  public void testErrorsAndWarningsAreAlwaysLogged() throws Exception {
+    // Set up
+    final int lines = MavenJob.MAX_LINES_LOGGED_PER_SECOND * 2;
+    final FakeProcess process =
+        new FakeProcess(getLines("[ERROR] line ", lines) + getLines("[WARNING] line ", lines));
+    job.start(process);
+
+    // Invoke
+    process.exit(1);
+    job.waitFor();
+
+    // Check
+    assertEquals(lines, getMessages(Level.SEVERE, "[ERROR] line ").size());
+    assertEquals(lines, getMessages(Level.WARNING, "[WARNING] line ").size());
+  }
+}
@@ -2,10 +2,12 @@ package org.springframework.roo.project;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -32,6 +34,8 @@ import org.springframework.roo.project.maven.PomFactory;
 import org.springframework.roo.shell.Shell;
 import org.springframework.roo.support.osgi.OSGiUtils;
 import org.springframework.roo.support.util.FileUtils;
+import org.springframework.roo.support.util.XmlUtils;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 /**
@@ -110,6 +114,28 @@ public class PomManagementServiceImplTest {
     service.activate(mockComponentContext);
   }
 
+  @Test
+  public void testGetModuleForFileIdentifierReturnsInnermostModule() {
+    // Set up
+    final String rootPath = FileUtils.getSystemDependentPath("", "users", "jbloggs", "clinic");
+    final Pom mockRootPom =
+        getMockPom(ROOT_MODULE_NAME, rootPath + File.separator + "pom.xml");
+    final Pom mockChildPom =
+        getMockPom("web", FileUtils.getSystemDependentPath(rootPath, "web", "pom.xml"));
+    service.addPom(mockRootPom);
+    service.addPom(mockChildPom);
+
+    // Invoke and check
+    assertEquals(mockChildPom, service.getModuleForFileIdentifier(FileUtils
+        .getSystemDependentPath(rootPath, "web", "src", "main", "java", "Foo.java")));
+    assertEquals(mockChildPom,
+        service.getModuleForFileIdentifier(FileUtils.getSystemDependentPath(rootPath, "web")));
+    assertEquals(mockRootPom, service.getModuleForFileIdentifier(FileUtils
+        .getSystemDependentPath(rootPath, "webapp", "index.html")));
+    assertNull(service.getModuleForFileIdentifier(FileUtils.getSystemDependentPath("", "tmp",
+        "Foo.java")));
+  }
+
   @Test
   public void testGetPomOfSingleModuleProjectWhenParentHasNoRelativePath() throws Exception {
     // Set up
@@ -235,6 +261,30 @@ public class PomManagementServiceImplTest {
     assertEquals(0, poms.size());
   }
 
+  @Test
+  public void testUpdatingUnmodelledSectionsOfPomKeepsItsModel() throws Exception {
+    // Set up
+    setUpWorkingDirectory("single");
+    final String canonicalPath = getCanonicalPath("single/pom.xml");
+    final Pom mockPom = getMockPom(ROOT_MODULE_NAME, canonicalPath);
+    final Document document =
+        XmlUtils.readXml(getClass().getResourceAsStream("single/pom.xml"));
+    service.updatePom(canonicalPath, document, XmlUtils.nodeToString(document));
+    final Element description = document.createElement("description");
+    description.setTextContent("Not part of the model");
+    document.getDocumentElement().appendChild(description);
+    document.getDocumentElement().appendChild(document.createComment("Nor is this"));
+
+    // Invoke
+    service.updatePom(canonicalPath, document, XmlUtils.nodeToString(document));
+
+    // Check
+    assertEquals(mockPom, service.getPomFromPath(canonicalPath));
+    verify(mockPomFactory, times(1)).getInstance(any(Element.class), eq(canonicalPath),
+        eq(ROOT_MODULE_NAME));
+    verifyProjectMetadataNotification(ROOT_MODULE_NAME);
+  }
+
   private void verifyProjectMetadataNotification(final String... moduleNames) {
     for (final String moduleName : moduleNames) {
       final String projectMetadataId = ProjectMetadata.getProjectIdentifier(moduleName);
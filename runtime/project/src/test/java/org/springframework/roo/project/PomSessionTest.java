@@ -0,0 +1,268 @@
+package org.springframework.roo.project;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.roo.file.undo.UndoEvent;
+import org.springframework.roo.file.undo.UndoEvent.UndoOperation;
+import org.springframework.roo.process.manager.DeferredContents;
+import org.springframework.roo.process.manager.FileManager;
+import org.springframework.roo.support.util.XmlUtils;
+import org.w3c.dom.Document;
+
+/**
+ * Unit test of {@link PomSession}
+ *
+ * @since 2.0.1
+ */
+public class PomSessionTest {
+
+  private static final String POM = "<project><properties/></project>";
+  private static final String POM_PATH = "/any/old/pom.xml";
+
+  @Mock
+  private FileManager mockFileManager;
+  @Mock
+  private PomManagementService mockPomManagementService;
+
+  // Fixture
+  private Map<String, DeferredContents> files;
+  private PomSession session;
+
+  private void addElement(final Document document, final String name) {
+    document.getDocumentElement().appendChild(document.createElement(name));
+  }
+
+  private boolean hasElement(final Document document, final String name) {
+    return document.getElementsByTagName(name).getLength() > 0;
+  }
+
+  private String read() throws IOException {
+    return IOUtils.toString(mockFileManager.getInputStream(POM_PATH));
+  }
+
+  private void write(final String contents) {
+    mockFileManager.createOrUpdateTextFileIfRequired(POM_PATH, contents, "", false);
+  }
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    // The file manager returns what was last written to it, as it does for
+    // deferred writes
+    files = new HashMap<String, DeferredContents>();
+    write(POM);
+    when(mockFileManager.getInputStream(anyString())).thenAnswer(new Answer<InputStream>() {
+      public InputStream answer(final InvocationOnMock invocation) {
+        return new ByteArrayInputStream(files.get(invocation.getArguments()[0]).getContents()
+            .getBytes());
+      }
+    });
+    doAnswer(new Answer<Void>() {
+      public Void answer(final InvocationOnMock invocation) {
+        final String contents = (String) invocation.getArguments()[1];
+        files.put((String) invocation.getArguments()[0], new DeferredContents() {
+          public String getContents() {
+            return contents;
+          }
+        });
+        return null;
+      }
+    }).when(mockFileManager).createOrUpdateTextFileIfRequired(anyString(), anyString(),
+        anyString(), anyBoolean());
+    doAnswer(new Answer<Void>() {
+      public Void answer(final InvocationOnMock invocation) {
+        files.put((String) invocation.getArguments()[0],
+            (DeferredContents) invocation.getArguments()[1]);
+        return null;
+      }
+    }).when(mockFileManager).createOrUpdateTextFileIfRequired(anyString(),
+        (DeferredContents) anyObject(), anyString());
+    session = new PomSession(mockFileManager, mockPomManagementService, true);
+  }
+
+  @Test
+  public void testModificationsAreCommittedOnFlush() throws Exception {
+    // Set up
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+    session.update(POM_PATH, document, "added first");
+    final Document sameDocument = session.getDocument(POM_PATH);
+    addElement(sameDocument, "second");
+    session.update(POM_PATH, sameDocument, "added second");
+
+    // Invoke
+    session.onUndoEvent(new UndoEvent(UndoOperation.FLUSH));
+
+    // Check
+    assertSame(document, sameDocument);
+    verify(mockFileManager).createOrUpdateTextFileIfRequired(eq(POM_PATH),
+        (DeferredContents) anyObject(), eq("added first"));
+    verify(mockFileManager).createOrUpdateTextFileIfRequired(eq(POM_PATH),
+        (DeferredContents) anyObject(), eq("added second"));
+    verify(mockFileManager).commit();
+    verify(mockPomManagementService, times(1)).updatePom(POM_PATH, document, read());
+    assertFalse(session.isModified(POM_PATH));
+  }
+
+  @Test
+  public void testModificationsAreNotSerializedUntilNeeded() throws Exception {
+    // Set up
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+    session.update(POM_PATH, document, "added first");
+
+    // Invoke
+    final String contents = files.get(POM_PATH).getContents();
+    addElement(document, "second");
+    session.update(POM_PATH, document, "added second");
+
+    // Check
+    assertTrue(contents.contains("<first"));
+    assertFalse(contents.contains("<second"));
+    assertTrue(read().contains("<second"));
+    verify(mockFileManager, never()).createOrUpdateTextFileIfRequired(eq(POM_PATH), anyString(),
+        anyString(), anyBoolean());
+  }
+
+  @Test
+  public void testPendingModificationsAreVisibleThroughTheFileManager() throws Exception {
+    // Set up
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+
+    // Invoke
+    session.update(POM_PATH, document, "added first");
+
+    // Check
+    assertTrue(read().contains("<first"));
+    verify(mockPomManagementService, never()).updatePom(anyString(), (Document) anyObject(),
+        anyString());
+  }
+
+  @Test
+  public void testTwoWritersCanShareOneTransaction() throws Exception {
+    // Set up
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+    session.update(POM_PATH, document, "added first");
+
+    // Invoke
+    // Another writer reads the pending changes through the file manager and
+    // writes them back along with its own
+    write(read().replace("</project>", "<other/></project>"));
+    final Document reparsed = session.getDocument(POM_PATH);
+    addElement(reparsed, "second");
+    session.update(POM_PATH, reparsed, "added second");
+    session.onUndoEvent(new UndoEvent(UndoOperation.FLUSH));
+
+    // Check
+    assertNotSame(document, reparsed);
+    assertTrue(hasElement(reparsed, "first"));
+    assertTrue(hasElement(reparsed, "other"));
+    assertTrue(hasElement(reparsed, "second"));
+    verify(mockFileManager).commit();
+    verify(mockPomManagementService).updatePom(POM_PATH, reparsed, read());
+  }
+
+  @Test
+  public void testModelIsNotUpdatedFromAWorkingCopyWrittenOverByAnotherWriter() throws Exception {
+    // Set up
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+    session.update(POM_PATH, document, "added first");
+    write(read().replace("</project>", "<other/></project>"));
+
+    // Invoke
+    session.onUndoEvent(new UndoEvent(UndoOperation.FLUSH));
+
+    // Check
+    verify(mockFileManager).commit();
+    verify(mockPomManagementService, never()).updatePom(anyString(), (Document) anyObject(),
+        anyString());
+  }
+
+  @Test
+  public void testModificationsAreDiscardedOnUndo() {
+    // Set up
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+    session.update(POM_PATH, document, "added first");
+    assertTrue(session.isModified(POM_PATH));
+
+    // Invoke
+    session.onUndoEvent(new UndoEvent(UndoOperation.UNDO));
+    session.onUndoEvent(new UndoEvent(UndoOperation.FLUSH));
+
+    // Check
+    assertFalse(session.isModified(POM_PATH));
+    verify(mockFileManager, never()).commit();
+    verify(mockPomManagementService, never()).updatePom(anyString(), (Document) anyObject(),
+        anyString());
+  }
+
+  @Test
+  public void testModificationsAreWrittenThroughWhenNotTransactional() {
+    // Set up
+    session = new PomSession(mockFileManager, mockPomManagementService, false);
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+
+    // Invoke
+    session.update(POM_PATH, document, "added first");
+
+    // Check
+    verify(mockFileManager).createOrUpdateTextFileIfRequired(eq(POM_PATH), anyString(),
+        eq("added first"), eq(false));
+    assertFalse(session.isModified(POM_PATH));
+  }
+
+  @Test
+  public void testModificationsInvalidateFeatureStatusesBeforeFlush() {
+    // Set up
+    final FeatureStatusCache mockFeatureStatusCache = mock(FeatureStatusCache.class);
+    session =
+        new PomSession(mockFileManager, mockPomManagementService, true, mockFeatureStatusCache);
+    final Document document = session.getDocument(POM_PATH);
+    addElement(document, "first");
+
+    // Invoke
+    session.update(POM_PATH, document, "added first");
+
+    // Check
+    verify(mockFeatureStatusCache).invalidateFile(POM_PATH);
+    verify(mockFileManager, never()).commit();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUpdatingForeignDocumentIsRejected() {
+    session.getDocument(POM_PATH);
+    session.update(POM_PATH, XmlUtils.getDocumentBuilder().newDocument(), "");
+  }
+}
@@ -1,13 +1,10 @@
 package org.springframework.roo.propfiles.manager;
 
-import java.io.BufferedInputStream;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -53,6 +50,7 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
 
   private FileManager fileManager;
   private ProjectOperations projectOperations;
+  private final PropertiesCache propertiesCache = new PropertiesCache();
 
   // ------------ OSGi component attributes ----------------
   private BundleContext context;
@@ -179,26 +177,7 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
     Validate.notNull(propertyFilePath, "Property file path required");
     Validate.notBlank(propertyFilename, "Property filename required");
 
-    final String filePath =
-        getProjectOperations().getPathResolver().getIdentifier(propertyFilePath, propertyFilename);
-    final Properties props = new Properties();
-
-    try {
-      if (getFileManager().exists(filePath)) {
-        loadProperties(props, new BufferedInputStream(new FileInputStream(filePath)));
-      } else {
-        throw new IllegalStateException(String.format(
-            "ERROR: '%s' properties file doesn't exists.", filePath));
-      }
-    } catch (final IOException ioe) {
-      throw new IllegalStateException(ioe);
-    }
-
-    final Map<String, String> result = new HashMap<String, String>();
-    for (final Object key : props.keySet()) {
-      result.put(key.toString(), props.getProperty(key.toString()));
-    }
-    return Collections.unmodifiableMap(result);
+    return getCachedProperties(propertyFilePath, propertyFilename);
   }
 
   @Override
@@ -217,13 +196,8 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
 
     final String filePath =
         getProjectOperations().getPathResolver().getIdentifier(propertyFilePath, propertyFilename);
-    MutableFile mutableFile = null;
-    final Properties props = new Properties();
-
-    if (getFileManager().exists(filePath)) {
-      mutableFile = getFileManager().updateFile(filePath);
-      loadProperties(props, mutableFile.getInputStream());
-    } else {
+    final Map<String, String> props = propertiesCache.getProperties(filePath);
+    if (props == null) {
       return null;
     }
 
@@ -232,7 +206,7 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
       key = prefix.concat(".").concat(key);
     }
 
-    return props.getProperty(key);
+    return props.get(key);
   }
 
   @Override
@@ -248,32 +222,18 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
     Validate.notNull(propertyFilePath, "Property file path required");
     Validate.notBlank(propertyFilename, "Property filename required");
 
-    final String filePath =
-        getProjectOperations().getPathResolver().getIdentifier(propertyFilePath, propertyFilename);
-    final Properties props = new Properties();
-
-    try {
-      if (getFileManager().exists(filePath)) {
-        loadProperties(props, new BufferedInputStream(new FileInputStream(filePath)));
-      } else {
-        throw new IllegalStateException(String.format(
-            "ERROR: '%s' properties file doesn't exists.", filePath));
-      }
-    } catch (final IOException ioe) {
-      throw new IllegalStateException(ioe);
-    }
+    final Map<String, String> props = getCachedProperties(propertyFilePath, propertyFilename);
 
     final SortedSet<String> result = new TreeSet<String>();
-    for (final Object key : props.keySet()) {
-      String info = key.toString();
+    for (final Entry<String, String> property : props.entrySet()) {
+      String info = property.getKey();
       if (StringUtils.isNotBlank(prefix)) {
         if (info.startsWith(prefix)) {
-          result.add(includeValues ? info.concat(" = ").concat(props.getProperty(key.toString()))
-              : info);
+          result.add(includeValues ? info.concat(" = ").concat(property.getValue()) : info);
         }
       } else {
         if (includeValues) {
-          info += " = " + props.getProperty(key.toString());
+          info += " = " + property.getValue();
         }
         result.add(info);
       }
@@ -330,6 +290,7 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
     if (props.containsKey(key)) {
       props.remove(key);
       storeProps(props, mutableFile.getOutputStream(), "Updated at " + new Date());
+      propertiesCache.evict(filePath);
     }
 
   }
@@ -362,11 +323,31 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
     }
 
     storeProps(props, mutableFile.getOutputStream(), "Updated at " + new Date());
-
+    propertiesCache.evict(filePath);
   }
 
   // Util methods
 
+  /**
+   * Returns the cached, read-only view of the given properties file
+   * 
+   * @param propertyFilePath the location of the file (required)
+   * @param propertyFilename the name of the file (required)
+   * @return an unmodifiable map
+   * @throws IllegalStateException if the file doesn't exist
+   */
+  private Map<String, String> getCachedProperties(final LogicalPath propertyFilePath,
+      final String propertyFilename) {
+    final String filePath =
+        getProjectOperations().getPathResolver().getIdentifier(propertyFilePath, propertyFilename);
+    final Map<String, String> props = propertiesCache.getProperties(filePath);
+    if (props == null) {
+      throw new IllegalStateException(String.format(
+          "ERROR: '%s' properties file doesn't exists.", filePath));
+    }
+    return props;
+  }
+
   private Map<String, String> asMap(final String key, final String value) {
     final Map<String, String> properties = new HashMap<String, String>();
     properties.put(key, value);
@@ -487,6 +468,7 @@ public class PropFilesManagerServiceImpl implements PropFilesManagerService {
 
     if (saveNeeded) {
       storeProps(props, mutableFile.getOutputStream(), "Updated at " + new Date());
+      propertiesCache.evict(filePath);
 
       String propertyCount = props.size() > 1 ? "Properties" : "Property";
       String haveCount = props.size() > 1 ? "have" : "has";
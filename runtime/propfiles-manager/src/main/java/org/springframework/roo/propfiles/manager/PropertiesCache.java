@@ -0,0 +1,144 @@
+package org.springframework.roo.propfiles.manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Read-only views of the properties files of the project, each parsed once
+ * and reused for as long as the file keeps the same contents.
+ * <p>
+ * Reading a property through this cache neither opens the file for update
+ * (which would register an undoable operation and back the file up) nor
+ * parses it again. A view is current as long as the file keeps the same
+ * modification time and length; as modification times are only as precise
+ * as the file system, a file read within that precision of its last
+ * modification could be rewritten with the same length without its time
+ * changing, so until then its view is also checked against a checksum of
+ * the file contents.
+ *
+ * @since 2.0.1
+ */
+class PropertiesCache {
+
+  // Coarser than the modification time precision of common file systems
+  private static final long TIMESTAMP_PRECISION = 2000;
+
+  private static class CachedProperties {
+
+    private final long checksum;
+    private final long lastModified;
+    private final long length;
+    private final Map<String, String> properties;
+    private volatile long verified;
+
+    CachedProperties(final long lastModified, final long length, final long checksum,
+        final long verified, final Map<String, String> properties) {
+      this.checksum = checksum;
+      this.lastModified = lastModified;
+      this.length = length;
+      this.properties = properties;
+      this.verified = verified;
+    }
+
+    boolean isCurrent(final File file) {
+      if (file.lastModified() != lastModified || file.length() != length) {
+        return false;
+      }
+      if (verified - lastModified > TIMESTAMP_PRECISION) {
+        // Any later write changes the modification time
+        return true;
+      }
+      final long now = System.currentTimeMillis();
+      final byte[] contents = read(file);
+      if (contents == null || checksum(contents) != checksum) {
+        return false;
+      }
+      verified = now;
+      return true;
+    }
+  }
+
+  private static long checksum(final byte[] contents) {
+    final CRC32 crc = new CRC32();
+    crc.update(contents);
+    return crc.getValue();
+  }
+
+  private static byte[] read(final File file) {
+    try {
+      return FileUtils.readFileToByteArray(file);
+    } catch (final FileNotFoundException e) {
+      return null;
+    } catch (final IOException e) {
+      throw new IllegalStateException("Could not load properties", e);
+    }
+  }
+
+  private final Map<String, CachedProperties> cache =
+      new ConcurrentHashMap<String, CachedProperties>();
+
+  /**
+   * Discards the cached view of the given file, for example after the file
+   * has been written
+   *
+   * @param filePath the canonical path of the properties file (required)
+   */
+  void evict(final String filePath) {
+    cache.remove(filePath);
+  }
+
+  /**
+   * Returns the properties of the given file
+   *
+   * @param filePath the canonical path of the properties file (required)
+   * @return an unmodifiable map, or <code>null</code> if the file does not
+   *         exist
+   */
+  Map<String, String> getProperties(final String filePath) {
+    final File file = new File(filePath);
+    final CachedProperties cached = cache.get(filePath);
+    if (cached != null && cached.isCurrent(file)) {
+      return cached.properties;
+    }
+    if (!file.isFile()) {
+      cache.remove(filePath);
+      return null;
+    }
+
+    // Stat before reading, so that a concurrent change is detected by the
+    // next lookup rather than being hidden behind the new timestamp
+    final long verified = System.currentTimeMillis();
+    final long lastModified = file.lastModified();
+    final long length = file.length();
+    final byte[] contents = read(file);
+    if (contents == null) {
+      cache.remove(filePath);
+      return null;
+    }
+    final Properties props = new Properties();
+    try {
+      props.load(new ByteArrayInputStream(contents));
+    } catch (final IOException e) {
+      throw new IllegalStateException("Could not load properties", e);
+    }
+
+    final Map<String, String> properties = new HashMap<String, String>();
+    for (final String key : props.stringPropertyNames()) {
+      properties.put(key, props.getProperty(key));
+    }
+    final Map<String, String> unmodifiableProperties = Collections.unmodifiableMap(properties);
+    cache.put(filePath, new CachedProperties(lastModified, length, checksum(contents), verified,
+        unmodifiableProperties));
+    return unmodifiableProperties;
+  }
+}
@@ -0,0 +1,127 @@
+package org.springframework.roo.propfiles.manager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit test of {@link PropertiesCache}
+ *
+ * @since 2.0.1
+ */
+public class PropertiesCacheTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private PropertiesCache cache;
+  private File file;
+
+  private void write(final String contents, final long lastModified) throws Exception {
+    FileUtils.writeStringToFile(file, contents, "ISO-8859-1");
+    file.setLastModified(lastModified);
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    cache = new PropertiesCache();
+    file = new File(folder.getRoot(), "application.properties");
+  }
+
+  @Test
+  public void testMissingFileHasNoProperties() {
+    assertNull(cache.getProperties(file.getPath()));
+  }
+
+  @Test
+  public void testUnchangedFileIsParsedOnce() throws Exception {
+    // Set up
+    write("a=1", System.currentTimeMillis());
+
+    // Invoke
+    final Map<String, String> properties = cache.getProperties(file.getPath());
+
+    // Check
+    assertEquals("1", properties.get("a"));
+    assertSame(properties, cache.getProperties(file.getPath()));
+  }
+
+  @Test
+  public void testRewriteWithinTheTimestampPrecisionIsDetected() throws Exception {
+    // Set up
+    final long lastModified = System.currentTimeMillis() / 1000 * 1000;
+    write("a=1", lastModified);
+    cache.getProperties(file.getPath());
+
+    // Invoke
+    write("a=2", lastModified);
+
+    // Check
+    assertEquals("2", cache.getProperties(file.getPath()).get("a"));
+  }
+
+  @Test
+  public void testChangedLengthIsDetected() throws Exception {
+    // Set up
+    final long lastModified = System.currentTimeMillis() - 60000;
+    write("a=1", lastModified);
+    cache.getProperties(file.getPath());
+
+    // Invoke
+    write("a=10", lastModified);
+
+    // Check
+    assertEquals("10", cache.getProperties(file.getPath()).get("a"));
+  }
+
+  @Test
+  public void testChangedTimestampIsDetected() throws Exception {
+    // Set up
+    final long lastModified = System.currentTimeMillis() - 60000;
+    write("a=1", lastModified);
+    cache.getProperties(file.getPath());
+
+    // Invoke
+    write("a=2", lastModified + 1000);
+
+    // Check
+    assertEquals("2", cache.getProperties(file.getPath()).get("a"));
+  }
+
+  @Test
+  public void testDeletedFileHasNoProperties() throws Exception {
+    // Set up
+    write("a=1", System.currentTimeMillis());
+    cache.getProperties(file.getPath());
+
+    // Invoke
+    file.delete();
+
+    // Check
+    assertNull(cache.getProperties(file.getPath()));
+  }
+
+  @Test
+  public void testEvictedViewIsParsedAgain() throws Exception {
+    // Set up
+    final long lastModified = System.currentTimeMillis() - 60000;
+    write("a=1", lastModified);
+    cache.getProperties(file.getPath());
+    write("a=2", lastModified);
+
+    // Invoke
+    cache.evict(file.getPath());
+
+    // Check
+    assertEquals("2", cache.getProperties(file.getPath()).get("a"));
+  }
+}
@@ -0,0 +1,112 @@
+package org.springframework.roo.shell;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The options of a command method, compiled once so that parsing a command
+ * does not repeat the reflective lookups of its {@link CliOption}s, nor ask
+ * every {@link Converter} whether it supports each option.
+ * <p>
+ * A schema is only valid for the set of converters it was compiled with;
+ * {@link SimpleParser} discards its schemas whenever that set changes.
+ *
+ * @since 2.0.1
+ */
+class OptionSchema {
+
+  private final List<CliOption> cliOptions;
+  private final Converter<?>[] converters;
+  private final Set<String> keys;
+  private final Class<?>[] parameterTypes;
+
+  /**
+   * Constructor
+   *
+   * @param method the command method (required)
+   * @param availableConverters the converters to pre-resolve each option's
+   *            converter from, in lookup order (required)
+   */
+  OptionSchema(final Method method, final Collection<Converter<?>> availableConverters) {
+    final Set<CliOption> options = new LinkedHashSet<CliOption>();
+    for (final Annotation[] annotations : method.getParameterAnnotations()) {
+      for (final Annotation annotation : annotations) {
+        if (annotation instanceof CliOption) {
+          options.add((CliOption) annotation);
+        }
+      }
+    }
+    cliOptions = Collections.unmodifiableList(new ArrayList<CliOption>(options));
+    parameterTypes = method.getParameterTypes();
+    converters = new Converter<?>[cliOptions.size()];
+    final Set<String> allKeys = new LinkedHashSet<String>();
+    for (int i = 0; i < cliOptions.size(); i++) {
+      final CliOption cliOption = cliOptions.get(i);
+      for (final String key : cliOption.key()) {
+        allKeys.add(key);
+      }
+      if (i < parameterTypes.length && !cliOption.systemProvided()) {
+        for (final Converter<?> candidate : availableConverters) {
+          if (candidate.supports(parameterTypes[i], cliOption.optionContext())) {
+            converters[i] = candidate;
+            break;
+          }
+        }
+      }
+    }
+    keys = Collections.unmodifiableSet(allKeys);
+  }
+
+  /**
+   * Returns the options of the command, in parameter order
+   *
+   * @return a non-<code>null</code> list
+   */
+  List<CliOption> getCliOptions() {
+    return cliOptions;
+  }
+
+  /**
+   * Returns the converter resolved for the option at the given index
+   *
+   * @param index the option index
+   * @return <code>null</code> if no converter supports that option
+   */
+  Converter<?> getConverter(final int index) {
+    return converters[index];
+  }
+
+  /**
+   * Returns every key and alias of the command's options
+   *
+   * @return a non-<code>null</code> set
+   */
+  Set<String> getKeys() {
+    return keys;
+  }
+
+  /**
+   * Returns the type of the parameter at the given index
+   *
+   * @param index the parameter index
+   * @return a non-<code>null</code> type
+   */
+  Class<?> getParameterType(final int index) {
+    return parameterTypes[index];
+  }
+
+  /**
+   * Indicates whether the command method takes any parameters
+   *
+   * @return see above
+   */
+  boolean hasParameters() {
+    return parameterTypes.length > 0;
+  }
+}
@@ -0,0 +1,235 @@
+package org.springframework.roo.shell;
+
+import static org.springframework.roo.shell.CliOption.EMPTY;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Single-pass tokenizer of shell input, working over a reusable character
+ * buffer so that parsing a command costs time linear in its length, with no
+ * regular expressions and no intermediate token strings.
+ * <p>
+ * The tokens produced are the same as those of the original space-splitting
+ * algorithm documented in {@link ParserUtils#tokenize(String)}.
+ * <p>
+ * Instances are not thread-safe; callers either create one per use or guard
+ * a shared instance (as {@link SimpleParser} does with its mutex).
+ *
+ * @since 2.0.1
+ */
+class OptionTokenizer {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  private char[] buffer = new char[INITIAL_CAPACITY];
+  private final StringBuilder currentOption = new StringBuilder();
+  private final StringBuilder currentValue = new StringBuilder();
+  private int length;
+
+  private boolean isBlank(final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      if (buffer[i] > ' ') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void load(final String text) {
+    length = text.length();
+    if (buffer.length < length) {
+      buffer = new char[Math.max(length, buffer.length * 2)];
+    }
+    text.getChars(0, length, buffer, 0);
+  }
+
+  /**
+   * Replaces every run of spaces in the given input with a single space and
+   * trims it, in a single pass
+   *
+   * @param rawInput the input to normalise (required)
+   * @return a non-<code>null</code> string
+   */
+  String normalise(final String rawInput) {
+    load(rawInput);
+    int normalisedLength = 0;
+    for (int i = 0; i < length; i++) {
+      final char c = buffer[i];
+      if (c == ' ' && normalisedLength > 0 && buffer[normalisedLength - 1] == ' ') {
+        continue;
+      }
+      buffer[normalisedLength++] = c;
+    }
+    int start = 0;
+    while (start < normalisedLength && buffer[start] <= ' ') {
+      start++;
+    }
+    int end = normalisedLength;
+    while (end > start && buffer[end - 1] <= ' ') {
+      end--;
+    }
+    return new String(buffer, start, end - start);
+  }
+
+  private void reset() {
+    currentOption.setLength(0);
+    currentValue.setLength(0);
+  }
+
+  private void store(final Map<String, String> results) {
+    if (currentOption.length() > 0) {
+      // There is an option marker
+      final String option = currentOption.toString();
+      Validate.isTrue(!results.containsKey(option), "You cannot specify option '" + option
+          + "' more than once in a single command");
+      results.put(option, currentValue.toString());
+    } else {
+      // There was no option marker, so verify this isn't the first
+      Validate.isTrue(!results.containsKey(""),
+          "You cannot add more than one default option ('%s') in a single command",
+          currentValue.toString());
+      results.put("", currentValue.toString());
+    }
+  }
+
+  /**
+   * Converts a particular buffer into a tokenized structure, as described by
+   * {@link ParserUtils#tokenize(String)}
+   *
+   * @param remainingBuffer to tokenize
+   * @return a Map where keys are the option names (minus any dashes) and
+   *         values are the option values (any double-quotes are removed)
+   */
+  Map<String, String> tokenize(final String remainingBuffer) {
+    Validate.notNull(remainingBuffer, "Remaining buffer cannot be null, although it can be empty");
+    final Map<String, String> result = new LinkedHashMap<String, String>();
+    load(remainingBuffer);
+
+    // Verify correct number of double quotes are present
+    int count = 0;
+    for (int i = 0; i < length; i++) {
+      if ('"' == buffer[i]) {
+        count++;
+      }
+    }
+    Validate.isTrue(count % 2 == 0, "Cannot have an unbalanced number of quotation marks");
+
+    if (isBlank(0, length)) {
+      // They've not specified anything, so exit now
+      return result;
+    }
+
+    // Tokens are separated by single spaces; as with String#split, trailing
+    // empty tokens are ignored
+    int limit = length;
+    while (limit > 0 && buffer[limit - 1] == ' ') {
+      limit--;
+    }
+
+    reset();
+    boolean inQuotes = false;
+    int start = 0;
+    while (true) {
+      int end = start;
+      while (end < limit && buffer[end] != ' ') {
+        end++;
+      }
+      final int tokenLength = end - start;
+      final boolean lastToken = end == limit;
+      final boolean startsWithQuote = tokenLength > 0 && buffer[start] == '"';
+      final boolean endsWithQuote = tokenLength > 0 && buffer[end - 1] == '"';
+
+      if (startsWithQuote && endsWithQuote && tokenLength > 1) {
+        currentValue.append(buffer, start + 1, tokenLength - 2);
+
+        // If the current value is an empty string that means the
+        // user has explicitly set it as such so mark it as empty
+        // so that it doesn't get replaced by null or a default
+        // value during parsing.
+        if (currentValue.length() == 0) {
+          currentValue.append(EMPTY);
+        }
+
+        // Store this token
+        store(result);
+        reset();
+      } else if (inQuotes) {
+        // We're only interested in this token series ending
+        if (endsWithQuote) {
+          currentValue.append(' ').append(buffer, start, tokenLength - 1);
+          inQuotes = false;
+
+          // Store this now-ended token series
+          store(result);
+          reset();
+        } else {
+          // The current token series has not ended
+          currentValue.append(' ').append(buffer, start, tokenLength);
+        }
+      } else if (startsWithQuote) {
+        // We're about to start a new delimited token
+        currentValue.append(buffer, start + 1, tokenLength - 1);
+        inQuotes = true;
+      } else if (isBlank(start, end)) {
+        // It's simply empty, so ignore it (ROO-23)
+      } else if (tokenLength > 1 && buffer[start] == '-' && buffer[start + 1] == '-') {
+        // We're about to start a new option marker
+        // First strip all of the - or -- or however many there are
+        int lastDash = end - 1;
+        while (buffer[lastDash] != '-') {
+          lastDash--;
+        }
+        currentOption.append(buffer, lastDash + 1, end - lastDash - 1);
+
+        // Store this token if it's the last one, or the next token
+        // starts with a "-"
+        if (lastToken) {
+          store(result);
+          break;
+        }
+        if (buffer[end + 1] == '-') {
+          store(result);
+          reset();
+        }
+      } else if (currentOption.length() == 0) {
+        // If the standard token has no option name, we allow it to
+        // contain unquoted spaces
+        if (currentValue.length() > 0) {
+          currentValue.append(' ');
+        }
+        currentValue.append(buffer, start, tokenLength);
+
+        // Store this token if it's the last one, or the next token
+        // starts with a "--"
+        if (lastToken) {
+          store(result);
+          break;
+        }
+        if (end + 2 < limit && buffer[end + 1] == '-' && buffer[end + 2] == '-') {
+          store(result);
+          reset();
+        }
+      } else {
+        // This is an ordinary token, so store it now
+        currentValue.append(buffer, start, tokenLength);
+        store(result);
+        reset();
+      }
+
+      if (lastToken) {
+        break;
+      }
+      start = end + 1;
+    }
+
+    // Strip out an empty default option, if it was returned (ROO-379)
+    if (result.containsKey("") && result.get("").trim().equals("")) {
+      result.remove("");
+    }
+
+    return result;
+  }
+}
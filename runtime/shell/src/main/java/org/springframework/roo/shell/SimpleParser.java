@@ -155,6 +155,8 @@ public class SimpleParser implements Parser {
       new HashMap<String, MethodTarget>();
   private final Set<CommandMarker> commands = new HashSet<CommandMarker>();
   private final Set<Converter<?>> converters = new HashSet<Converter<?>>();
+  private final Map<Method, OptionSchema> optionSchemas = new HashMap<Method, OptionSchema>();
+  private final OptionTokenizer tokenizer = new OptionTokenizer();
 
   // ROO-3697: Include global parameters in all Spring Roo commands.
   private final List<String> globalParameters = new ArrayList<String>();
@@ -269,6 +271,7 @@ public class SimpleParser implements Parser {
   public final void add(final Converter<?> converter) {
     synchronized (mutex) {
       converters.add(converter);
+      optionSchemas.clear();
     }
   }
 
@@ -366,7 +369,7 @@ public class SimpleParser implements Parser {
       // Make a reasonable attempt at parsing the remainingBuffer
       Map<String, String> options;
       try {
-        options = ParserUtils.tokenize(methodTarget.getRemainingBuffer());
+        options = tokenizer.tokenize(methodTarget.getRemainingBuffer());
       } catch (final IllegalArgumentException ex) {
         // Assume any IllegalArgumentException is due to a quotation
         // mark mismatch
@@ -786,10 +789,12 @@ public class SimpleParser implements Parser {
                           .getOrder()));
                 } else {
                   // Only add the result **if** what they've
-                  // typed is compatible *AND* they haven't
-                  // already typed it in full
-                  if (currentValue.getValue().toLowerCase()
-                      .startsWith(lastOptionValue.toLowerCase())
+                  // typed is compatible (as a prefix or a camel-case
+                  // abbreviation) *AND* they haven't already typed it
+                  // in full
+                  if ((currentValue.getValue().toLowerCase()
+                      .startsWith(lastOptionValue.toLowerCase()) || ParserUtils.isCamelCaseMatch(
+                      lastOptionValue, currentValue.getValue()))
                       && !lastOptionValue.equalsIgnoreCase(currentValue.getValue())
                       && lastOptionValue.length() < currentValue.getValue().length()) {
                     results.add(new Completion(prefix + currentValue.getValue() + suffix,
@@ -1007,19 +1012,6 @@ public class SimpleParser implements Parser {
     return availabilityIndicators.get(command);
   }
 
-  private Set<CliOption> getCliOptions(final Annotation[][] parameterAnnotations) {
-    final Set<CliOption> cliOptions = new LinkedHashSet<CliOption>();
-    for (final Annotation[] annotations : parameterAnnotations) {
-      for (final Annotation annotation : annotations) {
-        if (annotation instanceof CliOption) {
-          final CliOption cliOption = (CliOption) annotation;
-          cliOptions.add(cliOption);
-        }
-      }
-    }
-    return cliOptions;
-  }
-
   /**
    * This method loads converters and commands if needed
    */
@@ -1052,6 +1044,7 @@ public class SimpleParser implements Parser {
       if (converters.isEmpty() || hasToReloadComponents()) {
         // Cleaning converters
         converters.clear();
+        optionSchemas.clear();
         // Get all Services implement Converter interface
         try {
           ServiceReference<?>[] references =
@@ -1099,15 +1092,8 @@ public class SimpleParser implements Parser {
 
 
 
-  private Set<String> getSpecifiedUnavailableOptions(final Set<CliOption> cliOptions,
+  private Set<String> getSpecifiedUnavailableOptions(final Set<String> cliOptionKeySet,
       final Map<String, String> options) {
-    final Set<String> cliOptionKeySet = new LinkedHashSet<String>();
-    for (final CliOption cliOption : cliOptions) {
-      for (final String key : cliOption.key()) {
-        cliOptionKeySet.add(key);
-      }
-    }
-
     final Set<String> unavailableOptions = new LinkedHashSet<String>();
     for (final String suppliedOption : options.keySet()) {
       // ROO-3697: Check if current parameter is a global parameter.
@@ -1201,8 +1187,26 @@ public class SimpleParser implements Parser {
    * @return a non-<code>null</code> string
    */
   String normalise(final String rawInput) {
-    // Replace all multiple spaces with a single space and then trim
-    return rawInput.replaceAll(" +", " ").trim();
+    synchronized (mutex) {
+      // Replace all multiple spaces with a single space and then trim
+      return tokenizer.normalise(rawInput);
+    }
+  }
+
+  /**
+   * Returns the compiled options of the given command method, compiling them
+   * the first time they're needed for the current set of converters
+   * 
+   * @param method the command method (required)
+   * @return a non-<code>null</code> schema
+   */
+  private OptionSchema getOptionSchema(final Method method) {
+    OptionSchema optionSchema = optionSchemas.get(method);
+    if (optionSchema == null) {
+      optionSchema = new OptionSchema(method, converters);
+      optionSchemas.put(method, optionSchema);
+    }
+    return optionSchema;
   }
 
   public ParseResult parse(final String rawInput) {
@@ -1240,9 +1244,8 @@ public class SimpleParser implements Parser {
       final MethodTarget methodTarget = matchingTargets.iterator().next();
 
       // Argument conversion time
-      final Annotation[][] parameterAnnotations =
-          methodTarget.getMethod().getParameterAnnotations();
-      if (parameterAnnotations.length == 0) {
+      final OptionSchema optionSchema = getOptionSchema(methodTarget.getMethod());
+      if (!optionSchema.hasParameters()) {
         // No args
         return new ParseResult(methodTarget.getMethod(), methodTarget.getTarget(), null);
       }
@@ -1254,7 +1257,7 @@ public class SimpleParser implements Parser {
       // Attempt to parse
       Map<String, String> options = null;
       try {
-        options = ParserUtils.tokenize(methodTarget.getRemainingBuffer());
+        options = tokenizer.tokenize(methodTarget.getRemainingBuffer());
       } catch (final IllegalArgumentException e) {
         LOGGER.warning(StringUtils.defaultIfBlank(ExceptionUtils.getRootCauseMessage(e),
             e.getMessage()));
@@ -1272,10 +1275,10 @@ public class SimpleParser implements Parser {
         shellContext.setParameter(parameter, value);
       }
 
-      final Set<CliOption> cliOptions = getCliOptions(parameterAnnotations);
+      final List<CliOption> cliOptions = optionSchema.getCliOptions();
       for (final CliOption cliOption : cliOptions) {
-        final Class<?> requiredType =
-            methodTarget.getMethod().getParameterTypes()[arguments.size()];
+        final int optionIndex = arguments.size();
+        final Class<?> requiredType = optionSchema.getParameterType(optionIndex);
 
         // Validate visibility and values
         if (options.keySet().contains(cliOption.key()[0])) {
@@ -1366,14 +1369,8 @@ public class SimpleParser implements Parser {
           CliOptionContext.setOptionContext(cliOption.optionContext());
           CliSimpleParserContext.setSimpleParserContext(this);
           Object result;
-          Converter<?> c = null;
-          for (final Converter<?> candidate : converters) {
-            if (candidate.supports(requiredType, cliOption.optionContext())) {
-              // Found a usable converter
-              c = candidate;
-              break;
-            }
-          }
+          // The usable converter was found when compiling the options
+          final Converter<?> c = optionSchema.getConverter(optionIndex);
           if (c == null) {
             throw new IllegalStateException("TODO: Add basic type conversion");
             // TODO Fall back to a normal SimpleTypeConverter and
@@ -1410,7 +1407,8 @@ public class SimpleParser implements Parser {
 
       // Check for options specified by the user but are unavailable for
       // the command
-      final Set<String> unavailableOptions = getSpecifiedUnavailableOptions(cliOptions, options);
+      final Set<String> unavailableOptions =
+          getSpecifiedUnavailableOptions(optionSchema.getKeys(), options);
       if (!unavailableOptions.isEmpty()) {
         final StringBuilder message = new StringBuilder();
         if (unavailableOptions.size() == 1) {
@@ -1720,6 +1718,7 @@ public class SimpleParser implements Parser {
   public final void remove(final Converter<?> converter) {
     synchronized (mutex) {
       converters.remove(converter);
+      optionSchemas.clear();
     }
   }
 
@@ -0,0 +1,79 @@
+package org.springframework.roo.shell;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.roo.shell.CliOption.EMPTY;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test of {@link OptionTokenizer}
+ *
+ * @since 2.0.1
+ */
+public class OptionTokenizerTest {
+
+  // Fixture
+  private OptionTokenizer tokenizer;
+
+  @Before
+  public void setUp() {
+    tokenizer = new OptionTokenizer();
+  }
+
+  @Test
+  public void testBufferIsReusedForLongerInput() {
+    final StringBuilder longValue = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      longValue.append("word").append(i).append(' ');
+    }
+    tokenizer.tokenize("--a b");
+    final Map<String, String> options =
+        tokenizer.tokenize("--text \"" + longValue.toString().trim() + "\" --b c");
+    assertEquals(longValue.toString().trim(), options.get("text"));
+    assertEquals("c", options.get("b"));
+  }
+
+  @Test
+  public void testDefaultOptionWithSpaces() {
+    final Map<String, String> options = tokenizer.tokenize("foo bar --x y");
+    assertEquals("foo bar", options.get(""));
+    assertEquals("y", options.get("x"));
+  }
+
+  @Test
+  public void testEmptyQuotedValue() {
+    assertEquals(EMPTY, tokenizer.tokenize("--name \"\"").get("name"));
+  }
+
+  @Test
+  public void testNormalise() {
+    assertEquals("web mvc setup", tokenizer.normalise("  web   mvc  setup  "));
+    assertEquals("", tokenizer.normalise("   "));
+  }
+
+  @Test
+  public void testOptionWithoutValue() {
+    final Map<String, String> options = tokenizer.tokenize("--force --class ~.Foo");
+    assertEquals("", options.get("force"));
+    assertEquals("~.Foo", options.get("class"));
+  }
+
+  @Test
+  public void testQuotedValueKeepsInnerSpaces() {
+    assertEquals("a  b", tokenizer.tokenize("--text \"a  b\"").get("text"));
+  }
+
+  @Test
+  public void testSpacesOnly() {
+    assertTrue(tokenizer.tokenize("   ").isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnbalancedQuotes() {
+    tokenizer.tokenize("--text \"a b");
+  }
+}
@@ -255,6 +255,37 @@ public final class XmlRoundTripUtils {
     return true;
   }
 
+  /**
+   * Parses the given XML so that it can later be written by
+   * {@link #writeXmlPreservingFormatting(Document)} without disturbing the
+   * formatting of the parts of it that haven't changed
+   *
+   * @param xml the XML to parse (required)
+   * @return a non-<code>null</code> document
+   * @throws IllegalStateException if the XML can't be parsed
+   * @since 2.0.1
+   */
+  public static Document readXmlPreservingFormatting(final String xml) {
+    Validate.notNull(xml, "XML required");
+    return XmlRoundTripWriter.parse(xml);
+  }
+
+  /**
+   * Writes the given document, rewriting only the text of the elements that
+   * have been added or changed since it was read by
+   * {@link #readXmlPreservingFormatting(String)}; everything else, including
+   * whitespace and comments, is written exactly as it was read. Documents
+   * read any other way are written as by {@link XmlUtils#nodeToString(Node)}.
+   *
+   * @param document the document to write (required)
+   * @return the XML
+   * @since 2.0.1
+   */
+  public static String writeXmlPreservingFormatting(final Document document) {
+    Validate.notNull(document, "Document required");
+    return XmlRoundTripWriter.write(document);
+  }
+
   private static boolean removeElements(final Element original, final Element proposed,
       boolean originalDocumentChanged) {
     final NodeList originalChildren = original.getChildNodes();
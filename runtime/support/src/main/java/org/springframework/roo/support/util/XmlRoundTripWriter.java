@@ -0,0 +1,533 @@
+package org.springframework.roo.support.util;
+
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+/**
+ * Serializes a document back to the text it was parsed from, only rewriting
+ * the parts of that text whose nodes have changed.
+ * <p>
+ * When a document is parsed by {@link #parse(String)}, the span of text of
+ * each element is recorded, together with a digest of its contents. When the
+ * document is written by {@link #write(Document)}, any element whose digest
+ * is unchanged is copied verbatim from the original text, so that formatting,
+ * comments and entity references are kept; only changed elements are
+ * serialized again, and new elements are indented like their siblings.
+ * Whitespace between elements is not significant to the digests, so a
+ * document that has not been changed is written back exactly as it was read.
+ *
+ * @since 2.0.1
+ */
+final class XmlRoundTripWriter {
+
+  /**
+   * The original text of an element
+   */
+  private static class Span {
+
+    private String digest;
+    private int end;
+    private final boolean selfClosing;
+    private final int start;
+    private String startTagSignature;
+    private final int startTagEnd;
+    private final String text;
+
+    Span(final String text, final int start, final int startTagEnd, final int end,
+        final boolean selfClosing) {
+      this.text = text;
+      this.start = start;
+      this.startTagEnd = startTagEnd;
+      this.end = end;
+      this.selfClosing = selfClosing;
+    }
+  }
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final String DEFAULT_INDENT = "    ";
+  private static final String ORIGINAL_TEXT = XmlRoundTripWriter.class.getName() + ".text";
+  private static final String SPAN = XmlRoundTripWriter.class.getName() + ".span";
+
+  private static String escape(final String text, final boolean attribute) {
+    final StringBuilder escaped = new StringBuilder(text.length());
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          escaped.append("&amp;");
+          break;
+        case '<':
+          escaped.append("&lt;");
+          break;
+        case '>':
+          escaped.append("&gt;");
+          break;
+        case '"':
+          escaped.append(attribute ? "&quot;" : "\"");
+          break;
+        default:
+          escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+
+  private static void addComments(final Node node, final List<Node> comments) {
+    final NodeList children = node.getChildNodes();
+    for (int i = 0; i < children.getLength(); i++) {
+      final Node child = children.item(i);
+      if (child.getNodeType() == Node.COMMENT_NODE) {
+        comments.add(child);
+      } else {
+        addComments(child, comments);
+      }
+    }
+  }
+
+  private static List<Element> getElements(final Document document) {
+    final NodeList elements = document.getElementsByTagName("*");
+    final List<Element> result = new ArrayList<Element>(elements.getLength());
+    for (int i = 0; i < elements.getLength(); i++) {
+      result.add((Element) elements.item(i));
+    }
+    return result;
+  }
+
+  /**
+   * Returns a digest of the given element's name, attributes and contents,
+   * ignoring whitespace between elements
+   */
+  private static String getDigest(final Element element, final MessageDigest messageDigest) {
+    final StringBuilder contents = new StringBuilder(getStartTagSignature(element));
+    final NodeList children = element.getChildNodes();
+    for (int i = 0; i < children.getLength(); i++) {
+      final Node child = children.item(i);
+      switch (child.getNodeType()) {
+        case Node.ELEMENT_NODE:
+          contents.append("E").append(getDigest((Element) child, messageDigest));
+          break;
+        case Node.TEXT_NODE:
+          if (!isWhitespace(child)) {
+            contents.append("T").append(child.getNodeValue().length()).append(':')
+                .append(child.getNodeValue());
+          }
+          break;
+        case Node.CDATA_SECTION_NODE:
+          contents.append("D").append(child.getNodeValue().length()).append(':')
+              .append(child.getNodeValue());
+          break;
+        case Node.COMMENT_NODE:
+          contents.append("C").append(child.getNodeValue().length()).append(':')
+              .append(child.getNodeValue());
+          break;
+        default:
+          contents.append("N").append(child.getNodeName()).append('=')
+              .append(child.getNodeValue());
+      }
+    }
+    messageDigest.reset();
+    final byte[] digest = messageDigest.digest(contents.toString().getBytes(UTF_8));
+    final StringBuilder hex = new StringBuilder(digest.length * 2);
+    for (final byte b : digest) {
+      hex.append(Character.forDigit(b >> 4 & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Returns the indentation at the end of the given whitespace, i.e. after
+   * its last line break
+   */
+  private static String getIndent(final String whitespace) {
+    final int lastLineBreak = Math.max(whitespace.lastIndexOf('\n'), whitespace.lastIndexOf('\r'));
+    return lastLineBreak < 0 ? null : whitespace.substring(lastLineBreak + 1);
+  }
+
+  private static MessageDigest getMessageDigest() {
+    try {
+      return MessageDigest.getInstance("sha-1");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static Span getSpan(final Node node, final String originalText) {
+    final Span span = (Span) node.getUserData(SPAN);
+    // Ignore the span of an element adopted from another document
+    return span != null && span.text == originalText ? span : null;
+  }
+
+  private static String getStartTagSignature(final Element element) {
+    final NamedNodeMap attributes = element.getAttributes();
+    final String[] sortedAttributes = new String[attributes.getLength()];
+    for (int i = 0; i < attributes.getLength(); i++) {
+      sortedAttributes[i] =
+          attributes.item(i).getNodeName() + "=\"" + attributes.item(i).getNodeValue() + "\"";
+    }
+    Arrays.sort(sortedAttributes);
+    return element.getNodeName() + " " + StringUtils.join(sortedAttributes, ' ');
+  }
+
+  private static boolean isWhitespace(final Node node) {
+    return node.getNodeType() == Node.TEXT_NODE && StringUtils.isBlank(node.getNodeValue());
+  }
+
+  /**
+   * Parses the given XML, recording the text of each element so that
+   * {@link #write(Document)} can preserve it
+   *
+   * @param xml the XML to parse (required)
+   * @return a non-<code>null</code> document
+   * @throws IllegalStateException if the XML can't be parsed
+   */
+  static Document parse(final String xml) {
+    final Document document;
+    try {
+      document = XmlUtils.getDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    } catch (final Exception e) {
+      throw new IllegalStateException(e);
+    }
+
+    final List<Span> comments = new ArrayList<Span>();
+    final List<Span> spans = scan(xml, comments);
+    final List<Element> elements = getElements(document);
+    if (spans == null || spans.size() != elements.size()) {
+      // Elements came from entities, or the text couldn't be scanned; this
+      // document will be written in full
+      return document;
+    }
+    final MessageDigest messageDigest = getMessageDigest();
+    for (int i = 0; i < spans.size(); i++) {
+      final Span span = spans.get(i);
+      final Element element = elements.get(i);
+      span.digest = getDigest(element, messageDigest);
+      span.startTagSignature = getStartTagSignature(element);
+      element.setUserData(SPAN, span, null);
+    }
+    // Comments only need their position, to be put back on their lines
+    final List<Node> commentNodes = new ArrayList<Node>();
+    addComments(document, commentNodes);
+    if (commentNodes.size() == comments.size()) {
+      for (int i = 0; i < comments.size(); i++) {
+        commentNodes.get(i).setUserData(SPAN, comments.get(i), null);
+      }
+    }
+    document.setUserData(ORIGINAL_TEXT, xml, null);
+    return document;
+  }
+
+  /**
+   * Locates the text of every element of the given XML, in document order
+   *
+   * @param comments the list to which to add the text of every comment
+   * @return <code>null</code> if the XML is not well formed
+   */
+  private static List<Span> scan(final String xml, final List<Span> comments) {
+    final List<Span> spans = new ArrayList<Span>();
+    final LinkedList<Span> open = new LinkedList<Span>();
+    int i = xml.indexOf('<');
+    while (i >= 0) {
+      int next;
+      if (xml.startsWith("<!--", i)) {
+        next = endOf(xml, "-->", i + 4);
+        if (next >= 0) {
+          comments.add(new Span(xml, i, next, next, true));
+        }
+      } else if (xml.startsWith("<![CDATA[", i)) {
+        next = endOf(xml, "]]>", i + 9);
+      } else if (xml.startsWith("<?", i)) {
+        next = endOf(xml, "?>", i + 2);
+      } else if (xml.startsWith("<!", i)) {
+        next = endOfMarkup(xml, i, true);
+      } else if (xml.startsWith("</", i)) {
+        next = endOf(xml, ">", i + 2);
+        if (next < 0 || open.isEmpty()) {
+          return null;
+        }
+        open.pop().end = next;
+      } else {
+        next = endOfMarkup(xml, i, false);
+        if (next < 0) {
+          return null;
+        }
+        final boolean selfClosing = xml.charAt(next - 2) == '/';
+        final Span span = new Span(xml, i, next, next, selfClosing);
+        spans.add(span);
+        if (!selfClosing) {
+          open.push(span);
+        }
+      }
+      if (next < 0) {
+        return null;
+      }
+      i = xml.indexOf('<', next);
+    }
+    return open.isEmpty() ? spans : null;
+  }
+
+  private static int endOf(final String xml, final String terminator, final int from) {
+    final int index = xml.indexOf(terminator, from);
+    return index < 0 ? -1 : index + terminator.length();
+  }
+
+  /**
+   * Returns the index after the '>' closing the tag or declaration starting
+   * at the given index, skipping quoted values (and, in declarations, any
+   * internal subset)
+   */
+  private static int endOfMarkup(final String xml, final int start, final boolean declaration) {
+    char quote = 0;
+    int brackets = 0;
+    for (int i = start + 1; i < xml.length(); i++) {
+      final char c = xml.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '"' || c == '\'') {
+        quote = c;
+      } else if (declaration && c == '[') {
+        brackets++;
+      } else if (declaration && c == ']') {
+        brackets--;
+      } else if (c == '>' && brackets == 0) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Writes the given document, preserving the original text of any part of
+   * it that has not changed since it was parsed by {@link #parse(String)}
+   *
+   * @param document the document to write (required)
+   * @return the XML; the document's original text if it has not changed
+   */
+  static String write(final Document document) {
+    final String originalText = (String) document.getUserData(ORIGINAL_TEXT);
+    final Element root = document.getDocumentElement();
+    if (originalText == null || root == null || getSpan(root, originalText) == null) {
+      return XmlUtils.nodeToString(document);
+    }
+    return new XmlRoundTripWriter(originalText).writeDocument(root);
+  }
+
+  private final String indentUnit;
+  private final String lineSeparator;
+  private final MessageDigest messageDigest = getMessageDigest();
+  private final StringBuilder out = new StringBuilder();
+  private final String text;
+
+  private XmlRoundTripWriter(final String text) {
+    this.text = text;
+    lineSeparator = text.contains("\r\n") ? "\r\n" : "\n";
+    indentUnit = detectIndentUnit(text);
+  }
+
+  /**
+   * Returns the indentation of the first indented line of the given text
+   */
+  private String detectIndentUnit(final String xml) {
+    int lineStart = xml.indexOf('\n');
+    while (lineStart >= 0 && lineStart + 1 < xml.length()) {
+      int indentEnd = lineStart + 1;
+      while (indentEnd < xml.length()
+          && (xml.charAt(indentEnd) == ' ' || xml.charAt(indentEnd) == '\t')) {
+        indentEnd++;
+      }
+      if (indentEnd > lineStart + 1 && indentEnd < xml.length() && xml.charAt(indentEnd) == '<') {
+        return xml.substring(lineStart + 1, indentEnd);
+      }
+      lineStart = xml.indexOf('\n', lineStart + 1);
+    }
+    return DEFAULT_INDENT;
+  }
+
+  /**
+   * Returns the whitespace preceding the given index of the original text
+   *
+   * @return <code>null</code> if there is none
+   */
+  private String getOriginalWhitespace(final int index) {
+    int start = index;
+    while (start > 0 && Character.isWhitespace(text.charAt(start - 1))) {
+      start--;
+    }
+    return start == index ? null : text.substring(start, index);
+  }
+
+  private void newLine(final String indent) {
+    out.append(lineSeparator).append(indent);
+  }
+
+  private String writeDocument(final Element root) {
+    final Span rootSpan = getSpan(root, text);
+    out.append(text, 0, rootSpan.start);
+    writeElement(root, "");
+    out.append(text, rootSpan.end, text.length());
+    return out.toString();
+  }
+
+  private void writeElement(final Element element, final String indent) {
+    final Span span = getSpan(element, text);
+    if (span == null) {
+      writeNewNode(element, indent);
+      return;
+    }
+    if (span.digest.equals(getDigest(element, messageDigest))) {
+      out.append(text, span.start, span.end);
+      return;
+    }
+
+    final boolean hasChildren = element.hasChildNodes();
+    if (!span.selfClosing && span.startTagSignature.equals(getStartTagSignature(element))) {
+      out.append(text, span.start, span.startTagEnd);
+    } else {
+      writeStartTag(element, !hasChildren);
+      if (!hasChildren) {
+        return;
+      }
+    }
+
+    String childIndent = indent + indentUnit;
+    // Removed elements leave runs of whitespace; the first of a run is kept
+    // before the next node, the last before the end tag. Where whitespace was
+    // removed (e.g. by DomUtils#removeTextNodes), original nodes go back on
+    // the whitespace they had.
+    String leadingWhitespace = null;
+    String trailingWhitespace = null;
+    boolean lastWasNew = false;
+    boolean wroteChild = false;
+    final NodeList children = element.getChildNodes();
+    for (int i = 0; i < children.getLength(); i++) {
+      final Node child = children.item(i);
+      if (isWhitespace(child)) {
+        if (leadingWhitespace == null) {
+          leadingWhitespace = child.getNodeValue();
+        }
+        trailingWhitespace = child.getNodeValue();
+        continue;
+      }
+      final Span childSpan = getSpan(child, text);
+      final boolean isNew = child.getNodeType() == Node.ELEMENT_NODE && childSpan == null;
+      String leadingIndent = leadingWhitespace == null ? null : getIndent(leadingWhitespace);
+      if (leadingWhitespace == null && childSpan != null) {
+        leadingWhitespace = getOriginalWhitespace(childSpan.start);
+        leadingIndent = leadingWhitespace == null ? null : getIndent(leadingWhitespace);
+      }
+      if (leadingIndent == null) {
+        if (leadingWhitespace != null) {
+          out.append(leadingWhitespace);
+        } else if (isNew || lastWasNew) {
+          newLine(childIndent);
+        }
+      } else if (isNew) {
+        // Indented like its siblings, even when appended after the
+        // whitespace preceding the end tag
+        out.append(leadingWhitespace, 0, leadingWhitespace.length() - leadingIndent.length())
+            .append(childIndent);
+      } else {
+        out.append(leadingWhitespace);
+        childIndent = leadingIndent;
+      }
+      leadingWhitespace = null;
+      trailingWhitespace = null;
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        writeElement((Element) child, childIndent);
+      } else {
+        writeNewNode(child, childIndent);
+      }
+      lastWasNew = isNew;
+      wroteChild = true;
+    }
+    if (trailingWhitespace == null && wroteChild && !span.selfClosing) {
+      trailingWhitespace = getOriginalWhitespace(text.lastIndexOf('<', span.end - 1));
+    }
+    if (trailingWhitespace != null) {
+      out.append(trailingWhitespace);
+    } else if (lastWasNew) {
+      newLine(indent);
+    }
+    out.append("</").append(element.getNodeName()).append('>');
+  }
+
+  /**
+   * Writes a node that has no original text, indenting any child elements
+   */
+  private void writeNewNode(final Node node, final String indent) {
+    switch (node.getNodeType()) {
+      case Node.ELEMENT_NODE:
+        final NodeList children = node.getChildNodes();
+        boolean hasElementChildren = false;
+        boolean hasContent = false;
+        for (int i = 0; i < children.getLength(); i++) {
+          hasElementChildren |= children.item(i).getNodeType() == Node.ELEMENT_NODE;
+          hasContent |= !isWhitespace(children.item(i));
+        }
+        writeStartTag((Element) node, !hasContent);
+        if (!hasContent) {
+          return;
+        }
+        for (int i = 0; i < children.getLength(); i++) {
+          final Node child = children.item(i);
+          if (hasElementChildren) {
+            if (isWhitespace(child)) {
+              continue;
+            }
+            newLine(indent + indentUnit);
+          }
+          if (child.getNodeType() == Node.ELEMENT_NODE) {
+            // A copy of an original element is still new in this position
+            writeElement((Element) child, indent + indentUnit);
+          } else {
+            writeNewNode(child, indent + indentUnit);
+          }
+        }
+        if (hasElementChildren) {
+          newLine(indent);
+        }
+        out.append("</").append(node.getNodeName()).append('>');
+        break;
+      case Node.TEXT_NODE:
+        out.append(escape(node.getNodeValue(), false));
+        break;
+      case Node.CDATA_SECTION_NODE:
+        out.append("<![CDATA[").append(node.getNodeValue()).append("]]>");
+        break;
+      case Node.COMMENT_NODE:
+        out.append("<!--").append(node.getNodeValue()).append("-->");
+        break;
+      case Node.PROCESSING_INSTRUCTION_NODE:
+        out.append("<?").append(node.getNodeName()).append(' ').append(node.getNodeValue())
+            .append("?>");
+        break;
+      default:
+        out.append(escape(StringUtils.defaultString(node.getTextContent()), false));
+    }
+  }
+
+  private void writeStartTag(final Element element, final boolean empty) {
+    out.append('<').append(element.getNodeName());
+    final NamedNodeMap attributes = element.getAttributes();
+    for (int i = 0; i < attributes.getLength(); i++) {
+      out.append(' ').append(attributes.item(i).getNodeName()).append("=\"")
+          .append(escape(attributes.item(i).getNodeValue(), true)).append('"');
+    }
+    out.append(empty ? "/>" : ">");
+  }
+}
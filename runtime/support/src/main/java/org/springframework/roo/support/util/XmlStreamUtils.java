@@ -0,0 +1,236 @@
+package org.springframework.roo.support.util;
+
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Read-only queries over XML streams that don't build a DOM, for answering
+ * questions about large XML files (such as WSDLs) without loading them into
+ * memory. The stream is only read as far as needed to answer the query.
+ * <p>
+ * Queries are written in the subset of XPath used throughout Roo:
+ * <ul>
+ * <li><code>/a/b/c</code> - elements at an absolute path</li>
+ * <li><code>b/c</code> - a path relative to the root element, as when
+ * {@link XmlUtils#findElements(String, org.w3c.dom.Element)} is given the
+ * document element</li>
+ * <li><code>//c</code> or <code>/a//c</code> - descendants at any depth</li>
+ * <li><code>*</code> - an element with any name</li>
+ * <li><code>c[@name='value']</code> - an element with the given attribute
+ * value</li>
+ * </ul>
+ * As with {@link XmlUtils}, matching is NOT namespace aware: element names are
+ * compared without their prefix, so <code>/definitions/service</code> matches
+ * <code>&lt;wsdl:definitions&gt;&lt;wsdl:service&gt;</code>. Attributes are
+ * returned keyed by their name as written, e.g. <code>xmlns:soap</code>.
+ *
+ * @since 2.0.1
+ */
+public final class XmlStreamUtils {
+
+  /**
+   * One step of a path: an element name (or "*") and an optional attribute
+   * predicate
+   */
+  private static class Step {
+
+    private final String attributeName;
+    private final String attributeValue;
+    private final boolean descendant;
+    private final String name;
+
+    Step(final String name, final String attributeName, final String attributeValue,
+        final boolean descendant) {
+      this.name = name;
+      this.attributeName = attributeName;
+      this.attributeValue = attributeValue;
+      this.descendant = descendant;
+    }
+
+    boolean matches(final String elementName, final Map<String, String> attributes) {
+      if (!"*".equals(name) && !name.equals(elementName)) {
+        return false;
+      }
+      return attributeName == null || attributeValue.equals(attributes.get(attributeName));
+    }
+  }
+
+  private static final Pattern STEP = Pattern
+      .compile("([\\w.\\-:]+|\\*)(?:\\[@([\\w.\\-:]+)\\s*=\\s*(?:'([^']*)'|\"([^\"]*)\")\\])?");
+
+  private static final ThreadLocal<XMLInputFactory> XML_INPUT_FACTORY =
+      new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+          final XMLInputFactory xmlInputFactory = XMLInputFactory.newInstance();
+          xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+          // Queries never need DTDs, and resolving them would need the network
+          xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+          xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+              Boolean.FALSE);
+          return xmlInputFactory;
+        }
+      };
+
+  /**
+   * Returns the attributes of every element matching the given path
+   *
+   * @param inputStream the XML to read (required); it is closed upon
+   *            completion
+   * @param path the path of the elements to find (required)
+   * @return a non-<code>null</code> list of unmodifiable maps, in document
+   *         order
+   * @throws IllegalArgumentException if the path is not supported
+   * @throws IllegalStateException if the XML could not be read
+   */
+  public static List<Map<String, String>> findAllAttributes(final InputStream inputStream,
+      final String path) {
+    return query(inputStream, path, false);
+  }
+
+  /**
+   * Returns the attributes of the first element matching the given path,
+   * reading no further than that element's start tag
+   *
+   * @param inputStream the XML to read (required); it is closed upon
+   *            completion
+   * @param path the path of the element to find (required)
+   * @return an unmodifiable map, or <code>null</code> if no element matches
+   * @throws IllegalArgumentException if the path is not supported
+   * @throws IllegalStateException if the XML could not be read
+   */
+  public static Map<String, String> findFirstAttributes(final InputStream inputStream,
+      final String path) {
+    final List<Map<String, String>> matches = query(inputStream, path, true);
+    return matches.isEmpty() ? null : matches.get(0);
+  }
+
+  private static Map<String, String> getAttributes(final XMLStreamReader reader) {
+    final Map<String, String> attributes = new HashMap<String, String>();
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      final String prefix = reader.getAttributePrefix(i);
+      final String name = reader.getAttributeLocalName(i);
+      attributes.put(StringUtils.isEmpty(prefix) ? name : prefix + ":" + name,
+          reader.getAttributeValue(i));
+    }
+    return attributes;
+  }
+
+  private static String getElementName(final XMLStreamReader reader) {
+    // Depending on the StAX implementation, a prefix is either reported
+    // separately or left in the local name
+    return StringUtils.substringAfterLast(":" + reader.getLocalName(), ":");
+  }
+
+  private static List<Step> parse(final String path) {
+    Validate.notBlank(path, "Path required");
+    String remaining = path.trim();
+    final List<Step> steps = new ArrayList<Step>();
+    if (!remaining.startsWith("/")) {
+      // Relative to the root element
+      steps.add(new Step("*", null, null, false));
+      remaining = "/" + remaining;
+    }
+    while (remaining.length() > 0) {
+      final boolean descendant = remaining.startsWith("//");
+      Validate.isTrue(remaining.startsWith("/"), "Unsupported path '%s'", path);
+      remaining = remaining.substring(descendant ? 2 : 1);
+      final Matcher matcher = STEP.matcher(remaining);
+      Validate.isTrue(matcher.lookingAt(), "Unsupported path '%s'", path);
+      final String attributeValue =
+          matcher.group(3) == null ? matcher.group(4) : matcher.group(3);
+      steps.add(new Step(matcher.group(1), matcher.group(2), attributeValue, descendant));
+      remaining = remaining.substring(matcher.end());
+    }
+    return steps;
+  }
+
+  private static List<Map<String, String>> query(InputStream inputStream, final String path,
+      final boolean firstOnly) {
+    Validate.notNull(inputStream, "InputStream required");
+    final List<Step> steps = parse(path);
+    final List<Map<String, String>> matches = new ArrayList<Map<String, String>>();
+
+    // For each open element, how many steps of the path each way of
+    // reaching it has matched
+    final LinkedList<boolean[]> states = new LinkedList<boolean[]>();
+    final boolean[] documentState = new boolean[steps.size() + 1];
+    documentState[0] = true;
+    states.push(documentState);
+
+    XMLStreamReader reader = null;
+    try {
+      if (!(inputStream instanceof BufferedInputStream)) {
+        inputStream = new BufferedInputStream(inputStream);
+      }
+      reader = XML_INPUT_FACTORY.get().createXMLStreamReader(inputStream);
+      while (reader.hasNext()) {
+        final int event = reader.next();
+        if (event == XMLStreamConstants.END_ELEMENT) {
+          states.pop();
+        } else if (event == XMLStreamConstants.START_ELEMENT) {
+          final String name = getElementName(reader);
+          Map<String, String> attributes = null;
+          final boolean[] parentState = states.peek();
+          final boolean[] state = new boolean[steps.size() + 1];
+          for (int i = 0; i < steps.size(); i++) {
+            if (!parentState[i]) {
+              continue;
+            }
+            final Step step = steps.get(i);
+            if (step.descendant) {
+              // The step may still match a descendant of this element
+              state[i] = true;
+            }
+            if (attributes == null) {
+              attributes = getAttributes(reader);
+            }
+            if (step.matches(name, attributes)) {
+              state[i + 1] = true;
+            }
+          }
+          if (state[steps.size()]) {
+            matches.add(Collections.unmodifiableMap(attributes));
+            if (firstOnly) {
+              break;
+            }
+          }
+          states.push(state);
+        }
+      }
+    } catch (final XMLStreamException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (final XMLStreamException ignored) {
+        }
+      }
+      IOUtils.closeQuietly(inputStream);
+    }
+    return matches;
+  }
+
+  /**
+   * Constructor is private to prevent instantiation
+   */
+  private XmlStreamUtils() {}
+}
@@ -11,7 +11,7 @@ import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -57,11 +57,74 @@ import org.xml.sax.SAXException;
  */
 public final class XmlUtils {
 
-  private static final Map<String, XPathExpression> COMPILED_EXPRESSION_CACHE =
-      new HashMap<String, XPathExpression>();
-  private static final DocumentBuilderFactory FACTORY = DocumentBuilderFactory.newInstance();
-  private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
-  private static final XPath XPATH = XPathFactory.newInstance().newXPath();
+  // None of the JAXP factories, parsers, transformers, XPath objects or
+  // compiled expressions are thread-safe, so each thread gets its own
+
+  /**
+   * The maximum number of compiled XPath expressions kept per thread; the
+   * expressions used by Roo itself are a few hundred at most
+   */
+  private static final int COMPILED_EXPRESSION_CACHE_SIZE = 512;
+
+  private static final ThreadLocal<Map<String, XPathExpression>> COMPILED_EXPRESSION_CACHE =
+      new ThreadLocal<Map<String, XPathExpression>>() {
+        @Override
+        protected Map<String, XPathExpression> initialValue() {
+          return new LinkedHashMap<String, XPathExpression>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, XPathExpression> eldest) {
+              return size() > COMPILED_EXPRESSION_CACHE_SIZE;
+            }
+          };
+        }
+      };
+
+  private static final ThreadLocal<DocumentBuilderFactory> DOCUMENT_BUILDER_FACTORY =
+      new ThreadLocal<DocumentBuilderFactory>() {
+        @Override
+        protected DocumentBuilderFactory initialValue() {
+          return DocumentBuilderFactory.newInstance();
+        }
+      };
+
+  private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER =
+      new ThreadLocal<DocumentBuilder>() {
+        @Override
+        protected DocumentBuilder initialValue() {
+          return getDocumentBuilder();
+        }
+      };
+
+  private static final ThreadLocal<Transformer> INDENTING_TRANSFORMER =
+      new ThreadLocal<Transformer>() {
+        @Override
+        protected Transformer initialValue() {
+          return createIndentingTransformer();
+        }
+      };
+
+  private static final ThreadLocal<TransformerFactory> TRANSFORMER_FACTORY =
+      new ThreadLocal<TransformerFactory>() {
+        @Override
+        protected TransformerFactory initialValue() {
+          final TransformerFactory transformerFactory = TransformerFactory.newInstance();
+          try {
+            transformerFactory.setAttribute("indent-number", 4);
+          } catch (final IllegalArgumentException e) {
+            throw new IllegalStateException(e);
+          }
+          return transformerFactory;
+        }
+      };
+
+  private static final ThreadLocal<XPath> XPATH = new ThreadLocal<XPath>() {
+    @Override
+    protected XPath initialValue() {
+      return XPathFactory.newInstance().newXPath();
+    }
+  };
 
   /**
    * Checks the presented element for illegal characters that could cause
@@ -115,6 +178,26 @@ public final class XmlUtils {
     return nodeToString(node1).equals(nodeToString(node2));
   }
 
+  /**
+   * Returns the compiled form of the given XPath expression, compiling it
+   * only on its first use by the current thread
+   * 
+   * @param xPathExpression the expression to compile (required)
+   * @return a non-<code>null</code> expression, only to be evaluated by the
+   *         current thread
+   * @throws XPathExpressionException if the expression is invalid
+   */
+  private static XPathExpression compile(final String xPathExpression)
+      throws XPathExpressionException {
+    final Map<String, XPathExpression> compiledExpressions = COMPILED_EXPRESSION_CACHE.get();
+    XPathExpression expr = compiledExpressions.get(xPathExpression);
+    if (expr == null) {
+      expr = XPATH.get().compile(xPathExpression);
+      compiledExpressions.put(xPathExpression, expr);
+    }
+    return expr;
+  }
+
   /**
    * Converts a XHTML compliant id (used in jspx) to a CSS3 selector spec
    * compliant id. In that it will replace all '.,:,-' to '_'
@@ -132,13 +215,11 @@ public final class XmlUtils {
   public static Transformer createIndentingTransformer() {
     Transformer transformer;
     try {
-      TRANSFORMER_FACTORY.setAttribute("indent-number", 4);
-      transformer = TRANSFORMER_FACTORY.newTransformer();
+      transformer = TRANSFORMER_FACTORY.get().newTransformer();
     } catch (final Exception e) {
       throw new IllegalStateException(e);
     }
-    transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-    transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+    setIndentation(transformer);
     return transformer;
   }
 
@@ -224,12 +305,7 @@ public final class XmlUtils {
     NodeList nodes = null;
 
     try {
-      XPathExpression expr = COMPILED_EXPRESSION_CACHE.get(xPathExpression);
-      if (expr == null) {
-        expr = XPATH.compile(xPathExpression);
-        COMPILED_EXPRESSION_CACHE.put(xPathExpression, expr);
-      }
-      nodes = (NodeList) expr.evaluate(root, XPathConstants.NODESET);
+      nodes = (NodeList) compile(xPathExpression).evaluate(root, XPathConstants.NODESET);
     } catch (final XPathExpressionException e) {
       throw new IllegalArgumentException("Unable evaluate xpath expression", e);
     }
@@ -251,12 +327,7 @@ public final class XmlUtils {
   public static Node findFirstAttribute(final String xPathExpression, final Element element) {
     Node attr = null;
     try {
-      XPathExpression expr = COMPILED_EXPRESSION_CACHE.get(xPathExpression);
-      if (expr == null) {
-        expr = XPATH.compile(xPathExpression);
-        COMPILED_EXPRESSION_CACHE.put(xPathExpression, expr);
-      }
-      attr = (Node) expr.evaluate(element, XPathConstants.NODE);
+      attr = (Node) compile(xPathExpression).evaluate(element, XPathConstants.NODE);
     } catch (final XPathExpressionException e) {
       throw new IllegalArgumentException("Unable evaluate xpath expression", e);
     }
@@ -313,12 +384,7 @@ public final class XmlUtils {
     Validate.notNull(root, "Root element required");
     Node node = null;
     try {
-      XPathExpression expr = COMPILED_EXPRESSION_CACHE.get(xPathExpression);
-      if (expr == null) {
-        expr = XPATH.compile(xPathExpression);
-        COMPILED_EXPRESSION_CACHE.put(xPathExpression, expr);
-      }
-      node = (Node) expr.evaluate(root, XPathConstants.NODE);
+      node = (Node) compile(xPathExpression).evaluate(root, XPathConstants.NODE);
     } catch (final XPathExpressionException e) {
       throw new IllegalArgumentException("Unable evaluate XPath expression '" + xPathExpression
           + "'", e);
@@ -364,12 +430,39 @@ public final class XmlUtils {
   public static DocumentBuilder getDocumentBuilder() {
     // factory.setNamespaceAware(true);
     try {
-      return FACTORY.newDocumentBuilder();
+      return DOCUMENT_BUILDER_FACTORY.get().newDocumentBuilder();
     } catch (final ParserConfigurationException e) {
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * Returns the current thread's indenting transformer, reset to its initial
+   * output properties
+   * 
+   * @return a non-<code>null</code> transformer, only to be used by the
+   *         current thread
+   */
+  private static Transformer getIndentingTransformer() {
+    final Transformer transformer = INDENTING_TRANSFORMER.get();
+    transformer.reset();
+    setIndentation(transformer);
+    return transformer;
+  }
+
+  /**
+   * Returns the current thread's document builder, reset to its initial
+   * configuration
+   * 
+   * @return a non-<code>null</code> document builder, only to be used by the
+   *         current thread
+   */
+  private static DocumentBuilder getParser() {
+    final DocumentBuilder documentBuilder = DOCUMENT_BUILDER.get();
+    documentBuilder.reset();
+    return documentBuilder;
+  }
+
   /**
    * Returns the root element of the given XML file.
    * 
@@ -407,7 +500,7 @@ public final class XmlUtils {
   public static String nodeToString(final Node node) {
     try {
       final StringWriter writer = new StringWriter();
-      createIndentingTransformer().transform(new DOMSource(node), new StreamResult(writer));
+      getIndentingTransformer().transform(new DOMSource(node), new StreamResult(writer));
       return writer.toString();
     } catch (final TransformerException e) {
       throw new IllegalStateException(e);
@@ -429,7 +522,7 @@ public final class XmlUtils {
       if (!(inputStream instanceof BufferedInputStream)) {
         inputStream = new BufferedInputStream(inputStream);
       }
-      return getDocumentBuilder().parse(inputStream);
+      return getParser().parse(inputStream);
     } catch (final Exception e) {
       throw new IllegalStateException(e);
     } finally {
@@ -448,6 +541,11 @@ public final class XmlUtils {
     DomUtils.removeTextNodes(node);
   }
 
+  private static void setIndentation(final Transformer transformer) {
+    transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+    transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+  }
+
   /**
    * Returns the given XML as the root {@link Element} of a new
    * {@link Document}
@@ -461,12 +559,9 @@ public final class XmlUtils {
       return null;
     }
     try {
-      return FACTORY.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes()))
-          .getDocumentElement();
+      return getParser().parse(new ByteArrayInputStream(xml.getBytes())).getDocumentElement();
     } catch (final IOException e) {
       throw new IllegalStateException(e);
-    } catch (final ParserConfigurationException e) {
-      throw new IllegalStateException(e);
     } catch (final SAXException e) {
       throw new IllegalStateException(e);
     }
@@ -549,7 +644,7 @@ public final class XmlUtils {
    * @param document the document to write.
    */
   public static void writeXml(final OutputStream outputStream, final Document document) {
-    writeXml(createIndentingTransformer(), outputStream, document);
+    writeXml(getIndentingTransformer(), outputStream, document);
   }
 
   /**
@@ -0,0 +1,131 @@
+package org.springframework.roo.support.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+/**
+ * Unit test of {@link XmlRoundTripUtils}
+ *
+ * @since 2.0.1
+ */
+public class XmlRoundTripUtilsTest {
+
+  private static final String POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<!-- Licensed to the project -->\n" + "<project>\n"
+      + "  <name>Petclinic</name>  <!-- keep me -->\n" + "  <properties>\n"
+      + "      <java.version>1.7</java.version>\n" + "  </properties>\n" + "  <dependencies>\n"
+      + "    <dependency><groupId>junit</groupId></dependency>\n"
+      + "    <dependency><groupId>log4j</groupId></dependency>\n" + "  </dependencies>\n"
+      + "</project>\n";
+
+  private Element find(final String xPath, final Document document) {
+    return XmlUtils.findFirstElement(xPath, document.getDocumentElement());
+  }
+
+  @Test
+  public void testUnchangedDocumentIsWrittenAsRead() {
+    // Set up
+    final Document document = XmlRoundTripUtils.readXmlPreservingFormatting(POM);
+
+    // Invoke
+    final String xml = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+
+    // Check
+    assertEquals(POM, xml);
+  }
+
+  @Test
+  public void testOnlyChangedElementsAreRewritten() {
+    // Set up
+    final Document document = XmlRoundTripUtils.readXmlPreservingFormatting(POM);
+    find("/project/properties/java.version", document).setTextContent("1.8");
+
+    // Invoke
+    final String xml = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+
+    // Check
+    assertEquals(POM.replace("1.7", "1.8"), xml);
+  }
+
+  @Test
+  public void testAddedElementIsIndentedLikeItsSiblings() {
+    // Set up
+    final Document document = XmlRoundTripUtils.readXmlPreservingFormatting(POM);
+    final Element dependency = document.createElement("dependency");
+    final Element groupId = document.createElement("groupId");
+    groupId.setTextContent("slf4j");
+    dependency.appendChild(groupId);
+    find("/project/dependencies", document).appendChild(dependency);
+
+    // Invoke
+    final String xml = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+
+    // Check
+    assertEquals(POM.replace("log4j</groupId></dependency>\n", "log4j</groupId></dependency>\n"
+        + "    <dependency>\n" + "      <groupId>slf4j</groupId>\n" + "    </dependency>\n"), xml);
+  }
+
+  @Test
+  public void testRemovedElementLeavesNoBlankLine() {
+    // Set up
+    final Document document = XmlRoundTripUtils.readXmlPreservingFormatting(POM);
+    final Element junit = find("/project/dependencies/dependency[groupId='junit']", document);
+    junit.getParentNode().removeChild(junit);
+
+    // Invoke
+    final String xml = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+
+    // Check
+    assertEquals(POM.replace("    <dependency><groupId>junit</groupId></dependency>\n", ""), xml);
+  }
+
+  @Test
+  public void testRemovedDependencyKeepsFormattingWithoutTextNodes() {
+    // Set up
+    final Document document = XmlRoundTripUtils.readXmlPreservingFormatting(POM);
+    final Element dependencies = find("/project/dependencies", document);
+    dependencies.removeChild(find("/project/dependencies/dependency[groupId='junit']", document));
+    DomUtils.removeTextNodes(dependencies);
+
+    // Invoke
+    final String xml = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+
+    // Check
+    assertEquals(POM.replace("    <dependency><groupId>junit</groupId></dependency>\n", ""), xml);
+  }
+
+  @Test
+  public void testRemovedFilterKeepsFormattingWithoutTextNodes() {
+    // Set up
+    final String pom =
+        POM.replace("</project>", "  <build>\n" + "    <filters>\n"
+            + "      <filter>a.properties</filter>\n" + "      <filter>b.properties</filter>\n"
+            + "    </filters>\n" + "  </build>\n" + "</project>");
+    final Document document = XmlRoundTripUtils.readXmlPreservingFormatting(pom);
+    final Element filters = find("/project/build/filters", document);
+    filters.removeChild(find("/project/build/filters/filter[text()='a.properties']", document));
+    DomUtils.removeTextNodes(document.getDocumentElement());
+
+    // Invoke
+    final String xml = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+
+    // Check
+    assertEquals(pom.replace("      <filter>a.properties</filter>\n", ""), xml);
+  }
+
+  @Test
+  public void testDocumentNotReadForRoundTripIsWrittenInFull() {
+    // Set up
+    final Document document = XmlUtils.getDocumentBuilder().newDocument();
+    document.appendChild(document.createElement("project"));
+
+    // Invoke
+    final String xml = XmlRoundTripUtils.writeXmlPreservingFormatting(document);
+
+    // Check
+    assertEquals(XmlUtils.nodeToString(document), xml);
+  }
+}
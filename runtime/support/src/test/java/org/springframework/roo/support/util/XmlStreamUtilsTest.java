@@ -0,0 +1,86 @@
+package org.springframework.roo.support.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Unit test of {@link XmlStreamUtils}
+ *
+ * @since 2.0.1
+ */
+public class XmlStreamUtilsTest {
+
+  private static final String WSDL =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+          + "<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\""
+          + " xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\" targetNamespace=\"urn:test\">"
+          + "<wsdl:types><schema><element name=\"service\"/></schema></wsdl:types>"
+          + "<wsdl:service name=\"Clinic\">"
+          + "<wsdl:port name=\"OwnerPort\"><soap:address location=\"http://owners\"/></wsdl:port>"
+          + "<wsdl:port name=\"PetPort\"><soap:address location=\"http://pets\"/></wsdl:port>"
+          + "</wsdl:service></wsdl:definitions>";
+
+  private InputStream getWsdl() {
+    return new ByteArrayInputStream(WSDL.getBytes());
+  }
+
+  @Test
+  public void testFindAllAttributesAtRelativePath() {
+    // Invoke
+    final List<Map<String, String>> ports =
+        XmlStreamUtils.findAllAttributes(getWsdl(), "service/*");
+
+    // Check
+    assertEquals(2, ports.size());
+    assertEquals("OwnerPort", ports.get(0).get("name"));
+    assertEquals("PetPort", ports.get(1).get("name"));
+  }
+
+  @Test
+  public void testFindAllAttributesOfDescendants() {
+    // Invoke
+    final List<Map<String, String>> addresses =
+        XmlStreamUtils.findAllAttributes(getWsdl(), "/definitions//address");
+
+    // Check
+    assertEquals(2, addresses.size());
+    assertEquals("http://pets", addresses.get(1).get("location"));
+  }
+
+  @Test
+  public void testFindFirstAttributesOfRootElement() {
+    // Invoke
+    final Map<String, String> attributes = XmlStreamUtils.findFirstAttributes(getWsdl(), "/*");
+
+    // Check
+    assertEquals("urn:test", attributes.get("targetNamespace"));
+    assertEquals("http://schemas.xmlsoap.org/wsdl/soap/", attributes.get("xmlns:soap"));
+  }
+
+  @Test
+  public void testFindFirstAttributesWithAttributePredicate() {
+    // Invoke
+    final Map<String, String> address =
+        XmlStreamUtils.findFirstAttributes(getWsdl(), "service/*[@name='PetPort']/*");
+
+    // Check
+    assertEquals("http://pets", address.get("location"));
+  }
+
+  @Test
+  public void testFindFirstAttributesWhenNothingMatches() {
+    assertNull(XmlStreamUtils.findFirstAttributes(getWsdl(), "/definitions/binding"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnsupportedPathIsRejected() {
+    XmlStreamUtils.findAllAttributes(getWsdl(), "/definitions/service[1]");
+  }
+}
@@ -0,0 +1,72 @@
+package org.springframework.roo.support.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+/**
+ * Unit test of {@link XmlUtils}
+ *
+ * @since 2.0.1
+ */
+public class XmlUtilsTest {
+
+  private static final String XML =
+      "<project><dependencies><dependency><artifactId>a</artifactId></dependency>"
+          + "<dependency><artifactId>b</artifactId></dependency></dependencies></project>";
+
+  @Test
+  public void testFindElementsFromConcurrentThreads() throws Exception {
+    // Set up
+    final int threads = 8;
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+    // Invoke
+    try {
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(new Callable<Integer>() {
+          public Integer call() {
+            int found = 0;
+            for (int j = 0; j < 500; j++) {
+              final Element root = XmlUtils.stringToElement(XML);
+              found += XmlUtils.findElements("/project/dependencies/dependency", root).size();
+              found +=
+                  XmlUtils.findElements("/project/dependencies/dependency[artifactId='b']", root)
+                      .size();
+              XmlUtils.nodeToString(root);
+            }
+            return found;
+          }
+        }));
+      }
+
+      // Check
+      for (final Future<Integer> result : results) {
+        assertEquals(Integer.valueOf(1500), result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testFindElementsWithMoreExpressionsThanAreCached() {
+    // Set up
+    final Element root = XmlUtils.stringToElement(XML);
+
+    // Invoke and check
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(1, XmlUtils.findElements("/project/dependencies/dependency[" + (i % 2 + 1)
+          + "][" + i + " >= 0]", root).size());
+    }
+  }
+}